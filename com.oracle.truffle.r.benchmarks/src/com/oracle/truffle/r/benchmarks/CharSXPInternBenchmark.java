@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2022, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.oracle.truffle.r.runtime.SuppressFBWarnings;
+import com.oracle.truffle.r.runtime.data.CharSXPWrapper;
+
+/**
+ * Measures the contention on the global {@code CHARSXP} intern table: every thread creates
+ * {@link CharSXPWrapper}s for strings from a shared pool, like contexts converting strings for
+ * native code do. The table does not need an R context, so this benchmark does not create one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CharSXPInternBenchmark {
+
+    /**
+     * Number of distinct strings, small pools measure lookups of live wrappers, large pools also
+     * measure insertions of new ones.
+     */
+    @Param({"1000", "1000000"}) public int distinct;
+
+    private String[] strings;
+    @SuppressFBWarnings(value = "URF_UNREAD_FIELD", justification = "keeps the interned wrappers alive") private CharSXPWrapper[] live;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int index;
+
+        @Setup
+        public void start() {
+            index = (int) (Thread.currentThread().getId() % 1000) * 7919;
+        }
+
+        int next(int length) {
+            index = (index + 1) % length;
+            return index;
+        }
+    }
+
+    @Setup
+    public void prepare() {
+        strings = new String[distinct];
+        for (int i = 0; i < distinct; i++) {
+            strings[i] = "charsxp" + i;
+        }
+        // keep the small pool alive, so that its wrappers are looked up rather than re-created
+        if (distinct <= 1000) {
+            live = new CharSXPWrapper[distinct];
+            for (int i = 0; i < distinct; i++) {
+                live[i] = CharSXPWrapper.create(strings[i]);
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public CharSXPWrapper create1Thread(Cursor cursor) {
+        return CharSXPWrapper.create(strings[cursor.next(distinct)]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public CharSXPWrapper create4Threads(Cursor cursor) {
+        return CharSXPWrapper.create(strings[cursor.next(distinct)]);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public CharSXPWrapper createMaxThreads(Cursor cursor) {
+        return CharSXPWrapper.create(strings[cursor.next(distinct)]);
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2022, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.benchmarks;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Measures filling a new environment with {@code size} distinct keys and reading them back, with
+ * and without a size hint. The time per key should not grow with the size of the environment.
+ */
+public class EnvironmentBenchmark extends RBenchmarkBase {
+
+    @Param({"1000", "100000", "1000000"}) public int size;
+
+    @Param({"true", "false"}) public boolean sizeHint;
+
+    private Value fill;
+
+    @Setup
+    public void prepare() {
+        eval("keys <- paste0('k', seq_len(" + size + "L))");
+        String newEnv = sizeHint ? "new.env(hash = TRUE, size = length(keys))" : "new.env(hash = TRUE)";
+        fill = eval("function() { e <- " + newEnv + "; for (k in keys) assign(k, 1L, envir = e); s <- 0L; for (k in keys) s <- s + get(k, envir = e); s }");
+    }
+
+    @Benchmark
+    public Object fill() {
+        return fill.execute();
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2022, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.benchmarks;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Measures the reductions of complete vectors, with the array kernels ({@code kernels=true}) and
+ * with the generic loops. The double {@code sum} has no kernel and serves as a baseline.
+ */
+public class ReductionBenchmark extends RBenchmarkBase {
+
+    @Param({"sum", "min", "max", "range"}) public String fun;
+
+    @Param({"double", "integer"}) public String type;
+
+    @Param({"1000", "100000", "10000000", "100000000"}) public int size;
+
+    @Param({"true", "false"}) public boolean kernels;
+
+    private Value reduce;
+
+    @Override
+    protected void configure(Context.Builder builder) {
+        builder.option("R.UseArrayKernels", Boolean.toString(kernels));
+    }
+
+    @Setup
+    public void prepare() {
+        eval("n <- " + size + "L");
+        eval(type.equals("double") ? "x <- runif(n)" : "x <- sample.int(1000L, n, TRUE)");
+        reduce = eval("function() " + fun + "(x)");
+    }
+
+    @Benchmark
+    public Object reduce() {
+        return reduce.execute();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2022, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures reading a comma separated file with an integer, a double and a character column by
+ * {@code scan} and by {@code read.table}. Without {@code colClasses}, {@code read.table} scans all
+ * columns as strings and converts them by {@code type.convert}.
+ */
+public class ScanBenchmark extends RBenchmarkBase {
+
+    @Param({"10000", "1000000"}) public int rows;
+
+    private Path file;
+    private Value scan;
+    private Value readTable;
+    private Value readTableColClasses;
+
+    @Setup
+    public void prepare() throws IOException {
+        file = Files.createTempFile("fastr-scan-benchmark", ".csv");
+        eval("f <- '" + file.toString().replace('\\', '/') + "'");
+        eval("n <- " + rows + "L");
+        eval("write.table(data.frame(a = sample.int(1000L, n, TRUE), b = runif(n), c = sample(c(letters, NA), n, TRUE)), f, " +
+                        "sep = ',', row.names = FALSE, quote = FALSE)");
+        scan = eval("function() scan(f, what = list(0L, 0, ''), sep = ',', skip = 1L, quiet = TRUE)");
+        readTable = eval("function() read.table(f, header = TRUE, sep = ',')");
+        readTableColClasses = eval("function() read.table(f, header = TRUE, sep = ',', colClasses = c('integer', 'numeric', 'character'))");
+    }
+
+    @TearDown
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Object scan() {
+        return scan.execute();
+    }
+
+    @Benchmark
+    public Object readTable() {
+        return readTable.execute();
+    }
+
+    @Benchmark
+    public Object readTableColClasses() {
+        return readTableColClasses.execute();
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2022, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.benchmarks;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Measures {@code serialize}/{@code unserialize} of attribute-free atomic vectors in the XDR
+ * format, which is dominated by the conversion of the vector payload.
+ */
+public class SerializeBenchmark extends RBenchmarkBase {
+
+    @Param({"double", "integer", "logical", "raw"}) public String type;
+
+    @Param({"1000", "100000", "10000000"}) public int size;
+
+    private Value serialize;
+    private Value unserialize;
+
+    @Setup
+    public void prepare() {
+        eval("n <- " + size + "L");
+        eval("x <- switch('" + type + "', double = runif(n), integer = sample.int(1000L, n, TRUE), " +
+                        "logical = runif(n) > 0.5, raw = as.raw(sample.int(255L, n, TRUE)))");
+        eval("x[seq.int(1L, n, by = 97L)] <- if (is.raw(x)) as.raw(0L) else NA");
+        eval("s <- serialize(x, NULL)");
+        serialize = eval("function() serialize(x, NULL)");
+        unserialize = eval("function() unserialize(s)");
+    }
+
+    @Benchmark
+    public Object serialize() {
+        return serialize.execute();
+    }
+
+    @Benchmark
+    public Object unserialize() {
+        return unserialize.execute();
+    }
+}
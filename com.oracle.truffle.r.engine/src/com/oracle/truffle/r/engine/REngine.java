@@ -52,7 +52,6 @@ import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.profiles.ValueProfile;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.api.source.SourceSection;
-import com.oracle.truffle.r.launcher.StartupTiming;
 import com.oracle.truffle.r.library.graphics.RGraphics;
 import com.oracle.truffle.r.nodes.RASTBuilder;
 import com.oracle.truffle.r.nodes.RASTUtils;
@@ -182,10 +181,12 @@ final class REngine implements Engine, Engine.Timings {
         MaterializedFrame baseFrame = RRuntime.createNonFunctionFrame("base");
         REnvironment.baseInitialize(baseFrame, globalFrame);
         context.getStateRFFI().initializeVariables(context);
+        context.startupTimestamp("Base environment initialized");
         RBuiltinPackages.loadBase(context, baseFrame);
+        context.startupTimestamp("Base package loaded");
         RGraphics.initialize(context);
         if (context.getOption(LoadProfiles)) {
-            StartupTiming.timestamp("Before Profiles Loaded");
+            context.startupTimestamp("Before Profiles Loaded");
             /*
              * eval the system/site/user profiles. Experimentally GnuR does not report warnings
              * during system profile evaluation, but does for the site/user profiles.
@@ -197,6 +198,7 @@ final class REngine implements Engine, Engine.Timings {
                 throw new RInternalError(e, "error while parsing system profile from %s", systemProfile.getName());
             }
             checkAndRunStartupShutdownFunction(".OptRequireMethods", ".OptRequireMethods()");
+            context.startupTimestamp("System Profile Loaded");
 
             suppressWarnings = false;
             Source siteProfile = context.stateRProfile.siteProfile();
@@ -222,7 +224,7 @@ final class REngine implements Engine, Engine.Timings {
             checkAndRunStartupShutdownFunction(".First", ".First()");
             checkAndRunStartupShutdownFunction(".First.sys", ".First.sys()");
 
-            StartupTiming.timestamp("After Profiles Loaded");
+            context.startupTimestamp("After Profiles Loaded");
         }
     }
 
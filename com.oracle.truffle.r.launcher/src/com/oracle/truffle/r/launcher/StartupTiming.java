@@ -25,9 +25,16 @@ package com.oracle.truffle.r.launcher;
 import java.io.PrintStream;
 import java.lang.management.ManagementFactory;
 import java.lang.management.RuntimeMXBean;
-import java.util.TreeSet;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentLinkedDeque;
 
+/**
+ * Collects timestamps of the startup phases of the launcher and of every context (see
+ * {@code RContext.startupTimestamp}) and prints them with {@link #printSummary()} if FastR runs with
+ * {@code -DStartupTiming=true}. It only measures where the time of starting and spawning contexts
+ * goes, it does not change what the initialization does.
+ */
 public final class StartupTiming {
     public static final boolean ENABLED = "true".equals(System.getProperty("StartupTiming"));
 
@@ -59,9 +66,19 @@ public final class StartupTiming {
     }
 
     public static void timestamp(String name) {
+        timestamp(null, name);
+    }
+
+    /**
+     * Records a timestamp of the given context, e.g. a child context. The time from the previous
+     * timestamp and the time elapsed in the context are computed from the timestamps of the same
+     * context only, so that the phases of contexts initialized in parallel are not interleaved.
+     * The timestamps of the launcher and the initial context use {@code null}.
+     */
+    public static void timestamp(String context, String name) {
         if (ENABLED) {
             init();
-            INSTANCE.putTimestamp(name);
+            INSTANCE.putTimestamp(context, name);
         }
     }
 
@@ -72,41 +89,52 @@ public final class StartupTiming {
         }
     }
 
-    private void putTimestamp(String tsName) {
-        timestamps.add(new Timestamp(System.currentTimeMillis(), Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory(), tsName));
+    private void putTimestamp(String context, String tsName) {
+        timestamps.add(new Timestamp(System.currentTimeMillis(), System.nanoTime(), Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory(), context, tsName));
     }
 
     private void summary(PrintStream out) {
         out.println("Startup performance table:");
-        out.printf("%1$-50s %2$20s %3$20s %4$20s\n", "<Timestamp>", "<FromStart>", "<FromPrev>", "<UsedMem>");
+        out.printf("%1$-50s %2$20s %3$20s %4$20s %5$20s\n", "<Timestamp>", "<FromStart>", "<FromPrev>", "<InContext>", "<UsedMem>");
 
-        TreeSet<Timestamp> sorted = new TreeSet<>(timestamps);
-        long prevTs = startTime;
-        for (Timestamp ts : sorted) {
+        // the deque keeps the insertion order, also of timestamps taken in the same millisecond
+        Map<String, Timestamp> first = new HashMap<>();
+        Map<String, Timestamp> prev = new HashMap<>();
+        for (Timestamp ts : timestamps) {
             long relTs = ts.timestamp - startTime;
-            long delta = ts.timestamp - prevTs;
-            String msg = ts.name;
-
-            out.printf("%1$-50s %2$18dms %3$18dms %4$17dKiB\n", msg, relTs, delta, ts.usedMem / 1024);
+            double delta;
+            double inContext;
+            Timestamp contextFirst = first.putIfAbsent(ts.context, ts);
+            Timestamp contextPrev = prev.put(ts.context, ts);
+            if (contextFirst == null && ts.context == null) {
+                delta = relTs;
+                inContext = relTs;
+            } else if (contextFirst == null) {
+                delta = 0;
+                inContext = 0;
+            } else {
+                delta = (ts.nanos - contextPrev.nanos) / 1e6;
+                inContext = ts.context == null ? relTs : (ts.nanos - contextFirst.nanos) / 1e6;
+            }
+            String msg = ts.context == null ? ts.name : ts.context + ": " + ts.name;
 
-            prevTs = ts.timestamp;
+            out.printf("%1$-50s %2$18dms %3$18.1fms %4$18.1fms %5$17dKiB\n", msg, relTs, delta, inContext, ts.usedMem / 1024);
         }
     }
 
-    private static final class Timestamp implements Comparable<Timestamp> {
+    private static final class Timestamp {
         private final long timestamp;
+        private final long nanos;
         private final long usedMem;
+        private final String context;
         private final String name;
 
-        Timestamp(long ts, long usedMem, String name) {
+        Timestamp(long ts, long nanos, long usedMem, String context, String name) {
             this.timestamp = ts;
+            this.nanos = nanos;
             this.name = name;
+            this.context = context;
             this.usedMem = usedMem;
         }
-
-        @Override
-        public int compareTo(Timestamp other) {
-            return Long.compare(this.timestamp, other.timestamp);
-        }
     }
 }
@@ -22,9 +22,16 @@
  */
 package com.oracle.truffle.r.library.parallel;
 
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.integerValue;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.size;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
 import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RIntVector;
+import com.oracle.truffle.r.runtime.rng.lecuyer.LecuyerCMRG;
 
 /**
  * The .Call support for the parallel package.
@@ -36,4 +43,36 @@ public class ParallelFunctions {
             return RRuntime.asLogical(getRContext().getParent() != null);
         }
     }
+
+    /**
+     * {@code nextRNGStream}: the seeds of the next L'Ecuyer-CMRG stream.
+     */
+    public abstract static class NextStream extends RExternalBuiltinNode.Arg1 {
+        static {
+            Casts casts = new Casts(NextStream.class);
+            casts.arg(0).mustBe(integerValue()).asIntegerVector().mustBe(size(7));
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected RIntVector nextStream(RIntVector seed) {
+            return RDataFactory.createIntVector(LecuyerCMRG.nextStream(seed.getReadonlyData()), RDataFactory.COMPLETE_VECTOR);
+        }
+    }
+
+    /**
+     * {@code nextRNGSubStream}: the seeds of the next L'Ecuyer-CMRG sub-stream.
+     */
+    public abstract static class NextSubStream extends RExternalBuiltinNode.Arg1 {
+        static {
+            Casts casts = new Casts(NextSubStream.class);
+            casts.arg(0).mustBe(integerValue()).asIntegerVector().mustBe(size(7));
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected RIntVector nextSubStream(RIntVector seed) {
+            return RDataFactory.createIntVector(LecuyerCMRG.nextSubStream(seed.getReadonlyData()), RDataFactory.COMPLETE_VECTOR);
+        }
+    }
 }
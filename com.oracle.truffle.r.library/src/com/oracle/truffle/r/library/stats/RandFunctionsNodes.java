@@ -37,6 +37,7 @@ import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.library.CachedLibrary;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.profiles.BranchProfile;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.api.profiles.LoopConditionProfile;
 import com.oracle.truffle.r.library.stats.RandFunctionsNodesFactory.ConvertToLengthNodeGen;
 import com.oracle.truffle.r.library.stats.RandFunctionsNodesFactory.RandFunction1NodeGen;
@@ -247,6 +248,8 @@ public final class RandFunctionsNodes {
 
     protected abstract static class RandFunctionDoubleExecutorNode extends RandFunctionIterator {
 
+        private final ConditionProfile scalarParametersProfile = ConditionProfile.createBinaryProfile();
+
         protected RandFunctionDoubleExecutorNode(Supplier<? extends RandFunction3_DoubleBase> functionFactory) {
             super(functionFactory);
         }
@@ -268,8 +271,19 @@ public final class RandFunctionsNodes {
                 return RDataFactory.createDoubleVector(nansResult, false);
             }
 
-            boolean nans = false;
             double[] result = new double[length];
+            if (scalarParametersProfile.profile(length > 1 && aAccess.getLength(aIter) == 1 && bAccess.getLength(bIter) == 1 && cAccess.getLength(cIter) == 1)) {
+                // same parameters for all the values: let the function generate them at once
+                aAccess.nextWithWrap(aIter);
+                bAccess.nextWithWrap(bIter);
+                cAccess.nextWithWrap(cIter);
+                if (function.executeBulk(aAccess.getDouble(aIter), bAccess.getDouble(bIter), cAccess.getDouble(cIter), randProvider, result)) {
+                    putRNGState();
+                    return RDataFactory.createDoubleVector(result, RDataFactory.COMPLETE_VECTOR);
+                }
+            }
+
+            boolean nans = false;
             loopConditionProfile.profileCounted(length);
             for (int i = 0; loopConditionProfile.inject(i < length); i++) {
                 aAccess.nextWithWrap(aIter);
@@ -32,29 +32,25 @@ import java.io.PrintStream;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.function.Function;
+import java.util.concurrent.Future;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.ThreadLocalAction;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.TruffleLanguage.Env;
 import com.oracle.truffle.api.dsl.Specialization;
-import com.oracle.truffle.api.frame.Frame;
-import com.oracle.truffle.api.frame.FrameInstance.FrameAccess;
-import com.oracle.truffle.api.frame.VirtualFrame;
-import com.oracle.truffle.api.instrumentation.EventContext;
-import com.oracle.truffle.api.instrumentation.ExecutionEventListener;
-import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
-import com.oracle.truffle.api.instrumentation.StandardTags;
+import com.oracle.truffle.api.frame.FrameInstance;
+import com.oracle.truffle.api.frame.FrameInstanceVisitor;
+import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.RootNode;
-import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
 import com.oracle.truffle.r.nodes.function.FunctionDefinitionNode;
-import com.oracle.truffle.r.nodes.instrumentation.RInstrumentation;
-import com.oracle.truffle.r.runtime.RArguments;
-import com.oracle.truffle.r.runtime.RCaller;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RSource;
 import com.oracle.truffle.r.runtime.SuppressFBWarnings;
-import com.oracle.truffle.r.runtime.Utils;
 import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.MemoryCopyTracer;
 import com.oracle.truffle.r.runtime.data.RBaseObject;
@@ -63,8 +59,6 @@ import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RObjectSize;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.instrument.InstrumentationState;
-import com.oracle.truffle.r.runtime.nodes.RSyntaxElement;
-import com.oracle.truffle.r.runtime.nodes.RSyntaxNode;
 
 /**
  * Implements the {@code Rprof} external.
@@ -81,9 +75,28 @@ import com.oracle.truffle.r.runtime.nodes.RSyntaxNode;
  * and then the {@code N} is used in line number references of the form {@code N#L},which precede
  * the function name.
  *
+ * The stacks are sampled by a {@link ThreadLocalAction} that a profiling thread submits to the
+ * profiled thread every interval, so the profiled code is not instrumented and stays compiled.
+ * Identical stacks are shared in a {@link StackTrie}, which the profiling thread periodically (or
+ * when the trie grows too big) writes to the output file and replaces with an empty one. The stacks
+ * are written once per sample and in the order they were sampled, so the file has the same shape
+ * as the one written by GNU R and is readable by {@code summaryRprof}.
  */
 public abstract class Rprof extends RExternalBuiltinNode.Arg9 implements MemoryCopyTracer.Listener {
 
+    /**
+     * How often the aggregated samples are written to the output file.
+     */
+    private static final long FLUSH_INTERVAL_MILLIS = 5000;
+
+    /**
+     * Number of trie nodes and samples after which the samples are written out before the flush
+     * interval elapses.
+     */
+    private static final int MAX_TRIE_NODES = 1 << 14;
+
+    private static final RprofState.MemoryQuad EMPTY_QUAD = new RprofState.MemoryQuad();
+
     static {
         Casts casts = new Casts(Rprof.class);
         casts.arg(0, "filename").mustBe(stringValue()).asStringVector().mustBe(singleElement()).findFirst();
@@ -126,11 +139,18 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg9 implements MemoryC
                     MemoryCopyTracer.setTracingState(true);
                 }
                 // interval is in seconds, we convert to millis
-                long intervalInMillis = (long) (1E3 * intervalD);
-                StatementListener statementListener = new StatementListener();
-                ProfileThread profileThread = new ProfileThread(intervalInMillis, statementListener);
+                long intervalInMillis = Math.max(1, (long) (1E3 * intervalD));
+                if (memProfiling) {
+                    out.print("memory profiling: ");
+                }
+                if (lineProfiling) {
+                    out.print("line profiling: ");
+                }
+                out.printf("sample.interval=%d\n", intervalInMillis * 1000);
+                StackTrie trie = new StackTrie();
+                ProfileThread profileThread = new ProfileThread(getRContext().getEnv(), Thread.currentThread(), intervalInMillis, out, trie, lineProfiling, memProfiling);
                 profileThread.setDaemon(true);
-                profState.initialize(out, profileThread, statementListener, intervalInMillis, lineProfiling, memProfiling);
+                profState.initialize(out, profileThread, memProfiling);
                 profileThread.start();
             } catch (IOException ex) {
                 throw error(RError.Message.GENERIC, String.format("Rprof: cannot open profile file '%s'", filename));
@@ -174,97 +194,250 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg9 implements MemoryC
         }
     }
 
-    private static String getPath(RSyntaxElement node) {
-        Source source = node.getSourceSection().getSource();
-        return RSource.getPath(source);
-    }
-
+    /**
+     * Submits a {@link SampleAction} to the profiled thread every interval and writes out the
+     * collected samples every {@link #FLUSH_INTERVAL_MILLIS}. At most one sample action is pending
+     * at a time, so no actions pile up while the profiled thread does not reach a safepoint.
+     */
     private static final class ProfileThread extends Thread {
+        private final Env env;
+        private final Thread profiledThread;
         private final long interval;
-        private final StatementListener statementListener;
+        private final PrintStream out;
+        private final StackTrie trie;
+        private final boolean lineProfiling;
+        private final boolean memoryProfiling;
+        private final HashMap<String, Integer> fileMap = new HashMap<>();
         private volatile boolean running = true;
+        private Future<Void> pendingSample;
 
-        private ProfileThread(long interval, StatementListener statementListener) {
+        private ProfileThread(Env env, Thread profiledThread, long interval, PrintStream out, StackTrie trie, boolean lineProfiling, boolean memoryProfiling) {
+            super("FastR Rprof");
+            this.env = env;
+            this.profiledThread = profiledThread;
             this.interval = interval;
-            this.statementListener = statementListener;
+            this.out = out;
+            this.trie = trie;
+            this.lineProfiling = lineProfiling;
+            this.memoryProfiling = memoryProfiling;
         }
 
         @Override
         public void run() {
+            long lastFlush = System.currentTimeMillis();
             while (running) {
                 try {
                     Thread.sleep(interval);
-                    statementListener.intervalElapsed();
                 } catch (InterruptedException ex) {
+                    continue;
+                }
+                if (!running) {
+                    break;
+                }
+                if (pendingSample == null || pendingSample.isDone()) {
+                    try {
+                        pendingSample = env.submitThreadLocal(new Thread[]{profiledThread}, new SampleAction(this));
+                    } catch (IllegalStateException ex) {
+                        // the context is being closed, the remaining samples are written by cleanup
+                        break;
+                    }
+                }
+                long now = System.currentTimeMillis();
+                if (now - lastFlush >= FLUSH_INTERVAL_MILLIS || trie.isFull()) {
+                    flush();
+                    lastFlush = now;
+                }
+            }
+        }
 
+        private void shutdown() {
+            running = false;
+            interrupt();
+            try {
+                join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            if (pendingSample != null) {
+                pendingSample.cancel(false);
+            }
+        }
+
+        /**
+         * Writes the samples collected so far. Called either by the profiling thread itself or,
+         * once it has finished, by the thread ending the profiling.
+         */
+        private void flush() {
+            StackTrie.Samples samples = trie.takeSamples();
+            for (int i = 0; i < samples.leaves.size(); i++) {
+                // formatting may first print the "#File" line of a newly seen source file
+                String stack = formatStack(samples.leaves.get(i));
+                if (memoryProfiling) {
+                    RprofState.MemoryQuad mq = samples.memory.get(i);
+                    out.printf(":%d:%d:%d:%d:", mq.largeV, mq.smallV, mq.nodes, mq.copied);
+                }
+                out.println(stack);
+            }
+            out.flush();
+        }
+
+        private String formatStack(StackTrie.Entry leaf) {
+            if (leaf.formatted == null) {
+                // the output starts with the innermost frame, which is the sampled leaf
+                StringBuilder sb = new StringBuilder();
+                for (StackTrie.Entry entry = leaf; entry.parent != null; entry = entry.parent) {
+                    sb.append(formatEntry(entry));
                 }
+                leaf.formatted = sb.toString();
             }
+            return leaf.formatted;
+        }
+
+        private String formatEntry(StackTrie.Entry node) {
+            if (lineProfiling && node.path != null) {
+                Integer fileIndex = fileMap.get(node.path);
+                if (fileIndex == null) {
+                    fileIndex = fileMap.size() + 1;
+                    fileMap.put(node.path, fileIndex);
+                    out.printf("#File %d: %s\n", fileIndex, node.path);
+                }
+                return String.format("%d#%d \"%s\" ", fileIndex, node.line, node.name);
+            }
+            return String.format("\"%s\" ", node.name);
         }
     }
 
     /**
-     * Emulates a sampling timer by checking when the sample interval rolls over and at that point
-     * collects the stack of functions.
+     * Collects the stack of R functions of the thread it is performed on.
      */
-    private final class StatementListener implements ExecutionEventListener {
-        private final ArrayList<ArrayList<RSyntaxElement>> intervalStacks = new ArrayList<>();
-        private final ArrayList<RprofState.MemoryQuad> intervalMemory = new ArrayList<>();
-        private volatile boolean newInterval;
-
-        private StatementListener() {
-            SourceSectionFilter.Builder builder = SourceSectionFilter.newBuilder();
-            builder.tagIs(StandardTags.StatementTag.class);
-            SourceSectionFilter filter = builder.build();
-            RInstrumentation.getInstrumenter().attachExecutionEventListener(filter, this);
-        }
+    private static final class SampleAction extends ThreadLocalAction {
+        private final ProfileThread profileThread;
 
-        private void intervalElapsed() {
-            newInterval = true;
+        private SampleAction(ProfileThread profileThread) {
+            super(false, false);
+            this.profileThread = profileThread;
         }
 
         @Override
-        public void onEnter(EventContext context, VirtualFrame frame) {
-            if (newInterval) {
-                onEnter(context);
-                newInterval = false;
-            }
-        }
-
-        @TruffleBoundary
-        private void onEnter(EventContext context) {
-            /* context tells here we are now, frame provides callers. */
-            ArrayList<RSyntaxElement> stack = new ArrayList<>();
-            stack.add((RSyntaxElement) context.getInstrumentedNode());
-            collectStack(stack);
-            intervalStacks.add(stack);
-            RprofState profState = RprofState.get();
-            if (profState.memoryProfiling) {
-                intervalMemory.add(profState.memoryQuad.copyAndClear());
+        protected void perform(Access access) {
+            if (profileThread.running) {
+                sample(access.getLocation());
             }
         }
 
         @TruffleBoundary
-        private void collectStack(final ArrayList<RSyntaxElement> stack) {
-            Utils.iterateRFrames(FrameAccess.READ_ONLY, new Function<Frame, Object>() {
+        private void sample(Node location) {
+            ArrayList<StackTrie.Entry> stack = new ArrayList<>();
+            Truffle.getRuntime().iterateFrames(new FrameInstanceVisitor<Object>() {
+                private boolean first = true;
 
                 @Override
-                public Object apply(Frame fIn) {
-                    Frame f = RArguments.unwrap(fIn);
-                    RCaller call = RCaller.unwrapPromiseCaller(RArguments.getCall(f));
-                    if (RCaller.isValidCaller(call)) {
-                        stack.add(call.getSyntaxNode());
+                public Object visitFrame(FrameInstance frameInstance) {
+                    // the call node of the topmost frame is not known, the safepoint location is
+                    Node currentLocation = first ? location : frameInstance.getCallNode();
+                    first = false;
+                    RootNode rootNode = ((RootCallTarget) frameInstance.getCallTarget()).getRootNode();
+                    if (rootNode instanceof FunctionDefinitionNode) {
+                        SourceSection section = currentLocation == null ? null : currentLocation.getEncapsulatingSourceSection();
+                        String path = null;
+                        int line = 0;
+                        if (profileThread.lineProfiling && section != null && section.isAvailable()) {
+                            path = RSource.getPath(section.getSource());
+                            line = section.getStartLine();
+                        }
+                        stack.add(new StackTrie.Entry(rootNode.getName(), path, line));
                     }
                     return null;
                 }
             });
+            RprofState.MemoryQuad memory = EMPTY_QUAD;
+            if (profileThread.memoryProfiling) {
+                memory = RprofState.get().memoryQuad.copyAndClear();
+            }
+            profileThread.trie.addSample(stack, memory);
         }
+    }
 
-        @Override
-        public void onReturnValue(EventContext context, VirtualFrame frame, Object result) {
+    /**
+     * Shares the entries of sampled stacks: every node represents a stack entry (function name and,
+     * if line profiling, source location) and the samples are recorded, in order, as the nodes they
+     * ended in. The samples are added by the profiled thread and taken by the profiling thread,
+     * hence the synchronization.
+     */
+    private static final class StackTrie {
+
+        private static final class Entry {
+            private final String name;
+            private final String path;
+            private final int line;
+            private final HashMap<Entry, Entry> children = new HashMap<>();
+            private Entry parent;
+            /**
+             * The stack ending in this entry as written to the output, computed on the first flush.
+             */
+            private String formatted;
+
+            private Entry(String name, String path, int line) {
+                this.name = name;
+                this.path = path;
+                this.line = line;
+            }
+
+            @Override
+            public int hashCode() {
+                return name.hashCode() * 31 + (path == null ? 0 : path.hashCode()) * 17 + line;
+            }
+
+            @Override
+            public boolean equals(Object obj) {
+                if (!(obj instanceof Entry)) {
+                    return false;
+                }
+                Entry other = (Entry) obj;
+                return name.equals(other.name) && (path == null ? other.path == null : path.equals(other.path)) && line == other.line;
+            }
         }
 
-        @Override
-        public void onReturnExceptional(EventContext context, VirtualFrame frame, Throwable exception) {
+        /**
+         * The samples collected since the last flush.
+         */
+        private static final class Samples {
+            private final Entry root = new Entry("", null, 0);
+            private final ArrayList<Entry> leaves = new ArrayList<>();
+            private final ArrayList<RprofState.MemoryQuad> memory = new ArrayList<>();
+            private int nodes;
+        }
+
+        private Samples samples = new Samples();
+
+        /**
+         * @param stack fresh entries of the sampled stack, the innermost first
+         */
+        private synchronized void addSample(ArrayList<Entry> stack, RprofState.MemoryQuad memory) {
+            Entry current = samples.root;
+            for (int i = stack.size() - 1; i >= 0; i--) {
+                Entry entry = stack.get(i);
+                Entry child = current.children.get(entry);
+                if (child == null) {
+                    entry.parent = current;
+                    current.children.put(entry, entry);
+                    child = entry;
+                    samples.nodes++;
+                }
+                current = child;
+            }
+            samples.leaves.add(current);
+            samples.memory.add(memory);
+        }
+
+        private synchronized boolean isFull() {
+            return samples.nodes + samples.leaves.size() >= MAX_TRIE_NODES;
+        }
+
+        private synchronized Samples takeSamples() {
+            Samples result = samples;
+            samples = new Samples();
+            return result;
         }
     }
 
@@ -274,9 +447,6 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg9 implements MemoryC
      */
     private static final class RprofState extends InstrumentationState.RprofState {
         private ProfileThread profileThread;
-        private StatementListener statementListener;
-        private long intervalInMillis;
-        private boolean lineProfiling;
         private boolean memoryProfiling;
         private MemoryQuad memoryQuad;
 
@@ -298,6 +468,13 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg9 implements MemoryC
                 nodes = 0;
                 return result;
             }
+
+            public void add(MemoryQuad other) {
+                copied += other.copied;
+                largeV += other.largeV;
+                smallV += other.smallV;
+                nodes += other.nodes;
+            }
         }
 
         private static RprofState get() {
@@ -309,65 +486,19 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg9 implements MemoryC
             return state;
         }
 
-        public void initialize(PrintStream outA, ProfileThread profileThreadA, StatementListener statementListenerA, long intervalInMillisA,
-                        boolean lineProfilingA, boolean memoryProfilingA) {
+        public void initialize(PrintStream outA, ProfileThread profileThreadA, boolean memoryProfilingA) {
             setOut(outA);
             this.profileThread = profileThreadA;
-            this.statementListener = statementListenerA;
-            this.intervalInMillis = intervalInMillisA;
-            this.lineProfiling = lineProfilingA;
             this.memoryProfiling = memoryProfilingA;
             this.memoryQuad = memoryProfilingA ? new MemoryQuad() : null;
         }
 
         @Override
         public void cleanup(int status) {
-            profileThread.running = false;
-            HashMap<String, Integer> fileMap = null;
+            // the profiling thread has finished after shutdown, the remaining samples are ours
+            profileThread.shutdown();
+            profileThread.flush();
             PrintStream out = this.out();
-            if (this.memoryProfiling) {
-                out.print("memory profiling: ");
-            }
-            if (this.lineProfiling) {
-                out.print("line profiling: ");
-            }
-            out.printf("sample.interval=%d\n", this.intervalInMillis * 1000);
-            if (this.lineProfiling) {
-                // scan stacks to find files
-                fileMap = new HashMap<>();
-                int fileIndex = 0;
-                for (ArrayList<RSyntaxElement> intervalStack : statementListener.intervalStacks) {
-                    for (RSyntaxElement node : intervalStack) {
-                        String path = getPath(node);
-                        if (path != null && fileMap.get(path) == null) {
-                            fileMap.put(path, ++fileIndex);
-                            out.printf("#File %d: %s\n", fileIndex, path);
-                        }
-                    }
-                }
-            }
-            int index = 0;
-            for (ArrayList<RSyntaxElement> intervalStack : statementListener.intervalStacks) {
-                if (this.memoryProfiling) {
-                    RprofState.MemoryQuad mq = statementListener.intervalMemory.get(index);
-                    out.printf(":%d:%d:%d:%d:", mq.largeV, mq.smallV, mq.nodes, mq.copied);
-                }
-                for (RSyntaxElement node : intervalStack) {
-                    RootNode rootNode = ((RSyntaxNode) node).asRNode().getRootNode();
-                    if (rootNode instanceof FunctionDefinitionNode) {
-                        String name = rootNode.getName();
-                        if (this.lineProfiling) {
-                            Integer fileIndex = fileMap.get(getPath(node));
-                            if (fileIndex != null) {
-                                out.printf("%d#%d ", fileIndex, node.getSourceSection().getStartLine());
-                            }
-                        }
-                        out.printf("\"%s\" ", name);
-                    }
-                }
-                out.println();
-                index++;
-            }
             out.close();
             this.setOut(null);
             if (this.memoryProfiling) {
@@ -44,6 +44,7 @@ import com.oracle.truffle.r.runtime.data.nodes.attributes.SetFixedAttributeNode;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.TypeConvertRules;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RIntVector;
@@ -83,64 +84,45 @@ public abstract class TypeConvert extends RExternalBuiltinNode.Arg5 {
         return false;
     }
 
-    /*
-     * In the next three methods, firstPos is the index of the first element in the vector that is
-     * not isNA(elem, naStrings). However, there may be isNA values after that.
-     */
-
-    private static RIntVector readIntVector(RStringVector x, int firstPos, int firstVal, RStringVector naStrings) {
+    private static RIntVector readIntVector(RStringVector x, RStringVector naStrings) {
         int[] data = new int[x.getLength()];
-        Arrays.fill(data, 0, firstPos, RRuntime.INT_NA);
-        boolean complete = canBeComplete(firstPos);
-        data[firstPos] = firstVal;
-        for (int i = firstPos + 1; i < data.length; i++) {
+        boolean complete = true;
+        for (int i = 0; i < data.length; i++) {
             String s = x.getDataAt(i);
             if (isNA(s, naStrings)) {
                 data[i] = RRuntime.INT_NA;
                 complete = false;
             } else {
-                int result = RRuntime.parseInt(s);
-                if (result == RRuntime.INT_NA) {
-                    throw new NumberFormatException();
-                }
-                data[i] = result;
+                data[i] = TypeConvertRules.toInteger(s);
             }
         }
         return RDataFactory.createIntVector(data, complete);
     }
 
-    private static RDoubleVector readDoubleVector(RStringVector x, int firstPos, double firstVal, RStringVector naStrings) {
+    private static RDoubleVector readDoubleVector(RStringVector x, RStringVector naStrings) {
         double[] data = new double[x.getLength()];
-        Arrays.fill(data, 0, firstPos, RRuntime.DOUBLE_NA);
-        boolean complete = canBeComplete(firstPos);
-        data[firstPos] = firstVal;
-        for (int i = firstPos + 1; i < data.length; i++) {
+        boolean complete = true;
+        for (int i = 0; i < data.length; i++) {
             String s = x.getDataAt(i);
             boolean isNA = isNA(s, naStrings);
-            data[i] = isNA ? RRuntime.DOUBLE_NA : RRuntime.string2doubleNoCheck(s, true, true);
+            data[i] = isNA ? RRuntime.DOUBLE_NA : TypeConvertRules.toDouble(s, true);
             complete = complete && !isNA;
         }
         return RDataFactory.createDoubleVector(data, complete);
     }
 
-    private static RLogicalVector readLogicalVector(RStringVector x, int firstPos, byte firstVal, RStringVector naStrings) {
+    private static RLogicalVector readLogicalVector(RStringVector x, RStringVector naStrings) {
         byte[] data = new byte[x.getLength()];
-        Arrays.fill(data, 0, firstPos, RRuntime.LOGICAL_NA);
-        boolean complete = canBeComplete(firstPos);
-        data[firstPos] = firstVal;
-        for (int i = firstPos + 1; i < data.length; i++) {
+        boolean complete = true;
+        for (int i = 0; i < data.length; i++) {
             String s = x.getDataAt(i);
             boolean isNA = isNA(s, naStrings);
-            data[i] = isNA ? RRuntime.LOGICAL_NA : RRuntime.string2logicalNoCheck(s, true);
+            data[i] = isNA ? RRuntime.LOGICAL_NA : TypeConvertRules.toLogical(s);
             complete = complete && !isNA;
         }
         return RDataFactory.createLogicalVector(data, complete);
     }
 
-    private static boolean canBeComplete(int firstNonNAPos) {
-        return firstNonNAPos == 0 ? RDataFactory.COMPLETE_VECTOR : RDataFactory.INCOMPLETE_VECTOR;
-    }
-
     @Specialization
     @TruffleBoundary
     protected Object typeConvert(RStringVector x, RStringVector naStrings, boolean asIs, @SuppressWarnings("unused") Object dec, @SuppressWarnings("unused") Object numeral) {
@@ -148,55 +130,31 @@ public abstract class TypeConvert extends RExternalBuiltinNode.Arg5 {
             return RDataFactory.createEmptyLogicalVector();
         }
 
-        int i = 0;
-        while (i < x.getLength() && (x.getDataAt(i).isEmpty() || isNA(x.getDataAt(i), naStrings))) {
-            i++;
-        }
-
-        if (i == x.getLength()) {
-            // all NAs
-            byte[] data = new byte[i];
-            Arrays.fill(data, RRuntime.LOGICAL_NA);
-            return RDataFactory.createLogicalVector(data, RDataFactory.INCOMPLETE_VECTOR);
+        byte kind = TypeConvertRules.KIND_NA;
+        for (int i = 0; i < x.getLength() && kind != TypeConvertRules.KIND_CHARACTER; i++) {
+            String s = x.getDataAt(i);
+            if (!isNA(s, naStrings)) {
+                kind = TypeConvertRules.kindOf(s, kind, true);
+            }
         }
 
-        String s = x.getDataAt(i);
-        if (RRuntime.hasHexPrefix(s)) {
-            // this is a mess
-            // double takes precedence even if s is a hexadecimal integer
-            try {
-                double doubleVal = RRuntime.string2doubleNoCheck(s, true, true);
-                return readDoubleVector(x, i, doubleVal, naStrings);
-            } catch (NumberFormatException ix) {
-                // fall through
-            }
-        } else {
-            try {
-                int intVal = RRuntime.string2intNoCheck(s, true);
-                return readIntVector(x, i, intVal, naStrings);
-            } catch (NumberFormatException ix) {
-                try {
-                    double doubleVal = RRuntime.string2doubleNoCheck(s, true, true);
-                    try {
-                        return readDoubleVector(x, i, doubleVal, naStrings);
-                    } catch (NumberFormatException lx) {
-                        // fall through
-                    }
-                } catch (NumberFormatException dx) {
-                    try {
-                        byte logicalVal = RRuntime.string2logicalNoCheck(s, true);
-                        try {
-                            return readLogicalVector(x, i, logicalVal, naStrings);
-                        } catch (NumberFormatException lx) {
-                            // fall through
-                        }
-                    } catch (NumberFormatException lx) {
-                        // fall through
-                    }
-                }
+        switch (kind) {
+            case TypeConvertRules.KIND_NA: {
+                // all NAs
+                byte[] data = new byte[x.getLength()];
+                Arrays.fill(data, RRuntime.LOGICAL_NA);
+                return RDataFactory.createLogicalVector(data, RDataFactory.INCOMPLETE_VECTOR);
             }
+            case TypeConvertRules.KIND_LOGICAL:
+                return readLogicalVector(x, naStrings);
+            case TypeConvertRules.KIND_INTEGER:
+                return readIntVector(x, naStrings);
+            case TypeConvertRules.KIND_DOUBLE:
+                return readDoubleVector(x, naStrings);
+            default:
+                break;
         }
-        // fall through target - conversion to int, double or logical failed
+        // conversion to int, double or logical failed
 
         if (asIs) {
             return x;
@@ -204,7 +162,7 @@ public abstract class TypeConvert extends RExternalBuiltinNode.Arg5 {
             // collect levels for a factor result
             TreeMap<String, Integer> levels = new TreeMap<>();
             for (int j = 0; j < x.getLength(); j++) {
-                s = x.getDataAt(j);
+                String s = x.getDataAt(j);
                 if (!isNA(s, naStrings)) {
                     levels.put(s, 0);
                 }
@@ -218,7 +176,7 @@ public abstract class TypeConvert extends RExternalBuiltinNode.Arg5 {
             int[] data = new int[x.getLength()];
             boolean complete = true;
             for (int j = 0; j < data.length; j++) {
-                s = x.getDataAt(j);
+                String s = x.getDataAt(j);
                 if (!isNA(s, naStrings)) {
                     data[j] = levels.get(s);
                 } else {
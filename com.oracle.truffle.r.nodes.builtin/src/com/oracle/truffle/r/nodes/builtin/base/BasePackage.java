@@ -132,8 +132,12 @@ import com.oracle.truffle.r.nodes.builtin.fastr.FastRInteropFactory.FastRInterop
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRInteropFactory.FastRInteropGetExceptionNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRInteropFactory.FastRInteropTryNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRJavaGDResize;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRLazyLoadStats;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRLazyLoadStatsNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRLibPaths;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRLibPathsNodeGen;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRMatchStats;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRMatchStatsNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastROptionBuiltin;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRPatchPackage;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRPatchPackageNodeGen;
@@ -142,6 +146,8 @@ import com.oracle.truffle.r.nodes.builtin.fastr.FastRPkgSourceNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRPrintError;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRPrintErrorNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRRCallerTrace;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRReadTable;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRReadTableNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRRefCountInfo;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRRefCountInfoNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRRegisterFunctions;
@@ -490,8 +496,10 @@ public class BasePackage extends RBuiltinPackage {
         add(FastRContext.ChannelReceive.class, FastRContextFactory.ChannelReceiveNodeGen::create);
         add(FastRContext.ChannelSelect.class, FastRContextFactory.ChannelSelectNodeGen::create);
         add(FastRContext.ChannelSend.class, FastRContextFactory.ChannelSendNodeGen::create);
+        add(FastRContext.ChannelStats.class, FastRContextFactory.ChannelStatsNodeGen::create);
         add(FastRContext.Spawn.class, FastRContextFactory.SpawnNodeGen::create);
         add(FastRContext.Interrupt.class, FastRContextFactory.InterruptNodeGen::create);
+        add(FastRContext.Pooled.class, FastRContextFactory.PooledNodeGen::create);
         add(FastRContext.Join.class, FastRContextFactory.JoinNodeGen::create);
         add(FastRRegisterFunctions.class, FastRRegisterFunctionsNodeGen::create);
         add(FastrDqrls.class, FastrDqrlsNodeGen::create);
@@ -557,7 +565,10 @@ public class BasePackage extends RBuiltinPackage {
         add(FastRprofmemShow.class, FastRprofmemShowNodeGen::create);
         add(FastRprofmemSource.class, FastRprofmemSourceNodeGen::create);
         add(FastRprofmemSnapshot.class, FastRprofmemSnapshotNodeGen::create);
+        add(FastRLazyLoadStats.class, FastRLazyLoadStatsNodeGen::create);
+        add(FastRMatchStats.class, FastRMatchStatsNodeGen::create);
         add(FastRLibPaths.class, FastRLibPathsNodeGen::create);
+        add(FastRReadTable.class, FastRReadTableNodeGen::create);
         add(FileFunctions.BaseName.class, FileFunctionsFactory.BaseNameNodeGen::create);
         add(FileFunctions.DirCreate.class, FileFunctionsFactory.DirCreateNodeGen::create);
         add(FileFunctions.DirExists.class, FileFunctionsFactory.DirExistsNodeGen::create);
@@ -58,7 +58,9 @@ import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RegExp;
+import com.oracle.truffle.r.runtime.RegExpCache;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RIntVector;
@@ -230,19 +232,28 @@ public class GrepFunctions {
             return RDataFactory.createIntVector(naData, RDataFactory.INCOMPLETE_VECTOR);
         }
 
+        /**
+         * Returns the compiled PCRE2 pattern from the context's {@link RegExpCache}, compiling it
+         * if necessary. The result is owned by the cache: it must not be released and it must not
+         * be used after compiling another pattern.
+         */
         protected PCRE2RFFI.CompileResult compilePerlPattern(String pattern, boolean ignoreCase) {
             int options = ignoreCase ? PCRE2RFFI.Option.CASELESS.value : 0;
-            PCRE2RFFI.CompileResult pcre = pcre2CompileNode.execute(pattern, options);
-            if (interop.isNull(pcre.compiledPattern)) {
-                assert pcre.errorMessage != null;
-                throw error(Message.INVALID_REGEXP_REASON, pattern, pcre.errorMessage);
+            RegExpCache.ContextStateImpl cache = RContext.getInstance(this).stateRegExpCache;
+            PCRE2RFFI.CompileResult pcre = cache.getPCRE(pattern, options);
+            if (pcre == null) {
+                pcre = pcre2CompileNode.execute(pattern, options);
+                if (interop.isNull(pcre.compiledPattern)) {
+                    assert pcre.errorMessage != null;
+                    throw error(Message.INVALID_REGEXP_REASON, pattern, pcre.errorMessage);
+                }
+                cache.putPCRE(pattern, options, pcre, pcre2MemoryReleaseNode);
             }
             return pcre;
         }
     }
 
     protected static final class GrepCommonCodeNode extends CommonCodeNode {
-        @Child private InteropLibrary interop = InteropLibrary.getFactory().createDispatched(DSLConfig.getInteropLibraryCacheSize());
 
         protected Object doGrep(String patternArg, RStringVector vector, boolean ignoreCase, boolean value, boolean perlPar, boolean fixed,
                         @SuppressWarnings("unused") boolean useBytes, boolean invert, boolean grepl) {
@@ -264,19 +275,13 @@ public class GrepFunctions {
                     }
                     findAllMatches(matches, pattern, vector, fixed, ignoreCase);
                 } else {
-                    PCRE2RFFI.CompileResult compileResult = pcre2CompileNode.execute(pattern, 0);
-                    if (interop.isNull(compileResult.compiledPattern)) {
-                        assert compileResult.errorMessage != null;
-                        throw error(Message.INVALID_REGEXP_REASON, pattern, compileResult.errorMessage);
-                    }
+                    PCRE2RFFI.CompileResult compileResult = compilePerlPattern(pattern, false);
                     int captureCount = pcre2CaptureCountNode.execute(compileResult.compiledPattern);
-                    assert !interop.isNull(compileResult.compiledPattern);
                     for (int i = 0; i < vector.getLength(); i++) {
                         String text = vector.getDataAt(i);
                         PCRE2RFFI.MatchData matchData = pcre2MatchNode.execute(compileResult.compiledPattern, text, 0, true, captureCount);
                         matches[i] = matchData.getMatchCount() > 0;
                     }
-                    pcre2MemoryReleaseNode.execute(compileResult.compiledPattern);
                 }
 
                 if (grepl) {
@@ -513,7 +518,7 @@ public class GrepFunctions {
                                 preparedReplacement = replacement.replace("$", "\\$");
                                 preparedReplacement = convertGroups(preparedReplacement, 0);
                             }
-                            value = Pattern.compile(pattern, Pattern.LITERAL).matcher(input).replaceAll(preparedReplacement);
+                            value = RegExpCache.compile(pattern, Pattern.LITERAL).matcher(input).replaceAll(preparedReplacement);
                         } else {
                             int ix = input.indexOf(pattern);
                             if (preparedReplacement == null) {
@@ -557,7 +562,7 @@ public class GrepFunctions {
                         sb.append(input, lastMatchEndIdx, input.length());
                         value = sb.toString();
                     } else {
-                        Matcher matcher = Pattern.compile(pattern, Pattern.DOTALL).matcher(input);
+                        Matcher matcher = RegExpCache.compile(pattern, Pattern.DOTALL).matcher(input);
                         if (preparedReplacement == null) {
                             preparedReplacement = replacement.replace("$", "\\$");
                             // matcher.groupCount() only depends on the pattern (not on the input)
@@ -571,10 +576,6 @@ public class GrepFunctions {
                     }
                     result[i] = value;
                 }
-                if (perl) {
-                    assert pcre != null;
-                    pcre2MemoryReleaseNode.execute(pcre.compiledPattern);
-                }
                 boolean isVectorComplete = vectorDataLib.isComplete(vector.getData());
                 RStringVector ret = RDataFactory.createStringVector(result, isVectorComplete);
                 ret.copyAttributesFrom(vector);
@@ -1109,7 +1110,7 @@ public class GrepFunctions {
             if (pattern.length() > 0 && pattern.charAt(0) == '*') {
                 actualPattern = pattern.substring(1);
             }
-            return Pattern.compile(actualPattern, Pattern.DOTALL | (ignoreCase ? Pattern.CASE_INSENSITIVE : 0)).matcher(text);
+            return RegExpCache.compile(actualPattern, Pattern.DOTALL | (ignoreCase ? Pattern.CASE_INSENSITIVE : 0)).matcher(text);
         }
     }
 
@@ -1264,7 +1265,7 @@ public class GrepFunctions {
 
         @TruffleBoundary
         private static Matcher getPatternMatcher(String pattern, String text, boolean ignoreCase) {
-            return Pattern.compile(pattern, Pattern.DOTALL | (ignoreCase ? Pattern.CASE_INSENSITIVE : 0)).matcher(text);
+            return RegExpCache.compile(pattern, Pattern.DOTALL | (ignoreCase ? Pattern.CASE_INSENSITIVE : 0)).matcher(text);
         }
     }
 
@@ -50,6 +50,7 @@ import com.oracle.truffle.r.nodes.function.RCallNode;
 import com.oracle.truffle.r.nodes.function.call.CallRFunctionCachedNode;
 import com.oracle.truffle.r.nodes.function.call.CallRFunctionCachedNodeGen;
 import com.oracle.truffle.r.runtime.ArgumentsSignature;
+import com.oracle.truffle.r.runtime.LazyDBCache;
 import com.oracle.truffle.r.runtime.RCaller;
 import com.oracle.truffle.r.runtime.RCompression;
 import com.oracle.truffle.r.runtime.RError;
@@ -58,18 +59,22 @@ import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RSerialize;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.context.FastROptions;
 import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.Closure;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RExternalPtr;
 import com.oracle.truffle.r.runtime.data.RFunction;
 import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RList;
+import com.oracle.truffle.r.runtime.data.RLogicalVector;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RPairList;
 import com.oracle.truffle.r.runtime.data.RPromise;
 import com.oracle.truffle.r.runtime.data.RPromise.PromiseState;
 import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.data.nodes.ShareObjectNode;
 import com.oracle.truffle.r.runtime.data.nodes.attributes.SpecialAttributesFunctions.SetClassAttributeNode;
 import com.oracle.truffle.r.runtime.env.REnvironment;
@@ -122,6 +127,9 @@ public class HiddenInternalFunctions {
         @TruffleBoundary
         protected RNull doMakeLazy(RStringVector names, RList values, RPairList expr, REnvironment eenv, REnvironment aenv) {
             initEval();
+            if (getRContext().getOption(FastROptions.LazyLoadPrefetch)) {
+                prefetch(values, eenv);
+            }
             RCodeBuilder<RSyntaxNode> builder = RContext.getASTBuilder();
             for (int i = 0; i < names.getLength(); i++) {
                 String name = names.getDataAt(i);
@@ -155,6 +163,45 @@ public class HiddenInternalFunctions {
             return RNull.instance;
         }
 
+        /**
+         * Starts uncompressing the database entries of the promises in the background. The
+         * {@code datafile} and {@code compressed} arguments of {@code lazyLoadDBfetch} are defined
+         * in {@code eenv}, which is checked defensively, as {@code makeLazy} can be used with other
+         * expressions.
+         */
+        private void prefetch(RList values, REnvironment eenv) {
+            Object datafile = eenv.get("datafile");
+            Object compressed = eenv.get("compressed");
+            if (!(datafile instanceof RStringVector && ((RStringVector) datafile).getLength() == 1)) {
+                return;
+            }
+            if (!(compressed instanceof RAbstractVector && ((RAbstractVector) compressed).getLength() == 1)) {
+                return;
+            }
+            int compression;
+            if (compressed instanceof RIntVector) {
+                compression = ((RIntVector) compressed).getDataAt(0);
+            } else if (compressed instanceof RDoubleVector) {
+                compression = (int) ((RDoubleVector) compressed).getDataAt(0);
+            } else if (compressed instanceof RLogicalVector) {
+                compression = ((RLogicalVector) compressed).getDataAt(0);
+            } else {
+                return;
+            }
+            int[] offsets = new int[values.getLength()];
+            int[] lengths = new int[values.getLength()];
+            for (int i = 0; i < offsets.length; i++) {
+                Object value = values.getDataAt(i);
+                if (!(value instanceof RIntVector && ((RIntVector) value).getLength() == 2)) {
+                    return;
+                }
+                offsets[i] = ((RIntVector) value).getDataAt(0);
+                lengths[i] = ((RIntVector) value).getDataAt(1);
+            }
+            RContext context = getRContext();
+            context.stateLazyDBCache.prefetch(context, ((RStringVector) datafile).getDataAt(0), compression, offsets, lengths);
+        }
+
     }
 
     /**
@@ -238,46 +285,32 @@ public class HiddenInternalFunctions {
                         CallRFunctionCachedNode callCache) {
             String dbPath = datafile.getDataAt(0);
             String packageName = context.getSafeTruffleFile(dbPath).getName();
-            byte[] dbData = getRContext().stateLazyDBCache.getData(context, dbPath);
+            LazyDBCache.ContextStateImpl dbCache = context.stateLazyDBCache;
+            ByteBuffer dbData = dbCache.getData(context, dbPath);
             int dotIndex;
             if ((dotIndex = packageName.lastIndexOf('.')) > 0) {
                 packageName = packageName.substring(0, dotIndex);
             }
             int offset = key.getDataAt(0);
             int length = key.getDataAt(1);
-            int outlen = getOutlen(dbData, offset); // length of uncompressed data
-            byte[] udata = null;
-            boolean rc = true;
-            /*
-             * compression may have value 0, 1, 2 or 3. Value 1 is gzip and the data starts at
-             * "offset + 4". Values 2 and 3 have a "type" field at "offset + 4
-             * " and the data starts at "offset + 5". The type field is 'Z' for lzma, '2' for bzip,
-             * '1' for zip and '0' for no compression. From GnuR code, the only difference between
-             * compression=2 and compression=3 is that type='Z' is only possible for the latter.
-             */
-            if (compression == 0) {
-                udata = new byte[length];
-                System.arraycopy(dbData, offset, udata, 0, length);
-            } else {
-                udata = new byte[outlen];
-                if (compression == 2 || compression == 3) {
-                    RCompression.Type type = RCompression.Type.fromTypeChar(dbData[4]);
-                    if (type == null) {
-                        warning(RError.Message.GENERIC, "unknown compression type");
-                        return RNull.instance;
-                    }
-                    byte[] data = new byte[length - 5];
-                    System.arraycopy(dbData, offset + 5, data, 0, data.length);
-                    rc = RCompression.uncompress(type, udata, data);
-                } else {
-                    // GnuR treats any other value as 1
-                    byte[] data = new byte[length - 4];
-                    System.arraycopy(dbData, offset + 4, data, 0, data.length);
-                    rc = RCompression.uncompress(RCompression.Type.GZIP, udata, data);
-                }
+            Object cached = dbCache.getEntry(context, dbPath, offset, length);
+            if (cached != null && !(cached instanceof byte[])) {
+                return cached;
             }
-            if (!rc) {
-                throw error(RError.Message.LAZY_LOAD_DB_CORRUPT, dbPath);
+            byte[] udata = (byte[]) cached;
+            if (udata == null) {
+                /*
+                 * The content is uncompressed directly from the shared (memory mapped) database,
+                 * unless another context or the prefetch has already cached it.
+                 */
+                if ((compression == 2 || compression == 3) && RCompression.Type.fromTypeChar(dbData.get(offset + 4)) == null) {
+                    warning(RError.Message.GENERIC, "unknown compression type");
+                    return RNull.instance;
+                }
+                udata = LazyDBCache.uncompress(dbData, offset, length, compression);
+                if (udata == null) {
+                    throw error(RError.Message.LAZY_LOAD_DB_CORRUPT, dbPath);
+                }
             }
             try {
                 RSerialize.CallHook callHook = new RSerialize.CallHook() {
@@ -298,6 +331,7 @@ public class HiddenInternalFunctions {
                 };
                 String functionName = ReadVariableNode.getSlowPathEvaluationName();
                 Object result = RSerialize.unserialize(udata, callHook, packageName, functionName);
+                dbCache.putEntry(context, dbPath, offset, length, udata, result);
                 return result;
             } catch (IOException ex) {
                 // unexpected
@@ -305,13 +339,6 @@ public class HiddenInternalFunctions {
             }
         }
 
-        private static int getOutlen(byte[] dbData, int offset) {
-            ByteBuffer dataLengthBuf = ByteBuffer.allocate(4);
-            dataLengthBuf.put(dbData, offset, 4);
-            dataLengthBuf.position(0);
-            return dataLengthBuf.getInt();
-        }
-
         private static final class EvaluateAndSharePromiseNode extends Node {
             @Child private PromiseHelperNode promiseHelperNode;
             @Child private ShareObjectNode shareObjectNode;
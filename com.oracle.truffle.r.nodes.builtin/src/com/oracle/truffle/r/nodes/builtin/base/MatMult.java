@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2013, 2022, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -44,9 +44,13 @@ import com.oracle.truffle.r.nodes.binary.BinaryMapArithmeticFunctionNode;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
 import com.oracle.truffle.r.nodes.control.RLengthNode;
 import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RType;
+import com.oracle.truffle.r.runtime.WorkerPool;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.context.FastROptions;
+import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RComplex;
 import com.oracle.truffle.r.runtime.data.RComplexVector;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
@@ -57,7 +61,11 @@ import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.ops.BinaryArithmetic;
 import com.oracle.truffle.r.runtime.ops.na.NACheck;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import static com.oracle.truffle.r.runtime.data.nodes.attributes.SpecialAttributesFunctions.GetDimAttributeNode.isMatrix;
 import static com.oracle.truffle.r.runtime.RDispatch.OPS_GROUP_GENERIC;
@@ -626,9 +634,16 @@ public abstract class MatMult extends RBuiltinNode.Arg2 {
 
         private static final int BLOCK_SIZE = 64;
 
+        /**
+         * Minimal number of multiply-add operations for which the multiplication is split among
+         * the threads of the {@link WorkerPool}.
+         */
+        private static final long PARALLEL_THRESHOLD = 1L << 24;
+
         private final boolean promoteDimNames;
 
         private final ConditionProfile bigProfile = ConditionProfile.createBinaryProfile();
+        private final ConditionProfile parallelProfile = ConditionProfile.createBinaryProfile();
         private final BranchProfile incompleteProfile = BranchProfile.create();
         @CompilationFinal private boolean seenLargeMatrix;
 
@@ -756,6 +771,57 @@ public abstract class MatMult extends RBuiltinNode.Arg2 {
             }
         }
 
+        /**
+         * Computes the result in columns of {@link #BLOCK_SIZE} blocks distributed round robin among
+         * the threads. Every block of the result is computed by one thread with the same order of
+         * the additions as in the sequential version, so the result does not depend on the number
+         * of threads.
+         */
+        @TruffleBoundary
+        private static void multiplyParallel(double[] dataA, double[] dataB, int aRows, int aCols, int bCols, double[] result, int aRowStride, int aColStride, int bRowStride, int bColStride,
+                        boolean mirrored) {
+            int threads = WorkerPool.getThreads(RContext.getInstance().getNonNegativeIntOption(FastROptions.MatMultThreads));
+            int colBlocks = (bCols + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            int tasks = Math.min(threads, colBlocks);
+            if (tasks <= 1) {
+                multiplyColumnBlocks(dataA, dataB, aRows, aCols, bCols, result, aRowStride, aColStride, bRowStride, bColStride, mirrored, 0, 1);
+                return;
+            }
+            ArrayList<Callable<Void>> callables = new ArrayList<>(tasks);
+            for (int i = 0; i < tasks; i++) {
+                int first = i;
+                callables.add(() -> {
+                    multiplyColumnBlocks(dataA, dataB, aRows, aCols, bCols, result, aRowStride, aColStride, bRowStride, bColStride, mirrored, first, tasks);
+                    return null;
+                });
+            }
+            try {
+                for (Future<Void> future : WorkerPool.get().invokeAll(callables)) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RInternalError(e, "interrupted matrix multiplication");
+            } catch (ExecutionException e) {
+                throw new RInternalError(e.getCause(), "error in parallel matrix multiplication");
+            }
+        }
+
+        private static void multiplyColumnBlocks(double[] dataA, double[] dataB, int aRows, int aCols, int bCols, double[] result, int aRowStride, int aColStride, int bRowStride,
+                        int bColStride, boolean mirrored, int firstColBlock, int colBlockStep) {
+            LoopConditionProfile loopProfile = LoopConditionProfile.getUncached();
+            for (int col = firstColBlock * BLOCK_SIZE; col < bCols; col += colBlockStep * BLOCK_SIZE) {
+                int remainingCols = Math.min(BLOCK_SIZE, bCols - col);
+                for (int row = 0; row < aRows && (!mirrored || row <= col); row += BLOCK_SIZE) {
+                    int remainingRows = Math.min(BLOCK_SIZE, aRows - row);
+                    for (int k = 0; k < aCols; k += BLOCK_SIZE) {
+                        int remainingK = Math.min(BLOCK_SIZE, aCols - k);
+                        multiplyBlock(dataA, dataB, aRows, result, row, col, k, aRowStride, aColStride, bRowStride, bColStride, remainingCols, remainingRows, remainingK, loopProfile);
+                    }
+                }
+            }
+        }
+
         private RDoubleVector doubleMatrixMultiply(VectorDataLibrary aDataLib, Object aData, RAbstractVector a, VectorDataLibrary bDataLib, Object bData, RAbstractVector b, int aRows, int aCols,
                         int bRows, int bCols) {
             return doubleMatrixMultiply(aDataLib, aData, a, bDataLib, bData, b, aRows, aCols, bRows, bCols, 1, aRows, 1, bRows, false);
@@ -798,7 +864,9 @@ public abstract class MatMult extends RBuiltinNode.Arg2 {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
                 seenLargeMatrix = true;
             }
-            if (seenLargeMatrix) {
+            if (seenLargeMatrix && parallelProfile.profile((long) aRows * aCols * bCols >= PARALLEL_THRESHOLD && bCols > BLOCK_SIZE)) {
+                multiplyParallel(dataA, dataB, aRows, aCols, bCols, result, aRowStride, aColStride, bRowStride, bColStride, mirrored);
+            } else if (seenLargeMatrix) {
                 for (int row = 0; row < aRows; row += BLOCK_SIZE) {
                     for (int col = mirrored ? row : 0; col < bCols; col += BLOCK_SIZE) {
                         for (int k = 0; k < aCols; k += BLOCK_SIZE) {
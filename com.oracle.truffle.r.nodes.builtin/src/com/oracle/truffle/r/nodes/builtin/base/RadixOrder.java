@@ -0,0 +1,383 @@
+/*
+ * Copyright (c) 2022, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.base;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import com.oracle.truffle.r.runtime.RRuntime;
+
+/**
+ * Stable radix ordering by several keys, the work horse of {@code radixsort}, i.e.,
+ * {@code order(..., method = "radix")}. The semantics follow {@code src/main/radixsort.c} in GnuR:
+ * the order is stable, every key has its own {@code decreasing} flag, doubles are ordered by their
+ * exact value (with {@code -0 == 0} and {@code NA} and {@code NaN} sharing one key, so that they
+ * stay in their input order) and strings in the C locale.
+ *
+ * Every key is mapped to an unsigned 64 bit value that already takes the direction and the
+ * position of missing values into account; 0 and -1 are reserved for the missing values placed
+ * first and last respectively. The rows are then sorted key by key starting with the last one,
+ * each time with a stable LSD radix sort that skips the bytes in which all the keys agree.
+ * Strings are ranked by a comparison sort of their unique values first.
+ */
+final class RadixOrder {
+
+    private static final long NA_FIRST = 0;
+    private static final long NA_LAST = -1;
+
+    /**
+     * Below this size the rows are sorted by insertion instead of by the radix passes.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 64;
+
+    abstract static class Key {
+        protected final boolean decreasing;
+        private final long naKey;
+
+        Key(boolean decreasing, boolean naLast) {
+            this.decreasing = decreasing;
+            this.naKey = naLast ? NA_LAST : NA_FIRST;
+        }
+
+        abstract boolean isNA(int row);
+
+        /**
+         * The sort key of a non-missing value.
+         */
+        abstract long valueKey(int row);
+
+        long get(int row) {
+            return isNA(row) ? naKey : valueKey(row);
+        }
+    }
+
+    static final class IntKey extends Key {
+        private final int[] data;
+
+        IntKey(int[] data, boolean decreasing, boolean naLast) {
+            super(decreasing, naLast);
+            this.data = data;
+        }
+
+        @Override
+        boolean isNA(int row) {
+            return data[row] == RRuntime.INT_NA;
+        }
+
+        @Override
+        long valueKey(int row) {
+            // INT_NA is Integer.MIN_VALUE, hence the values map to [1, 2^32 - 1]
+            long key = (long) data[row] - Integer.MIN_VALUE;
+            return decreasing ? (1L << 32) - key : key;
+        }
+    }
+
+    static final class LogicalKey extends Key {
+        private final byte[] data;
+
+        LogicalKey(byte[] data, boolean decreasing, boolean naLast) {
+            super(decreasing, naLast);
+            this.data = data;
+        }
+
+        @Override
+        boolean isNA(int row) {
+            return data[row] == RRuntime.LOGICAL_NA;
+        }
+
+        @Override
+        long valueKey(int row) {
+            return decreasing ? 2 - data[row] : 1 + data[row];
+        }
+    }
+
+    static final class DoubleKey extends Key {
+        private final double[] data;
+
+        DoubleKey(double[] data, boolean decreasing, boolean naLast) {
+            super(decreasing, naLast);
+            this.data = data;
+        }
+
+        @Override
+        boolean isNA(int row) {
+            // NA and NaN get the same key like in GnuR
+            return Double.isNaN(data[row]);
+        }
+
+        @Override
+        long valueKey(int row) {
+            double value = decreasing ? -data[row] : data[row];
+            // the addition turns -0.0 into 0.0
+            long bits = Double.doubleToRawLongBits(value + 0.0);
+            // flip all the bits of negative values and the sign bit of positive ones, so that the
+            // unsigned order of the keys is the order of the values (-Inf maps above NA_FIRST and
+            // Inf below NA_LAST)
+            return bits < 0 ? ~bits : bits ^ Long.MIN_VALUE;
+        }
+    }
+
+    static final class StringKey extends Key {
+        private final String[] data;
+        private final int[] ranks;
+        private final int rankCount;
+
+        /**
+         * With {@code sortStrings == false} the strings are only grouped, i.e., ranked in the order
+         * of their first occurrence.
+         */
+        StringKey(String[] data, boolean decreasing, boolean naLast, boolean sortStrings) {
+            super(decreasing, naLast);
+            this.data = data;
+            this.ranks = new int[data.length];
+            HashMap<String, Integer> indices = new HashMap<>();
+            String[] unique = new String[Math.min(data.length, 16)];
+            int count = 0;
+            for (int i = 0; i < data.length; i++) {
+                String s = data[i];
+                if (RRuntime.isNA(s)) {
+                    continue;
+                }
+                Integer index = indices.get(s);
+                if (index == null) {
+                    index = count;
+                    indices.put(s, index);
+                    if (count == unique.length) {
+                        unique = Arrays.copyOf(unique, count * 2);
+                    }
+                    unique[count++] = s;
+                }
+                ranks[i] = index;
+            }
+            if (sortStrings && count > 1) {
+                Integer[] byValue = new Integer[count];
+                for (int i = 0; i < count; i++) {
+                    byValue[i] = i;
+                }
+                String[] values = unique;
+                Arrays.sort(byValue, (a, b) -> compareCodePoints(values[a], values[b]));
+                int[] rankOfIndex = new int[count];
+                for (int i = 0; i < count; i++) {
+                    rankOfIndex[byValue[i]] = i;
+                }
+                for (int i = 0; i < data.length; i++) {
+                    ranks[i] = rankOfIndex[ranks[i]];
+                }
+            }
+            this.rankCount = count;
+        }
+
+        @Override
+        boolean isNA(int row) {
+            return RRuntime.isNA(data[row]);
+        }
+
+        @Override
+        long valueKey(int row) {
+            return decreasing ? rankCount - ranks[row] : ranks[row] + 1;
+        }
+    }
+
+    /**
+     * Compares the strings by their code points, which corresponds to {@code strcmp} on their UTF-8
+     * encoding, i.e., the C locale collation.
+     */
+    static int compareCodePoints(String a, String b) {
+        int len = Math.min(a.length(), b.length());
+        for (int i = 0; i < len; i++) {
+            char ca = a.charAt(i);
+            char cb = b.charAt(i);
+            if (ca != cb) {
+                if (Character.isSurrogate(ca) || Character.isSurrogate(cb)) {
+                    return Integer.compare(a.codePointAt(i), b.codePointAt(i));
+                }
+                return ca - cb;
+            }
+        }
+        return a.length() - b.length();
+    }
+
+    private final Key[] keys;
+    private int[] order;
+
+    RadixOrder(Key[] keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * Computes the (0-based) order of the {@code length} rows. If {@code removeNA} is set, the rows
+     * with a missing value in any of the keys are left out.
+     */
+    int[] order(int length, boolean removeNA) {
+        int[] rows;
+        if (removeNA) {
+            rows = new int[length];
+            int count = 0;
+            for (int i = 0; i < length; i++) {
+                if (!hasNA(i)) {
+                    rows[count++] = i;
+                }
+            }
+            if (count < length) {
+                rows = Arrays.copyOf(rows, count);
+            }
+        } else {
+            rows = new int[length];
+            for (int i = 0; i < length; i++) {
+                rows[i] = i;
+            }
+        }
+        int n = rows.length;
+        long[] sortKeys = new long[n];
+        long[] tmpKeys = null;
+        int[] tmpRows = null;
+        for (int k = keys.length - 1; k >= 0; k--) {
+            Key key = keys[k];
+            for (int i = 0; i < n; i++) {
+                sortKeys[i] = key.get(rows[i]);
+            }
+            if (n < INSERTION_SORT_THRESHOLD) {
+                insertionSort(sortKeys, rows);
+            } else {
+                if (tmpKeys == null) {
+                    tmpKeys = new long[n];
+                    tmpRows = new int[n];
+                }
+                int[] sorted = radixSort(sortKeys, rows, tmpKeys, tmpRows);
+                if (sorted != rows) {
+                    // the last pass wrote into the temporary arrays
+                    tmpRows = rows;
+                    long[] swap = tmpKeys;
+                    tmpKeys = sortKeys;
+                    sortKeys = swap;
+                    rows = sorted;
+                }
+            }
+        }
+        order = rows;
+        return rows;
+    }
+
+    private boolean hasNA(int row) {
+        for (Key key : keys) {
+            if (key.isNA(row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void insertionSort(long[] sortKeys, int[] rows) {
+        for (int i = 1; i < sortKeys.length; i++) {
+            long key = sortKeys[i];
+            int row = rows[i];
+            int j = i - 1;
+            while (j >= 0 && Long.compareUnsigned(sortKeys[j], key) > 0) {
+                sortKeys[j + 1] = sortKeys[j];
+                rows[j + 1] = rows[j];
+                j--;
+            }
+            sortKeys[j + 1] = key;
+            rows[j + 1] = row;
+        }
+    }
+
+    /**
+     * Stable LSD radix sort of the rows by the unsigned keys, one byte per pass. The counts of all
+     * the passes are computed upfront and the passes in which all keys have the same byte are
+     * skipped. Returns the array of rows that holds the result, which is either {@code rows} or
+     * {@code tmpRows} (the keys are in the corresponding keys array).
+     */
+    private static int[] radixSort(long[] sortKeys, int[] rows, long[] tmpKeys, int[] tmpRows) {
+        int n = sortKeys.length;
+        int[][] counts = new int[Long.BYTES][256];
+        for (int i = 0; i < n; i++) {
+            long key = sortKeys[i];
+            for (int b = 0; b < Long.BYTES; b++) {
+                counts[b][(int) (key >>> (b * 8)) & 0xFF]++;
+            }
+        }
+        long[] srcKeys = sortKeys;
+        int[] srcRows = rows;
+        long[] dstKeys = tmpKeys;
+        int[] dstRows = tmpRows;
+        for (int b = 0; b < Long.BYTES; b++) {
+            int[] count = counts[b];
+            int shift = b * 8;
+            if (count[(int) (srcKeys[0] >>> shift) & 0xFF] == n) {
+                continue;
+            }
+            int pos = 0;
+            for (int v = 0; v < 256; v++) {
+                int c = count[v];
+                count[v] = pos;
+                pos += c;
+            }
+            for (int i = 0; i < n; i++) {
+                long key = srcKeys[i];
+                int dst = count[(int) (key >>> shift) & 0xFF]++;
+                dstKeys[dst] = key;
+                dstRows[dst] = srcRows[i];
+            }
+            long[] swapKeys = srcKeys;
+            srcKeys = dstKeys;
+            dstKeys = swapKeys;
+            int[] swapRows = srcRows;
+            srcRows = dstRows;
+            dstRows = swapRows;
+        }
+        return srcRows;
+    }
+
+    /**
+     * The 1-based positions in the computed order at which new groups of equal rows start.
+     */
+    int[] groupStarts() {
+        int[] rows = order;
+        int n = rows.length;
+        if (n == 0) {
+            return new int[0];
+        }
+        int[] starts = new int[Math.min(n, 16)];
+        int count = 0;
+        starts[count++] = 1;
+        for (int i = 1; i < n; i++) {
+            if (!sameKeys(rows[i - 1], rows[i])) {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, Math.min(n, count * 2));
+                }
+                starts[count++] = i + 1;
+            }
+        }
+        return count == starts.length ? starts : Arrays.copyOf(starts, count);
+    }
+
+    private boolean sameKeys(int row1, int row2) {
+        for (Key key : keys) {
+            if (key.get(row1) != key.get(row2)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
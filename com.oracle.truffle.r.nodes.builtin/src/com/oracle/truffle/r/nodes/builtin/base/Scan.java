@@ -37,6 +37,7 @@ import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.HashMap;
 
@@ -51,28 +52,29 @@ import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.RType;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.conn.ConnectionSupport.BaseRConnection;
 import com.oracle.truffle.r.runtime.conn.RConnection;
 import com.oracle.truffle.r.runtime.conn.RConnection.ReadLineWarning;
 import com.oracle.truffle.r.runtime.conn.StdConnections;
+import com.oracle.truffle.r.runtime.data.RComplex;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RFunction;
 import com.oracle.truffle.r.runtime.data.RList;
 import com.oracle.truffle.r.runtime.data.RNull;
-import com.oracle.truffle.r.runtime.data.RRaw;
 import com.oracle.truffle.r.runtime.data.RLogicalVector;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
-import com.oracle.truffle.r.runtime.ops.na.NACheck;
 
 @RBuiltin(name = "scan", kind = INTERNAL, parameterNames = {"file", "what", "nmax", "sep", "dec", "quote", "skip", "nlines", "na.strings", "flush", "fill", "strip.white", "quiet", "blank.lines.skip",
                 "multi.line", "comment.char", "allowEscapes", "encoding", "skipNull"}, behavior = IO)
 public abstract class Scan extends RBuiltinNode.Arg19 {
 
     private static final int SCAN_BLOCKSIZE = 1000;
+    private static final int SCAN_LINES_BLOCKSIZE = 1000;
     private static final int NO_COMCHAR = 100000; /* won't occur even in Unicode */
 
-    private final NACheck naCheck = NACheck.create();
     @Child private ExtractNamesAttributeNode extractNames = ExtractNamesAttributeNode.create();
 
     @Child private CastToVectorNode castVector;
@@ -96,9 +98,8 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
         int comchar = NO_COMCHAR;
         // connection-related (currently not supported)
         // int ttyflag = 0;
-        RConnection con = null;
-        // connection-related (currently not supported)
-        // boolean wasopen = false;
+        BaseRConnection con = null;
+        boolean wasOpen = false;
         boolean escapes = false;
         int save = 0;
         boolean isLatin1 = false;
@@ -106,6 +107,136 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
         boolean atStart = false;
         boolean embedWarn = false;
         boolean skipNull = false;
+        // lines are read from the connection in blocks if this is set
+        boolean readAhead = false;
+        String[] lines = null;
+        int lineIndex = 0;
+        // number of lines read from the connection, warnings refer to the lines of the whole input
+        int linesRead = 0;
+        // unprocessed rest of a line if an item limit was hit in the middle of it
+        String remainder = null;
+        int remainderPos = 0;
+        final StringBuilder quotedItem = new StringBuilder();
+    }
+
+    /**
+     * Collects the values of a column (or of the whole result in case of a vector {@code what})
+     * in a primitive array, which is wrapped into a vector once the scan is finished.
+     */
+    private static final class ScanColumn {
+        private final RAbstractVector what;
+        private final RType type;
+        private byte[] bytes;
+        private int[] ints;
+        private double[] doubles;
+        private String[] strings;
+        private int capacity;
+        private boolean complete = true;
+
+        ScanColumn(RAbstractVector what, int initialCapacity) {
+            this.what = what;
+            this.type = what.getRType();
+            resize(initialCapacity);
+        }
+
+        private void resize(int newCapacity) {
+            switch (type) {
+                case Logical:
+                case Raw:
+                    bytes = bytes == null ? new byte[newCapacity] : Arrays.copyOf(bytes, newCapacity);
+                    break;
+                case Integer:
+                    ints = ints == null ? new int[newCapacity] : Arrays.copyOf(ints, newCapacity);
+                    break;
+                case Double:
+                    doubles = doubles == null ? new double[newCapacity] : Arrays.copyOf(doubles, newCapacity);
+                    break;
+                case Complex:
+                    doubles = doubles == null ? new double[newCapacity << 1] : Arrays.copyOf(doubles, newCapacity << 1);
+                    break;
+                case Character:
+                    strings = strings == null ? new String[newCapacity] : Arrays.copyOf(strings, newCapacity);
+                    break;
+                default:
+                    // no value can be extracted for other types
+                    break;
+            }
+            capacity = newCapacity;
+        }
+
+        void set(int index, String buffer, LocalData data) {
+            if (index >= capacity) {
+                resize(Math.max(capacity * 2, index + 1));
+            }
+            try {
+                switch (type) {
+                    case Logical: {
+                        byte value = isNaString(buffer, 0, data) ? RRuntime.LOGICAL_NA : RRuntime.string2logicalNoCheck(buffer);
+                        complete &= !RRuntime.isNA(value);
+                        bytes[index] = value;
+                        break;
+                    }
+                    case Integer: {
+                        int value = isNaString(buffer, 0, data) ? RRuntime.INT_NA : RRuntime.parseInt(buffer);
+                        complete &= !RRuntime.isNA(value);
+                        ints[index] = value;
+                        break;
+                    }
+                    case Double: {
+                        double value = isNaString(buffer, 0, data) ? RRuntime.DOUBLE_NA : RRuntime.string2doubleNoCheck(buffer);
+                        complete &= !RRuntime.isNA(value);
+                        doubles[index] = value;
+                        break;
+                    }
+                    case Complex: {
+                        RComplex value = isNaString(buffer, 0, data) ? RRuntime.COMPLEX_NA : RRuntime.string2complexNoCheck(buffer);
+                        complete &= !value.isNA();
+                        doubles[index << 1] = value.getRealPart();
+                        doubles[(index << 1) + 1] = value.getImaginaryPart();
+                        break;
+                    }
+                    case Character: {
+                        String value;
+                        if (isNaString(buffer, 1, data)) {
+                            value = RRuntime.STRING_NA;
+                            complete = false;
+                        } else {
+                            String oldEntry = data.stringTable.putIfAbsent(buffer, buffer);
+                            value = oldEntry == null ? buffer : oldEntry;
+                        }
+                        strings[index] = value;
+                        break;
+                    }
+                    case Raw:
+                        bytes[index] = isNaString(buffer, 0, data) ? 0 : RRuntime.string2raw(buffer).getValue();
+                        break;
+                    default:
+                        throw RInternalError.shouldNotReachHere();
+                }
+            } catch (NumberFormatException e) {
+                throw RError.error(RError.SHOW_CALLER, Message.SCAN_UNEXPECTED, type.getName(), buffer);
+            }
+        }
+
+        RAbstractVector toVector(int length) {
+            switch (type) {
+                case Logical:
+                    return RDataFactory.createLogicalVector(length == capacity ? bytes : Arrays.copyOf(bytes, length), complete);
+                case Raw:
+                    return RDataFactory.createRawVector(length == capacity ? bytes : Arrays.copyOf(bytes, length));
+                case Integer:
+                    return RDataFactory.createIntVector(length == capacity ? ints : Arrays.copyOf(ints, length), complete);
+                case Double:
+                    return RDataFactory.createDoubleVector(length == capacity ? doubles : Arrays.copyOf(doubles, length), complete);
+                case Complex:
+                    return RDataFactory.createComplexVector(length == capacity ? doubles : Arrays.copyOf(doubles, length << 1), complete);
+                case Character:
+                    return RDataFactory.createStringVector(length == capacity ? strings : Arrays.copyOf(strings, length), complete);
+                default:
+                    assert length == 0;
+                    return what.createEmptySameType(length, RDataFactory.COMPLETE_VECTOR);
+            }
+        }
     }
 
     private static class GetQuotedItemsResult {
@@ -203,17 +334,23 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
 
         // TODO: quite a few more things happen in GNU R around connections
         data.con = RConnection.fromIndex(file);
+        data.readAhead = canReadAhead(data.con);
+        data.wasOpen = data.con.isOpen();
 
         data.save = 0;
 
         try (RConnection openConn = data.con.forceOpen("r")) {
             if (nskip > 0) {
-                openConn.readLines(nskip, EnumSet.of(ReadLineWarning.EMBEDDED_NUL), skipNull);
+                data.linesRead = openConn.readLines(nskip, EnumSet.of(ReadLineWarning.EMBEDDED_NUL), skipNull).length;
             }
-            if (what instanceof RList) {
-                return scanFrame((RList) what, nmax, nlines, flush, fill, strip == RRuntime.LOGICAL_TRUE, blSkip, multiLine, data);
-            } else {
-                return scanVector(what, nmax, nlines, flush, strip == RRuntime.LOGICAL_TRUE, blSkip, data);
+            try {
+                if (what instanceof RList) {
+                    return scanFrame((RList) what, nmax, nlines, flush, fill, strip == RRuntime.LOGICAL_TRUE, blSkip, multiLine, data);
+                } else {
+                    return scanVector(what, nmax, nlines, flush, strip == RRuntime.LOGICAL_TRUE, blSkip, data);
+                }
+            } finally {
+                pushBackUnconsumed(data);
             }
         } catch (IOException x) {
             throw error(RError.Message.CANNOT_READ_CONNECTION);
@@ -237,86 +374,183 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
         return false;
     }
 
-    private static GetQuotedItemsResult getQuotedItems(LocalData data, int maxItems, String s) {
+    /**
+     * Splits the line {@code s} starting at {@code start} into items. Unquoted items are taken
+     * from the line as substrings, only quoted items are assembled in
+     * {@link LocalData#quotedItem}.
+     */
+    private static GetQuotedItemsResult getQuotedItems(LocalData data, int maxItems, String s, int start) {
         ArrayList<String> items = new ArrayList<>();
 
         char sepchar = data.sepchar;
         char[] quoteset = data.quoteset;
+        StringBuilder quoted = data.quotedItem;
         int length = s.length();
-        int pos = 0;
+        int pos = start;
         if (sepchar == 0) {
             pos = skipWhitespace(s, pos);
         }
         if (pos == length) {
             return new GetQuotedItemsResult(new String[0], pos);
         }
-        StringBuilder str = new StringBuilder();
+        // the current item is either s[itemStart, pos) or, once a quote was seen, the content of
+        // the quoted buffer
+        int itemStart = pos;
+        boolean inQuoted = false;
+        boolean lastItemAdded = false;
         do {
             char ch = s.charAt(pos);
             if (sepchar == 0 && (ch == ' ' || ch == '\t')) {
+                String item = inQuoted ? quoted.toString() : s.substring(itemStart, pos);
                 pos = skipWhitespace(s, pos);
                 if (pos == length) {
+                    if (!item.isEmpty()) {
+                        items.add(item);
+                    }
+                    lastItemAdded = true;
                     break;
                 }
-                items.add(str.toString());
-                str.setLength(0);
+                items.add(item);
+                itemStart = pos;
+                inQuoted = false;
             } else if (sepchar != 0 && ch == sepchar) {
+                items.add(inQuoted ? quoted.toString() : s.substring(itemStart, pos));
                 pos++;
-                items.add(str.toString());
-                str.setLength(0);
-            } else if (str.length() == 0 && isInSet(ch, quoteset)) {
+                itemStart = pos;
+                inQuoted = false;
+            } else if ((inQuoted ? quoted.length() == 0 : pos == itemStart) && isInSet(ch, quoteset)) {
                 char quoteStart = ch;
+                quoted.setLength(0);
+                inQuoted = true;
                 pos++;
                 while (true) {
                     if (pos == length) {
-                        throw RError.error(RError.SHOW_CALLER, Message.INCOMPLETE_FINAL_LINE, s);
+                        throw RError.error(RError.SHOW_CALLER, Message.INCOMPLETE_FINAL_LINE, s.substring(start));
                     }
                     ch = s.charAt(pos++);
                     if (ch == quoteStart) {
                         if (pos < length && s.charAt(pos) == quoteStart) {
-                            str.append(quoteStart);
+                            quoted.append(quoteStart);
                             pos++;
                         } else {
                             break;
                         }
                     } else {
-                        str.append(ch);
+                        quoted.append(ch);
                     }
                 }
             } else {
-                str.append(ch);
+                if (inQuoted) {
+                    quoted.append(ch);
+                }
                 pos++;
             }
-        } while (pos < s.length() && (maxItems <= 0 || items.size() < maxItems));
-        if (str.length() > 0) {
-            items.add(str.toString());
+        } while (pos < length && (maxItems <= 0 || items.size() < maxItems));
+        if (!lastItemAdded) {
+            String item = inQuoted ? quoted.toString() : s.substring(itemStart, pos);
+            if (!item.isEmpty()) {
+                items.add(item);
+            }
         }
         return new GetQuotedItemsResult(items.toArray(new String[items.size()]), pos);
     }
 
+    /**
+     * Returns {@code true} for connections on which reading more lines than needed does not wait
+     * for input. Lines that have been read ahead but not consumed are pushed back at the end of
+     * the scan.
+     */
+    private static boolean canReadAhead(BaseRConnection con) {
+        switch (con.getConnectionClass()) {
+            case File:
+            case GZFile:
+            case BZFile:
+            case XZFile:
+                // the path may also name a FIFO or a device
+                return con.readsRegularFile();
+            case Text:
+            case RAW:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static String nextLine(LocalData data) throws IOException {
+        if (data.lines != null && data.lineIndex < data.lines.length) {
+            return data.lines[data.lineIndex++];
+        }
+        // lines pushed back by the caller (e.g. read.table) are consumed one by one, so that
+        // unconsumed lines can be pushed back in front of the remaining ones
+        int n = data.readAhead && data.con.pushBackLength() == 0 ? SCAN_LINES_BLOCKSIZE : 1;
+        String[] lines = data.con.readLines(n, EnumSet.of(ReadLineWarning.EMBEDDED_NUL), false, data.linesRead + 1);
+        if (lines == null || lines.length == 0) {
+            data.lines = null;
+            return null;
+        }
+        data.linesRead += lines.length;
+        data.lines = lines;
+        data.lineIndex = 1;
+        return lines[0];
+    }
+
+    /**
+     * Returns lines that have been read ahead and the rest of a partially consumed line to the
+     * connection if it stays open after the scan.
+     */
+    private static void pushBackUnconsumed(LocalData data) {
+        if (!data.wasOpen) {
+            data.lines = null;
+            data.remainder = null;
+            return;
+        }
+        int nLines = data.lines == null ? 0 : data.lines.length - data.lineIndex;
+        int n = nLines + (data.remainder != null ? 1 : 0);
+        if (n > 0) {
+            String[] unconsumed = new String[n];
+            int i = 0;
+            if (data.remainder != null) {
+                unconsumed[i++] = data.remainder.substring(data.remainderPos);
+            }
+            if (nLines > 0) {
+                System.arraycopy(data.lines, data.lineIndex, unconsumed, i, nLines);
+            }
+            data.con.pushBack(RDataFactory.createStringVector(unconsumed, RDataFactory.COMPLETE_VECTOR), true);
+        }
+        data.lines = null;
+        data.remainder = null;
+    }
+
     private static String[] getItems(LocalData data, int maxItems, boolean blSkip) throws IOException {
         while (true) {
-            String[] str = data.con.readLines(1, EnumSet.of(ReadLineWarning.EMBEDDED_NUL), false);
-            if (str == null || str.length == 0) {
-                return null;
+            String line;
+            int start;
+            if (data.remainder != null) {
+                line = data.remainder;
+                start = data.remainderPos;
+                data.remainder = null;
             } else {
-                GetQuotedItemsResult res = getQuotedItems(data, maxItems, str[0]);
-                String[] items = res.items;
-                if (!blSkip || items.length != 0) {
-                    if (res.pos < str[0].length()) {
-                        RStringVector remainder = RDataFactory.createStringVectorFromScalar(str[0].substring(res.pos));
-                        data.con.pushBack(remainder, true);
-                    }
-                    return items.length == 0 ? new String[]{""} : items;
+                line = nextLine(data);
+                if (line == null) {
+                    return null;
                 }
+                start = 0;
+            }
+            GetQuotedItemsResult res = getQuotedItems(data, maxItems, line, start);
+            String[] items = res.items;
+            if (!blSkip || items.length != 0) {
+                if (res.pos < line.length()) {
+                    data.remainder = line;
+                    data.remainderPos = res.pos;
+                }
+                return items.length == 0 ? new String[]{""} : items;
             }
         }
     }
 
-    private void fillEmpty(int from, int to, int records, RList list, LocalData data) {
+    private static void fillEmpty(int from, int to, int records, ScanColumn[] columns, LocalData data) {
         for (int i = from; i < to; i++) {
-            RAbstractVector vec = (RAbstractVector) list.getDataAt(i);
-            vec.updateDataAtAsObject(records, extractItem(vec, "", data), naCheck);
+            columns[i].set(records, "", data);
         }
     }
 
@@ -329,26 +563,31 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
         }
         int blockSize = maxRecords > 0 ? maxRecords : (maxLines > 0 ? maxLines : SCAN_BLOCKSIZE);
 
-        RList list = RDataFactory.createList(nc);
+        ScanColumn[] columns = new ScanColumn[nc];
         for (int i = 0; i < nc; i++) {
             if (what.getDataAt(i) == RNull.instance) {
                 throw error(RError.Message.INVALID_ARGUMENT, "what");
             } else {
-                RAbstractVector vec = castVector(what.getDataAt(i));
-                list.updateDataAt(i, vec.createEmptySameType(blockSize, RDataFactory.COMPLETE_VECTOR), null);
+                columns[i] = new ScanColumn(castVector(what.getDataAt(i)), blockSize);
             }
         }
-        list.setNames(extractNames.execute(what));
 
-        naCheck.enable(true);
+        int records = scanFrameInternal(maxRecords, maxLines, flush, fill, blSkip, multiLine, data, nc, columns);
 
-        return scanFrameInternal(maxRecords, maxLines, flush, fill, blSkip, multiLine, data, nc, blockSize, list);
+        RList list = RDataFactory.createList(nc);
+        for (int i = 0; i < nc; i++) {
+            list.updateDataAt(i, columns[i].toVector(records), null);
+        }
+        list.setNames(extractNames.execute(what));
+        return list;
     }
 
+    /**
+     * Reads the records into {@code columns} and returns the number of records read.
+     */
     @TruffleBoundary
-    private RAbstractVector scanFrameInternal(int maxRecords, int maxLines, boolean flush, boolean fill, boolean blSkip, boolean multiLine, LocalData data, int nc, int initialBlockSize, RList list)
+    private int scanFrameInternal(int maxRecords, int maxLines, boolean flush, boolean fill, boolean blSkip, boolean multiLine, LocalData data, int nc, ScanColumn[] columns)
                     throws IOException {
-        int blockSize = initialBlockSize;
         int n = 0;
         int lines = 0;
         int records = 0;
@@ -364,7 +603,7 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
 
                 if (n == strItems.length) {
                     if (fill) {
-                        fillEmpty(n, nc, records, list, data);
+                        fillEmpty(n, nc, records, columns, data);
                         records++;
                         n = 0;
                         break;
@@ -381,20 +620,7 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
                         }
                     }
                 }
-                Object item = extractItem((RAbstractVector) list.getDataAt(n), strItems[i], data);
-
-                if (records == blockSize) {
-                    // enlarge the vector
-                    blockSize = blockSize * 2;
-                    for (int j = 0; j < nc; j++) {
-                        RAbstractVector vec = (RAbstractVector) list.getDataAt(j);
-                        vec = vec.copyResized(blockSize, false);
-                        list.updateDataAt(j, vec, null);
-                    }
-                }
-
-                RAbstractVector vec = (RAbstractVector) list.getDataAt(n);
-                vec.updateDataAtAsObject(records, item, naCheck);
+                columns[n].set(records, strItems[i], data);
                 n++;
                 if (n == nc) {
                     records++;
@@ -421,7 +647,7 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
             if (!fill) {
                 warning(RError.Message.ITEMS_NOT_MULTIPLE);
             }
-            fillEmpty(n, nc, records, list, data);
+            fillEmpty(n, nc, records, columns, data);
             records++;
         }
 
@@ -429,23 +655,14 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
             String s = String.format("Read %d record%s", records, (records == 1) ? "" : "s");
             StdConnections.getStdout().writeString(s, true);
         }
-        // trim vectors if necessary
-        for (int i = 0; i < nc; i++) {
-            RAbstractVector vec = (RAbstractVector) list.getDataAt(i);
-            if (vec.getLength() > records) {
-                list.updateDataAt(i, vec.copyResized(records, false), null);
-            }
-        }
-
-        return list;
+        return records;
     }
 
     @TruffleBoundary
-    private RAbstractVector scanVector(RAbstractVector what, int maxItems, int maxLines, @SuppressWarnings("unused") boolean flush, @SuppressWarnings("unused") boolean stripWhite, boolean blSkip,
-                    LocalData data) throws IOException {
+    private static RAbstractVector scanVector(RAbstractVector what, int maxItems, int maxLines, @SuppressWarnings("unused") boolean flush, @SuppressWarnings("unused") boolean stripWhite,
+                    boolean blSkip, LocalData data) throws IOException {
         int blockSize = maxItems > 0 ? maxItems : SCAN_BLOCKSIZE;
-        RAbstractVector vec = what.createEmptySameType(blockSize, RDataFactory.COMPLETE_VECTOR);
-        naCheck.enable(true);
+        ScanColumn vec = new ScanColumn(what, blockSize);
 
         int n = 0;
         int lines = 0;
@@ -458,16 +675,7 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
 
             boolean done = false;
             for (int i = 0; i < strItems.length; i++) {
-
-                Object item = extractItem(what, strItems[i], data);
-
-                if (n == blockSize) {
-                    // enlarge the vector
-                    blockSize = blockSize * 2;
-                    vec = vec.copyResized(blockSize, false);
-                }
-
-                vec.updateDataAtAsObject(n, item, naCheck);
+                vec.set(n, strItems[i], data);
                 n++;
                 if (n == maxItems) {
                     done = true;
@@ -486,8 +694,7 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
             String s = String.format("Read %d item%s", n, (n == 1) ? "" : "s");
             StdConnections.getStdout().writeString(s, true);
         }
-        // trim vector if necessary
-        return vec.getLength() > n ? vec.copyResized(n, false) : vec;
+        return vec.toVector(n);
     }
 
     // If mode = 0 use for numeric fields where "" is NA
@@ -506,52 +713,4 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
         }
         return false;
     }
-
-    private static Object extractItem(RAbstractVector what, String buffer, LocalData data) {
-        try {
-            switch (what.getRType()) {
-                case Logical:
-                    if (isNaString(buffer, 0, data)) {
-                        return RRuntime.LOGICAL_NA;
-                    } else {
-                        return RRuntime.string2logicalNoCheck(buffer);
-                    }
-                case Integer:
-                    if (isNaString(buffer, 0, data)) {
-                        return RRuntime.INT_NA;
-                    } else {
-                        return RRuntime.parseInt(buffer);
-                    }
-                case Double:
-                    if (isNaString(buffer, 0, data)) {
-                        return RRuntime.DOUBLE_NA;
-                    } else {
-                        return RRuntime.string2doubleNoCheck(buffer);
-                    }
-                case Complex:
-                    if (isNaString(buffer, 0, data)) {
-                        return RRuntime.COMPLEX_NA;
-                    } else {
-                        return RRuntime.string2complexNoCheck(buffer);
-                    }
-                case Character:
-                    if (isNaString(buffer, 1, data)) {
-                        return RRuntime.STRING_NA;
-                    } else {
-                        String oldEntry = data.stringTable.putIfAbsent(buffer, buffer);
-                        return oldEntry == null ? buffer : oldEntry;
-                    }
-                case Raw:
-                    if (isNaString(buffer, 0, data)) {
-                        return RRaw.valueOf((byte) 0);
-                    } else {
-                        return RRuntime.string2raw(buffer);
-                    }
-                default:
-                    throw RInternalError.shouldNotReachHere();
-            }
-        } catch (NumberFormatException e) {
-            throw RError.error(RError.SHOW_CALLER, Message.SCAN_UNEXPECTED, what.getRType().getName(), buffer);
-        }
-    }
 }
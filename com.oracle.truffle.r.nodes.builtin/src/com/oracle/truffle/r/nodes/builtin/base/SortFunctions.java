@@ -51,10 +51,12 @@ import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.data.RArgsValuesAndNames;
+import com.oracle.truffle.r.runtime.data.RBaseObject;
 import com.oracle.truffle.r.runtime.data.RComplexVector;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RIntVector;
+import com.oracle.truffle.r.runtime.data.RList;
 import com.oracle.truffle.r.runtime.data.RLogicalVector;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RStringVector;
@@ -270,12 +272,14 @@ public class SortFunctions {
     /**
      * This a helper function for the code in sort.R. It does NOT return the input vectors sorted,
      * but returns an {@link RIntVector} of indices (positions) indicating the sort order (Or
-     * {@link RNull#instance} if no vectors). In short it is a special variant of {@code order}. For
-     * now we delegate to {@code order} and do not implement the {@code retgrp} argument.
+     * {@link RNull#instance} if no vectors). In short it is a special variant of {@code order} that
+     * takes a separate {@code decreasing} value for each vector and, if {@code retgrp} is set, also
+     * returns the starts of the groups of equal rows in the {@code "starts"} attribute and the size
+     * of the largest group in {@code "maxgrpn"}. The ordering itself is done by
+     * {@link RadixOrder}.
      */
     @RBuiltin(name = "radixsort", kind = INTERNAL, parameterNames = {"na.last", "decreasing", "retgrp", "sortstr", "..."}, behavior = PURE)
     public abstract static class RadixSort extends RBuiltinNode.Arg5 {
-        @Child private Order orderNode = OrderNodeGen.create();
 
         static {
             Casts casts = new Casts(RadixSort.class);
@@ -285,42 +289,87 @@ public class SortFunctions {
             casts.arg("sortstr").asLogicalVector().findFirst().map(toBoolean());
         }
 
-        @SuppressWarnings("unused")
         @Specialization(limit = "getVectorAccessCacheSize()")
         protected Object radixSort(byte naLast, RLogicalVector decreasingVec, boolean retgrp, boolean sortstr, RArgsValuesAndNames zz,
                         @Bind("decreasingVec.getData()") Object decreasingVecData,
                         @CachedLibrary("decreasingVecData") VectorDataLibrary decreasingDataLib) {
-            // Partial implementation just to get startup to work
-            if (retgrp) {
-                // sortstr only has an effect when retrgrp == true
-                throw RError.nyi(this, "radixsort: retgrp == TRUE not implemented");
+            Object[] args = zz.getArguments();
+            if (args.length == 1 && args[0] instanceof RList) {
+                // a data frame or a list of columns
+                args = ((RList) args[0]).getReadonlyData();
             }
-            int nargs = zz.getLength();
+            int nargs = args.length;
             if (nargs == 0) {
                 return RNull.instance;
             }
-            if (nargs != decreasingDataLib.getLength(decreasingVecData)) {
+            int decreasingLength = decreasingDataLib.getLength(decreasingVecData);
+            if (nargs != decreasingLength && decreasingLength != zz.getLength()) {
                 throw error(RError.Message.RADIX_SORT_DEC_MATCH);
             }
-            /*
-             * Order takes a single decreasing argument that applies to all the vectors. We
-             * potentially have a different value for each vector, so we have to process one by one.
-             * However, OrderNode can't yet handle that, so we abort if nargs > 1 and the decreasing
-             * values don't match.
-             */
-            byte lastdb = RRuntime.LOGICAL_NA;
+            boolean[] decreasing = new boolean[nargs];
             for (int i = 0; i < nargs; i++) {
-                byte db = decreasingDataLib.getLogicalAt(decreasingVecData, i);
+                byte db = decreasingDataLib.getLogicalAt(decreasingVecData, i % decreasingLength);
                 if (RRuntime.isNA(db)) {
                     throw error(RError.Message.RADIX_SORT_DEC_NOT_LOGICAL);
                 }
-                if (lastdb != RRuntime.LOGICAL_NA && db != lastdb) {
-                    throw RError.nyi(this, "radixsort: args > 1 with differing 'decreasing' values not implemented");
+                decreasing[i] = RRuntime.fromLogical(db);
+            }
+            return order(naLast, decreasing, retgrp, sortstr, args);
+        }
+
+        @TruffleBoundary
+        private Object order(byte naLast, boolean[] decreasing, boolean retgrp, boolean sortstr, Object[] args) {
+            boolean last = naLast != RRuntime.LOGICAL_FALSE;
+            int length = -1;
+            RadixOrder.Key[] keys = new RadixOrder.Key[args.length];
+            for (int i = 0; i < args.length; i++) {
+                Object arg = args[i];
+                RadixOrder.Key key;
+                int argLength;
+                if (arg instanceof RIntVector) {
+                    int[] data = ((RIntVector) arg).getReadonlyData();
+                    key = new RadixOrder.IntKey(data, decreasing[i], last);
+                    argLength = data.length;
+                } else if (arg instanceof RDoubleVector) {
+                    double[] data = ((RDoubleVector) arg).getReadonlyData();
+                    key = new RadixOrder.DoubleKey(data, decreasing[i], last);
+                    argLength = data.length;
+                } else if (arg instanceof RLogicalVector) {
+                    byte[] data = ((RLogicalVector) arg).getReadonlyData();
+                    key = new RadixOrder.LogicalKey(data, decreasing[i], last);
+                    argLength = data.length;
+                } else if (arg instanceof RStringVector) {
+                    String[] data = ((RStringVector) arg).getReadonlyStringData();
+                    // the strings only need to be sorted when their order is observable
+                    key = new RadixOrder.StringKey(data, decreasing[i], last, sortstr || !retgrp);
+                    argLength = data.length;
+                } else {
+                    String type = arg instanceof RBaseObject ? ((RBaseObject) arg).getRType().getName() : arg.getClass().getSimpleName();
+                    throw error(RError.Message.GENERIC, String.format("argument %d is of type '%s', which is not supported by radix sort", i + 1, type));
+                }
+                if (length == -1) {
+                    length = argLength;
+                } else if (length != argLength) {
+                    throw error(RError.Message.ARGUMENT_LENGTHS_DIFFER);
+                }
+                keys[i] = key;
+            }
+            RadixOrder radixOrder = new RadixOrder(keys);
+            int[] order = radixOrder.order(length, RRuntime.isNA(naLast));
+            for (int i = 0; i < order.length; i++) {
+                order[i]++;
+            }
+            RIntVector result = RDataFactory.createIntVector(order, RDataFactory.COMPLETE_VECTOR);
+            if (retgrp) {
+                int[] starts = radixOrder.groupStarts();
+                int maxgrpn = 0;
+                for (int i = 0; i < starts.length; i++) {
+                    int end = i + 1 < starts.length ? starts[i + 1] : order.length + 1;
+                    maxgrpn = Math.max(maxgrpn, end - starts[i]);
                 }
-                lastdb = db;
+                result.setAttr("starts", RDataFactory.createIntVector(starts, RDataFactory.COMPLETE_VECTOR));
+                result.setAttr("maxgrpn", maxgrpn);
             }
-            boolean decreasing = RRuntime.fromLogical(decreasingDataLib.getLogicalAt(decreasingVecData, 0));
-            Object result = orderNode.execute(naLast, decreasing, zz);
             return result;
         }
     }
@@ -49,6 +49,8 @@ import com.oracle.truffle.r.library.methods.SlotFactory.R_hasSlotNodeGen;
 import com.oracle.truffle.r.library.methods.SlotFactory.R_setSlotNodeGen;
 import com.oracle.truffle.r.library.methods.SubstituteDirectNodeGen;
 import com.oracle.truffle.r.library.parallel.ParallelFunctionsFactory.MCIsChildNodeGen;
+import com.oracle.truffle.r.library.parallel.ParallelFunctionsFactory.NextStreamNodeGen;
+import com.oracle.truffle.r.library.parallel.ParallelFunctionsFactory.NextSubStreamNodeGen;
 import com.oracle.truffle.r.library.stats.Approx;
 import com.oracle.truffle.r.library.stats.ApproxTest;
 import com.oracle.truffle.r.library.stats.BinDist;
@@ -801,6 +803,10 @@ public class CallAndExternalFunctions {
                 // parallel
                 case "mc_is_child":
                     return MCIsChildNodeGen.create();
+                case "nextStream":
+                    return NextStreamNodeGen.create();
+                case "nextSubStream":
+                    return NextSubStreamNodeGen.create();
                 default:
                     return null;
             }
@@ -24,6 +24,9 @@ import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.stringValue;
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -37,10 +40,14 @@ import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.WorkerPool;
 import com.oracle.truffle.r.runtime.conn.RConnection;
+import com.oracle.truffle.r.runtime.context.FastROptions;
+import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RAttributable;
 import com.oracle.truffle.r.runtime.data.RComplex;
 import com.oracle.truffle.r.runtime.data.RComplexVector;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RLogicalVector;
@@ -50,6 +57,8 @@ import com.oracle.truffle.r.runtime.data.RRawVector;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractContainer;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+import com.oracle.truffle.r.runtime.data.nodes.VectorAccess;
+import com.oracle.truffle.r.runtime.data.nodes.VectorAccess.RandomIterator;
 
 //Transcribed from GnuR, library/utils/src/io.c
 
@@ -79,12 +88,22 @@ public abstract class WriteTable extends RExternalBuiltinNode.Arg11 {
         casts.arg(10).mustNotBeNull().asLogicalVector().findFirst().mustNotBeNA().map(toBoolean());
     }
 
+    /**
+     * Number of rows formatted into one block of text before it is written to the connection.
+     */
+    private static final int BLOCK_ROWS = 1024;
+
+    /**
+     * Tables with fewer cells are always formatted on the calling thread.
+     */
+    private static final int PARALLEL_MIN_CELLS = 1 << 16;
+
     // Transcribed from GnuR, library/utils/src/io.c
 
     @Specialization
     @TruffleBoundary
-    protected static Object writetable(Object xx, int file, int nr, int nc, Object rnames, String csep, String ceol, String cna, String dec, RIntVector quote, boolean qmethod) {
-        char cdec = dec.charAt(0);
+    protected static Object writetable(Object xx, int file, int nr, int nc, Object rnames, String csep, String ceol, String cna, @SuppressWarnings("unused") String dec, RIntVector quote,
+                    boolean qmethod) {
         boolean[] quoteCol = new boolean[nc];
         boolean quoteRn = false;
         for (int i = 0; i < quote.getLength(); i++) {
@@ -97,8 +116,29 @@ public abstract class WriteTable extends RExternalBuiltinNode.Arg11 {
             }
         }
         try (RConnection con = RConnection.fromIndex(file).forceOpen("wt")) {
+            ColumnFormatter[] columns = new ColumnFormatter[nc];
             if (xx instanceof RAttributable && ClassHierarchyNode.hasClass((RAttributable) xx, RRuntime.CLASS_DATA_FRAME)) {
-                executeDataFrame(con, (RAbstractVector) xx, nr, nc, rnames, csep, ceol, cna, cdec, qmethod, quoteCol, quoteRn);
+                RAbstractVector x = (RAbstractVector) xx;
+                /* handle factors internally, check integrity */
+                for (int j = 0; j < nc; j++) {
+                    Object xjObj = x.getDataAtAsObject(j);
+                    if (xjObj instanceof RAbstractContainer) {
+                        RAbstractContainer xj = (RAbstractContainer) xjObj;
+                        if (xj.getLength() != nr) {
+                            throw new IllegalArgumentException("corrupt data frame -- length of column " + (j + 1) + " does not not match nrows");
+                        }
+                        RStringVector levels = null;
+                        if (isFactor(xj)) {
+                            levels = (RStringVector) DynamicObjectLibrary.getUncached().getOrDefault(xj.getAttributes(), "levels", null);
+                        }
+                        columns[j] = levels != null ? new FactorFormatter((RIntVector) xj, levels, cna, quoteCol[j], qmethod) : createFormatter(xj, 0, cna, quoteCol[j], qmethod);
+                    } else {
+                        if (nr != 1) {
+                            throw new IllegalArgumentException("corrupt data frame -- length of column " + (j + 1) + " does not not match nrows");
+                        }
+                        columns[j] = new ConstantFormatter(encodePrimitiveElement(xjObj, cna, quoteRn, qmethod));
+                    }
+                }
             } else { /* A matrix */
 
                 // if (!isVectorAtomic(x))
@@ -108,98 +148,368 @@ public abstract class WriteTable extends RExternalBuiltinNode.Arg11 {
                 if (x.getLength() != nr * nc) {
                     throw new IllegalArgumentException("corrupt matrix -- dims not not match length");
                 }
-
-                StringBuilder tmp = new StringBuilder();
-                for (int i = 0; i < nr; i++) {
-                    if (!(rnames instanceof RNull)) {
-                        tmp.append(encodeElement2((RStringVector) rnames, i, quoteRn, qmethod, cdec));
-                        tmp.append(csep);
-                    }
-                    for (int j = 0; j < nc; j++) {
-                        if (j > 0) {
-                            tmp.append(csep);
-                        }
-                        if (isna(x, i + j * nr)) {
-                            tmp.append(cna);
-                        } else {
-                            tmp.append(encodeElement2(x, i + j * nr, quoteCol[j], qmethod, cdec));
-                            /* if(cdec) change_dec(tmp, cdec, TYPEOF(x)); */
-                        }
-                    }
-                    tmp.append(ceol);
-                    con.writeString(tmp.toString(), false);
-                    tmp.setLength(0);
+                for (int j = 0; j < nc; j++) {
+                    columns[j] = createFormatter(x, j * nr, cna, quoteCol[j], qmethod);
                 }
             }
+            /* if(cdec) change_dec(tmp, cdec, TYPEOF(xj)); */
+            TableFormatter table = new TableFormatter(rnames instanceof RNull ? null : ((RStringVector) rnames).getReadonlyStringData(), columns, csep, ceol, quoteRn, qmethod);
+            writeRows(con, table, nr);
         } catch (IOException | IllegalArgumentException ex) {
             throw RError.error(RError.SHOW_CALLER, RError.Message.GENERIC, ex.getMessage());
         }
         return RNull.instance;
     }
 
-    private static void executeDataFrame(RConnection con, RAbstractVector x, int nr, int nc, Object rnames, String csep, String ceol, String cna, char cdec, boolean qmethod, boolean[] quoteCol,
-                    boolean quoteRn)
-                    throws IOException {
-
-        /* handle factors internally, check integrity */
-        RStringVector[] levels = new RStringVector[nc];
-        for (int j = 0; j < nc; j++) {
-            Object xjObj = x.getDataAtAsObject(j);
-            if (xjObj instanceof RAbstractContainer) {
-                RAbstractContainer xj = (RAbstractContainer) xjObj;
-                if (xj.getLength() != nr) {
-                    throw new IllegalArgumentException("corrupt data frame -- length of column " + (j + 1) + " does not not match nrows");
-                }
-                if (isFactor(xj)) {
-                    levels[j] = (RStringVector) DynamicObjectLibrary.getUncached().getOrDefault(xj.getAttributes(), "levels", null);
+    /**
+     * Writes the rows in blocks of {@link #BLOCK_ROWS}. The blocks of large tables are formatted on
+     * several threads of the {@link WorkerPool} if all the columns allow it, but they are always
+     * written in order by the calling thread.
+     */
+    private static void writeRows(RConnection con, TableFormatter table, int nr) throws IOException {
+        int threads = WorkerPool.getThreads(RContext.getInstance().getNonNegativeIntOption(FastROptions.WriteTableThreads));
+        threads = Math.min(threads, (nr + BLOCK_ROWS - 1) / BLOCK_ROWS);
+        if (threads > 1 && (long) nr * table.columns.length >= PARALLEL_MIN_CELLS && table.isThreadSafe()) {
+            writeRowsParallel(con, table, nr, threads);
+            return;
+        }
+        StringBuilder block = new StringBuilder();
+        for (int start = 0; start < nr; start += BLOCK_ROWS) {
+            table.formatRows(block, start, Math.min(nr, start + BLOCK_ROWS));
+            con.writeString(block.toString(), false);
+            block.setLength(0);
+        }
+    }
+
+    private static void writeRowsParallel(RConnection con, TableFormatter table, int nr, int threads) throws IOException {
+        ArrayDeque<Future<String>> pending = new ArrayDeque<>(threads);
+        int start = 0;
+        try {
+            while (start < nr || !pending.isEmpty()) {
+                // keep at most "threads" blocks in flight so that the memory use stays bounded
+                while (start < nr && pending.size() < threads) {
+                    int from = start;
+                    int to = Math.min(nr, start + BLOCK_ROWS);
+                    pending.add(WorkerPool.get().submit(() -> table.formatRows(new StringBuilder(), from, to).toString()));
+                    start = to;
                 }
-            } else {
-                if (nr != 1) {
-                    throw new IllegalArgumentException("corrupt data frame -- length of column " + (j + 1) + " does not not match nrows");
+                con.writeString(pending.poll().get(), false);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RInternalError(cause, "error in parallel write.table");
+        } finally {
+            for (Future<String> future : pending) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    private static final class TableFormatter {
+        private final String[] rowNames;
+        private final ColumnFormatter[] columns;
+        private final String csep;
+        private final String ceol;
+        private final boolean quoteRn;
+        private final boolean qmethod;
+
+        TableFormatter(String[] rowNames, ColumnFormatter[] columns, String csep, String ceol, boolean quoteRn, boolean qmethod) {
+            this.rowNames = rowNames;
+            this.columns = columns;
+            this.csep = csep;
+            this.ceol = ceol;
+            this.quoteRn = quoteRn;
+            this.qmethod = qmethod;
+        }
+
+        boolean isThreadSafe() {
+            for (ColumnFormatter column : columns) {
+                if (!column.isThreadSafe()) {
+                    return false;
                 }
             }
+            return true;
         }
 
-        StringBuilder tmp = new StringBuilder();
-        for (int i = 0; i < nr; i++) {
-            // if (i % 1000 == 999)
-            // R_CheckUserInterrupt();
-            if (!(rnames instanceof RNull)) {
-                tmp.append(encodeElement2((RStringVector) rnames, i, quoteRn, qmethod, cdec)).append(csep);
+        StringBuilder formatRows(StringBuilder sb, int from, int to) {
+            ColumnFormatter[] cols = new ColumnFormatter[columns.length];
+            for (int j = 0; j < columns.length; j++) {
+                cols[j] = columns[j].forTask();
             }
-            for (int j = 0; j < nc; j++) {
-                Object xjObj = x.getDataAtAsObject(j);
-                if (j > 0) {
-                    tmp.append(csep);
+            for (int i = from; i < to; i++) {
+                if (rowNames != null) {
+                    if (i >= rowNames.length) {
+                        throw new IllegalArgumentException("index out of range");
+                    }
+                    appendStringElement(sb, rowNames[i], quoteRn, qmethod);
+                    sb.append(csep);
                 }
-                if (xjObj instanceof RAbstractContainer) {
-                    RAbstractContainer xj = (RAbstractContainer) xjObj;
-                    if (isna(xj, i)) {
-                        tmp.append(cna);
-                    } else {
-                        if (levels[j] != null) {
-                            tmp.append(encodeElement2(levels[j], (int) xj.getDataAtAsObject(i) - 1, quoteCol[j], qmethod, cdec));
-                        } else {
-                            tmp.append(encodeElement2((RAbstractVector) xj, i, quoteCol[j], qmethod, cdec));
-                        }
-                        /* if(cdec) change_dec(tmp, cdec, TYPEOF(xj)); */
+                for (int j = 0; j < cols.length; j++) {
+                    if (j > 0) {
+                        sb.append(csep);
                     }
-                } else {
-                    tmp.append(encodePrimitiveElement(xjObj, cna, quoteRn, qmethod));
-                    /* if(cdec) change_dec(tmp, cdec, TYPEOF(xj)); */
+                    cols[j].append(sb, i);
                 }
+                sb.append(ceol);
             }
-            tmp.append(ceol);
-            con.writeString(tmp.toString(), false);
-            tmp.setLength(0);
+            return sb;
         }
     }
 
-    private static String encodeStringElement(String p0, boolean quote, boolean qmethod) {
+    /**
+     * Appends the elements of one column. The data are fetched from the vector once, when the
+     * formatter is created on the calling thread, so that the formatting of the individual cells
+     * neither boxes the values nor needs the context.
+     */
+    private abstract static class ColumnFormatter {
+        protected final int offset;
+        protected final String cna;
+
+        ColumnFormatter(int offset, String cna) {
+            this.offset = offset;
+            this.cna = cna;
+        }
+
+        boolean isThreadSafe() {
+            return true;
+        }
+
+        /**
+         * Returns the formatter used by one block of rows, formatters with per-task state return a
+         * copy.
+         */
+        ColumnFormatter forTask() {
+            return this;
+        }
+
+        abstract void append(StringBuilder sb, int row);
+    }
+
+    private static ColumnFormatter createFormatter(RAbstractContainer x, int offset, String cna, boolean quote, boolean qmethod) {
+        if (x instanceof RDoubleVector) {
+            return new DoubleFormatter((RDoubleVector) x, offset, cna);
+        } else if (x instanceof RIntVector) {
+            return new IntFormatter(((RIntVector) x).getReadonlyData(), offset, cna);
+        } else if (x instanceof RLogicalVector) {
+            return new LogicalFormatter(((RLogicalVector) x).getReadonlyData(), offset, cna);
+        } else if (x instanceof RStringVector) {
+            return new StringFormatter(((RStringVector) x).getReadonlyStringData(), offset, cna, quote, qmethod);
+        } else if (x instanceof RComplexVector) {
+            return new ComplexFormatter((RComplexVector) x, offset, cna);
+        } else if (x instanceof RRawVector) {
+            return new RawFormatter(((RRawVector) x).getReadonlyData(), offset);
+        }
+        return new ColumnFormatter(offset, cna) {
+            @Override
+            void append(StringBuilder sb, int row) {
+                throw RInternalError.unimplemented();
+            }
+        };
+    }
+
+    private static final class IntFormatter extends ColumnFormatter {
+        private final int[] data;
+
+        IntFormatter(int[] data, int offset, String cna) {
+            super(offset, cna);
+            this.data = data;
+        }
+
+        @Override
+        void append(StringBuilder sb, int row) {
+            int v = data[offset + row];
+            if (RRuntime.isNA(v)) {
+                sb.append(cna);
+            } else {
+                sb.append(v);
+            }
+        }
+    }
+
+    private static final class LogicalFormatter extends ColumnFormatter {
+        private final byte[] data;
+
+        LogicalFormatter(byte[] data, int offset, String cna) {
+            super(offset, cna);
+            this.data = data;
+        }
+
+        @Override
+        void append(StringBuilder sb, int row) {
+            byte v = data[offset + row];
+            if (RRuntime.isNA(v)) {
+                sb.append(cna);
+            } else {
+                sb.append(RRuntime.logicalToStringNoCheck(v));
+            }
+        }
+    }
+
+    private static final class DoubleFormatter extends ColumnFormatter {
+        /**
+         * Integral values in this range are printed as integers in fixed notation by
+         * {@link DoubleVectorPrinter#encodeReal(double)}, because the scientific notation is never
+         * shorter for them.
+         */
+        private static final double SMALL_INTEGRAL_LIMIT = 100000;
+
+        private final double[] data;
+        private final RDoubleVector vector;
+        private final VectorAccess access;
+        private final RandomIterator iter;
+
+        DoubleFormatter(RDoubleVector x, int offset, String cna) {
+            super(offset, cna);
+            this.data = x.getReadonlyData();
+            // encodeReal reads the elements through an access, wrap the data without copying them
+            this.vector = RDataFactory.createDoubleVector(data, x.isComplete());
+            this.access = vector.slowPathAccess();
+            this.iter = null;
+        }
+
+        private DoubleFormatter(DoubleFormatter formatter) {
+            super(formatter.offset, formatter.cna);
+            this.data = formatter.data;
+            this.vector = formatter.vector;
+            this.access = formatter.access;
+            this.iter = access.randomAccess(vector);
+        }
+
+        @Override
+        ColumnFormatter forTask() {
+            // the iterator is not shared between the tasks
+            return new DoubleFormatter(this);
+        }
+
+        @Override
+        void append(StringBuilder sb, int row) {
+            int index = offset + row;
+            double v = data[index];
+            if (RRuntime.isNA(v)) {
+                sb.append(cna);
+            } else if (v == (int) v && Math.abs(v) < SMALL_INTEGRAL_LIMIT) {
+                sb.append((int) v);
+            } else {
+                sb.append(DoubleVectorPrinter.encodeReal(iter, access, index));
+            }
+        }
+    }
+
+    private static final class ComplexFormatter extends ColumnFormatter {
+        private final RComplexVector vector;
+
+        ComplexFormatter(RComplexVector vector, int offset, String cna) {
+            super(offset, cna);
+            this.vector = vector;
+        }
+
+        @Override
+        boolean isThreadSafe() {
+            // encodeComplex allocates a temporary vector
+            return false;
+        }
+
+        @Override
+        void append(StringBuilder sb, int row) {
+            RComplex v = vector.getDataAt(offset + row);
+            if (v.isNA()) {
+                sb.append(cna);
+            } else {
+                sb.append(ComplexVectorPrinter.encodeComplex(v));
+            }
+        }
+    }
+
+    private static final class RawFormatter extends ColumnFormatter {
+        private final byte[] data;
+
+        RawFormatter(byte[] data, int offset) {
+            super(offset, null);
+            this.data = data;
+        }
+
+        @Override
+        void append(StringBuilder sb, int row) {
+            sb.append(RRuntime.rawToHexString(data[offset + row]));
+        }
+    }
+
+    private static final class StringFormatter extends ColumnFormatter {
+        private final String[] data;
+        private final boolean quote;
+        private final boolean qmethod;
+
+        StringFormatter(String[] data, int offset, String cna, boolean quote, boolean qmethod) {
+            super(offset, cna);
+            this.data = data;
+            this.quote = quote;
+            this.qmethod = qmethod;
+        }
+
+        @Override
+        void append(StringBuilder sb, int row) {
+            String v = data[offset + row];
+            if (RRuntime.isNA(v)) {
+                sb.append(cna);
+            } else {
+                appendStringElement(sb, v, quote, qmethod);
+            }
+        }
+    }
+
+    private static final class FactorFormatter extends ColumnFormatter {
+        private final int[] codes;
+        private final String[] levels;
+        private final boolean quote;
+        private final boolean qmethod;
+
+        FactorFormatter(RIntVector codes, RStringVector levels, String cna, boolean quote, boolean qmethod) {
+            super(0, cna);
+            this.codes = codes.getReadonlyData();
+            this.levels = levels.getReadonlyStringData();
+            this.quote = quote;
+            this.qmethod = qmethod;
+        }
+
+        @Override
+        void append(StringBuilder sb, int row) {
+            int code = codes[row];
+            if (RRuntime.isNA(code)) {
+                sb.append(cna);
+            } else {
+                if (code < 1 || code > levels.length) {
+                    throw new IllegalArgumentException("index out of range");
+                }
+                appendStringElement(sb, levels[code - 1], quote, qmethod);
+            }
+        }
+    }
+
+    private static final class ConstantFormatter extends ColumnFormatter {
+        private final String value;
+
+        ConstantFormatter(String value) {
+            super(0, null);
+            this.value = value;
+        }
+
+        @Override
+        void append(StringBuilder sb, int row) {
+            sb.append(value);
+        }
+    }
+
+    private static void appendStringElement(StringBuilder sb, String p0, boolean quote, boolean qmethod) {
         if (!quote) {
-            return p0;
+            sb.append(p0);
+            return;
         }
-        StringBuilder sb = new StringBuilder();
         sb.append('"');
         for (int i = 0; i < p0.length(); i++) {
             char p = p0.charAt(i);
@@ -209,20 +519,15 @@ public abstract class WriteTable extends RExternalBuiltinNode.Arg11 {
             sb.append(p);
         }
         sb.append('"');
-        return sb.toString();
     }
 
-    /* a version of EncodeElement with different escaping of char strings */
-    private static String encodeElement2(RAbstractVector x, int indx, boolean quote, boolean qmethod, char cdec) {
-        if (indx < 0 || indx >= x.getLength()) {
-            throw new IllegalArgumentException("index out of range");
-        }
-        if (x instanceof RStringVector) {
-            RStringVector sx = (RStringVector) x;
-            String p0 = /* translateChar */sx.getDataAt(indx);
-            return encodeStringElement(p0, quote, qmethod);
+    private static String encodeStringElement(String p0, boolean quote, boolean qmethod) {
+        if (!quote) {
+            return p0;
         }
-        return encodeElement(x, indx, quote ? '"' : 0, cdec);
+        StringBuilder sb = new StringBuilder(p0.length() + 2);
+        appendStringElement(sb, p0, quote, qmethod);
+        return sb.toString();
     }
 
     private static String encodePrimitiveElement(Object o, String cna, boolean quote, boolean qmethod) {
@@ -248,48 +553,6 @@ public abstract class WriteTable extends RExternalBuiltinNode.Arg11 {
         throw RInternalError.unimplemented();
     }
 
-    private static boolean isna(RAbstractContainer x, int indx) {
-        if (x instanceof RLogicalVector) {
-            return RRuntime.isNA(((RLogicalVector) x).getDataAt(indx));
-        } else if (x instanceof RDoubleVector) {
-            return RRuntime.isNA(((RDoubleVector) x).getDataAt(indx));
-        } else if (x instanceof RIntVector) {
-            return RRuntime.isNA(((RIntVector) x).getDataAt(indx));
-        } else if (x instanceof RStringVector) {
-            return RRuntime.isNA(((RStringVector) x).getDataAt(indx));
-        } else if (x instanceof RComplexVector) {
-            RComplexVector cvec = (RComplexVector) x;
-            RComplex c = cvec.getDataAt(indx);
-            return c.isNA();
-        } else {
-            return false;
-        }
-    }
-
-    private static String encodeElement(Object x, int indx, @SuppressWarnings("unused") char quote, @SuppressWarnings("unused") char dec) {
-        if (x instanceof RDoubleVector) {
-            RDoubleVector v = (RDoubleVector) x;
-            return DoubleVectorPrinter.encodeReal(v.getDataAt(indx));
-        }
-        if (x instanceof RIntVector) {
-            RIntVector v = (RIntVector) x;
-            return RRuntime.intToString(v.getDataAt(indx));
-        }
-        if (x instanceof RLogicalVector) {
-            RLogicalVector v = (RLogicalVector) x;
-            return RRuntime.logicalToString(v.getDataAt(indx));
-        }
-        if (x instanceof RComplexVector) {
-            RComplexVector v = (RComplexVector) x;
-            return ComplexVectorPrinter.encodeComplex(v.getDataAt(indx));
-        }
-        if (x instanceof RRawVector) {
-            RRawVector v = (RRawVector) x;
-            return RRuntime.rawToHexString(v.getRawDataAt(indx));
-        }
-        throw RInternalError.unimplemented();
-    }
-
     @TruffleBoundary
     private static boolean isFactor(RAbstractContainer v) {
         RStringVector hierarchy = ClassHierarchyNode.getClassHierarchy(v);
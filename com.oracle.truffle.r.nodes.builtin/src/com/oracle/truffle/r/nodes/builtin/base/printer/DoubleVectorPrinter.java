@@ -386,6 +386,16 @@ public final class DoubleVectorPrinter extends VectorPrinter<RDoubleVector> {
         return encodeReal(x, dm.maxWidth, dm.d, dm.e, cdec, naString);
     }
 
+    /**
+     * Like {@link #encodeReal(double)}, but encodes an element of an existing vector, so that no
+     * temporary vector needs to be allocated.
+     */
+    @TruffleBoundary
+    public static String encodeReal(RandomIterator iter, VectorAccess access, int index) {
+        DoubleVectorMetrics dm = formatDoubleVector(iter, access, index, 1, 0, 15, 0, RRuntime.STRING_NA.length());
+        return encodeReal(access.getDouble(iter, index), dm.maxWidth, dm.d, dm.e, '.', RRuntime.STRING_NA);
+    }
+
     @TruffleBoundary
     static String encodeReal(double initialX, int w, int d, int e, char cdec, PrintParameters pp) {
         return encodeReal(initialX, w, d, e, cdec, pp.getNaString());
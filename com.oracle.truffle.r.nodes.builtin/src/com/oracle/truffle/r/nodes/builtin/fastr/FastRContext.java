@@ -63,6 +63,7 @@ import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractListVector;
 import com.oracle.truffle.r.runtime.env.REnvironment;
+import com.oracle.truffle.r.runtime.rng.RRNG;
 
 /**
  * The FastR builtins that allow multiple "virtual" R sessions potentially executing in parallel.
@@ -251,6 +252,7 @@ public class FastRContext {
                 for (int i = 0; i < handle.getLength(); i++) {
                     int id = handle.getDataAt(i);
                     Thread thread = getRContext().threads.get(id);
+                    getRContext().pooledThreads.remove(id);
                     if (EvalThread.idToMultiSlotTable.containsKey(id)) {
                         multiSlotIndices[i] = EvalThread.idToMultiSlotTable.remove(id);
                     }
@@ -275,6 +277,33 @@ public class FastRContext {
         }
     }
 
+    /**
+     * Marks contexts created by {@code .fastr.context.spawn} as members of the persistent worker
+     * pool. Pooled contexts are reused across {@code mclapply} calls and pooled SHARED clusters
+     * instead of being joined after each call; the ones that are not joined explicitly are shut
+     * down when the spawning context is finalized.
+     */
+    @RBuiltin(name = ".fastr.context.pooled", visibility = OFF, kind = PRIMITIVE, parameterNames = {"handle"}, behavior = COMPLEX)
+    public abstract static class Pooled extends RBuiltinNode.Arg1 {
+
+        static {
+            Casts casts = new Casts(Pooled.class);
+            casts.arg("handle").asIntegerVector().mustBe(notEmpty());
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected RNull pooled(RIntVector handle) {
+            for (int i = 0; i < handle.getLength(); i++) {
+                int id = handle.getDataAt(i);
+                if (getRContext().threads.containsKey(id)) {
+                    getRContext().pooledThreads.add(id);
+                }
+            }
+            return RNull.instance;
+        }
+    }
+
     @RBuiltin(name = ".fastr.context.interrupt", visibility = OFF, kind = PRIMITIVE, parameterNames = {"handle"}, behavior = COMPLEX)
     public abstract static class Interrupt extends RBuiltinNode.Arg1 {
 
@@ -445,10 +474,16 @@ public class FastRContext {
         return result;
     }
 
+    /**
+     * Creates the info of a child context. The contexts are created in the order of their ranks on
+     * the parent's thread, which also assigns their random number streams.
+     */
     private static ChildContextInfo createContextInfo(RContext.ContextKind contextKind) {
         RContext context = RContext.getInstance();
         ConsoleIO console = context.getConsole();
-        return ChildContextInfo.createNoRestore(Client.RSCRIPT, null, contextKind, context, console.getStdin(), console.getStdout(), console.getStderr());
+        ChildContextInfo info = ChildContextInfo.createNoRestore(Client.RSCRIPT, null, contextKind, context, console.getStdin(), console.getStdout(), console.getStderr());
+        info.setRandomSeed(RRNG.nextChildRandomSeed());
+        return info;
     }
 
     @RBuiltin(name = ".fastr.channel.create", kind = PRIMITIVE, parameterNames = {"key"}, behavior = COMPLEX)
@@ -559,33 +594,72 @@ public class FastRContext {
         }
     }
 
-    @RBuiltin(name = ".fastr.channel.select", kind = PRIMITIVE, parameterNames = {"ids"}, behavior = COMPLEX)
-    public abstract static class ChannelSelect extends RBuiltinNode.Arg1 {
+    /**
+     * Waits for a message from any of the given channels and returns a list with the id of the
+     * channel and the message, or {@code NULL} if {@code timeout} (in seconds) elapses first. The
+     * invoking thread is blocked, rather than polling, until some message arrives.
+     */
+    @RBuiltin(name = ".fastr.channel.select", kind = PRIMITIVE, parameterNames = {"ids", "timeout"}, behavior = COMPLEX)
+    public abstract static class ChannelSelect extends RBuiltinNode.Arg2 {
+
+        @Override
+        public Object[] getDefaultParameterValues() {
+            return new Object[]{RMissing.instance, RRuntime.DOUBLE_NA};
+        }
 
         static {
             Casts casts = new Casts(ChannelSelect.class);
             casts.arg("ids").mustBe(instanceOf(RList.class));
+            casts.arg("timeout").asDoubleVector().findFirst();
         }
 
         @Specialization
         @TruffleBoundary
-        protected RList select(RList nodes) {
-            int ind = 0;
+        protected Object select(RList nodes, double timeout) {
             int length = nodes.getLength();
-            while (true) {
-                Object o = nodes.getDataAt(ind);
-                ind = (ind + 1) % length;
-                int id;
+            int[] ids = new int[length];
+            for (int i = 0; i < length; i++) {
+                Object o = nodes.getDataAt(i);
                 if (o instanceof Integer) {
-                    id = (int) o;
+                    ids[i] = (int) o;
                 } else {
-                    id = ((RIntVector) o).getDataAt(0);
-                }
-                Object res = RChannel.poll(id);
-                if (res != null) {
-                    return RDataFactory.createList(new Object[]{id, res});
+                    ids[i] = ((RIntVector) o).getDataAt(0);
                 }
             }
+            long timeoutMillis = RRuntime.isNA(timeout) || timeout < 0 ? -1 : (long) (timeout * 1000);
+            Object[] res = RChannel.select(ids, timeoutMillis);
+            return res == null ? RNull.instance : RDataFactory.createList(res);
+        }
+    }
+
+    /**
+     * Returns the statistics of waiting for messages in {@code .fastr.channel.select} and
+     * {@code .fastr.channel.receive}, which show how long the receiving contexts (e.g., the master
+     * of a SHARED cluster) were idle.
+     */
+    @RBuiltin(name = ".fastr.channel.stats", kind = PRIMITIVE, parameterNames = {"reset"}, behavior = COMPLEX)
+    public abstract static class ChannelStats extends RBuiltinNode.Arg1 {
+
+        private static final RStringVector NAMES = RDataFactory.createStringVector(new String[]{"selects", "selectsWaiting", "selectWaitTime", "receives", "receiveWaitTime"},
+                        RDataFactory.COMPLETE_VECTOR);
+
+        @Override
+        public Object[] getDefaultParameterValues() {
+            return new Object[]{RRuntime.LOGICAL_FALSE};
+        }
+
+        static {
+            Casts casts = new Casts(ChannelStats.class);
+            casts.arg("reset").asLogicalVector().findFirst().map(toBoolean());
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected RList stats(boolean reset) {
+            long[] stats = RChannel.getWaitStatistics(reset);
+            // wait times are reported in seconds like in proc.time()
+            Object[] data = new Object[]{(double) stats[0], (double) stats[1], stats[2] / 1e9, (double) stats[3], stats[4] / 1e9};
+            return RDataFactory.createList(data, NAMES);
         }
     }
 }
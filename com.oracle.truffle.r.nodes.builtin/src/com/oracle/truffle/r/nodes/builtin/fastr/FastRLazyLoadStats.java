@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2022, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.fastr;
+
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
+import static com.oracle.truffle.r.runtime.builtins.RBehavior.COMPLEX;
+import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.LazyDBCache;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RList;
+import com.oracle.truffle.r.runtime.data.RStringVector;
+
+/**
+ * Returns the statistics of the process-wide cache of entries fetched from lazy-load databases and
+ * the number of databases in use that are memory mapped ({@code mapped}) or read into the heap
+ * ({@code buffered}), and the number of pending background tasks uncompressing entries
+ * ({@code prefetching}, see {@code --R.LazyLoadPrefetch}).
+ */
+@RBuiltin(name = ".fastr.lazyload.stats", kind = PRIMITIVE, parameterNames = {"reset"}, behavior = COMPLEX)
+public abstract class FastRLazyLoadStats extends RBuiltinNode.Arg1 {
+
+    private static final RStringVector NAMES = RDataFactory.createStringVector(new String[]{"hits", "misses", "entries", "size", "mapped", "buffered", "prefetching"}, RDataFactory.COMPLETE_VECTOR);
+
+    @Override
+    public Object[] getDefaultParameterValues() {
+        return new Object[]{RRuntime.LOGICAL_FALSE};
+    }
+
+    static {
+        Casts casts = new Casts(FastRLazyLoadStats.class);
+        casts.arg("reset").asLogicalVector().findFirst().map(toBoolean());
+    }
+
+    @Specialization
+    @TruffleBoundary
+    protected RList stats(boolean reset) {
+        long[] stats = LazyDBCache.getStatistics(reset);
+        return RDataFactory.createList(new Object[]{(double) stats[0], (double) stats[1], (double) stats[2], (double) stats[3], (double) stats[4], (double) stats[5], (double) stats[6]}, NAMES);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2022, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.fastr;
+
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.length;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.lengthLte;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.stringValue;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
+import static com.oracle.truffle.r.runtime.builtins.RBehavior.IO;
+import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.ParallelTableReader;
+import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RError.Message;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.Utils;
+import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.conn.ConnectionSupport;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RList;
+import com.oracle.truffle.r.runtime.data.RStringVector;
+
+/**
+ * Reads a delimited text file into a data frame on several threads, see
+ * {@link ParallelTableReader}. This is an opt-in alternative to {@code read.table} for large local
+ * files; the types of the columns are inferred as by {@code type.convert(as.is=TRUE)} and the
+ * column names are used as they are. The file is decoded from {@code fileEncoding}, which defaults
+ * to the native encoding as in {@code read.table}.
+ */
+@RBuiltin(name = ".fastr.read.table", kind = PRIMITIVE, parameterNames = {"file", "header", "sep", "quote", "dec", "na.strings", "threads", "fileEncoding"}, behavior = IO)
+public abstract class FastRReadTable extends RBuiltinNode.Arg8 {
+
+    @Override
+    public Object[] getDefaultParameterValues() {
+        return new Object[]{RRuntime.STRING_NA, RRuntime.LOGICAL_TRUE, ",", "\"", ".", RDataFactory.createStringVector("NA"), 0, ""};
+    }
+
+    static {
+        Casts casts = new Casts(FastRReadTable.class);
+        casts.arg("file").mustBe(stringValue()).asStringVector().findFirst().mustNotBeNA(RError.Message.INVALID_ARGUMENT, "file");
+        casts.arg("header").asLogicalVector().findFirst().mustNotBeNA().map(toBoolean());
+        casts.arg("sep").mustBe(stringValue()).asStringVector().findFirst("").mustBe(lengthLte(1), RError.Message.MUST_BE_ONE_BYTE, "'sep' value");
+        casts.arg("quote").mustBe(stringValue()).asStringVector().findFirst("");
+        casts.arg("dec").defaultError(RError.Message.INVALID_DECIMAL_SEP).mustBe(stringValue()).asStringVector().findFirst(".").mustBe(length(1), RError.Message.MUST_BE_ONE_BYTE, "'dec' value");
+        casts.arg("na.strings").mustBe(stringValue()).asStringVector();
+        casts.arg("threads").asIntegerVector().findFirst(0).replaceNA(0);
+        casts.arg("fileEncoding").mustBe(stringValue()).asStringVector().findFirst("");
+    }
+
+    @Specialization
+    @TruffleBoundary
+    protected RList read(String file, boolean header, String sep, String quote, String dec, RStringVector naStrings, int threads, String fileEncoding) {
+        Charset charset;
+        try {
+            charset = Charset.forName(ConnectionSupport.convertEncodingName(fileEncoding));
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+            throw error(Message.UNSUPPORTED_ENCODING_CONVERSION, fileEncoding, "");
+        }
+        if (!ParallelTableReader.isSupportedEncoding(charset)) {
+            throw error(Message.UNSUPPORTED_ENCODING_CONVERSION, fileEncoding, "");
+        }
+        String path = Utils.tildeExpand(file);
+        try {
+            return ParallelTableReader.read(getRContext().getSafeTruffleFile(path), header, sep, quote, dec, naStrings, threads, charset);
+        } catch (IOException e) {
+            throw error(Message.CANNOT_OPEN_FILE, path, e.getMessage());
+        }
+    }
+}
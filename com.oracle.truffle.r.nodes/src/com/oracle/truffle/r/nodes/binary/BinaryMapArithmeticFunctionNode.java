@@ -24,6 +24,7 @@ package com.oracle.truffle.r.nodes.binary;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.r.nodes.primitive.ArrayKernels;
 import com.oracle.truffle.r.nodes.primitive.BinaryMapNAFunctionNode;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RRuntime;
@@ -105,6 +106,11 @@ public final class BinaryMapArithmeticFunctionNode extends BinaryMapNAFunctionNo
         return arithmetic instanceof Add || arithmetic instanceof Subtract;
     }
 
+    @Override
+    public ArrayKernels.Arithmetic getArithmeticKernel() {
+        return ArrayKernels.Arithmetic.forOperation(arithmetic.opName());
+    }
+
     @Override
     public double applyDouble(double left, double right) {
         if (leftNACheck.check(left)) {
@@ -23,9 +23,11 @@
 package com.oracle.truffle.r.nodes.binary;
 
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.r.nodes.primitive.ArrayKernels;
 import com.oracle.truffle.r.nodes.primitive.BinaryMapNAFunctionNode;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.data.RComplex;
+import com.oracle.truffle.r.runtime.ops.BinaryCompare;
 import com.oracle.truffle.r.runtime.ops.BinaryLogic.And;
 import com.oracle.truffle.r.runtime.ops.BinaryLogic.Or;
 import com.oracle.truffle.r.runtime.ops.BooleanOperation;
@@ -44,6 +46,11 @@ public final class BinaryMapBooleanFunctionNode extends BinaryMapNAFunctionNode
         return false;
     }
 
+    @Override
+    public ArrayKernels.Compare getCompareKernel() {
+        return operation instanceof BinaryCompare ? ArrayKernels.Compare.forOperation(operation.opName()) : null;
+    }
+
     @Override
     public byte applyLogical(byte left, byte right) {
         assert RRuntime.isValidLogical(left);
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2013, 2022, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -22,7 +22,9 @@
  */
 package com.oracle.truffle.r.nodes.builtin;
 
+import java.lang.ref.SoftReference;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.dsl.Cached;
@@ -36,6 +38,7 @@ import com.oracle.truffle.r.runtime.DSLConfig;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RType;
 import com.oracle.truffle.r.runtime.data.CharSXPWrapper;
+import com.oracle.truffle.r.runtime.data.LookupIndexHolder;
 import com.oracle.truffle.r.runtime.data.RComplex;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
@@ -844,24 +847,30 @@ public abstract class MatchInternalNode extends AbstractMatchNode {
             boolean matchAll = true;
 
             RandomAccessIterator rit = tableDataLib.randomAccessIterator(tableData);
-            NonRecursiveHashMapInt hashTable;
-            if (bigTableProfile.profile(tableLength > (xLength * TABLE_SIZE_FACTOR))) {
-                hashTable = new NonRecursiveHashMapInt(xLength);
-                NonRecursiveHashSetInt hashSet = new NonRecursiveHashSetInt(xLength);
-                SeqIterator it = xDataLib.iterator(xData);
-                while (xDataLib.nextLoopCondition(xData, it)) {
-                    hashSet.add(xDataLib.getNextInt(xData, it));
-                }
-                for (int i = tableLength - 1; i >= 0; i--) {
-                    int val = tableDataLib.getInt(tableData, rit, i);
-                    if (hashSet.contains(val)) {
-                        hashTable.put(val, i);
+            NonRecursiveHashMapInt hashTable = getCachedIndex(tableData, NonRecursiveHashMapInt.class);
+            if (hashTable == null) {
+                boolean cacheable = isCacheable(table, tableData, tableLength);
+                if (bigTableProfile.profile(tableLength > (xLength * TABLE_SIZE_FACTOR)) && !cacheable) {
+                    hashTable = new NonRecursiveHashMapInt(xLength);
+                    NonRecursiveHashSetInt hashSet = new NonRecursiveHashSetInt(xLength);
+                    SeqIterator it = xDataLib.iterator(xData);
+                    while (xDataLib.nextLoopCondition(xData, it)) {
+                        hashSet.add(xDataLib.getNextInt(xData, it));
+                    }
+                    for (int i = tableLength - 1; i >= 0; i--) {
+                        int val = tableDataLib.getInt(tableData, rit, i);
+                        if (hashSet.contains(val)) {
+                            hashTable.put(val, i);
+                        }
+                    }
+                } else {
+                    hashTable = new NonRecursiveHashMapInt(tableLength);
+                    for (int i = tableLength - 1; i >= 0; i--) {
+                        hashTable.put(tableDataLib.getInt(tableData, rit, i), i);
+                    }
+                    if (cacheable) {
+                        cacheIndex(tableData, hashTable);
                     }
-                }
-            } else {
-                hashTable = new NonRecursiveHashMapInt(tableLength);
-                for (int i = tableLength - 1; i >= 0; i--) {
-                    hashTable.put(tableDataLib.getInt(tableData, rit, i), i);
                 }
             }
             SeqIterator it = xDataLib.iterator(xData);
@@ -891,24 +900,30 @@ public abstract class MatchInternalNode extends AbstractMatchNode {
             int[] result = initResult(xLength, nomatch);
             boolean matchAll = true;
             RandomAccessIterator rit = tableDataLib.randomAccessIterator(tableData);
-            NonRecursiveHashMapDouble hashTable;
-            if (bigTableProfile.profile(tableLength > (xLength * TABLE_SIZE_FACTOR))) {
-                hashTable = new NonRecursiveHashMapDouble(xLength);
-                NonRecursiveHashSetDouble hashSet = new NonRecursiveHashSetDouble(xLength);
-                SeqIterator it = xDataLib.iterator(xData);
-                while (xDataLib.nextLoopCondition(xData, it)) {
-                    hashSet.add(xDataLib.getNextDouble(xData, it));
-                }
-                for (int i = tableLength - 1; i >= 0; i--) {
-                    double val = tableDataLib.getDouble(tableData, rit, i);
-                    if (hashSet.contains(val)) {
-                        hashTable.put(val, i);
+            NonRecursiveHashMapDouble hashTable = getCachedIndex(tableData, NonRecursiveHashMapDouble.class);
+            if (hashTable == null) {
+                boolean cacheable = isCacheable(table, tableData, tableLength);
+                if (bigTableProfile.profile(tableLength > (xLength * TABLE_SIZE_FACTOR)) && !cacheable) {
+                    hashTable = new NonRecursiveHashMapDouble(xLength);
+                    NonRecursiveHashSetDouble hashSet = new NonRecursiveHashSetDouble(xLength);
+                    SeqIterator it = xDataLib.iterator(xData);
+                    while (xDataLib.nextLoopCondition(xData, it)) {
+                        hashSet.add(xDataLib.getNextDouble(xData, it));
+                    }
+                    for (int i = tableLength - 1; i >= 0; i--) {
+                        double val = tableDataLib.getDouble(tableData, rit, i);
+                        if (hashSet.contains(val)) {
+                            hashTable.put(val, i);
+                        }
+                    }
+                } else {
+                    hashTable = new NonRecursiveHashMapDouble(tableLength);
+                    for (int i = tableLength - 1; i >= 0; i--) {
+                        hashTable.put(tableDataLib.getDouble(tableData, rit, i), i);
+                    }
+                    if (cacheable) {
+                        cacheIndex(tableData, hashTable);
                     }
-                }
-            } else {
-                hashTable = new NonRecursiveHashMapDouble(tableLength);
-                for (int i = tableLength - 1; i >= 0; i--) {
-                    hashTable.put(tableDataLib.getDouble(tableData, rit, i), i);
                 }
             }
             SeqIterator it = xDataLib.iterator(xData);
@@ -985,25 +1000,31 @@ public abstract class MatchInternalNode extends AbstractMatchNode {
             int tableLength = tableDataLib.getLength(tableData);
             int[] result = initResult(xLength, nomatch);
             boolean matchAll = true;
-            NonRecursiveHashMapCharacter hashTable;
             RandomAccessIterator rit = tableDataLib.randomAccessIterator(tableData);
-            if (bigTableProfile.profile(tableLength > (xLength * TABLE_SIZE_FACTOR))) {
-                hashTable = new NonRecursiveHashMapCharacter(xLength);
-                NonRecursiveHashSetCharacter hashSet = new NonRecursiveHashSetCharacter(xLength);
-                SeqIterator it = xDataLib.iterator(xData);
-                while (xDataLib.nextLoopCondition(xData, it)) {
-                    hashSet.add(xDataLib.getNextString(xData, it));
-                }
-                for (int i = tableLength - 1; i >= 0; i--) {
-                    String val = tableDataLib.getString(tableData, rit, i);
-                    if (hashSet.contains(val)) {
-                        hashTable.put(val, i);
+            NonRecursiveHashMapCharacter hashTable = getCachedIndex(tableData, NonRecursiveHashMapCharacter.class);
+            if (hashTable == null) {
+                boolean cacheable = isCacheable(table, tableData, tableLength);
+                if (bigTableProfile.profile(tableLength > (xLength * TABLE_SIZE_FACTOR)) && !cacheable) {
+                    hashTable = new NonRecursiveHashMapCharacter(xLength);
+                    NonRecursiveHashSetCharacter hashSet = new NonRecursiveHashSetCharacter(xLength);
+                    SeqIterator it = xDataLib.iterator(xData);
+                    while (xDataLib.nextLoopCondition(xData, it)) {
+                        hashSet.add(xDataLib.getNextString(xData, it));
+                    }
+                    for (int i = tableLength - 1; i >= 0; i--) {
+                        String val = tableDataLib.getString(tableData, rit, i);
+                        if (hashSet.contains(val)) {
+                            hashTable.put(val, i);
+                        }
+                    }
+                } else {
+                    hashTable = new NonRecursiveHashMapCharacter(tableLength);
+                    for (int i = tableLength - 1; i >= 0; i--) {
+                        hashTable.put(tableDataLib.getString(tableData, rit, i), i);
+                    }
+                    if (cacheable) {
+                        cacheIndex(tableData, hashTable);
                     }
-                }
-            } else {
-                hashTable = new NonRecursiveHashMapCharacter(tableLength);
-                for (int i = tableLength - 1; i >= 0; i--) {
-                    hashTable.put(tableDataLib.getString(tableData, rit, i), i);
                 }
             }
             SeqIterator it = xDataLib.iterator(xData);
@@ -1020,6 +1041,69 @@ public abstract class MatchInternalNode extends AbstractMatchNode {
         }
     }
 
+    /**
+     * Minimal length of a {@code table} whose hash table is kept with its data for subsequent
+     * lookups, building smaller ones is cheap enough.
+     */
+    private static final int MIN_CACHED_TABLE_LENGTH = 1000;
+
+    private static final AtomicLong cachedIndexReuses = new AtomicLong();
+    private static final AtomicLong cachedIndexBuilds = new AtomicLong();
+
+    /**
+     * Holder of a hash table built over a whole {@code table}, which is attached to the
+     * {@link LookupIndexHolder table data}. The final field safely publishes the hash table also
+     * to other threads in case the data are shared. The hash table takes several times the memory
+     * of the table itself, so it is only softly reachable and the garbage collector reclaims it
+     * when memory gets short.
+     */
+    private static final class CachedIndex {
+        private final SoftReference<NonRecursiveHashMap> hashTable;
+
+        CachedIndex(NonRecursiveHashMap hashTable) {
+            this.hashTable = new SoftReference<>(hashTable);
+        }
+    }
+
+    /**
+     * Tables that are not temporary are likely to be matched against repeatedly, e.g.,
+     * {@code x %in% lookup} in a loop.
+     */
+    private static boolean isCacheable(RAbstractAtomicVector table, Object tableData, int tableLength) {
+        return tableLength >= MIN_CACHED_TABLE_LENGTH && tableData instanceof LookupIndexHolder && !table.isTemporary();
+    }
+
+    @CompilerDirectives.TruffleBoundary
+    private static <T extends NonRecursiveHashMap> T getCachedIndex(Object tableData, Class<T> hashTableClass) {
+        if (tableData instanceof LookupIndexHolder) {
+            Object index = ((LookupIndexHolder) tableData).getLookupIndex();
+            if (index instanceof CachedIndex) {
+                NonRecursiveHashMap hashTable = ((CachedIndex) index).hashTable.get();
+                if (hashTableClass.isInstance(hashTable)) {
+                    cachedIndexReuses.incrementAndGet();
+                    return hashTableClass.cast(hashTable);
+                }
+            }
+        }
+        return null;
+    }
+
+    @CompilerDirectives.TruffleBoundary
+    private static void cacheIndex(Object tableData, NonRecursiveHashMap hashTable) {
+        cachedIndexBuilds.incrementAndGet();
+        ((LookupIndexHolder) tableData).setLookupIndex(new CachedIndex(hashTable));
+    }
+
+    /**
+     * Returns the number of lookups that reused a cached hash table and the number of hash tables
+     * that were built and cached, optionally resetting the counters.
+     */
+    public static long[] getCachedIndexStatistics(boolean reset) {
+        long reuses = reset ? cachedIndexReuses.getAndSet(0) : cachedIndexReuses.get();
+        long builds = reset ? cachedIndexBuilds.getAndSet(0) : cachedIndexBuilds.get();
+        return new long[]{reuses, builds};
+    }
+
     // simple implementations of non-recursive hash-maps to enable compilation
     // TODO: consider replacing with a more efficient library implementation
 
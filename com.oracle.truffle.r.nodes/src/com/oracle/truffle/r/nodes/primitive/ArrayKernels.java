@@ -0,0 +1,376 @@
+/*
+ * Copyright (c) 2022, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.primitive;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.RRuntime;
+
+/**
+ * Tight array loops used when the operands are complete vectors backed by plain Java arrays.
+ * Without {@code NA} checks, iterators and vector data dispatch in the loop body, the loops are
+ * simple counted loops that the compiler can vectorize.
+ * <p>
+ * The element-wise loops take the operation as a parameter. Their callers hold the operation in a
+ * final field, so it is a constant when the loop is partially evaluated and the operation is
+ * inlined into the loop body. The operand lengths must either be equal or one of them must be
+ * {@code 1}, the caller falls back to the generic implementation for other recycling patterns. The
+ * result array may be one of the operands.
+ * <p>
+ * The reductions are only used where they give the same result as the sequential loop:
+ * {@code min}, {@code max} (and therefore {@code range}) for any order of the elements, and
+ * integer sums, which are exact in {@code long}. The double sum keeps its sequential loop. The
+ * reductions are behind {@link TruffleBoundary}, so that they are compiled once by the host
+ * compiler.
+ */
+public final class ArrayKernels {
+
+    private ArrayKernels() {
+        // no instances
+    }
+
+    @FunctionalInterface
+    public interface DoubleOp {
+        double apply(double left, double right);
+    }
+
+    /**
+     * Integer operation computed in {@code long}, so that the caller can detect the overflow.
+     */
+    @FunctionalInterface
+    public interface IntOp {
+        long apply(int left, int right);
+    }
+
+    @FunctionalInterface
+    public interface DoubleCompareOp {
+        boolean apply(double left, double right);
+    }
+
+    @FunctionalInterface
+    public interface IntCompareOp {
+        boolean apply(int left, int right);
+    }
+
+    /**
+     * Element-wise arithmetic. Operations on integers that have no integer result (e.g. division)
+     * have no {@link #intOp}.
+     */
+    public enum Arithmetic {
+        ADD((l, r) -> l + r, (l, r) -> (long) l + r),
+        SUBTRACT((l, r) -> l - r, (l, r) -> (long) l - r),
+        MULTIPLY((l, r) -> l * r, (l, r) -> (long) l * r),
+        DIVIDE((l, r) -> l / r, null);
+
+        public final DoubleOp doubleOp;
+        public final IntOp intOp;
+
+        Arithmetic(DoubleOp doubleOp, IntOp intOp) {
+            this.doubleOp = doubleOp;
+            this.intOp = intOp;
+        }
+
+        /**
+         * Returns the kernel for the given operation name or {@code null} if there is none.
+         */
+        public static Arithmetic forOperation(String opName) {
+            switch (opName) {
+                case "+":
+                    return ADD;
+                case "-":
+                    return SUBTRACT;
+                case "*":
+                    return MULTIPLY;
+                case "/":
+                    return DIVIDE;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    public enum Compare {
+        EQUAL((l, r) -> l == r, (l, r) -> l == r),
+        NOT_EQUAL((l, r) -> l != r, (l, r) -> l != r),
+        LESS((l, r) -> l < r, (l, r) -> l < r),
+        LESS_EQUAL((l, r) -> l <= r, (l, r) -> l <= r),
+        GREATER((l, r) -> l > r, (l, r) -> l > r),
+        GREATER_EQUAL((l, r) -> l >= r, (l, r) -> l >= r);
+
+        public final DoubleCompareOp doubleOp;
+        public final IntCompareOp intOp;
+
+        Compare(DoubleCompareOp doubleOp, IntCompareOp intOp) {
+            this.doubleOp = doubleOp;
+            this.intOp = intOp;
+        }
+
+        /**
+         * Returns the kernel for the given operation name or {@code null} if there is none.
+         */
+        public static Compare forOperation(String opName) {
+            switch (opName) {
+                case "==":
+                    return EQUAL;
+                case "!=":
+                    return NOT_EQUAL;
+                case "<":
+                    return LESS;
+                case "<=":
+                    return LESS_EQUAL;
+                case ">":
+                    return GREATER;
+                case ">=":
+                    return GREATER_EQUAL;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    /**
+     * Computes {@code result.length} elements, recycling the operand of length {@code 1}. The
+     * result of an operation on non-NA values is never {@code NA}.
+     */
+    public static void apply(DoubleOp op, double[] left, double[] right, double[] result) {
+        int length = result.length;
+        if (left.length == right.length) {
+            for (int i = 0; i < length; i++) {
+                result[i] = op.apply(left[i], right[i]);
+            }
+        } else if (left.length == 1) {
+            double value = left[0];
+            for (int i = 0; i < length; i++) {
+                result[i] = op.apply(value, right[i]);
+            }
+        } else {
+            double value = right[0];
+            for (int i = 0; i < length; i++) {
+                result[i] = op.apply(left[i], value);
+            }
+        }
+    }
+
+    /**
+     * Computes {@code result.length} elements, recycling the operand of length {@code 1}. Results
+     * that do not fit into an integer or that are equal to {@code NA} are replaced by {@code NA}.
+     *
+     * @return {@code true} if there was no such overflow
+     */
+    public static boolean apply(IntOp op, int[] left, int[] right, int[] result) {
+        int length = result.length;
+        boolean overflow = false;
+        if (left.length == right.length) {
+            for (int i = 0; i < length; i++) {
+                long value = op.apply(left[i], right[i]);
+                result[i] = intValue(value);
+                overflow |= result[i] == RRuntime.INT_NA;
+            }
+        } else if (left.length == 1) {
+            int value = left[0];
+            for (int i = 0; i < length; i++) {
+                result[i] = intValue(op.apply(value, right[i]));
+                overflow |= result[i] == RRuntime.INT_NA;
+            }
+        } else {
+            int value = right[0];
+            for (int i = 0; i < length; i++) {
+                result[i] = intValue(op.apply(left[i], value));
+                overflow |= result[i] == RRuntime.INT_NA;
+            }
+        }
+        return !overflow;
+    }
+
+    private static int intValue(long value) {
+        return (int) value == value ? (int) value : RRuntime.INT_NA;
+    }
+
+    /**
+     * Compares {@code result.length} elements, recycling the operand of length {@code 1}. The
+     * comparison itself is computed without branching on {@code NaN}, a second pass turns the
+     * results for {@code NaN} operands into {@code NA} only if there were any.
+     *
+     * @return {@code true} if the result is complete
+     */
+    public static boolean compare(DoubleCompareOp op, double[] left, double[] right, byte[] result) {
+        int length = result.length;
+        if (left.length == right.length) {
+            for (int i = 0; i < length; i++) {
+                result[i] = RRuntime.asLogical(op.apply(left[i], right[i]));
+            }
+        } else if (left.length == 1) {
+            double value = left[0];
+            for (int i = 0; i < length; i++) {
+                result[i] = RRuntime.asLogical(op.apply(value, right[i]));
+            }
+        } else {
+            double value = right[0];
+            for (int i = 0; i < length; i++) {
+                result[i] = RRuntime.asLogical(op.apply(left[i], value));
+            }
+        }
+        return markNaN(left, right, result);
+    }
+
+    /**
+     * Compares {@code result.length} elements, recycling the operand of length {@code 1}. The
+     * result is always complete.
+     */
+    public static void compare(IntCompareOp op, int[] left, int[] right, byte[] result) {
+        int length = result.length;
+        if (left.length == right.length) {
+            for (int i = 0; i < length; i++) {
+                result[i] = RRuntime.asLogical(op.apply(left[i], right[i]));
+            }
+        } else if (left.length == 1) {
+            int value = left[0];
+            for (int i = 0; i < length; i++) {
+                result[i] = RRuntime.asLogical(op.apply(value, right[i]));
+            }
+        } else {
+            int value = right[0];
+            for (int i = 0; i < length; i++) {
+                result[i] = RRuntime.asLogical(op.apply(left[i], value));
+            }
+        }
+    }
+
+    private static boolean markNaN(double[] left, double[] right, byte[] result) {
+        if (!containsNaN(left) && !containsNaN(right)) {
+            return true;
+        }
+        int length = result.length;
+        int leftLength = left.length;
+        int rightLength = right.length;
+        for (int i = 0; i < length; i++) {
+            double l = left[leftLength == 1 ? 0 : i];
+            double r = right[rightLength == 1 ? 0 : i];
+            if (Double.isNaN(l) || Double.isNaN(r)) {
+                result[i] = RRuntime.LOGICAL_NA;
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsNaN(double[] values) {
+        boolean nan = false;
+        for (int i = 0; i < values.length; i++) {
+            nan |= Double.isNaN(values[i]);
+        }
+        return nan;
+    }
+
+    /**
+     * Reductions of complete, non-empty arrays.
+     */
+    public enum Reduction {
+        SUM,
+        MIN,
+        MAX;
+
+        public static final long INT_SUM_OVERFLOW = Long.MIN_VALUE;
+
+        /**
+         * Returns the reduction for the given operation name or {@code null} if there is none.
+         */
+        public static Reduction forOperation(String opName) {
+            switch (opName) {
+                case "+":
+                    return SUM;
+                case "min":
+                    return MIN;
+                case "max":
+                    return MAX;
+                default:
+                    return null;
+            }
+        }
+
+        /**
+         * Returns the minimum or maximum, or {@code NaN} if there is any {@code NaN} in the array,
+         * in which case the caller has to use the sequential loop, which also determines which
+         * {@code NaN} is the result. The double sum is not supported: reordering the additions
+         * would change the result.
+         */
+        @TruffleBoundary
+        public double reduce(double[] values) {
+            assert this != SUM && values.length > 0;
+            double result = values[0];
+            boolean nan = false;
+            if (this == MIN) {
+                for (int i = 1; i < values.length; i++) {
+                    double value = values[i];
+                    nan |= value != value;
+                    // keeps the first of equal values (e.g., 0 and -0) like the sequential loop
+                    if (value < result) {
+                        result = value;
+                    }
+                }
+            } else {
+                for (int i = 1; i < values.length; i++) {
+                    double value = values[i];
+                    nan |= value != value;
+                    if (value > result) {
+                        result = value;
+                    }
+                }
+            }
+            return nan || result != result ? Double.NaN : result;
+        }
+
+        /**
+         * Returns the sum, minimum or maximum. For the sum, returns {@link #INT_SUM_OVERFLOW} if
+         * any partial sum does not fit into an integer, in which case the caller has to use the
+         * sequential loop, which continues in double precision from that point.
+         */
+        @TruffleBoundary
+        public long reduce(int[] values) {
+            assert values.length > 0;
+            switch (this) {
+                case SUM: {
+                    long result = 0;
+                    boolean overflow = false;
+                    for (int i = 0; i < values.length; i++) {
+                        result += values[i];
+                        overflow |= result > Integer.MAX_VALUE || result <= Integer.MIN_VALUE;
+                    }
+                    return overflow ? INT_SUM_OVERFLOW : result;
+                }
+                case MIN: {
+                    int result = values[0];
+                    for (int i = 1; i < values.length; i++) {
+                        result = Math.min(result, values[i]);
+                    }
+                    return result;
+                }
+                default: {
+                    int result = values[0];
+                    for (int i = 1; i < values.length; i++) {
+                        result = Math.max(result, values[i]);
+                    }
+                    return result;
+                }
+            }
+        }
+    }
+}
@@ -121,6 +121,22 @@ public abstract class BinaryMapFunctionNode extends RBaseNode {
 
     }
 
+    /**
+     * Returns the array kernel implementing this function for complete operands or
+     * <code>null</code> if there is none. See {@link ArrayKernels}.
+     */
+    public ArrayKernels.Arithmetic getArithmeticKernel() {
+        return null;
+    }
+
+    /**
+     * Returns the array kernel implementing this comparison for complete operands or
+     * <code>null</code> if there is none. See {@link ArrayKernels}.
+     */
+    public ArrayKernels.Compare getCompareKernel() {
+        return null;
+    }
+
     /**
      * Returns <code>true</code> if the result can always be considered complete.
      */
@@ -34,7 +34,11 @@ import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RType;
+import com.oracle.truffle.r.runtime.context.FastROptions;
+import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RComplex;
+import com.oracle.truffle.r.runtime.data.RDoubleArrayVectorData;
+import com.oracle.truffle.r.runtime.data.RIntArrayVectorData;
 import com.oracle.truffle.r.runtime.data.RRaw;
 import com.oracle.truffle.r.runtime.data.RScalarVector;
 import com.oracle.truffle.r.runtime.data.RSharingAttributeStorage;
@@ -167,6 +171,7 @@ final class BinaryMapVectorNode extends BinaryMapNode {
     private final ConditionProfile shareLeft;
     private final ConditionProfile shareRight;
     private final BranchProfile hasWarningsBranchProfile;
+    private final ConditionProfile kernelProfile;
 
     // compile-time optimization flags
     private final boolean mayContainMetadata;
@@ -174,6 +179,10 @@ final class BinaryMapVectorNode extends BinaryMapNode {
     private final boolean mayShareLeft;
     private final boolean mayShareRight;
 
+    // array kernels applicable to complete operands backed by arrays, null if not applicable
+    private final ArrayKernels.Arithmetic arithmeticKernel;
+    private final ArrayKernels.Compare compareKernel;
+
     BinaryMapVectorNode(BinaryMapFunctionNode function, RAbstractVector left, RAbstractVector right, RType argumentType, RType resultType, boolean copyAttributes, boolean isGeneric) {
         super(function, left, right, argumentType, resultType);
         this.leftLengthProfile = VectorLengthProfile.create();
@@ -203,6 +212,13 @@ final class BinaryMapVectorNode extends BinaryMapNode {
             leftLibrary = VectorDataLibrary.getFactory().create(left.getData());
             rightLibrary = VectorDataLibrary.getFactory().create(right.getData());
         }
+        boolean arrays = !isGeneric && RContext.getInstance().getOption(FastROptions.UseArrayKernels) &&
+                        (argumentType == RType.Double && leftDataClass == RDoubleArrayVectorData.class && rightDataClass == RDoubleArrayVectorData.class ||
+                                        argumentType == RType.Integer && leftDataClass == RIntArrayVectorData.class && rightDataClass == RIntArrayVectorData.class);
+        ArrayKernels.Arithmetic arithmetic = arrays && resultType == argumentType ? function.getArithmeticKernel() : null;
+        this.arithmeticKernel = arithmetic != null && (argumentType == RType.Double || arithmetic.intOp != null) ? arithmetic : null;
+        this.compareKernel = arrays && resultType == RType.Logical ? function.getCompareKernel() : null;
+        this.kernelProfile = arithmeticKernel != null || compareKernel != null ? ConditionProfile.createBinaryProfile() : null;
     }
 
     @Override
@@ -251,35 +267,52 @@ final class BinaryMapVectorNode extends BinaryMapNode {
 
             assert left.getLength() == leftLength;
             assert right.getLength() == rightLength;
+            boolean useKernel = kernelProfile != null && kernelProfile.profile(leftLibrary.isComplete(leftData) && rightLibrary.isComplete(rightData) &&
+                            (leftLength == rightLength || leftLength == 1 || rightLength == 1));
             SeqIterator leftIter = leftLibrary.iterator(leftData);
             SeqIterator rightIter = rightLibrary.iterator(rightData);
             if (mayShareLeft && left.getRType() == resultType && shareLeft.profile(leftLength == maxLength && ((RSharingAttributeStorage) left).isTemporary())) {
                 target = left;
                 SeqWriteIterator resultIter = leftLibrary.writeIterator(leftData);
+                boolean complete = function.isComplete();
                 try {
                     warningInfo = resultIter.getWarningInfo();
-                    vectorNode.execute(function, leftLength, rightLength, leftData, leftLibrary, resultIter, leftData, leftLibrary, leftIter, rightData, rightLibrary, rightIter);
+                    if (useKernel && isKernelTarget(resultIter)) {
+                        complete = applyKernel(resultIter, leftData, rightData, warningInfo);
+                    } else {
+                        vectorNode.execute(function, leftLength, rightLength, leftData, leftLibrary, resultIter, leftData, leftLibrary, leftIter, rightData, rightLibrary, rightIter);
+                    }
                 } finally {
-                    leftLibrary.commitWriteIterator(leftData, resultIter, function.isComplete());
+                    leftLibrary.commitWriteIterator(leftData, resultIter, complete);
                 }
             } else if (mayShareRight && right.getRType() == resultType && shareRight.profile(rightLength == maxLength && ((RSharingAttributeStorage) right).isTemporary())) {
                 target = right;
                 SeqWriteIterator resultIter = rightLibrary.writeIterator(rightData);
+                boolean complete = function.isComplete();
                 try {
                     warningInfo = resultIter.getWarningInfo();
-                    vectorNode.execute(function, leftLength, rightLength, rightData, rightLibrary, resultIter, leftData, leftLibrary, leftIter, rightData, rightLibrary, rightIter);
+                    if (useKernel && isKernelTarget(resultIter)) {
+                        complete = applyKernel(resultIter, leftData, rightData, warningInfo);
+                    } else {
+                        vectorNode.execute(function, leftLength, rightLength, rightData, rightLibrary, resultIter, leftData, leftLibrary, leftIter, rightData, rightLibrary, rightIter);
+                    }
                 } finally {
-                    rightLibrary.commitWriteIterator(rightData, resultIter, function.isComplete());
+                    rightLibrary.commitWriteIterator(rightData, resultIter, complete);
                 }
             } else {
                 target = resultType.create(maxLength, false);
                 Object targetData = target.getData();
                 SeqWriteIterator resultIter = getResultLibrary().writeIterator(targetData);
+                boolean complete = function.isComplete();
                 try {
                     warningInfo = resultIter.getWarningInfo();
-                    vectorNode.execute(function, leftLength, rightLength, targetData, getResultLibrary(), resultIter, leftData, leftLibrary, leftIter, rightData, rightLibrary, rightIter);
+                    if (useKernel && isKernelTarget(resultIter)) {
+                        complete = applyKernel(resultIter, leftData, rightData, warningInfo);
+                    } else {
+                        vectorNode.execute(function, leftLength, rightLength, targetData, getResultLibrary(), resultIter, leftData, leftLibrary, leftIter, rightData, rightLibrary, rightIter);
+                    }
                 } finally {
-                    getResultLibrary().commitWriteIterator(targetData, resultIter, function.isComplete());
+                    getResultLibrary().commitWriteIterator(targetData, resultIter, complete);
                 }
             }
             RBaseNode.reportWork(this, maxLength);
@@ -298,6 +331,48 @@ final class BinaryMapVectorNode extends BinaryMapNode {
         return target;
     }
 
+    /**
+     * Whether the write iterator writes directly into a Java array, which the kernels then fill.
+     */
+    private static boolean isKernelTarget(SeqWriteIterator resultIter) {
+        Object store = resultIter.getStore();
+        return store instanceof double[] || store instanceof int[] || store instanceof byte[];
+    }
+
+    /**
+     * Applies the array kernel to complete operands with trivial recycling. The target array is the
+     * store of the write iterator of either a new vector or one of the temporary operands, the
+     * kernels allow the result array to be one of the operand arrays.
+     *
+     * @return {@code true} if the result is complete
+     */
+    private boolean applyKernel(SeqWriteIterator resultIter, Object leftData, Object rightData, WarningInfo warningInfo) {
+        Object target = resultIter.getStore();
+        if (argumentType == RType.Double) {
+            double[] leftArray = leftLibrary.getReadonlyDoubleData(leftData);
+            double[] rightArray = rightLibrary.getReadonlyDoubleData(rightData);
+            if (arithmeticKernel != null) {
+                ArrayKernels.apply(arithmeticKernel.doubleOp, leftArray, rightArray, (double[]) target);
+                return true;
+            } else {
+                return ArrayKernels.compare(compareKernel.doubleOp, leftArray, rightArray, (byte[]) target);
+            }
+        } else {
+            int[] leftArray = leftLibrary.getReadonlyIntData(leftData);
+            int[] rightArray = rightLibrary.getReadonlyIntData(rightData);
+            if (arithmeticKernel != null) {
+                if (ArrayKernels.apply(arithmeticKernel.intOp, leftArray, rightArray, (int[]) target)) {
+                    return true;
+                }
+                warningInfo.setIntergerOverflow(true);
+                return false;
+            } else {
+                ArrayKernels.compare(compareKernel.intOp, leftArray, rightArray, (byte[]) target);
+                return true;
+            }
+        }
+    }
+
     private VectorDataLibrary getResultLibrary() {
         if (resultLibrary == null) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
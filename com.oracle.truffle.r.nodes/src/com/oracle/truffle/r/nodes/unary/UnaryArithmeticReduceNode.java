@@ -33,15 +33,20 @@ import com.oracle.truffle.api.library.CachedLibrary;
 import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef;
+import com.oracle.truffle.r.nodes.primitive.ArrayKernels;
 import com.oracle.truffle.r.runtime.DSLConfig;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.context.FastROptions;
+import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RComplex;
+import com.oracle.truffle.r.runtime.data.RDoubleArrayVectorData;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RTypes;
 import com.oracle.truffle.r.runtime.data.RComplexVector;
+import com.oracle.truffle.r.runtime.data.RIntArrayVectorData;
 import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RLogicalVector;
 import com.oracle.truffle.r.runtime.data.RStringVector;
@@ -83,12 +88,17 @@ public abstract class UnaryArithmeticReduceNode extends RBaseNodeWithWarnings {
 
     private final BranchProfile intNANoOverflowProfile = BranchProfile.create();
 
+    // array kernel applicable to complete vectors backed by arrays, null if not applicable
+    private final ArrayKernels.Reduction reduction;
+    private final ConditionProfile kernelProfile = ConditionProfile.createBinaryProfile();
+
     protected UnaryArithmeticReduceNode(ReduceSemantics semantics, BinaryArithmeticFactory factory) {
         this.factory = factory;
         this.semantics = semantics;
         this.arithmetic = factory.createOperation();
         this.supportString = semantics.supportString;
         this.supportComplex = semantics.supportComplex;
+        this.reduction = RContext.getInstance().getOption(FastROptions.UseArrayKernels) ? ArrayKernels.Reduction.forOperation(arithmetic.opName()) : null;
     }
 
     private void emptyWarning() {
@@ -198,6 +208,12 @@ public abstract class UnaryArithmeticReduceNode extends RBaseNodeWithWarnings {
     }
 
     private Object doInt(RAbstractVector vector, boolean naRm, VectorAccess access) {
+        if (reduction != null && kernelProfile.profile(vector.getData() instanceof RIntArrayVectorData && vector.getLength() > 0 && vector.isComplete())) {
+            long result = reduction.reduce(((RIntArrayVectorData) vector.getData()).getReadonlyIntData());
+            if (result != ArrayKernels.Reduction.INT_SUM_OVERFLOW) {
+                return (int) result;
+            }
+        }
         boolean profiledNaRm = naRmProfile.profile(naRm);
         int result = semantics.getIntStart();
         int oldResult = result;
@@ -286,6 +302,14 @@ public abstract class UnaryArithmeticReduceNode extends RBaseNodeWithWarnings {
     private double doDouble(RDoubleVector vector, boolean naRm, boolean finite, ConditionProfile finiteProfile, ConditionProfile isInfiniteProfile, VectorAccess access) {
         boolean profiledNaRm = naRmProfile.profile(naRm);
         boolean profiledFinite = finiteProfile.profile(finite);
+        if (reduction != null && reduction != ArrayKernels.Reduction.SUM &&
+                        kernelProfile.profile(!profiledFinite && vector.getData() instanceof RDoubleArrayVectorData && vector.getLength() > 0 && vector.isComplete())) {
+            double result = reduction.reduce(((RDoubleArrayVectorData) vector.getData()).getReadonlyDoubleData());
+            if (!Double.isNaN(result)) {
+                // there was no NaN, so na.rm does not make a difference
+                return result;
+            }
+        }
         double result = semantics.getDoubleStart();
         boolean empty = true;
         VectorAccess.SequentialIterator iter = access.access(vector);
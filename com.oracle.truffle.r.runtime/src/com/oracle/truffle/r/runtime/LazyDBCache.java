@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2015, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2015, 2022, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -23,33 +23,478 @@
 package com.oracle.truffle.r.runtime;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
+import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.r.runtime.context.FastROptions;
 import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.data.RAttributesLayout;
+import com.oracle.truffle.r.runtime.data.RList;
+import com.oracle.truffle.r.runtime.data.RNull;
+import com.oracle.truffle.r.runtime.data.RSharingAttributeStorage;
+import com.oracle.truffle.r.runtime.data.model.RAbstractAtomicVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractContainer;
 
+/**
+ * Provides the content of the lazy-load databases ({@code .rdb} files) of packages. The content is
+ * shared by all contexts in the process: each file is memory mapped read-only once (or, if it is
+ * not on the default file system, read once into a heap buffer) and the mapping is replaced when
+ * the file's size or modification time changes. The mappings are reference counted by the contexts
+ * that use them and are released when the last of these contexts flushes the database (see
+ * {@code lazyLoadDBflush}) or is disposed. A released mapping is unmapped by the garbage collector
+ * once the prefetch tasks still reading from it are done.
+ *
+ * On top of that, the entries fetched from the databases are kept in a process-wide LRU cache
+ * bounded by {@link FastROptions#LazyLoadCacheSize}. Entries that decode to context independent
+ * values (vectors and lists thereof) are cached as shared permanent objects and returned as they
+ * are, other entries (closures, environments, ...) have to be unserialized in every context and
+ * only their uncompressed content is cached.
+ *
+ * If {@link FastROptions#LazyLoadPrefetch} is enabled, the entries of a database are uncompressed
+ * into the cache in the background as soon as the database is attached (see {@code makeLazy}).
+ */
 public class LazyDBCache {
 
+    private static final class DBFile {
+        private final String path;
+        private final ByteBuffer data;
+        private final long size;
+        private final long lastModified;
+        /**
+         * Number of contexts using this file, guarded by {@link #dbFiles}.
+         */
+        private int users;
+        /**
+         * Set when no context uses the file anymore, so that pending prefetch tasks stop.
+         */
+        private volatile boolean released;
+
+        DBFile(String path, ByteBuffer data, long size, long lastModified) {
+            this.path = path;
+            this.data = data;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private static final HashMap<String, DBFile> dbFiles = new HashMap<>();
+
+    /**
+     * Returns the (possibly refreshed) shared content of the given database file and registers one
+     * more user of it, which has to be {@link #release(DBFile) released}. The content must only be
+     * accessed using absolute positions or via {@link ByteBuffer#duplicate()}, as it is shared by
+     * all threads.
+     */
+    private static DBFile acquire(TruffleFile file) throws IOException {
+        String key = file.getPath();
+        long size = file.size();
+        long lastModified = file.getLastModifiedTime().toMillis();
+        synchronized (dbFiles) {
+            DBFile dbFile = dbFiles.get(key);
+            if (dbFile == null || dbFile.size != size || dbFile.lastModified != lastModified) {
+                if (dbFile != null) {
+                    // the contexts still using the old mapping keep it until they flush it
+                    removeEntries(dbFile);
+                }
+                dbFile = new DBFile(key, map(file, size), size, lastModified);
+                dbFiles.put(key, dbFile);
+            }
+            dbFile.users++;
+            return dbFile;
+        }
+    }
+
+    private static void release(DBFile dbFile) {
+        synchronized (dbFiles) {
+            if (--dbFile.users > 0) {
+                return;
+            }
+            dbFile.released = true;
+            if (dbFiles.get(dbFile.path) == dbFile) {
+                dbFiles.remove(dbFile.path);
+            }
+        }
+    }
+
+    /**
+     * Maps the file if it is on the default file system, otherwise reads it into a heap buffer.
+     */
+    private static ByteBuffer map(TruffleFile file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(file.getAbsoluteFile().getPath()), StandardOpenOption.READ)) {
+            // the size differs if the TruffleFile is not on the default file system
+            if (channel.size() == size) {
+                // the mapping stays valid after the channel is closed
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+        } catch (IOException | UnsupportedOperationException | InvalidPathException | SecurityException e) {
+            // not on the default file system
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("lazy-load database larger than 2GB");
+        }
+        ByteBuffer data = ByteBuffer.allocate((int) size);
+        try (SeekableByteChannel channel = file.newByteChannel(Collections.singleton(StandardOpenOption.READ))) {
+            while (data.hasRemaining()) {
+                if (channel.read(data) < 0) {
+                    throw new IOException("unexpected end of file");
+                }
+            }
+        }
+        data.flip();
+        return data.asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the uncompressed content of the entry at the given position, or {@code null} if the
+     * entry is corrupt. {@code compression} has the same meaning as in {@code lazyLoadDBfetch}:
+     * value 0 means no compression, value 1 (or any other value) gzip, in which case the data start
+     * at "offset + 4", and values 2 and 3 have a "type" field at "offset + 4" and the data start at
+     * "offset + 5". The type field is 'Z' for lzma, '2' for bzip, '1' for zip and '0' for no
+     * compression; it must be checked by the caller. The first four bytes of a compressed entry
+     * hold the length of the uncompressed data.
+     */
+    public static byte[] uncompress(ByteBuffer dbData, int offset, int length, int compression) {
+        if (compression == 0) {
+            byte[] udata = new byte[length];
+            slice(dbData, offset, length).get(udata);
+            return udata;
+        }
+        byte[] udata = new byte[dbData.getInt(offset)];
+        boolean rc;
+        if (compression == 2 || compression == 3) {
+            RCompression.Type type = RCompression.Type.fromTypeChar(dbData.get(offset + 4));
+            rc = RCompression.uncompress(type, udata, slice(dbData, offset + 5, length - 5));
+        } else {
+            rc = RCompression.uncompress(RCompression.Type.GZIP, udata, slice(dbData, offset + 4, length - 4));
+        }
+        return rc ? udata : null;
+    }
+
+    /**
+     * The database content is shared by all threads, so the slice is taken from a duplicate.
+     */
+    private static ByteBuffer slice(ByteBuffer dbData, int offset, int length) {
+        ByteBuffer slice = dbData.duplicate();
+        slice.position(offset);
+        slice.limit(offset + length);
+        return slice;
+    }
+
+    private static final class EntryKey {
+        private final String path;
+        private final long lastModified;
+        private final int offset;
+        private final int length;
+
+        EntryKey(DBFile dbFile, int offset, int length) {
+            this.path = dbFile.path;
+            this.lastModified = dbFile.lastModified;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof EntryKey)) {
+                return false;
+            }
+            EntryKey other = (EntryKey) obj;
+            return offset == other.offset && length == other.length && lastModified == other.lastModified && path.equals(other.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, lastModified, offset, length);
+        }
+    }
+
+    /**
+     * Either the decoded value or the uncompressed {@code byte[]} content of an entry.
+     */
+    private static final class Entry {
+        private final Object value;
+        private final int size;
+
+        Entry(Object value, int size) {
+            this.value = value;
+            this.size = size;
+        }
+    }
+
+    private static final LinkedHashMap<EntryKey, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private static long entriesSize;
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+
+    private static Object getEntry(EntryKey key) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        (entry == null ? misses : hits).incrementAndGet();
+        return entry == null ? null : entry.value;
+    }
+
+    private static void putEntry(EntryKey key, Object value, int size, long maxSize) {
+        synchronized (entries) {
+            Entry old = entries.put(key, new Entry(value, size));
+            entriesSize += size - (old == null ? 0 : old.size);
+            Iterator<Entry> iter = entries.values().iterator();
+            while (entriesSize > maxSize && iter.hasNext()) {
+                entriesSize -= iter.next().size;
+                iter.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes the cached entries of a database file that has been replaced by a newer version,
+     * which can never be fetched again.
+     */
+    private static void removeEntries(DBFile dbFile) {
+        synchronized (entries) {
+            Iterator<Map.Entry<EntryKey, Entry>> iter = entries.entrySet().iterator();
+            while (iter.hasNext()) {
+                Map.Entry<EntryKey, Entry> e = iter.next();
+                if (e.getKey().lastModified == dbFile.lastModified && e.getKey().path.equals(dbFile.path)) {
+                    entriesSize -= e.getValue().size;
+                    iter.remove();
+                }
+            }
+        }
+    }
+
+    private static ExecutorService prefetchExecutor;
+
+    /**
+     * Number of entries uncompressed by one prefetch task.
+     */
+    private static final int PREFETCH_BATCH = 64;
+
+    /**
+     * Number of prefetch tasks submitted and not finished yet.
+     */
+    private static final AtomicLong pendingPrefetches = new AtomicLong();
+
+    private static synchronized ExecutorService getPrefetchExecutor() {
+        if (prefetchExecutor == null) {
+            int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+            prefetchExecutor = Executors.newFixedThreadPool(threads, r -> {
+                Thread thread = new Thread(r, "FastR-lazyload-prefetch");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return prefetchExecutor;
+    }
+
+    private static void prefetch(DBFile dbFile, int compression, int[] offsets, int[] lengths, int from, int to, long maxSize) {
+        for (int i = from; i < to; i++) {
+            if (dbFile.released) {
+                return;
+            }
+            EntryKey key = new EntryKey(dbFile, offsets[i], lengths[i]);
+            synchronized (entries) {
+                if (entries.containsKey(key)) {
+                    continue;
+                }
+            }
+            byte[] udata;
+            try {
+                udata = uncompress(dbFile.data, offsets[i], lengths[i], compression);
+            } catch (Throwable t) {
+                // unsupported compression type or corrupt entry, reported when fetched
+                return;
+            }
+            if (udata == null || udata.length > maxSize) {
+                continue;
+            }
+            putEntry(key, udata, udata.length, maxSize);
+        }
+    }
+
+    /**
+     * Returns the number of cache hits and misses, the number of cached entries and their
+     * (uncompressed) size in bytes, the number of databases in use that are memory mapped and that
+     * are read into heap buffers, and the number of prefetch tasks that have not finished yet.
+     */
+    public static long[] getStatistics(boolean reset) {
+        long[] result = new long[7];
+        result[0] = reset ? hits.getAndSet(0) : hits.get();
+        result[1] = reset ? misses.getAndSet(0) : misses.get();
+        synchronized (entries) {
+            result[2] = entries.size();
+            result[3] = entriesSize;
+        }
+        synchronized (dbFiles) {
+            for (DBFile dbFile : dbFiles.values()) {
+                result[dbFile.data.isDirect() ? 4 : 5]++;
+            }
+        }
+        result[6] = pendingPrefetches.get();
+        return result;
+    }
+
+    private static final int MAX_SHARED_DEPTH = 32;
+
+    /**
+     * Values that do not refer to any context specific objects, i.e., vectors and lists (also as
+     * attribute values) of vectors, can be shared by all contexts.
+     */
+    private static boolean isContextIndependent(Object value, int depth) {
+        if (value == RNull.instance) {
+            return true;
+        }
+        if (depth > MAX_SHARED_DEPTH || !(value instanceof RAbstractAtomicVector || value instanceof RList)) {
+            return false;
+        }
+        DynamicObject attributes = ((RAbstractContainer) value).getAttributes();
+        if (attributes != null) {
+            for (RAttributesLayout.RAttribute a : RAttributesLayout.asIterable(attributes)) {
+                if (!isContextIndependent(a.getValue(), depth + 1)) {
+                    return false;
+                }
+            }
+        }
+        if (value instanceof RList) {
+            RList list = (RList) value;
+            for (int i = 0; i < list.getLength(); i++) {
+                if (!isContextIndependent(list.getDataAt(i), depth + 1)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void makeSharedPermanent(Object value) {
+        if (RSharingAttributeStorage.isShareable(value)) {
+            ((RSharingAttributeStorage) value).makeSharedPermanent();
+        }
+        if (value instanceof RAbstractContainer) {
+            DynamicObject attributes = ((RAbstractContainer) value).getAttributes();
+            if (attributes != null) {
+                for (RAttributesLayout.RAttribute a : RAttributesLayout.asIterable(attributes)) {
+                    makeSharedPermanent(a.getValue());
+                }
+            }
+        }
+        if (value instanceof RList) {
+            RList list = (RList) value;
+            for (int i = 0; i < list.getLength(); i++) {
+                makeSharedPermanent(list.getDataAt(i));
+            }
+        }
+    }
+
     public static final class ContextStateImpl implements RContext.ContextState {
-        private final Map<String, byte[]> dbCache = new HashMap<>();
+        /**
+         * The files used by this context, so that the modification check is done only on their
+         * first use and after {@link #remove(String)}.
+         */
+        private final Map<String, DBFile> dbCache = new HashMap<>();
 
-        public byte[] getData(RContext context, String dbPath) {
-            byte[] dbData = dbCache.get(dbPath);
-            if (dbData == null) {
+        private DBFile getDBFile(RContext context, String dbPath) {
+            DBFile dbFile = dbCache.get(dbPath);
+            if (dbFile == null) {
                 try {
-                    dbData = context.getSafeTruffleFile(dbPath).readAllBytes();
+                    dbFile = LazyDBCache.acquire(context.getSafeTruffleFile(dbPath));
                 } catch (IOException ex) {
                     // unexpected
                     throw RInternalError.shouldNotReachHere(ex);
                 }
-                dbCache.put(dbPath, dbData);
+                dbCache.put(dbPath, dbFile);
+            }
+            return dbFile;
+        }
+
+        public ByteBuffer getData(RContext context, String dbPath) {
+            return getDBFile(context, dbPath).data;
+        }
+
+        /**
+         * Returns the cached entry of the database at the given position: either the decoded value,
+         * which can be used directly, or the uncompressed {@code byte[]} content, which has to be
+         * unserialized. Returns {@code null} if the entry is not cached.
+         */
+        public Object getEntry(RContext context, String dbPath, int offset, int length) {
+            return LazyDBCache.getEntry(new EntryKey(getDBFile(context, dbPath), offset, length));
+        }
+
+        /**
+         * Caches the entry of the database at the given position, given its uncompressed content
+         * and the value it decoded to. If the value is cached, it is made shared permanent.
+         */
+        public void putEntry(RContext context, String dbPath, int offset, int length, byte[] udata, Object value) {
+            long maxSize = context.getNonNegativeIntOption(FastROptions.LazyLoadCacheSize) * 1024L * 1024L;
+            if (udata.length > maxSize) {
+                return;
+            }
+            EntryKey key = new EntryKey(getDBFile(context, dbPath), offset, length);
+            if (isContextIndependent(value, 0)) {
+                makeSharedPermanent(value);
+                LazyDBCache.putEntry(key, value, udata.length, maxSize);
+            } else {
+                LazyDBCache.putEntry(key, udata, udata.length, maxSize);
+            }
+        }
+
+        /**
+         * Uncompresses the entries at the given positions into the cache in the background, so
+         * that they are ready when the context fetches them. Unserialization has to happen on the
+         * context's thread.
+         */
+        public void prefetch(RContext context, String dbPath, int compression, int[] offsets, int[] lengths) {
+            long maxSize = context.getNonNegativeIntOption(FastROptions.LazyLoadCacheSize) * 1024L * 1024L;
+            if (maxSize == 0) {
+                return;
+            }
+            DBFile dbFile = getDBFile(context, dbPath);
+            ExecutorService executor = getPrefetchExecutor();
+            for (int from = 0; from < offsets.length; from += PREFETCH_BATCH) {
+                int batchFrom = from;
+                int batchTo = Math.min(offsets.length, from + PREFETCH_BATCH);
+                pendingPrefetches.incrementAndGet();
+                executor.execute(() -> {
+                    try {
+                        LazyDBCache.prefetch(dbFile, compression, offsets, lengths, batchFrom, batchTo, maxSize);
+                    } finally {
+                        pendingPrefetches.decrementAndGet();
+                    }
+                });
             }
-            return dbData;
         }
 
         public void remove(String dbPath) {
             // no an error if missing
-            dbCache.remove(dbPath);
+            DBFile dbFile = dbCache.remove(dbPath);
+            if (dbFile != null) {
+                release(dbFile);
+            }
+        }
+
+        @Override
+        public void beforeDispose(RContext context) {
+            for (DBFile dbFile : dbCache.values()) {
+                release(dbFile);
+            }
+            dbCache.clear();
         }
 
         public static ContextStateImpl newContextState() {
@@ -0,0 +1,777 @@
+/*
+ * Copyright (c) 2022, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime;
+
+import static com.oracle.truffle.r.runtime.TypeConvertRules.KIND_CHARACTER;
+import static com.oracle.truffle.r.runtime.TypeConvertRules.KIND_DOUBLE;
+import static com.oracle.truffle.r.runtime.TypeConvertRules.KIND_INTEGER;
+import static com.oracle.truffle.r.runtime.TypeConvertRules.KIND_LOGICAL;
+import static com.oracle.truffle.r.runtime.TypeConvertRules.KIND_NA;
+import static com.oracle.truffle.r.runtime.TypeConvertRules.NOT_INTEGER;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.r.runtime.RError.Message;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RList;
+import com.oracle.truffle.r.runtime.data.RStringVector;
+
+/**
+ * Reads a delimited text file from the local file system into a data frame on several threads.
+ *
+ * The file is split into chunks at line breaks. A file on the default file system is memory
+ * mapped chunk by chunk, other files are read chunk by chunk into heap buffers, so the size of the
+ * file is not limited by the size of a buffer. Every chunk is tokenized on a worker thread into
+ * the byte offsets of its fields, and the type of each of its columns is inferred with the
+ * {@link TypeConvertRules rules of type.convert}. Blank and NA values do not take part in the
+ * inference and a column consisting only of them is logical. The types of the chunks are then
+ * merged, and the values are converted into the result vectors in a second parallel pass. Numbers
+ * and logical constants are parsed from the bytes of the file, strings are only created for
+ * character columns (and for the rare fields that the byte parsers leave undecided).
+ *
+ * The file must be in an encoding in which the ASCII characters are single bytes, e.g. UTF-8 or
+ * Latin-1. Since the file is split without looking at the preceding data, quoted fields must not
+ * contain line breaks. Such input is reported as an error.
+ */
+public final class ParallelTableReader {
+
+    /**
+     * Chunks are not made smaller than this unless the whole file is.
+     */
+    private static final long MIN_CHUNK_SIZE = 1 << 20;
+
+    /**
+     * Upper bound for the size of a chunk, buffers are limited to 2GB.
+     */
+    private static final long MAX_CHUNK_SIZE = 1 << 28;
+
+    /**
+     * Number of bytes examined at a time when looking for the end of a line.
+     */
+    private static final int LINE_SEARCH_WINDOW = 1 << 16;
+
+    private static final String ASCII_PROBE;
+
+    static {
+        StringBuilder probe = new StringBuilder("\t\n\r");
+        for (char ch = ' '; ch < 127; ch++) {
+            probe.append(ch);
+        }
+        ASCII_PROBE = probe.toString();
+    }
+
+    private final byte sep;
+    private final byte[] quotes;
+    private final byte dec;
+    private final String[] naStrings;
+    private final byte[][] naBytes;
+    private final Charset charset;
+
+    private final TruffleFile file;
+    private final long size;
+    /**
+     * The file opened directly if it is on the default file system, its chunks are then mapped.
+     */
+    private FileChannel fileChannel;
+    /**
+     * The file opened through Truffle otherwise, every chunk is read into a heap buffer.
+     */
+    private SeekableByteChannel channel;
+
+    private ParallelTableReader(TruffleFile file, String sep, String quotes, String dec, RStringVector naStrings, Charset charset) throws IOException {
+        this.file = file;
+        this.size = file.size();
+        this.sep = sep.isEmpty() ? 0 : (byte) sep.charAt(0);
+        this.quotes = quotes.getBytes(StandardCharsets.ISO_8859_1);
+        this.dec = (byte) dec.charAt(0);
+        this.charset = charset;
+        this.naStrings = new String[naStrings.getLength()];
+        this.naBytes = new byte[this.naStrings.length][];
+        for (int i = 0; i < this.naStrings.length; i++) {
+            this.naStrings[i] = naStrings.getDataAt(i);
+            this.naBytes[i] = this.naStrings[i].getBytes(charset);
+        }
+    }
+
+    /**
+     * Returns {@code true} if the file can be split into fields byte by byte in the given
+     * encoding.
+     */
+    public static boolean isSupportedEncoding(Charset charset) {
+        return Arrays.equals(ASCII_PROBE.getBytes(charset), ASCII_PROBE.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Reads the file into a data frame.
+     *
+     * @param sep the field separator, an empty string means white space
+     * @param quotes the set of quoting characters
+     * @param dec the decimal separator
+     * @param threads the number of threads to use, all available processors if not positive
+     * @param charset the encoding of the file, see {@link #isSupportedEncoding(Charset)}
+     */
+    @TruffleBoundary
+    public static RList read(TruffleFile file, boolean header, String sep, String quotes, String dec, RStringVector naStrings, int threads, Charset charset) throws IOException {
+        assert isSupportedEncoding(charset);
+        ParallelTableReader reader = new ParallelTableReader(file, sep, quotes, dec, naStrings, charset);
+        try {
+            reader.open();
+            return reader.read(header, WorkerPool.getThreads(threads));
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void close() throws IOException {
+        if (fileChannel != null) {
+            fileChannel.close();
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void open() throws IOException {
+        try {
+            FileChannel opened = FileChannel.open(Paths.get(file.getAbsoluteFile().getPath()), StandardOpenOption.READ);
+            if (opened.size() == size) {
+                fileChannel = opened;
+                return;
+            }
+            // not the same file, the TruffleFile is not on the default file system
+            opened.close();
+        } catch (IOException | UnsupportedOperationException | InvalidPathException | SecurityException e) {
+            // not on the default file system
+        }
+        channel = file.newByteChannel(Collections.singleton(StandardOpenOption.READ));
+    }
+
+    /**
+     * Returns the bytes from {@code start} to {@code end}, which are about
+     * {@link #MAX_CHUNK_SIZE} apart at most. The buffer may be used by a worker thread.
+     */
+    private ByteBuffer slice(long start, long end) throws IOException {
+        if (end - start > Integer.MAX_VALUE) {
+            // only possible for a single line of more than 2GB
+            throw new IOException("line too long");
+        }
+        if (fileChannel != null) {
+            return fileChannel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        }
+        ByteBuffer result = ByteBuffer.allocate((int) (end - start));
+        synchronized (channel) {
+            channel.position(start);
+            while (result.hasRemaining()) {
+                if (channel.read(result) < 0) {
+                    throw new IOException("unexpected end of file");
+                }
+            }
+        }
+        result.flip();
+        return result;
+    }
+
+    /**
+     * Returns the offset of the line following the one that contains {@code offset}.
+     */
+    private long nextLineStart(long offset) throws IOException {
+        long pos = offset;
+        while (pos < size) {
+            long end = Math.min(size, pos + LINE_SEARCH_WINDOW);
+            ByteBuffer window = slice(pos, end);
+            for (int i = 0; i < window.limit(); i++) {
+                if (window.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos = end;
+        }
+        return size;
+    }
+
+    private RList read(boolean header, int threads) throws IOException {
+        long dataStart = 0;
+        String[] names = null;
+        if (header) {
+            dataStart = nextLineStart(0);
+            Chunk headerChunk = new Chunk(0, dataStart, -1);
+            headerChunk.tokenize(this);
+            if (headerChunk.quoteError) {
+                throw RError.error(RError.SHOW_CALLER, Message.QUOTED_LINE_BREAK, 1);
+            }
+            names = headerChunk.firstRecord;
+        }
+        // the number of columns is given by the first record
+        String[] firstRecord = null;
+        long lineStart = dataStart;
+        while (firstRecord == null && lineStart < size) {
+            long lineEnd = nextLineStart(lineStart);
+            Chunk line = new Chunk(lineStart, lineEnd, -1);
+            line.tokenize(this);
+            firstRecord = line.firstRecord;
+            lineStart = lineEnd;
+        }
+        if (firstRecord == null && names == null) {
+            throw RError.error(RError.SHOW_CALLER, Message.NO_LINES_AVAILABLE);
+        }
+        int ncol = firstRecord != null ? firstRecord.length : names.length;
+        if (names == null) {
+            names = new String[ncol];
+            for (int i = 0; i < ncol; i++) {
+                names[i] = "V" + (i + 1);
+            }
+        } else if (names.length != ncol) {
+            throw RError.error(RError.SHOW_CALLER, Message.LINE_ELEMENTS, 1, ncol);
+        }
+
+        List<Chunk> chunks = split(dataStart, threads, ncol);
+        // tokenize and infer the column types
+        runAll(threads, chunks, chunk -> chunk.tokenize(this));
+        int nrow = 0;
+        int line = header ? 1 : 0;
+        byte[] kinds = new byte[ncol];
+        for (Chunk chunk : chunks) {
+            if (chunk.errorRecord >= 0) {
+                int errorLine = line + chunk.errorLine + 1;
+                if (chunk.quoteError) {
+                    throw RError.error(RError.SHOW_CALLER, Message.QUOTED_LINE_BREAK, errorLine);
+                }
+                throw RError.error(RError.SHOW_CALLER, Message.LINE_ELEMENTS, errorLine, ncol);
+            }
+            if ((long) nrow + chunk.rows > Integer.MAX_VALUE) {
+                throw RError.error(RError.SHOW_CALLER, Message.LONG_VECTORS_NOT_SUPPORTED);
+            }
+            chunk.rowOffset = nrow;
+            nrow += chunk.rows;
+            line += chunk.lines;
+            for (int i = 0; i < ncol; i++) {
+                kinds[i] = TypeConvertRules.merge(kinds[i], chunk.kinds[i]);
+            }
+        }
+
+        // convert the values into the result vectors
+        Object[] columns = new Object[ncol];
+        for (int i = 0; i < ncol; i++) {
+            columns[i] = allocate(kinds[i], nrow);
+        }
+        runAll(threads, chunks, chunk -> chunk.convert(this, kinds, columns));
+        boolean[] incomplete = new boolean[ncol];
+        for (Chunk chunk : chunks) {
+            for (int i = 0; i < ncol; i++) {
+                incomplete[i] |= chunk.incomplete[i];
+            }
+        }
+        Object[] data = new Object[ncol];
+        for (int i = 0; i < ncol; i++) {
+            data[i] = createVector(kinds[i], columns[i], !incomplete[i]);
+        }
+        RList result = RDataFactory.createList(data, RDataFactory.createStringVector(names, RDataFactory.COMPLETE_VECTOR));
+        result.setClassAttr(RDataFactory.createStringVector(RRuntime.CLASS_DATA_FRAME));
+        result.setRowNames(RDataFactory.createIntVector(new int[]{RRuntime.INT_NA, -nrow}, RDataFactory.INCOMPLETE_VECTOR));
+        return result;
+    }
+
+    /**
+     * Splits the data into chunks of similar size that start at the beginning of a line.
+     */
+    private List<Chunk> split(long dataStart, int threads, int ncol) throws IOException {
+        long dataSize = size - dataStart;
+        long nChunks = Math.max(1, Math.min(threads * 4L, dataSize / MIN_CHUNK_SIZE));
+        nChunks = Math.max(nChunks, (dataSize + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE);
+        ArrayList<Chunk> chunks = new ArrayList<>();
+        long start = dataStart;
+        for (long i = 1; i <= nChunks && start < size; i++) {
+            long end = i == nChunks ? size : Math.max(start, nextLineStart(dataStart + dataSize * i / nChunks - 1));
+            if (end > start) {
+                chunks.add(new Chunk(start, end, ncol));
+                start = end;
+            }
+        }
+        return chunks;
+    }
+
+    private interface ChunkTask {
+        void run(Chunk chunk) throws IOException;
+    }
+
+    /**
+     * Runs the task for all chunks on the {@link WorkerPool}. At most {@code threads} workers take
+     * the chunks one after another.
+     */
+    private static void runAll(int threads, List<Chunk> chunks, ChunkTask task) throws IOException {
+        ForkJoinPool pool = WorkerPool.get();
+        AtomicInteger next = new AtomicInteger();
+        int workers = Math.max(1, Math.min(threads, chunks.size()));
+        Callable<Void> worker = () -> {
+            int index;
+            while ((index = next.getAndIncrement()) < chunks.size()) {
+                task.run(chunks.get(index));
+            }
+            return null;
+        };
+        ArrayList<Future<Void>> futures = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            futures.add(pool.submit(worker));
+        }
+        try {
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw RInternalError.shouldNotReachHere(cause);
+        } finally {
+            // let the remaining workers stop early if one of them failed
+            next.set(chunks.size());
+        }
+    }
+
+    private boolean isNAString(String s) {
+        for (String naString : naStrings) {
+            if (s.equals(naString)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isNAString(ByteBuffer buf, int start, int end) {
+        for (byte[] na : naBytes) {
+            if (na.length == end - start) {
+                int i = 0;
+                while (i < na.length && buf.get(start + i) == na[i]) {
+                    i++;
+                }
+                if (i == na.length) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private String toDoubleString(String s) {
+        return dec == '.' ? s : s.replace((char) dec, '.');
+    }
+
+    private static Object allocate(byte kind, int length) {
+        switch (kind) {
+            case KIND_INTEGER:
+                return new int[length];
+            case KIND_DOUBLE:
+                return new double[length];
+            case KIND_CHARACTER:
+                return new String[length];
+            default:
+                return new byte[length];
+        }
+    }
+
+    private static Object createVector(byte kind, Object data, boolean complete) {
+        switch (kind) {
+            case KIND_INTEGER:
+                return RDataFactory.createIntVector((int[]) data, complete);
+            case KIND_DOUBLE:
+                return RDataFactory.createDoubleVector((double[]) data, complete);
+            case KIND_CHARACTER:
+                return RDataFactory.createStringVector((String[]) data, complete);
+            default:
+                return RDataFactory.createLogicalVector((byte[]) data, complete);
+        }
+    }
+
+    private boolean isQuote(byte b) {
+        for (byte quote : quotes) {
+            if (b == quote) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isSeparator(byte b) {
+        return sep == 0 ? b == ' ' || b == '\t' : b == sep;
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    /**
+     * A range of lines of the file. Apart from the set-up, a chunk is only accessed by one thread
+     * at a time.
+     *
+     * A field is stored as the offsets of its first and behind its last byte in {@link #buf},
+     * without the enclosing quotes. Fields that cannot be represented by a range, i.e. quoted
+     * fields with doubled quotes or with unquoted text after the closing quote, are stored as the
+     * negated start offset (minus one) of the raw field, which is unquoted when it is read.
+     */
+    private static final class Chunk {
+        private final long start;
+        private final long end;
+        private final int ncol;
+
+        private ByteBuffer buf;
+        /**
+         * The field offsets by column, not used if the number of columns is not known yet.
+         */
+        private int[][] fieldStarts;
+        private int[][] fieldEnds;
+        private String[] firstRecord;
+        private byte[] kinds;
+        private boolean[] incomplete;
+        private int rows;
+        private int lines;
+        private int rowOffset;
+
+        private int errorRecord = -1;
+        private int errorLine;
+        private boolean quoteError;
+
+        private int[] recordStarts = new int[16];
+        private int[] recordEnds = new int[16];
+        private int recordLength;
+
+        private byte[] scratch = new byte[256];
+        private int scratchLength;
+
+        Chunk(long start, long end, int ncol) {
+            this.start = start;
+            this.end = end;
+            this.ncol = ncol;
+        }
+
+        private void addField(int fieldStart, int fieldEnd) {
+            if (recordLength == recordStarts.length) {
+                recordStarts = Arrays.copyOf(recordStarts, recordLength * 2);
+                recordEnds = Arrays.copyOf(recordEnds, recordLength * 2);
+            }
+            recordStarts[recordLength] = fieldStart;
+            recordEnds[recordLength] = fieldEnd;
+            recordLength++;
+        }
+
+        private void addRecord(ParallelTableReader reader) {
+            if (ncol < 0) {
+                firstRecord = new String[recordLength];
+                for (int i = 0; i < recordLength; i++) {
+                    firstRecord[i] = string(reader, recordStarts[i], recordEnds[i]);
+                }
+                return;
+            }
+            if (rows == fieldStarts[0].length) {
+                for (int i = 0; i < ncol; i++) {
+                    fieldStarts[i] = Arrays.copyOf(fieldStarts[i], rows * 2);
+                    fieldEnds[i] = Arrays.copyOf(fieldEnds[i], rows * 2);
+                }
+            }
+            for (int i = 0; i < ncol; i++) {
+                fieldStarts[i][rows] = recordStarts[i];
+                fieldEnds[i][rows] = recordEnds[i];
+            }
+            rows++;
+        }
+
+        /**
+         * Decodes the field {@code [fieldStart, fieldEnd)} or the raw field at
+         * {@code -fieldStart - 1}.
+         */
+        private String string(ParallelTableReader reader, int fieldStart, int fieldEnd) {
+            if (fieldStart >= 0) {
+                byte[] bytes = new byte[fieldEnd - fieldStart];
+                ByteBuffer field = buf.duplicate();
+                field.position(fieldStart);
+                field.get(bytes);
+                return new String(bytes, reader.charset);
+            }
+            scratchLength = 0;
+            int pos = -fieldStart - 1;
+            byte quote = buf.get(pos++);
+            while (true) {
+                byte b = buf.get(pos++);
+                if (b == quote) {
+                    if (pos < fieldEnd && buf.get(pos) == quote) {
+                        append(quote);
+                        pos++;
+                    } else {
+                        break;
+                    }
+                } else {
+                    append(b);
+                }
+            }
+            while (pos < fieldEnd) {
+                append(buf.get(pos++));
+            }
+            return new String(scratch, 0, scratchLength, reader.charset);
+        }
+
+        private void append(byte b) {
+            if (scratchLength == scratch.length) {
+                scratch = Arrays.copyOf(scratch, scratch.length * 2);
+            }
+            scratch[scratchLength++] = b;
+        }
+
+        void tokenize(ParallelTableReader reader) throws IOException {
+            buf = reader.slice(start, end);
+            int limit = buf.limit();
+            if (ncol > 0) {
+                fieldStarts = new int[ncol][];
+                fieldEnds = new int[ncol][];
+                int initialRows = (int) Math.max(16, Math.min(limit / (8L * ncol), 1 << 16));
+                for (int i = 0; i < ncol; i++) {
+                    fieldStarts[i] = new int[initialRows];
+                    fieldEnds[i] = new int[initialRows];
+                }
+            }
+            int pos = 0;
+            while (pos < limit && (ncol >= 0 || firstRecord == null)) {
+                lines++;
+                recordLength = 0;
+                if (reader.sep == 0) {
+                    while (pos < limit && isBlank(buf.get(pos))) {
+                        pos++;
+                    }
+                }
+                byte b = pos < limit ? buf.get(pos) : (byte) '\n';
+                if (b != '\n' && b != '\r') {
+                    // read the fields of the line
+                    while (true) {
+                        int fieldStart = pos;
+                        int contentStart = pos;
+                        int contentEnd = -1;
+                        boolean raw = false;
+                        b = pos < limit ? buf.get(pos) : (byte) '\n';
+                        if (reader.isQuote(b)) {
+                            byte quote = b;
+                            pos++;
+                            contentStart = pos;
+                            while (true) {
+                                if (pos == limit || buf.get(pos) == '\n') {
+                                    errorRecord = rows;
+                                    errorLine = lines - 1;
+                                    quoteError = true;
+                                    return;
+                                }
+                                b = buf.get(pos++);
+                                if (b == quote) {
+                                    if (pos < limit && buf.get(pos) == quote) {
+                                        raw = true;
+                                        pos++;
+                                    } else {
+                                        break;
+                                    }
+                                }
+                            }
+                            contentEnd = pos - 1;
+                        }
+                        while (pos < limit) {
+                            b = buf.get(pos);
+                            if (b == '\n' || b == '\r' || reader.isSeparator(b)) {
+                                break;
+                            }
+                            pos++;
+                        }
+                        if (contentEnd < 0) {
+                            addField(contentStart, pos);
+                        } else if (raw || pos > contentEnd + 1) {
+                            addField(-fieldStart - 1, pos);
+                        } else {
+                            addField(contentStart, contentEnd);
+                        }
+                        if (pos == limit || b == '\n' || b == '\r') {
+                            break;
+                        }
+                        pos++;
+                        if (reader.sep == 0) {
+                            while (pos < limit && isBlank(buf.get(pos))) {
+                                pos++;
+                            }
+                            if (pos == limit || buf.get(pos) == '\n' || buf.get(pos) == '\r') {
+                                break;
+                            }
+                        }
+                    }
+                    if (ncol >= 0 && recordLength != ncol) {
+                        errorRecord = rows;
+                        errorLine = lines - 1;
+                        return;
+                    }
+                    addRecord(reader);
+                }
+                if (pos < limit && buf.get(pos) == '\r') {
+                    pos++;
+                }
+                if (pos < limit && buf.get(pos) == '\n') {
+                    pos++;
+                }
+            }
+            if (ncol >= 0) {
+                inferKinds(reader);
+            }
+        }
+
+        private boolean isNA(ParallelTableReader reader, int fieldStart, int fieldEnd) {
+            if (fieldStart >= 0) {
+                return fieldStart == fieldEnd || reader.isNAString(buf, fieldStart, fieldEnd);
+            }
+            String s = string(reader, fieldStart, fieldEnd);
+            return s.isEmpty() || reader.isNAString(s);
+        }
+
+        /**
+         * Returns the kind of a column that had kind {@code current} before the (non-NA) field.
+         * The common cases are decided on the bytes, the others by the string rules.
+         */
+        private byte kindOf(ParallelTableReader reader, int fieldStart, int fieldEnd, byte current) {
+            if (fieldStart >= 0) {
+                if ((current == KIND_NA || current == KIND_INTEGER) && TypeConvertRules.parseInteger(buf, fieldStart, fieldEnd) != NOT_INTEGER) {
+                    return KIND_INTEGER;
+                }
+                if (current != KIND_LOGICAL && !Double.isNaN(TypeConvertRules.parseDouble(buf, fieldStart, fieldEnd, reader.dec))) {
+                    return KIND_DOUBLE;
+                }
+                if ((current == KIND_NA || current == KIND_LOGICAL) && TypeConvertRules.parseLogical(buf, fieldStart, fieldEnd) != RRuntime.LOGICAL_NA) {
+                    return KIND_LOGICAL;
+                }
+            }
+            return TypeConvertRules.kindOf(reader.toDoubleString(string(reader, fieldStart, fieldEnd)), current, false);
+        }
+
+        private void inferKinds(ParallelTableReader reader) {
+            kinds = new byte[ncol];
+            for (int i = 0; i < ncol; i++) {
+                int[] starts = fieldStarts[i];
+                int[] ends = fieldEnds[i];
+                byte kind = KIND_NA;
+                for (int j = 0; j < rows && kind != KIND_CHARACTER; j++) {
+                    if (!isNA(reader, starts[j], ends[j])) {
+                        kind = kindOf(reader, starts[j], ends[j], kind);
+                    }
+                }
+                kinds[i] = kind;
+            }
+        }
+
+        void convert(ParallelTableReader reader, byte[] columnKinds, Object[] columns) {
+            incomplete = new boolean[ncol];
+            for (int i = 0; i < ncol; i++) {
+                int[] starts = fieldStarts[i];
+                int[] ends = fieldEnds[i];
+                boolean na = false;
+                switch (columnKinds[i]) {
+                    case KIND_INTEGER: {
+                        int[] data = (int[]) columns[i];
+                        for (int j = 0; j < rows; j++) {
+                            if (isNA(reader, starts[j], ends[j])) {
+                                data[rowOffset + j] = RRuntime.INT_NA;
+                                na = true;
+                            } else {
+                                long value = starts[j] >= 0 ? TypeConvertRules.parseInteger(buf, starts[j], ends[j]) : NOT_INTEGER;
+                                data[rowOffset + j] = value != NOT_INTEGER ? (int) value : TypeConvertRules.toInteger(string(reader, starts[j], ends[j]));
+                            }
+                        }
+                        break;
+                    }
+                    case KIND_DOUBLE: {
+                        double[] data = (double[]) columns[i];
+                        for (int j = 0; j < rows; j++) {
+                            if (isNA(reader, starts[j], ends[j])) {
+                                data[rowOffset + j] = RRuntime.DOUBLE_NA;
+                                na = true;
+                            } else {
+                                double value = starts[j] >= 0 ? TypeConvertRules.parseDouble(buf, starts[j], ends[j], reader.dec) : Double.NaN;
+                                if (Double.isNaN(value)) {
+                                    value = TypeConvertRules.toDouble(reader.toDoubleString(string(reader, starts[j], ends[j])), false);
+                                }
+                                data[rowOffset + j] = value;
+                            }
+                        }
+                        break;
+                    }
+                    case KIND_CHARACTER: {
+                        String[] data = (String[]) columns[i];
+                        for (int j = 0; j < rows; j++) {
+                            String s = string(reader, starts[j], ends[j]);
+                            // blank fields are kept in character columns
+                            if (reader.isNAString(s)) {
+                                data[rowOffset + j] = RRuntime.STRING_NA;
+                                na = true;
+                            } else {
+                                data[rowOffset + j] = s;
+                            }
+                        }
+                        break;
+                    }
+                    default: {
+                        byte[] data = (byte[]) columns[i];
+                        for (int j = 0; j < rows; j++) {
+                            if (isNA(reader, starts[j], ends[j])) {
+                                data[rowOffset + j] = RRuntime.LOGICAL_NA;
+                                na = true;
+                            } else {
+                                byte value = starts[j] >= 0 ? TypeConvertRules.parseLogical(buf, starts[j], ends[j]) : RRuntime.LOGICAL_NA;
+                                data[rowOffset + j] = value != RRuntime.LOGICAL_NA ? value : TypeConvertRules.toLogical(string(reader, starts[j], ends[j]));
+                            }
+                        }
+                        break;
+                    }
+                }
+                incomplete[i] = na;
+                fieldStarts[i] = null;
+                fieldEnds[i] = null;
+            }
+            buf = null;
+        }
+    }
+}
@@ -22,6 +22,7 @@
  */
 package com.oracle.truffle.r.runtime;
 
+import static com.oracle.truffle.r.runtime.context.FastROptions.ChannelCapacity;
 import static com.oracle.truffle.r.runtime.context.FastROptions.ChannelReceiveTimeout;
 import static com.oracle.truffle.r.runtime.env.frame.REnvTruffleFrameAccess.getStringIdentifiersAndValues;
 
@@ -54,6 +55,7 @@ import com.oracle.truffle.r.runtime.data.RPromise;
 import com.oracle.truffle.r.runtime.data.RPromise.PromiseState;
 import com.oracle.truffle.r.runtime.data.RSharingAttributeStorage;
 import com.oracle.truffle.r.runtime.data.RUnboundValue;
+import com.oracle.truffle.r.runtime.data.model.RAbstractAtomicVector;
 import com.oracle.truffle.r.runtime.env.REnvironment;
 import com.oracle.truffle.r.runtime.env.frame.FrameSlotChangeMonitor;
 import com.oracle.truffle.r.runtime.nodes.RSyntaxElement;
@@ -61,14 +63,18 @@ import com.oracle.truffle.r.runtime.nodes.RSyntaxElement;
 /**
  * Implementation of a channel abstraction used for communication between parallel contexts in
  * shared memory space.
+ *
+ * Values that do not depend on the sending context (vectors, lists of vectors, etc.) are handed
+ * over by reference after being made permanently shared, so that neither side modifies them in
+ * place or updates their reference count; only environments, closures, promises and language
+ * objects are converted to a context independent form. Each direction of a channel is a bounded
+ * queue whose capacity is given by the {@code ChannelCapacity} option, which lets the sender run
+ * ahead of the receiver by that many messages.
  */
 public class RChannel {
 
-    // TODO: cheaper way of serializing data (re-usable buffer?)
-
     private static final int INITIAL_CHANNEL_NUM = 4;
     private static final int CHANNEL_NUM_GROW_FACTOR = 2;
-    private static final int QUEUE_CAPACITY = 1;
 
     private static int[] keys = new int[INITIAL_CHANNEL_NUM];
     private static RChannel[] channels = new RChannel[INITIAL_CHANNEL_NUM];
@@ -80,8 +86,19 @@ public class RChannel {
      */
     private static final Semaphore create = new Semaphore(1, true);
 
-    private final ArrayBlockingQueue<Object> primaryToWorker = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
-    private final ArrayBlockingQueue<Object> workerToPrimary = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final ArrayBlockingQueue<Object> primaryToWorker;
+    private final ArrayBlockingQueue<Object> workerToPrimary;
+
+    /*
+     * Set while a receiver waits in select() on the respective queue, released by the sender
+     */
+    private volatile Semaphore primaryToWorkerSignal;
+    private volatile Semaphore workerToPrimarySignal;
+
+    private RChannel(int capacity) {
+        this.primaryToWorker = new ArrayBlockingQueue<>(capacity);
+        this.workerToPrimary = new ArrayBlockingQueue<>(capacity);
+    }
 
     public static int createChannel(int key) {
         if (key <= 0) {
@@ -136,7 +153,7 @@ public class RChannel {
             }
             if (freeSlot != -1) {
                 keys[freeSlot] = key;
-                channels[freeSlot] = new RChannel();
+                channels[freeSlot] = new RChannel(Math.max(1, RContext.getInstance().getNonNegativeIntOption(ChannelCapacity)));
                 return new int[]{freeSlot, key};
             } else {
                 int[] keysTmp = new int[keys.length * CHANNEL_NUM_GROW_FACTOR];
@@ -211,15 +228,40 @@ public class RChannel {
         }
     }
 
+    /**
+     * Attribute-less atomic vectors are passed by reference without walking them through the
+     * {@link Output}/{@link Input} conversion.
+     */
+    private static boolean isPlainAtomicVector(Object data) {
+        return data instanceof RAbstractAtomicVector && ((RAbstractAtomicVector) data).getAttributes() == null;
+    }
+
+    private static Object processReceivedMessage(Object msg) {
+        if (isPlainAtomicVector(msg)) {
+            return msg;
+        }
+        Input in = new Input();
+        return in.processedReceivedMessage(msg);
+    }
+
     public static void send(int id, Object data) {
-        Output out = new Output();
-        Object msg = out.processOutgoingMessage(data);
+        Object msg;
+        if (isPlainAtomicVector(data)) {
+            msg = Output.makeShared(data);
+        } else {
+            Output out = new Output();
+            msg = out.processOutgoingMessage(data);
+        }
         RChannel channel = getChannelFromId(id);
         try {
             (id > 0 ? channel.primaryToWorker : channel.workerToPrimary).put(msg);
         } catch (InterruptedException x) {
             throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error sending through the channel");
         }
+        Semaphore signal = id > 0 ? channel.primaryToWorkerSignal : channel.workerToPrimarySignal;
+        if (signal != null) {
+            signal.release();
+        }
     }
 
     public static Object receive(int id) {
@@ -228,16 +270,22 @@ public class RChannel {
             ArrayBlockingQueue<Object> queue = id < 0 ? channel.primaryToWorker : channel.workerToPrimary;
             int timeout = RContext.getInstance().getNonNegativeIntOption(ChannelReceiveTimeout);
             Object msg;
-            if (timeout > 0) {
-                // timeout for testing
-                // if no msg is send due to an error .take() will block forever
-                msg = queue.poll(timeout, TimeUnit.SECONDS);
-            } else {
-                msg = queue.take();
+            ContextStateImpl stats = RContext.getInstance().stateRChannel;
+            long start = System.nanoTime();
+            try {
+                if (timeout > 0) {
+                    // timeout for testing
+                    // if no msg is send due to an error .take() will block forever
+                    msg = queue.poll(timeout, TimeUnit.SECONDS);
+                } else {
+                    msg = queue.take();
+                }
+            } finally {
+                stats.receiveCount++;
+                stats.receiveWaitNanos += System.nanoTime() - start;
             }
             if (msg != null) {
-                Input in = new Input();
-                return in.processedReceivedMessage(msg);
+                return processReceivedMessage(msg);
             }
             throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "timeout while receiving from the channel");
         } catch (InterruptedException x) {
@@ -249,12 +297,117 @@ public class RChannel {
         RChannel channel = getChannelFromId(id);
         Object msg = (id < 0 ? channel.primaryToWorker : channel.workerToPrimary).poll();
         if (msg != null) {
-            Input in = new Input();
-            return in.processedReceivedMessage(msg);
+            return processReceivedMessage(msg);
+        }
+        return null;
+    }
+
+    private void setReceiveSignal(int id, Semaphore signal) {
+        if (id < 0) {
+            primaryToWorkerSignal = signal;
+        } else {
+            workerToPrimarySignal = signal;
+        }
+    }
+
+    private static Object[] pollAny(int[] ids, RChannel[] selected) {
+        for (int i = 0; i < ids.length; i++) {
+            Object msg = (ids[i] < 0 ? selected[i].primaryToWorker : selected[i].workerToPrimary).poll();
+            if (msg != null) {
+                return new Object[]{ids[i], processReceivedMessage(msg)};
+            }
         }
         return null;
     }
 
+    /**
+     * Waits until a message is available in any of the channels given by {@code ids} and receives
+     * it. The invoking thread sleeps until one of the senders signals a new message, it does not
+     * poll the channels in a loop.
+     *
+     * @param timeoutMillis maximum time to wait, negative value means no timeout
+     * @return the id of the channel and the received message, or {@code null} if the timeout
+     *         elapsed before any message arrived
+     */
+    public static Object[] select(int[] ids, long timeoutMillis) {
+        ContextStateImpl stats = RContext.getInstance().stateRChannel;
+        stats.selectCount++;
+        RChannel[] selected = new RChannel[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            selected[i] = getChannelFromId(ids[i]);
+        }
+        Object[] res = pollAny(ids, selected);
+        if (res != null) {
+            return res;
+        }
+        stats.selectWaitCount++;
+        Semaphore signal = new Semaphore(0);
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < ids.length; i++) {
+                selected[i].setReceiveSignal(ids[i], signal);
+            }
+            while (true) {
+                // messages sent before the signal was registered are picked up here
+                res = pollAny(ids, selected);
+                if (res != null) {
+                    return res;
+                }
+                if (timeoutMillis < 0) {
+                    signal.acquire();
+                } else {
+                    long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis) - (System.nanoTime() - start);
+                    if (remaining <= 0 || !signal.tryAcquire(remaining, TimeUnit.NANOSECONDS)) {
+                        return pollAny(ids, selected);
+                    }
+                }
+            }
+        } catch (InterruptedException x) {
+            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error receiving from the channel");
+        } finally {
+            for (int i = 0; i < ids.length; i++) {
+                selected[i].setReceiveSignal(ids[i], null);
+            }
+            stats.selectWaitNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Returns the number of {@link #select} calls of the current context, the number of those that
+     * had to wait for a message, the total time spent waiting in them (in nanoseconds), and the
+     * same counts and waiting time for {@link #receive}. The waiting time is the time the current
+     * context was idle. The time other contexts, e.g. idle cluster workers, spent waiting is not
+     * included and {@code reset} clears only the statistics of the current context.
+     */
+    public static long[] getWaitStatistics(boolean reset) {
+        ContextStateImpl stats = RContext.getInstance().stateRChannel;
+        long[] res = new long[]{stats.selectCount, stats.selectWaitCount, stats.selectWaitNanos, stats.receiveCount, stats.receiveWaitNanos};
+        if (reset) {
+            stats.selectCount = 0;
+            stats.selectWaitCount = 0;
+            stats.selectWaitNanos = 0;
+            stats.receiveCount = 0;
+            stats.receiveWaitNanos = 0;
+        }
+        return res;
+    }
+
+    /**
+     * Wait statistics of the channel operations performed by a context, see
+     * {@link #getWaitStatistics}. Only the thread of the context updates them.
+     */
+    public static final class ContextStateImpl implements RContext.ContextState {
+        private long selectCount;
+        private long selectWaitCount;
+        private long selectWaitNanos;
+        private long receiveCount;
+        private long receiveWaitNanos;
+
+        public static ContextStateImpl newContextState() {
+            return new ContextStateImpl();
+        }
+    }
+
     private static class TransmitterCommon extends RSerialize.RefCounter {
 
         protected static class SerializedRef {
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2014, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2014, 2022, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -24,14 +24,18 @@ package com.oracle.truffle.r.runtime;
 
 import com.oracle.truffle.api.TruffleFile;
 import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.ProcessBuilder.Redirect;
+import java.nio.ByteBuffer;
 import java.nio.file.OpenOption;
 import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
+import java.util.zip.DataFormatException;
 import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
 
 import org.tukaani.xz.LZMA2InputStream;
 
@@ -120,6 +124,83 @@ public class RCompression {
         }
     }
 
+    /**
+     * Variant of {@link #uncompress(Type, byte[], byte[])} that reads the compressed data from the
+     * remaining content of {@code cdata}, which may be a slice of a memory mapped file. The data is
+     * never copied to a temporary array, hence the gzip variant uses {@link Inflater} rather than
+     * the native zlib.
+     */
+    public static boolean uncompress(Type type, byte[] udata, ByteBuffer cdata) {
+        switch (type) {
+            case NONE:
+                if (cdata.remaining() < udata.length) {
+                    return false;
+                }
+                cdata.get(udata);
+                return true;
+            case GZIP:
+                return inflate(udata, cdata);
+            case BZIP2:
+                throw RInternalError.unimplemented("BZIP2 compression");
+            case XZ:
+                return lzmaUncompress(udata, new ByteBufferInputStream(cdata));
+            default:
+                assert false;
+                return false;
+        }
+    }
+
+    private static boolean inflate(byte[] udata, ByteBuffer cdata) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(cdata);
+            int totalRead = 0;
+            while (totalRead < udata.length && !inflater.finished()) {
+                int n = inflater.inflate(udata, totalRead, udata.length - totalRead);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                totalRead += n;
+            }
+            return totalRead == udata.length;
+        } catch (DataFormatException ex) {
+            return false;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
     /**
      * Uncompress for internal use in {@code LazyLoadDBInsertValue} where size of uncompressed data
      * is known.
@@ -186,8 +267,12 @@ public class RCompression {
     }
 
     private static boolean lzmaUncompress(byte[] udata, byte[] data) {
+        return lzmaUncompress(udata, new ByteArrayInputStream(data));
+    }
+
+    private static boolean lzmaUncompress(byte[] udata, InputStream data) {
         int dictSize = udata.length < LZMA2InputStream.DICT_SIZE_MIN ? LZMA2InputStream.DICT_SIZE_MIN : udata.length;
-        try (LZMA2InputStream lzmaStream = new LZMA2InputStream(new ByteArrayInputStream(data), dictSize)) {
+        try (LZMA2InputStream lzmaStream = new LZMA2InputStream(data, dictSize)) {
             int totalRead = 0;
             int n;
             while ((n = lzmaStream.read(udata, totalRead, udata.length - totalRead)) > 0) {
@@ -199,26 +284,58 @@ public class RCompression {
         }
     }
 
-    public static byte[] bzipUncompressFromFile(TruffleFile path) throws IOException {
+    /**
+     * Returns the uncompressed content of a bzip2 file as a stream that is decompressed on the fly
+     * by a 'bzip2' subprocess, so that only the pipe buffer is ever held in memory. A failure of
+     * the subprocess is reported when the end of the stream is reached.
+     */
+    public static InputStream bzipUncompressStream(TruffleFile path) throws IOException {
         String[] command = new String[]{"bzip2", "-dc", path.getPath()};
         ProcessBuilder pb = new ProcessBuilder(command);
         pb.redirectError(Redirect.INHERIT);
         Process p = pb.start();
-        InputStream is = p.getInputStream();
-        ProcessOutputManager.OutputThreadVariable readThread = new ProcessOutputManager.OutputThreadVariable(command[0], is);
-        readThread.start();
-        try {
-            int rc = p.waitFor();
-            if (rc == 0) {
-                readThread.join();
-                return Arrays.copyOf(readThread.getData(), readThread.getTotalRead());
-            } else {
-                throw new IOException("bzip2 error code: " + rc);
+        p.getOutputStream().close();
+        return new ProcessInputStream(p);
+    }
+
+    private static final class ProcessInputStream extends FilterInputStream {
+        private final Process process;
+
+        ProcessInputStream(Process process) {
+            super(process.getInputStream());
+            this.process = process;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return checkEOF(super.read());
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return checkEOF(super.read(b, off, len));
+        }
+
+        private int checkEOF(int result) throws IOException {
+            if (result < 0) {
+                try {
+                    int rc = process.waitFor();
+                    if (rc != 0) {
+                        throw new IOException("bzip2 error code: " + rc);
+                    }
+                } catch (InterruptedException ex) {
+                    throw new IOException(ex);
+                }
             }
-        } catch (InterruptedException ex) {
-            // fall through
+            return result;
+        }
+
+        @Override
+        public void close() throws IOException {
+            super.close();
+            // the stream may be closed before the whole file was read
+            process.destroy();
         }
-        throw new IOException();
     }
 
     public static void bzipCompressToFile(byte[] data, TruffleFile path, boolean append) throws IOException {
@@ -478,6 +478,8 @@ public final class RError extends AbstractTruffleException {
         INVALID_NA_PRINT_SPEC("invalid 'na.print' specification"),
         EMPTY_WHAT("empty 'what' specified"),
         LINE_ELEMENTS("line %d did not have %d elements"),
+        QUOTED_LINE_BREAK("line %d contains a quoted field with a line break, which is not supported"),
+        NO_LINES_AVAILABLE("no lines available in input"),
         ITEMS_NOT_MULTIPLE("number of items read is not a multiple of the number of columns"),
         TRACEMEM_NOT_NULL("cannot trace NULL"),
         INPUT_MUST_BE_STRING("input must be a character string"),
@@ -113,6 +113,11 @@ public class RLogger {
      */
     public static final String LOGGER_PCRE = "com.oracle.truffle.r.pcre";
 
+    /**
+     * Log problems with the life cycle of child contexts.
+     */
+    public static final String LOGGER_CONTEXTS = "com.oracle.truffle.r.contexts";
+
     public static final String LOGGER_FRAMES = "com.oracle.truffle.r.frames";
 
     public static final String LOGGER_AST = "com.oracle.truffle.r.ast";
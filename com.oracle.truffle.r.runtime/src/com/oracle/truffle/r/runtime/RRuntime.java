@@ -236,7 +236,15 @@ public class RRuntime {
      * global environment.
      */
     public static MaterializedFrame createNonFunctionFrame(String name) {
-        FrameDescriptor frameDescriptor = FrameSlotChangeMonitor.createUninitializedFrameDescriptor(name);
+        return createNonFunctionFrame(name, 0);
+    }
+
+    /**
+     * Creates a non-function frame whose metadata is presized for about {@code expectedSize}
+     * bindings.
+     */
+    public static MaterializedFrame createNonFunctionFrame(String name, int expectedSize) {
+        FrameDescriptor frameDescriptor = FrameSlotChangeMonitor.createUninitializedFrameDescriptor(name, expectedSize);
         MaterializedFrame frame = Truffle.getRuntime().createMaterializedFrame(RArguments.createUnitialized(), frameDescriptor);
         FrameSlotChangeMonitor.initializeNonFunctionFrameDescriptor(frameDescriptor, frame);
         assert frame.getFrameDescriptor() == frameDescriptor;
@@ -27,6 +27,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
@@ -70,19 +71,23 @@ import com.oracle.truffle.r.runtime.data.RAttributesLayout;
 import com.oracle.truffle.r.runtime.data.RBaseObject;
 import com.oracle.truffle.r.runtime.data.RComplexVector;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RDoubleArrayVectorData;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.REmpty;
 import com.oracle.truffle.r.runtime.data.RExternalPtr;
 import com.oracle.truffle.r.runtime.data.RFunction;
+import com.oracle.truffle.r.runtime.data.RIntArrayVectorData;
 import com.oracle.truffle.r.runtime.data.RIntSeqVectorData;
 import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RList;
+import com.oracle.truffle.r.runtime.data.RLogicalArrayVectorData;
 import com.oracle.truffle.r.runtime.data.RLogicalVector;
 import com.oracle.truffle.r.runtime.data.RMissing;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RPairList;
 import com.oracle.truffle.r.runtime.data.RPromise;
 import com.oracle.truffle.r.runtime.data.RPromise.PromiseState;
+import com.oracle.truffle.r.runtime.data.RRawArrayVectorData;
 import com.oracle.truffle.r.runtime.data.RRawVector;
 import com.oracle.truffle.r.runtime.data.RScalar;
 import com.oracle.truffle.r.runtime.data.RSharingAttributeStorage;
@@ -864,13 +869,13 @@ public class RSerialize {
                 case INTSXP: {
                     int len = stream.readInt();
                     int[] data = new int[len];
+                    stream.readInts(data, 0, len);
                     boolean complete = RDataFactory.COMPLETE_VECTOR;
                     for (int i = 0; i < len; i++) {
-                        int intVal = stream.readInt();
-                        if (intVal == RRuntime.INT_NA) {
+                        if (data[i] == RRuntime.INT_NA) {
                             complete = false;
+                            break;
                         }
-                        data[i] = intVal;
                     }
                     result = RDataFactory.createIntVector(data, complete);
                     break;
@@ -880,13 +885,19 @@ public class RSerialize {
                     int len = stream.readInt();
                     byte[] data = new byte[len];
                     boolean complete = RDataFactory.COMPLETE_VECTOR;
-                    for (int i = 0; i < len; i++) {
-                        int intVal = stream.readInt();
-                        if (intVal == RRuntime.INT_NA) {
-                            complete = false;
-                            data[i] = RRuntime.LOGICAL_NA;
-                        } else {
-                            data[i] = (byte) intVal;
+                    // logicals are stored as ints, decode them in chunks
+                    int[] chunk = new int[Math.min(len, LOGICAL_CHUNK)];
+                    for (int start = 0; start < len; start += chunk.length) {
+                        int n = Math.min(chunk.length, len - start);
+                        stream.readInts(chunk, 0, n);
+                        for (int i = 0; i < n; i++) {
+                            int intVal = chunk[i];
+                            if (intVal == RRuntime.INT_NA) {
+                                complete = false;
+                                data[start + i] = RRuntime.LOGICAL_NA;
+                            } else {
+                                data[start + i] = (byte) intVal;
+                            }
                         }
                     }
                     result = RDataFactory.createLogicalVector(data, complete);
@@ -896,13 +907,13 @@ public class RSerialize {
                 case REALSXP: {
                     int len = stream.readInt();
                     double[] data = new double[len];
+                    stream.readDoubles(data, 0, len);
                     boolean complete = RDataFactory.COMPLETE_VECTOR;
                     for (int i = 0; i < len; i++) {
-                        double doubleVal = stream.readDouble();
-                        if (RRuntime.isNA(doubleVal)) {
+                        if (RRuntime.isNA(data[i])) {
                             complete = false;
+                            break;
                         }
-                        data[i] = doubleVal;
                     }
                     result = RDataFactory.createDoubleVector(data, complete);
                     break;
@@ -1224,6 +1235,11 @@ public class RSerialize {
         }
     }
 
+    /**
+     * Number of logical values converted from/to their int representation at once.
+     */
+    private static final int LOGICAL_CHUNK = 8192;
+
     private abstract static class PInputStream {
         protected InputStream is;
 
@@ -1239,6 +1255,16 @@ public class RSerialize {
 
         abstract void readRaw(byte[] data) throws IOException;
 
+        /**
+         * Reads {@code len} ints into {@code data} starting at {@code offset}.
+         */
+        abstract void readInts(int[] data, int offset, int len) throws IOException;
+
+        /**
+         * Reads {@code len} doubles into {@code data} starting at {@code offset}.
+         */
+        abstract void readDoubles(double[] data, int offset, int len) throws IOException;
+
     }
 
     @SuppressWarnings("unused")
@@ -1376,7 +1402,57 @@ public class RSerialize {
 
         @Override
         void readRaw(byte[] data) throws IOException {
-            ensureData(data.length).readRaw(data);
+            if (data.length <= defaultBuffer.buf.length) {
+                ensureData(data.length).readRaw(data);
+            } else {
+                if (is instanceof PByteArrayInputStream) {
+                    // the buffer holds all the data, the position of the stream itself is stale
+                    throw new IOException("Premature EOF");
+                }
+                // stream large payloads directly into the target instead of enlarging the buffer
+                Buffer b = defaultBuffer;
+                int pos = b.size - b.offset;
+                System.arraycopy(b.buf, b.offset, data, 0, pos);
+                b.offset = b.size = 0;
+                while (pos < data.length) {
+                    int nread = is.read(data, pos, data.length - pos);
+                    if (nread <= 0) {
+                        throw new IOException("Premature EOF");
+                    }
+                    pos += nread;
+                }
+            }
+        }
+
+        /*
+         * The bulk reads decode the data through big-endian views of the buffer, at most one
+         * buffer full at a time, so that they never need to enlarge the buffer.
+         */
+
+        @Override
+        void readInts(int[] data, int offset, int len) throws IOException {
+            int pos = offset;
+            int end = offset + len;
+            while (pos < end) {
+                int n = Math.min(end - pos, defaultBuffer.buf.length / Integer.BYTES);
+                Buffer b = ensureData(n * Integer.BYTES);
+                ByteBuffer.wrap(b.buf, b.offset, n * Integer.BYTES).asIntBuffer().get(data, pos, n);
+                b.offset += n * Integer.BYTES;
+                pos += n;
+            }
+        }
+
+        @Override
+        void readDoubles(double[] data, int offset, int len) throws IOException {
+            int pos = offset;
+            int end = offset + len;
+            while (pos < end) {
+                int n = Math.min(end - pos, defaultBuffer.buf.length / Double.BYTES);
+                Buffer b = ensureData(n * Double.BYTES);
+                ByteBuffer.wrap(b.buf, b.offset, n * Double.BYTES).asDoubleBuffer().get(data, pos, n);
+                b.offset += n * Double.BYTES;
+                pos += n;
+            }
         }
 
         private Buffer ensureData(int n) throws IOException {
@@ -1474,6 +1550,21 @@ public class RSerialize {
 
         abstract void writeRaw(byte value) throws IOException;
 
+        /**
+         * Writes the first {@code len} elements of {@code data}.
+         */
+        abstract void writeInts(int[] data, int len) throws IOException;
+
+        /**
+         * Writes the first {@code len} elements of {@code data}.
+         */
+        abstract void writeDoubles(double[] data, int len) throws IOException;
+
+        /**
+         * Writes the first {@code len} elements of {@code data}.
+         */
+        abstract void writeRaw(byte[] data, int len) throws IOException;
+
         abstract void flush() throws IOException;
 
     }
@@ -1552,6 +1643,49 @@ public class RSerialize {
             buf[offset++] = (byte) (valueBits & 0xff);
         }
 
+        @Override
+        void writeInts(int[] data, int len) throws IOException {
+            int pos = 0;
+            while (pos < len) {
+                int n = Math.min(len - pos, (buf.length - offset) / Integer.BYTES);
+                if (n == 0) {
+                    flushBuffer();
+                    continue;
+                }
+                ByteBuffer.wrap(buf, offset, n * Integer.BYTES).asIntBuffer().put(data, pos, n);
+                offset += n * Integer.BYTES;
+                pos += n;
+            }
+        }
+
+        @Override
+        void writeDoubles(double[] data, int len) throws IOException {
+            int pos = 0;
+            while (pos < len) {
+                int n = Math.min(len - pos, (buf.length - offset) / Double.BYTES);
+                if (n == 0) {
+                    flushBuffer();
+                    continue;
+                }
+                ByteBuffer.wrap(buf, offset, n * Double.BYTES).asDoubleBuffer().put(data, pos, n);
+                offset += n * Double.BYTES;
+                pos += n;
+            }
+        }
+
+        @Override
+        void writeRaw(byte[] data, int len) throws IOException {
+            if (len > buf.length) {
+                // too large to fit buffer
+                flushBuffer();
+                os.write(data, 0, len);
+            } else {
+                ensureSpace(len);
+                System.arraycopy(data, 0, buf, offset, len);
+                offset += len;
+            }
+        }
+
         private void ensureSpace(int n) throws IOException {
             if (offset + n > buf.length) {
                 flushBuffer();
@@ -1785,6 +1919,11 @@ public class RSerialize {
 
                             case INTSXP:
                             case LGLSXP: {
+                                if (obj instanceof RIntVector && writeManagedData((RIntVector) obj)) {
+                                    break;
+                                } else if (obj instanceof RLogicalVector && writeManagedData((RLogicalVector) obj)) {
+                                    break;
+                                }
                                 // logicals are written as ints
                                 RAbstractVector vector = (RAbstractVector) obj;
                                 VectorAccess access = vector.slowPathAccess();
@@ -1798,6 +1937,9 @@ public class RSerialize {
 
                             case REALSXP: {
                                 RDoubleVector vector = (RDoubleVector) obj;
+                                if (writeManagedData(vector)) {
+                                    break;
+                                }
                                 VectorAccess access = vector.slowPathAccess();
                                 SequentialIterator iter = access.access(vector);
                                 stream.writeInt(access.getLength(iter));
@@ -1838,6 +1980,9 @@ public class RSerialize {
 
                             case RAWSXP: {
                                 RRawVector vector = (RRawVector) obj;
+                                if (writeManagedData(vector)) {
+                                    break;
+                                }
                                 VectorAccess access = vector.slowPathAccess();
                                 SequentialIterator iter = access.access(vector);
                                 stream.writeInt(access.getLength(iter));
@@ -1992,6 +2137,66 @@ public class RSerialize {
             return result;
         }
 
+        /*
+         * The writeManagedData methods write the length and the elements of a vector backed by a
+         * managed array in bulk. They return false for other representations (sequences, native
+         * memory, ALTREP), which are written element by element.
+         */
+
+        private boolean writeManagedData(RIntVector vector) throws IOException {
+            Object data = vector.getData();
+            if (!(data instanceof RIntArrayVectorData)) {
+                return false;
+            }
+            int len = vector.getLength();
+            stream.writeInt(len);
+            stream.writeInts(((RIntArrayVectorData) data).getReadonlyIntData(), len);
+            return true;
+        }
+
+        private boolean writeManagedData(RLogicalVector vector) throws IOException {
+            Object data = vector.getData();
+            if (!(data instanceof RLogicalArrayVectorData)) {
+                return false;
+            }
+            byte[] logicals = ((RLogicalArrayVectorData) data).getReadonlyLogicalData();
+            int len = vector.getLength();
+            stream.writeInt(len);
+            // logicals are written as ints
+            int[] chunk = new int[Math.min(len, LOGICAL_CHUNK)];
+            for (int start = 0; start < len; start += chunk.length) {
+                int n = Math.min(chunk.length, len - start);
+                for (int i = 0; i < n; i++) {
+                    byte value = logicals[start + i];
+                    chunk[i] = value == RRuntime.LOGICAL_NA ? RRuntime.INT_NA : value;
+                }
+                stream.writeInts(chunk, n);
+            }
+            return true;
+        }
+
+        private boolean writeManagedData(RDoubleVector vector) throws IOException {
+            Object data = vector.getData();
+            if (!(data instanceof RDoubleArrayVectorData)) {
+                return false;
+            }
+            int len = vector.getLength();
+            stream.writeInt(len);
+            stream.writeDoubles(((RDoubleArrayVectorData) data).getReadonlyDoubleData(), len);
+            return true;
+        }
+
+        private boolean writeManagedData(RRawVector vector) throws IOException {
+            Object data = vector.getData();
+            if (!(data instanceof RRawArrayVectorData)) {
+                return false;
+            }
+            int len = vector.getLength();
+            stream.writeInt(len);
+            stream.writeRaw(((RRawArrayVectorData) data).getReadonlyRawData(), len);
+            return true;
+        }
+
         private void outStringVec(RStringVector vec, boolean strsxp) throws IOException {
             if (!strsxp) {
                 stream.writeInt(0);
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2022, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.ffi.PCRE2RFFI;
+
+/**
+ * Bounded caches of compiled regular expressions, so that builtins like {@code grep} or
+ * {@code gsub} called repeatedly with the same pattern do not compile it on every call.
+ * <p>
+ * {@link Pattern}s are immutable and independent of the context, so they are kept in a single
+ * global cache. Patterns compiled by PCRE2 are native objects, they are kept per context in
+ * {@link ContextStateImpl} and released when they are evicted or when the context is finalized.
+ * Users of a cached PCRE2 pattern must not release it, and must not use it anymore after compiling
+ * another pattern, which may evict it.
+ */
+public final class RegExpCache {
+
+    static final int MAX_JAVA_PATTERNS = 256;
+    static final int MAX_PCRE_PATTERNS = 64;
+
+    private static final Map<Key, Pattern> javaPatterns = new LinkedHashMap<>(16, 0.75f, true);
+
+    private RegExpCache() {
+        // no instances
+    }
+
+    private static final class Key {
+        private final String pattern;
+        private final int flags;
+
+        Key(String pattern, int flags) {
+            this.pattern = pattern;
+            this.flags = flags;
+        }
+
+        @Override
+        public int hashCode() {
+            return pattern.hashCode() * 31 + flags;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return flags == other.flags && pattern.equals(other.pattern);
+        }
+    }
+
+    /**
+     * Equivalent of {@link Pattern#compile(String, int)} that reuses the recently compiled
+     * patterns. Patterns with a syntax error are not cached, the {@code PatternSyntaxException} is
+     * thrown again on every call.
+     */
+    @TruffleBoundary
+    public static Pattern compile(String pattern, int flags) {
+        Key key = new Key(pattern, flags);
+        synchronized (javaPatterns) {
+            Pattern result = javaPatterns.get(key);
+            if (result != null) {
+                return result;
+            }
+        }
+        Pattern result = Pattern.compile(pattern, flags);
+        synchronized (javaPatterns) {
+            javaPatterns.put(key, result);
+            evictEldest(javaPatterns, MAX_JAVA_PATTERNS);
+        }
+        return result;
+    }
+
+    private static <T> T evictEldest(Map<Key, T> map, int maxSize) {
+        if (map.size() <= maxSize) {
+            return null;
+        }
+        Iterator<T> iterator = map.values().iterator();
+        T eldest = iterator.next();
+        iterator.remove();
+        return eldest;
+    }
+
+    public static final class ContextStateImpl implements RContext.ContextState {
+        private final Map<Key, PCRE2RFFI.CompileResult> pcrePatterns = new LinkedHashMap<>(16, 0.75f, true);
+
+        /**
+         * Returns the cached PCRE2 pattern compiled with the given options or {@code null}.
+         */
+        @TruffleBoundary
+        public synchronized PCRE2RFFI.CompileResult getPCRE(String pattern, int options) {
+            return pcrePatterns.get(new Key(pattern, options));
+        }
+
+        /**
+         * Caches a successfully compiled PCRE2 pattern. If the cache is full, the least recently
+         * used pattern is released with the given node.
+         */
+        @TruffleBoundary
+        public synchronized void putPCRE(String pattern, int options, PCRE2RFFI.CompileResult compiled, PCRE2RFFI.MemoryReleaseNode releaseNode) {
+            PCRE2RFFI.CompileResult previous = pcrePatterns.put(new Key(pattern, options), compiled);
+            assert previous == null;
+            PCRE2RFFI.CompileResult eldest = evictEldest(pcrePatterns, MAX_PCRE_PATTERNS);
+            if (eldest != null) {
+                releaseNode.execute(eldest.compiledPattern);
+            }
+        }
+
+        @Override
+        public synchronized void beforeFinalize(RContext context) {
+            if (!pcrePatterns.isEmpty()) {
+                PCRE2RFFI.MemoryReleaseNode releaseNode = PCRE2RFFI.MemoryReleaseNode.create();
+                for (PCRE2RFFI.CompileResult compiled : pcrePatterns.values()) {
+                    releaseNode.execute(compiled.compiledPattern);
+                }
+                pcrePatterns.clear();
+            }
+        }
+
+        public static ContextStateImpl newContextState() {
+            return new ContextStateImpl();
+        }
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright (c) 2022, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The rules by which {@code type.convert} determines the type of a column of strings, shared by
+ * the {@code type.convert} builtin and {@link ParallelTableReader}.
+ *
+ * A column is integer if all its values are integers, double if they are all numbers, logical if
+ * they are all logical constants and character otherwise. Values that are {@code NA} (decided by
+ * the caller) do not take part. Integers are decimal numbers within the integer range with an
+ * optional sign and surrounding blanks, hexadecimal numbers are read as doubles.
+ *
+ * Besides the rules for strings, there are parsers that work directly on the bytes of a field. They
+ * recognize the common forms of the values and report everything else as undecided, in which case
+ * the caller has to create the string and use the string rules.
+ */
+public final class TypeConvertRules {
+
+    public static final byte KIND_NA = 0;
+    public static final byte KIND_LOGICAL = 1;
+    public static final byte KIND_INTEGER = 2;
+    public static final byte KIND_DOUBLE = 3;
+    public static final byte KIND_CHARACTER = 4;
+
+    /**
+     * Result of {@link #parseInteger(ByteBuffer, int, int)} for fields that are not integers.
+     */
+    public static final long NOT_INTEGER = Long.MIN_VALUE;
+
+    /**
+     * Decimal numbers with at most this many significant digits and {@link #POWERS_OF_TEN}
+     * fraction digits are converted exactly by a single division.
+     */
+    private static final int MAX_EXACT_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private TypeConvertRules() {
+        // no instances
+    }
+
+    /**
+     * Returns the kind of a column that had kind {@code current} before the (non-NA) value
+     * {@code s}.
+     *
+     * @param useLocale whether doubles are parsed with the numeric locale, which is only available
+     *            on the thread of the context
+     */
+    public static byte kindOf(String s, byte current, boolean useLocale) {
+        switch (current) {
+            case KIND_NA:
+                if (isInteger(s)) {
+                    return KIND_INTEGER;
+                } else if (isDouble(s, useLocale)) {
+                    return KIND_DOUBLE;
+                } else {
+                    return isLogical(s) ? KIND_LOGICAL : KIND_CHARACTER;
+                }
+            case KIND_LOGICAL:
+                return isLogical(s) ? KIND_LOGICAL : KIND_CHARACTER;
+            case KIND_INTEGER:
+                if (isInteger(s)) {
+                    return KIND_INTEGER;
+                }
+                return isDouble(s, useLocale) ? KIND_DOUBLE : KIND_CHARACTER;
+            case KIND_DOUBLE:
+                return isDouble(s, useLocale) ? KIND_DOUBLE : KIND_CHARACTER;
+            default:
+                return KIND_CHARACTER;
+        }
+    }
+
+    /**
+     * Returns the kind of a column whose parts have the given kinds, e.g. integer and double give
+     * double, but logical and a number give character.
+     */
+    public static byte merge(byte kind1, byte kind2) {
+        if (kind1 == KIND_NA || kind1 == kind2) {
+            return kind2;
+        } else if (kind2 == KIND_NA) {
+            return kind1;
+        } else if (kind1 == KIND_LOGICAL || kind2 == KIND_LOGICAL) {
+            return KIND_CHARACTER;
+        } else {
+            return (byte) Math.max(kind1, kind2);
+        }
+    }
+
+    private static boolean isInteger(String s) {
+        return parseInteger(s) != NOT_INTEGER;
+    }
+
+    private static boolean isDouble(String s, boolean useLocale) {
+        try {
+            toDouble(s, useLocale);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean isLogical(String s) {
+        try {
+            toLogical(s);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Converts a value of an integer column.
+     *
+     * @throws NumberFormatException if {@code s} is not an integer
+     */
+    public static int toInteger(String s) {
+        long value = parseInteger(s);
+        if (value == NOT_INTEGER) {
+            throw new NumberFormatException();
+        }
+        return (int) value;
+    }
+
+    /**
+     * Converts a value of a double column.
+     *
+     * @throws NumberFormatException if {@code s} is not a number
+     */
+    public static double toDouble(String s, boolean useLocale) {
+        return RRuntime.string2doubleNoCheck(s, true, useLocale);
+    }
+
+    /**
+     * Converts a value of a logical column.
+     *
+     * @throws NumberFormatException if {@code s} is not a logical constant
+     */
+    public static byte toLogical(String s) {
+        return RRuntime.string2logicalNoCheck(s, true);
+    }
+
+    private static long parseInteger(String s) {
+        int end = s.length();
+        int pos = 0;
+        while (pos < end && isBlank(s.charAt(pos))) {
+            pos++;
+        }
+        while (end > pos && isBlank(s.charAt(end - 1))) {
+            end--;
+        }
+        boolean negative = false;
+        if (pos < end && (s.charAt(pos) == '-' || s.charAt(pos) == '+')) {
+            negative = s.charAt(pos) == '-';
+            pos++;
+        }
+        if (pos == end) {
+            return NOT_INTEGER;
+        }
+        long value = 0;
+        for (; pos < end; pos++) {
+            char ch = s.charAt(pos);
+            if (ch < '0' || ch > '9') {
+                return NOT_INTEGER;
+            }
+            value = value * 10 + (ch - '0');
+            if (value > Integer.MAX_VALUE) {
+                // -2147483648 would be NA
+                return NOT_INTEGER;
+            }
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses the bytes {@code [start, end)} of {@code buf} with the rules of
+     * {@link #toInteger(String)}.
+     *
+     * @return the value or {@link #NOT_INTEGER}
+     */
+    public static long parseInteger(ByteBuffer buf, int start, int end) {
+        int pos = start;
+        int last = end;
+        while (pos < last && isBlank(buf.get(pos))) {
+            pos++;
+        }
+        while (last > pos && isBlank(buf.get(last - 1))) {
+            last--;
+        }
+        boolean negative = false;
+        if (pos < last && (buf.get(pos) == '-' || buf.get(pos) == '+')) {
+            negative = buf.get(pos) == '-';
+            pos++;
+        }
+        if (pos == last) {
+            return NOT_INTEGER;
+        }
+        long value = 0;
+        for (; pos < last; pos++) {
+            byte b = buf.get(pos);
+            if (b < '0' || b > '9') {
+                return NOT_INTEGER;
+            }
+            value = value * 10 + (b - '0');
+            if (value > Integer.MAX_VALUE) {
+                return NOT_INTEGER;
+            }
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses the bytes {@code [start, end)} of {@code buf} if they are a plain decimal number
+     * (optional sign, digits and decimal separator {@code dec}, no exponent) short enough to be
+     * converted exactly. Such a number gives the same value as {@link #toDouble(String, boolean)}.
+     *
+     * @return the value or {@code NaN} if the field is not such a number, which leaves the decision
+     *         to {@link #toDouble(String, boolean)}
+     */
+    public static double parseDouble(ByteBuffer buf, int start, int end, byte dec) {
+        int pos = start;
+        int last = end;
+        while (pos < last && isBlank(buf.get(pos))) {
+            pos++;
+        }
+        while (last > pos && isBlank(buf.get(last - 1))) {
+            last--;
+        }
+        boolean negative = false;
+        if (pos < last && (buf.get(pos) == '-' || buf.get(pos) == '+')) {
+            negative = buf.get(pos) == '-';
+            pos++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean anyDigit = false;
+        boolean fraction = false;
+        for (; pos < last; pos++) {
+            byte b = buf.get(pos);
+            if (b == dec && !fraction) {
+                fraction = true;
+                continue;
+            }
+            if (b < '0' || b > '9') {
+                return Double.NaN;
+            }
+            anyDigit = true;
+            if (fraction) {
+                scale++;
+            }
+            if (mantissa == 0 && b == '0') {
+                // leading zeros are not significant
+                continue;
+            }
+            if (++digits > MAX_EXACT_DIGITS) {
+                return Double.NaN;
+            }
+            mantissa = mantissa * 10 + (b - '0');
+        }
+        if (!anyDigit || scale >= POWERS_OF_TEN.length) {
+            return Double.NaN;
+        }
+        double value = mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses the bytes {@code [start, end)} of {@code buf} with the rules of
+     * {@link #toLogical(String)}.
+     *
+     * @return the value or {@link RRuntime#LOGICAL_NA} if the field is not a logical constant
+     */
+    public static byte parseLogical(ByteBuffer buf, int start, int end) {
+        switch (end - start) {
+            case 1:
+                byte b = buf.get(start);
+                return b == 'T' ? RRuntime.LOGICAL_TRUE : b == 'F' ? RRuntime.LOGICAL_FALSE : RRuntime.LOGICAL_NA;
+            case 4:
+                return matches(buf, start, "TRUE") || matches(buf, start, "True") || matches(buf, start, "true") ? RRuntime.LOGICAL_TRUE : RRuntime.LOGICAL_NA;
+            case 5:
+                return matches(buf, start, "FALSE") || matches(buf, start, "False") || matches(buf, start, "false") ? RRuntime.LOGICAL_FALSE : RRuntime.LOGICAL_NA;
+            default:
+                return RRuntime.LOGICAL_NA;
+        }
+    }
+
+    private static boolean matches(ByteBuffer buf, int start, String constant) {
+        for (int i = 0; i < constant.length(); i++) {
+            if (buf.get(start + i) != constant.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBlank(int ch) {
+        return ch == ' ' || ch == '\t';
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2022, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Worker threads shared by all contexts for builtins that split their work into tasks that do not
+ * access the context, i.e., the matrix multiplication, {@code write.table} and reading a table by
+ * {@link ParallelTableReader}. The pool is created on first use and has one thread per processor.
+ * Each builtin limits the number of tasks it runs at the same time with its own option or
+ * argument.
+ */
+public final class WorkerPool {
+
+    private WorkerPool() {
+        // no instances
+    }
+
+    private static final class Holder {
+        private static final ForkJoinPool WORKERS = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    public static ForkJoinPool get() {
+        return Holder.WORKERS;
+    }
+
+    /**
+     * Returns the number of threads to use for a requested number where {@code 0} (or a negative
+     * number) means all processors.
+     */
+    public static int getThreads(int requested) {
+        return requested > 0 ? requested : Runtime.getRuntime().availableProcessors();
+    }
+}
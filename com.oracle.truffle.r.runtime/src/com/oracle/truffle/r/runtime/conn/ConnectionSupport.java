@@ -49,6 +49,7 @@ import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RType;
 import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.data.Closure;
 import com.oracle.truffle.r.runtime.data.RAttributesLayout;
 import com.oracle.truffle.r.runtime.data.RBaseObject;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
@@ -80,6 +81,12 @@ public class ConnectionSupport {
          */
         private int hwm = 2;
 
+        /**
+         * The expression of the promises the variables of named output text connections are bound
+         * to, see {@link TextConnections}. Parsed lazily, once per context.
+         */
+        Closure textValueClosure;
+
         private ContextStateImpl() {
             for (int i = 0; i < MAX_CONNECTIONS; i++) {
                 allConnections.add(i, null);
@@ -678,6 +685,14 @@ public class ConnectionSupport {
             return !closed && opened;
         }
 
+        /**
+         * Returns {@code true} if the connection reads a regular file, as opposed to e.g. a FIFO or
+         * a device, where reading more than is needed may wait for input.
+         */
+        public boolean readsRegularFile() {
+            return false;
+        }
+
         /**
          * Return value for "can read" for {@code summary.connection}.
          */
@@ -775,9 +790,9 @@ public class ConnectionSupport {
             this.openMode = mode;
         }
 
-        protected String[] readLinesInternal(int n, EnumSet<ReadLineWarning> warn, boolean skipNul) throws IOException {
+        protected String[] readLinesInternal(int n, EnumSet<ReadLineWarning> warn, boolean skipNul, int firstLine) throws IOException {
             checkOpen();
-            return theConnection.readLines(n, warn, skipNul);
+            return theConnection.readLines(n, warn, skipNul, firstLine);
         }
 
         @Override
@@ -972,7 +987,7 @@ public class ConnectionSupport {
          * available.
          */
         @TruffleBoundary
-        private String[] readLinesWithPushBack(int n, EnumSet<ReadLineWarning> warn, boolean skipNul) throws IOException {
+        private String[] readLinesWithPushBack(int n, EnumSet<ReadLineWarning> warn, boolean skipNul, int firstLine) throws IOException {
             // NOTE: 'n' may be negative indicating to read as many lines as available
             final List<String> res;
             if (n >= 0) {
@@ -988,7 +1003,7 @@ public class ConnectionSupport {
                     if (i >= res.size() || res.get(i) == null) {
                         // no more push back value
 
-                        String[] resInternal = readLinesInternal(remainingLineCount, warn, skipNul);
+                        String[] resInternal = readLinesInternal(remainingLineCount, warn, skipNul, firstLine + i);
                         res.addAll(Arrays.asList(resInternal));
                         pushBack = null;
                         break;
@@ -997,7 +1012,7 @@ public class ConnectionSupport {
                 } else {
                     // reached the last push back value without reaching and of line
                     assert pushBack.size() == 0;
-                    String[] resInternal = readLinesInternal(remainingLineCount, warn, skipNul);
+                    String[] resInternal = readLinesInternal(remainingLineCount, warn, skipNul, firstLine + i);
                     res.addAll(i, Arrays.asList(resInternal));
                     if (res.get(i) != null) {
                         res.set(i, s + res.get(i));
@@ -1013,13 +1028,18 @@ public class ConnectionSupport {
 
         @Override
         public String[] readLines(int n, EnumSet<ReadLineWarning> warn, boolean skipNul) throws IOException {
+            return readLines(n, warn, skipNul, 1);
+        }
+
+        @Override
+        public String[] readLines(int n, EnumSet<ReadLineWarning> warn, boolean skipNul, int firstLine) throws IOException {
             if (pushBack == null) {
-                return readLinesInternal(n, warn, skipNul);
+                return readLinesInternal(n, warn, skipNul, firstLine);
             } else if (pushBack.size() == 0) {
                 pushBack = null;
-                return readLinesInternal(n, warn, skipNul);
+                return readLinesInternal(n, warn, skipNul, firstLine);
             } else {
-                return readLinesWithPushBack(n, warn, skipNul);
+                return readLinesWithPushBack(n, warn, skipNul, firstLine);
             }
         }
 
@@ -1147,6 +1167,16 @@ public class ConnectionSupport {
             // Use 'description' and not 'path' since this may be different, e.g., on temp files.
             return description;
         }
+
+        @Override
+        @TruffleBoundary
+        public boolean readsRegularFile() {
+            try {
+                return path != null && path.isRegularFile();
+            } catch (SecurityException e) {
+                return false;
+            }
+        }
     }
 
     public static ByteChannel newChannel(InputStream in) {
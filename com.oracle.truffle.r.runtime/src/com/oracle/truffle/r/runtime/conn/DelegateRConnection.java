@@ -36,6 +36,7 @@ import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.Objects;
@@ -130,17 +131,31 @@ abstract class DelegateRConnection extends RBaseObject implements RConnection, B
         return res;
     }
 
+    @Override
+    public final String[] readLines(int n, EnumSet<ReadLineWarning> warn, boolean skipNul) throws IOException {
+        return readLines(n, warn, skipNul, 1);
+    }
+
     /**
      * {@code readLines} from the connection. It would be convenient to use a {@link BufferedReader}
      * but mixing binary and text operations, which is a requirement, would then be difficult.
-     * 
+     * <p>
+     * If the connection has a read cache, lines are split directly on the cached block (see
+     * {@link #readLinesFromCache(int, EnumSet, boolean, int)}). Otherwise, the data is read byte by
+     * byte.
+     * </p>
+     *
      * @param warn Specifies which warnings should be output.
      * @param skipNul Specifies if the null character should be ignored.
+     * @param firstLine The number of the first line in warnings.
      */
     @Override
     @TruffleBoundary
-    public String[] readLines(int n, EnumSet<ReadLineWarning> warn, boolean skipNul) throws IOException {
+    public String[] readLines(int n, EnumSet<ReadLineWarning> warn, boolean skipNul, int firstLine) throws IOException {
         base.setIncomplete(false);
+        if (readCache && cache != null) {
+            return readLinesFromCache(n, warn, skipNul, firstLine);
+        }
         ArrayList<String> lines = new ArrayList<>();
         int totalRead = 0;
         int nBytesConsumed = 0;
@@ -154,25 +169,14 @@ abstract class DelegateRConnection extends RBaseObject implements RConnection, B
                 pushBack = 0;
             } else {
                 ch = readInternal();
+                if (ch >= 0) {
+                    nBytesConsumed++;
+                }
             }
             boolean lineEnd = false;
             if (ch < 0) {
                 if (totalRead > 0) {
-                    /*
-                     * GnuR says if non-blocking and in text mode, silently push back incomplete
-                     * lines, otherwise keep data and output warning.
-                     */
-                    final String incompleteFinalLine = new String(buffer, 0, totalRead, base.getEncoding());
-                    nBytesConsumed += totalRead;
-                    if (!base.isBlocking() && base.isTextMode()) {
-                        base.pushBack(RDataFactory.createStringVector(incompleteFinalLine), false);
-                        base.setIncomplete(true);
-                    } else {
-                        lines.add(incompleteFinalLine);
-                        if (warn.contains(ReadLineWarning.INCOMPLETE_LAST_LINE)) {
-                            RError.warning(RError.SHOW_CALLER, RError.Message.INCOMPLETE_FINAL_LINE, base.getSummaryDescription());
-                        }
-                    }
+                    addIncompleteLastLine(lines, new String(buffer, 0, totalRead, base.getEncoding()), warn);
                 }
                 break;
             }
@@ -181,6 +185,9 @@ abstract class DelegateRConnection extends RBaseObject implements RConnection, B
             } else if (ch == '\r') {
                 lineEnd = true;
                 ch = readInternal();
+                if (ch >= 0) {
+                    nBytesConsumed++;
+                }
                 if (ch == '\n') {
                     // swallow the trailing lf
                 } else {
@@ -189,12 +196,11 @@ abstract class DelegateRConnection extends RBaseObject implements RConnection, B
             } else if (ch == 0) {
                 nullRead = true;
                 if (warn.contains(ReadLineWarning.EMBEDDED_NUL) && !skipNul) {
-                    RError.warning(RError.SHOW_CALLER, RError.Message.LINE_CONTAINS_EMBEDDED_NULLS, lines.size() + 1);
+                    RError.warning(RError.SHOW_CALLER, RError.Message.LINE_CONTAINS_EMBEDDED_NULLS, firstLine + lines.size());
                 }
             }
             if (lineEnd) {
                 lines.add(new String(buffer, 0, totalRead, base.getEncoding()));
-                nBytesConsumed += totalRead;
                 if (n > 0 && lines.size() == n) {
                     break;
                 }
@@ -210,12 +216,159 @@ abstract class DelegateRConnection extends RBaseObject implements RConnection, B
                 }
             }
         }
+        if (pushBack > 0) {
+            // the pushed back byte has not been consumed
+            nBytesConsumed--;
+        }
+        String[] result = new String[lines.size()];
+        lines.toArray(result);
+        updateReadOffset(nBytesConsumed);
+        return result;
+    }
+
+    /**
+     * Splits lines directly on the read cache.<br>
+     * <p>
+     * The cached block is scanned for the next line terminator or null character in a tight loop
+     * over the backing array. A line that lies completely in the block is decoded in place; only
+     * lines spanning a refill of the cache are copied to an intermediate buffer. A {@code \r} at
+     * the end of a block is resolved by peeking at the first byte of the next block, so that no
+     * byte needs to be pushed back when returning early.
+     * </p>
+     */
+    private String[] readLinesFromCache(int n, EnumSet<ReadLineWarning> warn, boolean skipNul, int firstLine) throws IOException {
+        ArrayList<String> lines = new ArrayList<>();
+        final Charset encoding = base.getEncoding();
+        final boolean asciiCompatible = isAsciiCompatible(encoding);
+        final byte[] data = cache.array();
+        final int arrayOffset = cache.arrayOffset();
+        byte[] buffer = null;
+        int totalRead = 0;
+        int nBytesConsumed = 0;
+        boolean nullRead = false;
+        boolean ascii = true;
+        while (true) {
+            if (!cache.hasRemaining()) {
+                ensureDataAvailable(1);
+                if (!cache.hasRemaining()) {
+                    if (totalRead > 0) {
+                        addIncompleteLastLine(lines, decode(buffer, 0, totalRead, encoding, ascii && asciiCompatible), warn);
+                    }
+                    break;
+                }
+            }
+            final int start = arrayOffset + cache.position();
+            final int limit = arrayOffset + cache.limit();
+            int i = start;
+            byte b = 0;
+            while (i < limit) {
+                b = data[i];
+                if (b == '\n' || b == '\r' || b == 0) {
+                    break;
+                }
+                ascii &= b >= 0;
+                i++;
+            }
+            nBytesConsumed += i - start;
+            if (i == limit) {
+                // no delimiter in this block; keep the data and refill the cache
+                if (!nullRead) {
+                    buffer = appendToBuffer(buffer, totalRead, data, start, i - start);
+                    totalRead += i - start;
+                }
+                cache.position(limit - arrayOffset);
+                continue;
+            }
+            cache.position(i + 1 - arrayOffset);
+            nBytesConsumed++;
+            if (b == 0) {
+                if (!nullRead) {
+                    buffer = appendToBuffer(buffer, totalRead, data, start, i - start);
+                    totalRead += i - start;
+                }
+                if (!skipNul) {
+                    nullRead = true;
+                    if (warn.contains(ReadLineWarning.EMBEDDED_NUL)) {
+                        RError.warning(RError.SHOW_CALLER, RError.Message.LINE_CONTAINS_EMBEDDED_NULLS, firstLine + lines.size());
+                    }
+                }
+                continue;
+            }
+            final boolean useAscii = ascii && asciiCompatible;
+            String line;
+            if (totalRead == 0 && !nullRead) {
+                // fast path: the whole line is in the current block
+                line = decode(data, start, i - start, encoding, useAscii);
+            } else {
+                if (!nullRead) {
+                    buffer = appendToBuffer(buffer, totalRead, data, start, i - start);
+                    totalRead += i - start;
+                }
+                line = decode(buffer, 0, totalRead, encoding, useAscii);
+            }
+            lines.add(line);
+            totalRead = 0;
+            nullRead = false;
+            ascii = true;
+            if (b == '\r') {
+                // may refill the cache, therefore the line must have been decoded before
+                ensureDataAvailable(1);
+                if (cache.hasRemaining() && cache.get(cache.position()) == '\n') {
+                    // swallow the trailing lf
+                    cache.get();
+                    nBytesConsumed++;
+                }
+            }
+            if (n > 0 && lines.size() == n) {
+                break;
+            }
+        }
         String[] result = new String[lines.size()];
         lines.toArray(result);
         updateReadOffset(nBytesConsumed);
         return result;
     }
 
+    /**
+     * GnuR says if non-blocking and in text mode, silently push back incomplete lines, otherwise
+     * keep data and output warning.
+     */
+    private void addIncompleteLastLine(ArrayList<String> lines, String incompleteFinalLine, EnumSet<ReadLineWarning> warn) {
+        if (!base.isBlocking() && base.isTextMode()) {
+            base.pushBack(RDataFactory.createStringVector(incompleteFinalLine), false);
+            base.setIncomplete(true);
+        } else {
+            lines.add(incompleteFinalLine);
+            if (warn.contains(ReadLineWarning.INCOMPLETE_LAST_LINE)) {
+                RError.warning(RError.SHOW_CALLER, RError.Message.INCOMPLETE_FINAL_LINE, base.getSummaryDescription());
+            }
+        }
+    }
+
+    private static boolean isAsciiCompatible(Charset encoding) {
+        return StandardCharsets.UTF_8.equals(encoding) || StandardCharsets.US_ASCII.equals(encoding) || StandardCharsets.ISO_8859_1.equals(encoding);
+    }
+
+    /**
+     * Decodes a line. Pure ASCII data in an ASCII compatible encoding is copied without going
+     * through the charset decoder.
+     */
+    private static String decode(byte[] bytes, int offset, int length, Charset encoding, boolean ascii) {
+        return new String(bytes, offset, length, ascii ? StandardCharsets.ISO_8859_1 : encoding);
+    }
+
+    private static byte[] appendToBuffer(byte[] buffer, int used, byte[] src, int srcOffset, int length) {
+        byte[] result = buffer;
+        if (result == null || used + length > result.length) {
+            result = new byte[Math.max(64, Math.max(used + length, used + used / 2))];
+            if (buffer != null) {
+                System.arraycopy(buffer, 0, result, 0, used);
+            }
+        }
+        System.arraycopy(src, srcOffset, result, used, length);
+        return result;
+    }
+
     /**
      * Updates the read cursor.<br>
      * <p>
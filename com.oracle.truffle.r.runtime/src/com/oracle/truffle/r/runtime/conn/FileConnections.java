@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2014, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2014, 2022, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -22,7 +22,6 @@
  */
 package com.oracle.truffle.r.runtime.conn;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
@@ -232,8 +231,7 @@ public class FileConnections {
         switch (base.getOpenMode().abstractOpenMode) {
             case Read:
             case ReadBinary:
-                byte[] bzipUdata = RCompression.bzipUncompressFromFile(base.path);
-                return new ByteStreamCompressedInputRConnection(base, new ByteArrayInputStream(bzipUdata));
+                return new CompressedInputRConnection(base, RCompression.bzipUncompressStream(base.path));
             case Append:
             case AppendBinary:
                 return new BZip2OutputRConnection(base, new ByteArrayOutputStream(), true);
@@ -487,9 +485,9 @@ public class FileConnections {
         }
 
         @Override
-        public String[] readLines(int n, EnumSet<ReadLineWarning> warn, boolean skipNul) throws IOException {
+        public String[] readLines(int n, EnumSet<ReadLineWarning> warn, boolean skipNul, int firstLine) throws IOException {
             setReadPosition();
-            return super.readLines(n, warn, skipNul);
+            return super.readLines(n, warn, skipNul, firstLine);
         }
 
         @Override
@@ -655,11 +653,11 @@ public class FileConnections {
         }
 
         @Override
-        public String[] readLines(int n, EnumSet<ReadLineWarning> warn, boolean skipNul) throws IOException {
+        public String[] readLines(int n, EnumSet<ReadLineWarning> warn, boolean skipNul, int firstLine) throws IOException {
             setReadPosition();
             // the readOffset field is updated from within super.readLines via the overridden
             // updateReadOffset
-            return super.readLines(n, warn, skipNul);
+            return super.readLines(n, warn, skipNul, firstLine);
         }
 
         @Override
@@ -756,12 +754,6 @@ public class FileConnections {
         }
     }
 
-    private static class ByteStreamCompressedInputRConnection extends CompressedInputRConnection {
-        ByteStreamCompressedInputRConnection(BasePathRConnection base, ByteArrayInputStream is) {
-            super(base, is);
-        }
-    }
-
     private static class BZip2OutputRConnection extends CompressedOutputRConnection {
         private final ByteArrayOutputStream bos;
         private final boolean append;
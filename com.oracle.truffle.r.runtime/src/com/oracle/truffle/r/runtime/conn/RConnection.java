@@ -224,6 +224,16 @@ public interface RConnection extends AutoCloseable {
     @TruffleBoundary
     String[] readLines(int n, EnumSet<ReadLineWarning> warn, boolean skipNul) throws IOException;
 
+    /**
+     * Like {@link #readLines(int, EnumSet, boolean)}, but the lines are numbered from
+     * {@code firstLine} in warnings, so that a caller reading the input in several blocks reports
+     * the position in the whole input.
+     */
+    @TruffleBoundary
+    default String[] readLines(int n, EnumSet<ReadLineWarning> warn, boolean skipNul, int firstLine) throws IOException {
+        return readLines(n, warn, skipNul);
+    }
+
     /**
      * Returns {@code true} iff this is a text mode connection.
      */
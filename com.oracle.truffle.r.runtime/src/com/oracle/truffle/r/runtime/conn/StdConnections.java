@@ -216,7 +216,7 @@ public class StdConnections {
 
         @Override
         @TruffleBoundary
-        public String[] readLinesInternal(int n, EnumSet<ReadLineWarning> warn, boolean skipNul) throws IOException {
+        public String[] readLinesInternal(int n, EnumSet<ReadLineWarning> warn, boolean skipNul, int firstLine) throws IOException {
             ArrayList<String> lines = new ArrayList<>();
             String line;
             while ((line = console.readLine()) != null) {
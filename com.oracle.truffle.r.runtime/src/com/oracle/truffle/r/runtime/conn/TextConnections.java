@@ -22,21 +22,31 @@
  */
 package com.oracle.truffle.r.runtime.conn;
 
-import com.oracle.truffle.r.runtime.RCompression;
+import static com.oracle.truffle.r.runtime.conn.ConnectionSupport.AbstractOpenMode.Lazy;
+
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.ByteChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumSet;
 
+import com.oracle.truffle.r.runtime.RCompression;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.RSource;
 import com.oracle.truffle.r.runtime.conn.ConnectionSupport.AbstractOpenMode;
-import static com.oracle.truffle.r.runtime.conn.ConnectionSupport.AbstractOpenMode.Lazy;
 import com.oracle.truffle.r.runtime.conn.ConnectionSupport.BaseRConnection;
 import com.oracle.truffle.r.runtime.conn.ConnectionSupport.ConnectionClass;
+import com.oracle.truffle.r.runtime.context.Engine.ParseException;
+import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.data.Closure;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RExpression;
+import com.oracle.truffle.r.runtime.data.RPairList;
+import com.oracle.truffle.r.runtime.data.RPromise;
+import com.oracle.truffle.r.runtime.data.RPromise.PromiseState;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.env.REnvironment;
 import com.oracle.truffle.r.runtime.env.REnvironment.PutException;
@@ -185,7 +195,7 @@ public class TextConnections {
         }
 
         @Override
-        public String[] readLines(int n, EnumSet<ReadLineWarning> warn, boolean skipNul) throws IOException {
+        public String[] readLines(int n, EnumSet<ReadLineWarning> warn, boolean skipNul, int firstLine) throws IOException {
             int nleft = lines.length - index;
             int nlines = nleft;
             if (n > 0) {
@@ -219,38 +229,88 @@ public class TextConnections {
         }
     }
 
+    /**
+     * The lines written to an output text connection are collected in an array with geometric
+     * growth, the R character vector is only created when the value is requested. For a named
+     * connection, the variable is a plain variable bound to a promise that calls
+     * {@code textConnectionValue}. A write that adds lines after the promise has been forced binds
+     * a new promise, the final value is bound when the connection is closed.
+     */
     private static class TextWriteRConnection extends DelegateWriteRConnection implements GetConnectionValue {
-        private String incompleteLine;
-        private RStringVector textVec;
-        private String idName;
-        private RStringVector object;
+        private static final int INITIAL_CAPACITY = 16;
 
-        /** Indicates if the connection is anonymous, i.e., not input object has been provided. */
-        private final boolean anonymous;
+        private static final String VALUE_EXPRESSION = ".Internal(textConnectionValue(con))";
 
-        private void initTextVec(RStringVector v, TextRConnection textBase) {
+        private final StringBuilder incompleteLine = new StringBuilder();
+        private String[] lines = new String[INITIAL_CAPACITY];
+        private int count;
+        /** The lines as a vector, {@code null} if lines were added since it has been created. */
+        private RStringVector value;
+        private String idName;
+        /** The environment of the promises, it holds the connection as {@code con}. */
+        private REnvironment promiseEnv;
+        /** The promise the variable is bound to, {@code null} for an anonymous connection. */
+        private RPromise promise;
 
-            if (anonymous) {
-                object = v;
-            } else {
+        protected TextWriteRConnection(BaseRConnection base, RStringVector object) {
+            super(base);
+            if (object != null) {
                 idName = object.getDataAt(0);
+                bindValue((TextRConnection) base);
+            }
+        }
+
+        private void bindValue(TextRConnection textBase) {
+            promiseEnv = RDataFactory.createNewEnv("");
+            promiseEnv.setParent(REnvironment.baseEnv());
+            promiseEnv.safePut("con", textBase.asVector());
+            putValue(textBase.env, createPromise());
+        }
+
+        private RPromise createPromise() {
+            ConnectionSupport.ContextStateImpl state = RContext.getInstance().stateRConnection;
+            if (state.textValueClosure == null) {
                 try {
-                    textVec = v;
-                    textBase.env.put(idName, textVec);
-                } catch (PutException ex) {
-                    throw RError.error(RError.SHOW_CALLER2, ex);
+                    RExpression expr = RContext.getEngine().parse(RSource.fromTextInternal(VALUE_EXPRESSION, RSource.Internal.R_IMPL), false).getExpression();
+                    state.textValueClosure = Closure.createPromiseClosure(((RPairList) expr.getDataAt(0)).getClosure().getExpr());
+                } catch (ParseException ex) {
+                    throw RInternalError.shouldNotReachHere(ex);
                 }
-                // lock the binding
-                textBase.env.lockBinding(idName);
             }
+            promise = RDataFactory.createPromise(PromiseState.Explicit, state.textValueClosure, promiseEnv.getFrame());
+            return promise;
         }
 
-        protected TextWriteRConnection(BaseRConnection base, RStringVector object) {
-            super(base);
-            this.object = object;
-            this.anonymous = object == null;
-            TextRConnection textBase = (TextRConnection) base;
-            initTextVec(RDataFactory.createStringVector(0), textBase);
+        private void putValue(REnvironment env, Object newValue) {
+            env.unlockBinding(idName);
+            try {
+                env.put(idName, newValue);
+            } catch (PutException ex) {
+                throw RError.error(RError.SHOW_CALLER2, ex);
+            }
+            // lock the binding
+            env.lockBinding(idName);
+        }
+
+        /**
+         * Called after lines have been added. A promise that has not been forced yet will see them,
+         * so a new one is only needed once the variable has been read.
+         */
+        private void updateValue() {
+            if (idName != null && promise.isEvaluated()) {
+                putValue(((TextRConnection) base).env, createPromise());
+            }
+        }
+
+        private void unbindValue(TextRConnection textBase) {
+            if (idName != null) {
+                REnvironment env = textBase.env;
+                putValue(env, getValue());
+                env.unlockBinding(idName);
+                idName = null;
+                promise = null;
+                promiseEnv = null;
+            }
         }
 
         @Override
@@ -261,20 +321,13 @@ public class TextConnections {
         @Override
         public void closeAndDestroy() throws IOException {
             /* Check if we ended up with an incomplete line */
-            if (incompleteLine != null) {
-                appendData(new String[]{incompleteLine});
-                incompleteLine = null;
+            if (incompleteLine.length() > 0) {
+                appendLine(incompleteLine.toString());
+                incompleteLine.setLength(0);
                 base.setIncomplete(false);
             }
             base.closed = true;
-            TextRConnection textBase = (TextRConnection) base;
-            unlockBinding(textBase);
-        }
-
-        private void unlockBinding(TextRConnection textBase) {
-            if (idName != null) {
-                textBase.env.unlockBinding(idName);
-            }
+            unbindValue((TextRConnection) base);
         }
 
         @Override
@@ -284,61 +337,40 @@ public class TextConnections {
         private void writeStringInternal(String result) {
             int nlIndex;
             int px = 0;
-            boolean endOfLine = false;
-            ArrayList<String> appendedLines = new ArrayList<>();
+            int oldCount = count;
             while ((nlIndex = result.indexOf('\n', px)) >= 0) {
-                if (incompleteLine != null) {
-                    appendedLines.add(new StringBuilder(incompleteLine).append(result.substring(px, nlIndex)).toString());
-                    incompleteLine = null;
-                    base.setIncomplete(false);
+                if (incompleteLine.length() > 0) {
+                    incompleteLine.append(result, px, nlIndex);
+                    appendLine(incompleteLine.toString());
+                    incompleteLine.setLength(0);
                 } else {
-                    appendedLines.add(result.substring(px, nlIndex));
+                    appendLine(result.substring(px, nlIndex));
                 }
-                nlIndex++;
-                px = nlIndex;
-                endOfLine = true;
+                px = nlIndex + 1;
             }
-            if (incompleteLine != null && !endOfLine) {
+            if (px < result.length()) {
                 // end of line not found - accumulate incomplete line
-                incompleteLine = new StringBuilder(incompleteLine).append(result).toString();
-                base.setIncomplete(true);
-            } else if (px < result.length()) {
-                // only reset incompleteLine if
-                incompleteLine = result.substring(px);
-                base.setIncomplete(true);
+                incompleteLine.append(result, px, result.length());
             }
-            if (appendedLines.size() > 0) {
-                // update the vector data
-                String[] appendedData = new String[appendedLines.size()];
-                appendedLines.toArray(appendedData);
-                appendData(appendedData);
+            base.setIncomplete(incompleteLine.length() > 0);
+            if (count > oldCount) {
+                updateValue();
             }
         }
 
-        void appendData(String[] appendedData) {
-            String[] updateData = appendedData;
-            if (textVec != null && textVec.getLength() > 0) {
-                String[] existingData = textVec.getReadonlyStringData();
-                updateData = new String[existingData.length + appendedData.length];
-                System.arraycopy(existingData, 0, updateData, 0, existingData.length);
-                System.arraycopy(appendedData, 0, updateData, existingData.length, appendedData.length);
+        private void appendLine(String line) {
+            if (count == lines.length) {
+                lines = Arrays.copyOf(lines, Math.max(count + 1, (int) Math.min(Integer.MAX_VALUE - 8, 2L * count)));
             }
-            TextRConnection textBase = (TextRConnection) base;
-            unlockBinding(textBase);
-            // TODO: is vector really complete?
-            initTextVec(RDataFactory.createStringVector(updateData, RDataFactory.COMPLETE_VECTOR), textBase);
+            lines[count++] = line;
+            value = null;
         }
 
         @Override
-        public void writeLines(RStringVector lines, String sep, boolean useBytes) throws IOException {
+        public void writeLines(RStringVector vec, String sep, boolean useBytes) throws IOException {
             StringBuilder sb = new StringBuilder();
-            if (incompleteLine != null) {
-                sb.append(incompleteLine);
-                incompleteLine = null;
-                base.setIncomplete(false);
-            }
-            for (int i = 0; i < lines.getLength(); i++) {
-                sb.append(lines.getDataAt(i));
+            for (int i = 0; i < vec.getLength(); i++) {
+                sb.append(vec.getDataAt(i));
                 sb.append(sep);
             }
             writeStringInternal(sb.toString());
@@ -365,7 +397,11 @@ public class TextConnections {
 
         @Override
         public RStringVector getValue() {
-            return object;
+            if (value == null) {
+                // the lines are never NA
+                value = RDataFactory.createStringVector(Arrays.copyOf(lines, count), RDataFactory.COMPLETE_VECTOR);
+            }
+            return value;
         }
 
         private class ConnectionOutputStream extends OutputStream {
@@ -64,6 +64,11 @@ public final class ChildContextInfo {
     private final int multiSlotInd;
     private TruffleContext truffleContext;
     public ExecutorService executor;
+    /**
+     * The {@code .Random.seed} of the context's L'Ecuyer-CMRG stream, assigned by the parent when
+     * it creates the context, {@code null} if the parent does not use that generator.
+     */
+    private int[] randomSeed;
 
     private ChildContextInfo(RStartParams startParams, Map<String, String> env, ContextKind kind, RContext parent, InputStream stdin, OutputStream stdout, OutputStream stderr,
                     int id,
@@ -157,6 +162,14 @@ public final class ChildContextInfo {
         return multiSlotInd;
     }
 
+    public int[] getRandomSeed() {
+        return randomSeed;
+    }
+
+    public void setRandomSeed(int[] randomSeed) {
+        this.randomSeed = randomSeed;
+    }
+
     public TruffleContext getTruffleContext() {
         return truffleContext;
     }
@@ -126,6 +126,18 @@ public class FastROptions {
     public static final OptionKey<String> AdditionalOptions = new OptionKey<>("");
     @Option(category = OptionCategory.INTERNAL, usageSyntax = "[0, inf)", help = "Enables timeout (in seconds) when receiving messages from a channel.") //
     public static final OptionKey<Integer> ChannelReceiveTimeout = new OptionKey<>(0);
+    @Option(category = OptionCategory.EXPERT, usageSyntax = "[1, inf)", help = "Number of messages that can be sent in each direction of a channel before the sender waits for the receiver.") //
+    public static final OptionKey<Integer> ChannelCapacity = new OptionKey<>(1);
+    @Option(category = OptionCategory.EXPERT, usageSyntax = "[0, inf)", help = "Size in megabytes of the process-wide cache of entries fetched from lazy-load databases, 0 disables the cache.") //
+    public static final OptionKey<Integer> LazyLoadCacheSize = new OptionKey<>(64);
+    @Option(category = OptionCategory.EXPERT, help = "Uncompress the entries of lazy-load databases in the background when packages are loaded.") //
+    public static final OptionKey<Boolean> LazyLoadPrefetch = new OptionKey<>(false);
+    @Option(category = OptionCategory.EXPERT, help = "Use the array loops without NA checks for arithmetic, comparisons and reductions of complete vectors.") //
+    public static final OptionKey<Boolean> UseArrayKernels = new OptionKey<>(true);
+    @Option(category = OptionCategory.EXPERT, usageSyntax = "[0, inf)", help = "Maximal number of threads used by a single multiplication of large double matrices, 0 means the number of processors.") //
+    public static final OptionKey<Integer> MatMultThreads = new OptionKey<>(0);
+    @Option(category = OptionCategory.EXPERT, usageSyntax = "[0, inf)", help = "Maximal number of threads formatting the rows of a single large table in write.table, 0 means the number of processors.") //
+    public static final OptionKey<Integer> WriteTableThreads = new OptionKey<>(0);
     @Option(category = OptionCategory.EXPERT, help = "Restrict force splitting of call targets.") //
     public static final OptionKey<Boolean> RestrictForceSplitting = new OptionKey<>(true);
     @Option(category = OptionCategory.INTERNAL, help = "Turn on explicit GC via the gc built-in. Otherwise calls to gc are ignored.") //
@@ -45,6 +45,7 @@ import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
@@ -81,9 +82,11 @@ import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.r.launcher.RCmdOptions;
 import com.oracle.truffle.r.launcher.RStartParams;
+import com.oracle.truffle.r.launcher.StartupTiming;
 import com.oracle.truffle.r.runtime.LazyDBCache;
 import com.oracle.truffle.r.runtime.PrimitiveMethodsInfo;
 import com.oracle.truffle.r.runtime.RCaller;
+import com.oracle.truffle.r.runtime.RChannel;
 import com.oracle.truffle.r.runtime.REnvVars;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RErrorHandling;
@@ -96,6 +99,7 @@ import com.oracle.truffle.r.runtime.RProfile;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RRuntimeASTAccess;
 import com.oracle.truffle.r.runtime.RSerialize;
+import com.oracle.truffle.r.runtime.RegExpCache;
 import com.oracle.truffle.r.runtime.ReturnException;
 import com.oracle.truffle.r.runtime.SuppressFBWarnings;
 import com.oracle.truffle.r.runtime.TempPathName;
@@ -281,6 +285,10 @@ public final class RContext {
      * Any context created by another has a parent.
      */
     private final RContext parentContext;
+    /**
+     * See {@link ChildContextInfo#getRandomSeed()}.
+     */
+    private final int[] initialRandomSeed;
     private final int id;
     private final int multiSlotIndex;
     private TruffleContext truffleContext;
@@ -376,6 +384,8 @@ public final class RContext {
     public final RRNG.ContextStateImpl stateRNG;
     public final RSerialize.ContextStateImpl stateRSerialize;
     public final LazyDBCache.ContextStateImpl stateLazyDBCache;
+    public final RegExpCache.ContextStateImpl stateRegExpCache;
+    public final RChannel.ContextStateImpl stateRChannel;
     public final InstrumentationState stateInstrumentation;
     public final ContextStateImpl stateInternalCode;
     public final DLL.ContextStateImpl stateDLL;
@@ -400,6 +410,12 @@ public final class RContext {
     public final WeakHashMap<TruffleFile, REnvironment> srcfileEnvironments = new WeakHashMap<>();
     public final List<String> libraryPaths = new ArrayList<>(1);
     public final Map<Integer, Thread> threads = new ConcurrentHashMap<>();
+    /**
+     * Ids of the {@link #threads} that belong to the persistent pool of worker contexts used by
+     * {@code mclapply} and pooled SHARED clusters. Such contexts outlive the R call that spawned
+     * them, so they are shut down when this context is finalized.
+     */
+    public final Set<Integer> pooledThreads = ConcurrentHashMap.newKeySet();
     public final LanguageClosureCache languageClosureCache = new LanguageClosureCache();
     public final Map<String, Source> sourceCache = new ConcurrentHashMap<>();
 
@@ -409,7 +425,7 @@ public final class RContext {
 
     private ContextState[] contextStates() {
         return new ContextState[]{stateREnvVars, stateRLocale, stateRProfile, stateTempPath, stateROptions, stateREnvironment, stateRErrorHandling, stateRConnection, stateStdConnections, stateRNG,
-                        stateRFFI,
+                        stateRegExpCache, stateRFFI,
                         stateRSerialize, stateLazyDBCache, stateInstrumentation, stateDLL, stateglobalNativeVar};
     }
 
@@ -455,6 +471,7 @@ public final class RContext {
             this.startParameters = new RStartParams(cmdOptions, false);
             this.contextKind = ContextKind.SHARE_NOTHING;
             this.parentContext = null;
+            this.initialRandomSeed = null;
             this.id = ChildContextInfo.contextInfoIds.incrementAndGet();
             this.multiSlotIndex = 0;
             this.truffleContext = null;
@@ -467,6 +484,7 @@ public final class RContext {
             this.startParameters = info.getStartParams();
             this.contextKind = info.getKind();
             this.parentContext = info.getParent();
+            this.initialRandomSeed = info.getRandomSeed();
             this.id = info.getId();
             this.multiSlotIndex = info.getMultiSlotInd();
             this.truffleContext = info.getTruffleContext();
@@ -495,6 +513,8 @@ public final class RContext {
         this.stateRNG = RRNG.ContextStateImpl.newContextState();
         this.stateRSerialize = RSerialize.ContextStateImpl.newContextState();
         this.stateLazyDBCache = LazyDBCache.ContextStateImpl.newContextState();
+        this.stateRegExpCache = RegExpCache.ContextStateImpl.newContextState();
+        this.stateRChannel = RChannel.ContextStateImpl.newContextState();
         this.stateInstrumentation = InstrumentationState.newContextState(instrumenter);
         this.stateInternalCode = ContextStateImpl.newContextState();
         this.stateDLL = DLL.ContextStateImpl.newContextState();
@@ -531,6 +551,7 @@ public final class RContext {
      */
     @SuppressFBWarnings(value = "ST_WRITE_TO_STATIC_FROM_INSTANCE_METHOD", justification = "intentional")
     public RContext initializeContext() {
+        startupTimestamp("Context initialization");
         fastrOptions.initialize();
 
         // this must happen before engine activation in the code below
@@ -567,6 +588,7 @@ public final class RContext {
         }
         // separate in case initialize calls getStateRFFI()!
         getStateRFFI().initialize(this);
+        startupTimestamp("RFFI initialized");
 
         if (!embedded) {
             doEnvOptionsProfileInitialization();
@@ -584,6 +606,7 @@ public final class RContext {
         stateInternalCode.initialize(this);
         gcTorture.initialize(this);
         state.add(State.INITIALIZED);
+        startupTimestamp("Context states initialized");
 
         if (!embedded) {
             validateContextStates();
@@ -608,9 +631,20 @@ public final class RContext {
         if (initial && !embedded) {
             initialContextInitialized = true;
         }
+        startupTimestamp("Context initialized");
         return this;
     }
 
+    /**
+     * Records a {@link StartupTiming} timestamp of an initialization phase of this context. The
+     * phases of child contexts are reported separately for each context, labelled with its id.
+     */
+    public void startupTimestamp(String phase) {
+        if (StartupTiming.ENABLED) {
+            StartupTiming.timestamp(initial ? null : "Context " + id, phase);
+        }
+    }
+
     /**
      * Factored out for embedded setup, where this initialization may be customized after the
      * context is initialized but before VM really starts execution.
@@ -648,6 +682,7 @@ public final class RContext {
     }
 
     public void finalizeContext() {
+        shutdownPooledThreads();
         if (state.contains(State.INITIALIZED)) {
             // Engine deactive must be called from finalizeContext, because we need to call some
             // native functions from there, and for that, we need the context not to be in the
@@ -661,6 +696,36 @@ public final class RContext {
         }
     }
 
+    /**
+     * Time to wait for a pooled worker context to finish after it was interrupted.
+     */
+    private static final long POOLED_THREAD_JOIN_MILLIS = 5000;
+
+    /**
+     * Interrupts the pooled worker contexts, which makes them leave their receive loop, and waits
+     * for their threads to finish so that the contexts are closed before this one is disposed. A
+     * worker that is stuck, e.g., in native code, is logged and left behind rather than blocking
+     * the finalization of this context.
+     */
+    private void shutdownPooledThreads() {
+        for (Integer id : pooledThreads) {
+            Thread thread = threads.get(id);
+            if (thread != null) {
+                thread.interrupt();
+                try {
+                    thread.join(POOLED_THREAD_JOIN_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                if (thread.isAlive()) {
+                    RLogger.getLogger(RLogger.LOGGER_CONTEXTS).warning("pooled worker context " + id + " did not stop within " + POOLED_THREAD_JOIN_MILLIS + "ms");
+                }
+            }
+        }
+        pooledThreads.clear();
+    }
+
     /**
      * Destroy this context.
      */
@@ -690,6 +755,10 @@ public final class RContext {
         return parentContext;
     }
 
+    public int[] getInitialRandomSeed() {
+        return initialRandomSeed;
+    }
+
     public Env getEnv() {
         return env;
     }
@@ -23,9 +23,9 @@
 package com.oracle.truffle.r.runtime.data;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.interop.InteropLibrary;
@@ -52,7 +52,13 @@ import java.nio.charset.StandardCharsets;
  */
 @ExportLibrary(InteropLibrary.class)
 public final class CharSXPWrapper extends RBaseObject {
-    private static final Map<CharSXPWrapper, WeakReference<CharSXPWrapper>> instances = new WeakHashMap<>(2048);
+    /**
+     * The intern table maps the contents to a weak reference to the wrapper. It is accessed
+     * concurrently by all contexts, so lookups do not take any lock. The entries of collected
+     * wrappers are removed by {@link #expungeStaleEntries()}.
+     */
+    private static final ConcurrentHashMap<String, InternEntry> instances = new ConcurrentHashMap<>(2048);
+    private static final ReferenceQueue<CharSXPWrapper> staleEntries = new ReferenceQueue<>();
     private static final CharSXPWrapper NA = new CharSXPWrapper(RRuntime.STRING_NA);
     private String contents;
     private byte[] bytes;
@@ -167,25 +173,48 @@ public final class CharSXPWrapper extends RBaseObject {
         }
     }
 
+    private static final class InternEntry extends WeakReference<CharSXPWrapper> {
+        private final String key;
+
+        InternEntry(String key, CharSXPWrapper wrapper) {
+            super(wrapper, staleEntries);
+            this.key = key;
+        }
+    }
+
     @TruffleBoundary
     private static CharSXPWrapper createNonNA(String contents, boolean intern) {
         assert !RRuntime.isNA(contents);
-        CharSXPWrapper cachedWrapper;
-        CharSXPWrapper newWrapper = new CharSXPWrapper(contents);
-        synchronized (instances) {
-            WeakReference<CharSXPWrapper> wr = instances.get(newWrapper);
-            if (wr != null) {
-                cachedWrapper = wr.get();
-                if (cachedWrapper != null) {
-                    if (intern) {
-                        cachedWrapper.contents = contents;
-                    }
-                    return cachedWrapper;
+        expungeStaleEntries();
+        CharSXPWrapper newWrapper = null;
+        InternEntry newEntry = null;
+        while (true) {
+            InternEntry entry = instances.get(contents);
+            CharSXPWrapper cachedWrapper = entry == null ? null : entry.get();
+            if (cachedWrapper != null) {
+                if (intern) {
+                    // the strings are equal, so a racy update is benign
+                    cachedWrapper.contents = contents;
                 }
+                return cachedWrapper;
+            }
+            if (newWrapper == null) {
+                newWrapper = new CharSXPWrapper(contents);
+                newEntry = new InternEntry(contents, newWrapper);
             }
-            instances.put(newWrapper, new WeakReference<>(newWrapper));
+            // either add the new entry or replace the stale one, retry if another thread was faster
+            if (entry == null ? instances.putIfAbsent(contents, newEntry) == null : instances.replace(contents, entry, newEntry)) {
+                return newWrapper;
+            }
+        }
+    }
+
+    private static void expungeStaleEntries() {
+        InternEntry stale;
+        while ((stale = (InternEntry) staleEntries.poll()) != null) {
+            // only removes the entry if it was not replaced in the meantime
+            instances.remove(stale.key, stale);
         }
-        return newWrapper;
     }
 
     public long allocateNativeContents() {
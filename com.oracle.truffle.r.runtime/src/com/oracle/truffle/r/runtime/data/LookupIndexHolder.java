@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2022, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.data;
+
+/**
+ * Vector data that can keep an index over its elements built by a lookup operation, e.g., the hash
+ * table built by {@code match} over its {@code table} argument. The owner drops the index whenever
+ * the data are written, and so does every method that hands out the underlying array for writing
+ * (e.g., {@link com.oracle.truffle.r.runtime.data.model.RAbstractVector#getDataTemp()} used also
+ * by the native code), so an index that is present always reflects the current elements.
+ */
+public interface LookupIndexHolder {
+
+    Object getLookupIndex();
+
+    void setLookupIndex(Object lookupIndex);
+
+    static void dropLookupIndex(Object data) {
+        if (data instanceof LookupIndexHolder) {
+            ((LookupIndexHolder) data).setLookupIndex(null);
+        }
+    }
+}
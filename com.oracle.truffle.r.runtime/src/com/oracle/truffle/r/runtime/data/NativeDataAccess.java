@@ -30,6 +30,7 @@ import java.lang.ref.WeakReference;
 import java.nio.charset.StandardCharsets;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 
 import javax.management.MBeanServer;
@@ -122,20 +123,24 @@ public final class NativeDataAccess {
      * Wraps a handle (number) reserved for a {@link NativeMirror} that escaped to native memory.
      * Takes care of putting and removing the mapping for that handle from {@link #nativeMirrors}.
      */
-    private static final class NativeHandleWrapper extends ReleasableWeakReference<RBaseObject> {
+    private static final class NativeHandleWrapper extends ReleasableWeakReference<RBaseObject> implements NativeHandleTable.Handle {
         private final long id;
 
         private NativeHandleWrapper(long id, RBaseObject referent) {
             super(referent);
             this.id = id;
-            addToMirrors(id);
+            addToMirrors();
         }
 
         @TruffleBoundary
-        private void addToMirrors(long thisId) {
-            nativeMirrors.put(thisId, this);
+        private void addToMirrors() {
+            nativeMirrors.put(this);
+            if (COLLECT_STATISTICS) {
+                mirrorAllocations.increment();
+            }
         }
 
+        @Override
         public long getId() {
             return id;
         }
@@ -147,7 +152,10 @@ public final class NativeDataAccess {
                 // anyway
                 nativeMirrorInfo.remove(id);
             }
-            nativeMirrors.remove(id, this);
+            nativeMirrors.remove(this);
+            if (COLLECT_STATISTICS) {
+                mirrorReleases.increment();
+            }
         }
     }
 
@@ -419,9 +427,14 @@ public final class NativeDataAccess {
     // The counter is initialized to invalid address and incremented by 2 to always get invalid
     // address value
     private static final AtomicLong counter = new AtomicLong(0xdef000000000001L);
-    private static final ConcurrentHashMap<Long, NativeHandleWrapper> nativeMirrors = new ConcurrentHashMap<>(512);
+    private static final NativeHandleTable<NativeHandleWrapper> nativeMirrors = new NativeHandleTable<>(512);
 
     // For debugging purposes:
+    private static final boolean COLLECT_STATISTICS = System.getenv(FastROptions.NATIVE_DATA_INSPECTOR) != null;
+    private static final LongAdder handleLookups = COLLECT_STATISTICS ? new LongAdder() : null;
+    private static final LongAdder handleLookupNanos = COLLECT_STATISTICS ? new LongAdder() : null;
+    private static final LongAdder mirrorAllocations = COLLECT_STATISTICS ? new LongAdder() : null;
+    private static final LongAdder mirrorReleases = COLLECT_STATISTICS ? new LongAdder() : null;
     private static final ConcurrentHashMap<Long, NativeMirror> dataAddressToNativeMirrors = System.getenv(FastROptions.NATIVE_DATA_INSPECTOR) != null ? new ConcurrentHashMap<>(512) : null;
     private static final ConcurrentHashMap<Long, RuntimeException> nativeMirrorInfo = TRACE_MIRROR_ALLOCATION_SITES ? new ConcurrentHashMap<>() : null;
 
@@ -505,11 +518,16 @@ public final class NativeDataAccess {
 
     /**
      * For given native mirror ID returns the Java side object (vector). TruffleBoundary because it
-     * calls into HashMap.
+     * calls into the handle table.
      */
     @TruffleBoundary
     public static Object lookup(long address) {
+        long start = COLLECT_STATISTICS ? System.nanoTime() : 0;
         NativeHandleWrapper nativeMirror = nativeMirrors.get(address);
+        if (COLLECT_STATISTICS) {
+            handleLookups.increment();
+            handleLookupNanos.add(System.nanoTime() - start);
+        }
         RBaseObject result = nativeMirror != null ? nativeMirror.get() : null;
         if (result == null) {
             CompilerDirectives.transferToInterpreter();
@@ -1407,6 +1425,16 @@ public final class NativeDataAccess {
         String getAttribute(String idString, String attrName);
 
         String getNativeIdFromAddress(String dataAddressString);
+
+        long getHandleLookupCount();
+
+        long getHandleLookupTimeNanos();
+
+        long getMirrorAllocationCount();
+
+        long getMirrorReleaseCount();
+
+        void resetCounters();
     }
 
     public static class NativeDataInspector implements NativeDataInspectorMBean {
@@ -1442,6 +1470,33 @@ public final class NativeDataAccess {
             return String.format("%16x", id);
         }
 
+        @Override
+        public long getHandleLookupCount() {
+            return handleLookups.sum();
+        }
+
+        @Override
+        public long getHandleLookupTimeNanos() {
+            return handleLookupNanos.sum();
+        }
+
+        @Override
+        public long getMirrorAllocationCount() {
+            return mirrorAllocations.sum();
+        }
+
+        @Override
+        public long getMirrorReleaseCount() {
+            return mirrorReleases.sum();
+        }
+
+        @Override
+        public void resetCounters() {
+            handleLookups.reset();
+            handleLookupNanos.reset();
+            mirrorAllocations.reset();
+            mirrorReleases.reset();
+        }
     }
 
     static void initMBean() {
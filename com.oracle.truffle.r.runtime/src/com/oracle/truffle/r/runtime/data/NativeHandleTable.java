@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2022, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.data;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Maps handles to the objects that reserved them without boxing the handles. The table is split
+ * into segments, each of them an open-addressing table with linear probing whose slots hold the
+ * objects themselves, their final {@link Handle#getId() id} being the key. Modifications lock the
+ * segment, lookups do not: a lookup that misses, possibly because of a concurrent insertion or
+ * resize, is repeated under the lock. Misses are not expected on the lookup path, so this costs
+ * nothing in practice.
+ *
+ * Used by {@link NativeDataAccess} for the handles of native mirrors.
+ */
+public final class NativeHandleTable<T extends NativeHandleTable.Handle> {
+
+    /**
+     * An object registered under a handle, which must not change while it is in the table.
+     */
+    public interface Handle {
+        long getId();
+    }
+
+    private static final int SEGMENT_BITS = 4;
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+    /**
+     * Marks a slot whose object was removed, so that probing continues past it.
+     */
+    private static final Object TOMBSTONE = new Object();
+
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+
+    private static final class Segment {
+        private volatile AtomicReferenceArray<Object> slots;
+        /**
+         * Number of objects in {@link #slots}.
+         */
+        private int size;
+        /**
+         * Number of non-null slots, i.e. objects and tombstones. Kept at most half of the
+         * capacity, so that every probe sequence ends with a {@code null} slot.
+         */
+        private int used;
+
+        private Segment(int capacity) {
+            slots = new AtomicReferenceArray<>(capacity);
+        }
+    }
+
+    public NativeHandleTable(int initialCapacity) {
+        int segmentCapacity = tableSizeFor(Math.max(MIN_SEGMENT_CAPACITY, 2 * initialCapacity / segments.length));
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    private static int tableSizeFor(int capacity) {
+        return Integer.highestOneBit(capacity - 1) << 1;
+    }
+
+    /**
+     * Handles are mostly consecutive odd numbers, so they are scrambled and the high bits are used
+     * for the segment and the slot index.
+     */
+    private static long hash(long handle) {
+        return handle * 0x9E3779B97F4A7C15L;
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> (64 - SEGMENT_BITS))];
+    }
+
+    private static int firstSlot(long hash, int capacity) {
+        return (int) (hash >>> (32 - SEGMENT_BITS)) & (capacity - 1);
+    }
+
+    public T get(long handle) {
+        long hash = hash(handle);
+        Segment segment = segmentFor(hash);
+        T result = find(segment.slots, hash, handle);
+        if (result == null) {
+            synchronized (segment) {
+                result = find(segment.slots, hash, handle);
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T find(AtomicReferenceArray<Object> slots, long hash, long handle) {
+        int mask = slots.length() - 1;
+        int i = firstSlot(hash, slots.length());
+        while (true) {
+            Object entry = slots.get(i);
+            if (entry == null) {
+                return null;
+            }
+            if (entry != TOMBSTONE && ((T) entry).getId() == handle) {
+                return (T) entry;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * Adds the object, replacing any object with the same handle.
+     */
+    @SuppressWarnings("unchecked")
+    public void put(T value) {
+        long id = value.getId();
+        long hash = hash(id);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            if (2 * (segment.used + 1) > segment.slots.length()) {
+                rehash(segment);
+            }
+            AtomicReferenceArray<Object> slots = segment.slots;
+            int mask = slots.length() - 1;
+            int i = firstSlot(hash, slots.length());
+            int free = -1;
+            while (true) {
+                Object entry = slots.get(i);
+                if (entry == null) {
+                    break;
+                }
+                if (entry == TOMBSTONE) {
+                    if (free < 0) {
+                        free = i;
+                    }
+                } else if (((T) entry).getId() == id) {
+                    slots.set(i, value);
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            if (free < 0) {
+                free = i;
+                segment.used++;
+            }
+            slots.set(free, value);
+            segment.size++;
+        }
+    }
+
+    /**
+     * Removes the object if it is still the one registered for its handle.
+     */
+    public void remove(T value) {
+        long hash = hash(value.getId());
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            AtomicReferenceArray<Object> slots = segment.slots;
+            int mask = slots.length() - 1;
+            int i = firstSlot(hash, slots.length());
+            while (true) {
+                Object entry = slots.get(i);
+                if (entry == null) {
+                    return;
+                }
+                if (entry == value) {
+                    slots.set(i, TOMBSTONE);
+                    segment.size--;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+        }
+    }
+
+    /**
+     * Drops the tombstones and grows the segment if it is more than a quarter full.
+     */
+    private static void rehash(Segment segment) {
+        AtomicReferenceArray<Object> oldSlots = segment.slots;
+        int capacity = tableSizeFor(Math.max(MIN_SEGMENT_CAPACITY, 4 * (segment.size + 1)));
+        AtomicReferenceArray<Object> newSlots = new AtomicReferenceArray<>(capacity);
+        for (int j = 0; j < oldSlots.length(); j++) {
+            Object entry = oldSlots.get(j);
+            if (entry != null && entry != TOMBSTONE) {
+                int i = firstSlot(hash(((Handle) entry).getId()), capacity);
+                while (newSlots.get(i) != null) {
+                    i = (i + 1) & (capacity - 1);
+                }
+                newSlots.set(i, entry);
+            }
+        }
+        segment.used = segment.size;
+        segment.slots = newSlots;
+    }
+
+    public int size() {
+        int result = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                result += segment.size;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Number of slots in all segments, including the free ones and tombstones. Meant for tests.
+     */
+    public int capacity() {
+        int result = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                result += segment.slots.length();
+            }
+        }
+        return result;
+    }
+}
@@ -694,7 +694,8 @@ public final class RDataFactory {
 
         @TruffleBoundary
         public final REnvironment createNewEnv(String name, boolean hashed, int initialSize) {
-            REnvironment.NewEnv env = new REnvironment.NewEnv(RRuntime.createNonFunctionFrame("<new-env-" + environmentCount.incrementAndGet() + ">"), name);
+            String frameName = "<new-env-" + environmentCount.incrementAndGet() + ">";
+            REnvironment.NewEnv env = new REnvironment.NewEnv(RRuntime.createNonFunctionFrame(frameName, hashed ? initialSize : 0), name);
             env.setHashed(hashed);
             env.setInitialSize(initialSize);
             return traceDataCreated(env);
@@ -1334,7 +1335,8 @@ public final class RDataFactory {
 
     @TruffleBoundary
     public static REnvironment createNewEnv(String name, boolean hashed, int initialSize) {
-        REnvironment.NewEnv env = new REnvironment.NewEnv(RRuntime.createNonFunctionFrame("<new-env-" + environmentCount.incrementAndGet() + ">"), name);
+        String frameName = "<new-env-" + environmentCount.incrementAndGet() + ">";
+        REnvironment.NewEnv env = new REnvironment.NewEnv(RRuntime.createNonFunctionFrame(frameName, hashed ? initialSize : 0), name);
         env.setHashed(hashed);
         env.setInitialSize(initialSize);
         return traceDataCreated(env);
@@ -178,6 +178,7 @@ public final class RDoubleVector extends RAbstractNumericVector implements RMate
         }
         // TODO: get rid of this method
         assert data instanceof RDoubleArrayVectorData : data.getClass().getName();
+        LookupIndexHolder.dropLookupIndex(data);
         return ((RDoubleArrayVectorData) data).getReadonlyDoubleData();
     }
 
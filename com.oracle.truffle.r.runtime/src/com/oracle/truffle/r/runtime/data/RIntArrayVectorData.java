@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, 2021, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, 2022, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -44,15 +44,26 @@ import com.oracle.truffle.r.runtime.data.VectorDataLibrary.SeqWriteIterator;
 import com.oracle.truffle.r.runtime.ops.na.NACheck;
 
 @ExportLibrary(VectorDataLibrary.class)
-public class RIntArrayVectorData implements TruffleObject, ShareableVectorData {
+public class RIntArrayVectorData implements TruffleObject, ShareableVectorData, LookupIndexHolder {
     private final int[] data;
     private boolean complete;
+    private Object lookupIndex;
 
     public RIntArrayVectorData(int[] data, boolean complete) {
         this.data = data;
         this.complete = complete && ENABLE_COMPLETE;
     }
 
+    @Override
+    public Object getLookupIndex() {
+        return lookupIndex;
+    }
+
+    @Override
+    public void setLookupIndex(Object lookupIndex) {
+        this.lookupIndex = lookupIndex;
+    }
+
     @SuppressWarnings("static-method")
     @ExportMessage
     public NACheck getNACheck(@Shared("naCheck") @Cached() NACheck na) {
@@ -160,11 +171,13 @@ public class RIntArrayVectorData implements TruffleObject, ShareableVectorData {
 
     @ExportMessage
     public SeqWriteIterator writeIterator() {
+        lookupIndex = null;
         return new SeqWriteIterator(data, data.length);
     }
 
     @ExportMessage
     public RandomAccessWriteIterator randomAccessWriteIterator() {
+        lookupIndex = null;
         return new RandomAccessWriteIterator(data);
     }
 
@@ -188,6 +201,7 @@ public class RIntArrayVectorData implements TruffleObject, ShareableVectorData {
 
     @ExportMessage
     public void setIntAt(int index, int value, @Shared("setCompleteProfile") @Cached BranchProfile setCompleteProfile) {
+        lookupIndex = null;
         data[index] = value;
         if (RRuntime.isNA(value)) {
             setCompleteProfile.enter();
@@ -257,6 +257,7 @@ public final class RIntVector extends RAbstractNumericVector {
         }
         // TODO: get rid of this method
         assert data instanceof RIntArrayVectorData : data.getClass().getName();
+        LookupIndexHolder.dropLookupIndex(data);
         return ((RIntArrayVectorData) data).getReadonlyIntData();
     }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, 2021, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, 2022, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -44,9 +44,10 @@ import java.util.Arrays;
 import static com.oracle.truffle.r.runtime.data.model.RAbstractVector.ENABLE_COMPLETE;
 
 @ExportLibrary(VectorDataLibrary.class)
-class RStringArrayVectorData implements TruffleObject, ShareableVectorData {
+class RStringArrayVectorData implements TruffleObject, ShareableVectorData, LookupIndexHolder {
     private final String[] data;
     private boolean complete;
+    private Object lookupIndex;
 
     RStringArrayVectorData(String[] data, boolean complete) {
         this.data = data;
@@ -61,6 +62,16 @@ class RStringArrayVectorData implements TruffleObject, ShareableVectorData {
         return new RStringCharSXPData(result);
     }
 
+    @Override
+    public Object getLookupIndex() {
+        return lookupIndex;
+    }
+
+    @Override
+    public void setLookupIndex(Object lookupIndex) {
+        this.lookupIndex = lookupIndex;
+    }
+
     @SuppressWarnings("static-method")
     @ExportMessage
     public NACheck getNACheck(@Shared("naCheck") @Cached() NACheck na) {
@@ -173,11 +184,13 @@ class RStringArrayVectorData implements TruffleObject, ShareableVectorData {
 
     @ExportMessage
     public SeqWriteIterator writeIterator() {
+        lookupIndex = null;
         return new SeqWriteIterator(data, data.length);
     }
 
     @ExportMessage
     public RandomAccessWriteIterator randomAccessWriteIterator() {
+        lookupIndex = null;
         return new RandomAccessWriteIterator(data);
     }
 
@@ -201,6 +214,7 @@ class RStringArrayVectorData implements TruffleObject, ShareableVectorData {
 
     @ExportMessage
     public void setStringAt(int index, String value, @Shared("setCompleteProfile") @Cached BranchProfile setCompleteProfile) {
+        lookupIndex = null;
         data[index] = value;
         if (RRuntime.isNA(value)) {
             setCompleteProfile.enter();
@@ -226,6 +226,7 @@ public final class RStringVector extends RAbstractAtomicVector implements RMater
             return null;
         }
         // TODO: get rid of this method
+        LookupIndexHolder.dropLookupIndex(data);
         return getUncachedDataLib().getReadonlyStringData(data);
     }
 
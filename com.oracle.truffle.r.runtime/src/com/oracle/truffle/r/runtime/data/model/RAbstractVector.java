@@ -43,6 +43,7 @@ import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RType;
 import com.oracle.truffle.r.runtime.SuppressFBWarnings;
 import com.oracle.truffle.r.runtime.data.InternalDeprecation;
+import com.oracle.truffle.r.runtime.data.LookupIndexHolder;
 import com.oracle.truffle.r.runtime.data.MemoryCopyTracer;
 import com.oracle.truffle.r.runtime.data.RAttributable;
 import com.oracle.truffle.r.runtime.data.RAttributesLayout;
@@ -216,7 +217,12 @@ public abstract class RAbstractVector extends RAbstractContainer implements RFFI
      * @return vector data
      */
     public final Object getDataNonShared() {
-        return !isShared() ? getReadonlyData() : getDataCopy();
+        if (isShared()) {
+            return getDataCopy();
+        }
+        Object result = getReadonlyData();
+        LookupIndexHolder.dropLookupIndex(data);
+        return result;
     }
 
     /**
@@ -228,7 +234,12 @@ public abstract class RAbstractVector extends RAbstractContainer implements RFFI
      * @return vector data
      */
     public Object getDataTemp() {
-        return isTemporary() ? getReadonlyData() : getDataCopy();
+        if (!isTemporary()) {
+            return getDataCopy();
+        }
+        Object result = getReadonlyData();
+        LookupIndexHolder.dropLookupIndex(data);
+        return result;
     }
 
     /*
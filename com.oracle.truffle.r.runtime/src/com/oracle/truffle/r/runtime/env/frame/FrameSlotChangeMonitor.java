@@ -234,6 +234,18 @@ public final class FrameSlotChangeMonitor {
      * for one environment.
      */
     private static final class FrameDescriptorMetaData {
+        private static final int DEFAULT_AUX_SLOTS_CAPACITY = 10;
+        /**
+         * Smaller hints are ignored: {@code new.env()} passes its default {@code size=29L} for
+         * every environment and such environments grow cheaply anyway.
+         */
+        private static final int MIN_PRESIZED_AUX_SLOTS = 1 << 10;
+        /**
+         * Upper bound for the expected number of auxiliary slots, the hint comes from user code
+         * (e.g. {@code new.env(size=)}) and must not cause huge allocations.
+         */
+        private static final int MAX_PRESIZED_AUX_SLOTS = 1 << 16;
+
         private final String name; // name for debug purposes
         /**
          * If not null, the corresponding {@link FrameDescriptor} associated with this metadata is a
@@ -261,12 +273,12 @@ public final class FrameSlotChangeMonitor {
         /**
          * Mapping of identifiers to indexes (transformed with {@link FrameIndex}) into the frame.
          */
-        private final Map<Object, Integer> indexes = new LinkedHashMap<>();
+        private final Map<Object, Integer> indexes;
         /**
          * List of frame slot infos for auxiliary slots. The indexes into this list correspond to
          * indexes into auxiliary slots in a frame.
          */
-        @CompilationFinal(dimensions = 1) private FrameSlotInfo[] auxSlotInfos = new FrameSlotInfo[10];
+        @CompilationFinal(dimensions = 1) private FrameSlotInfo[] auxSlotInfos;
         @CompilationFinal private int auxSlotInfosElements;
 
         private final Map<Object, Assumption> notInFrameAssumptions = new HashMap<>();
@@ -276,8 +288,26 @@ public final class FrameSlotChangeMonitor {
         private final Assumption containsNoActiveBindingAssumption;
 
         private FrameDescriptorMetaData(String name, MaterializedFrame singletonFrame) {
+            this(name, singletonFrame, 0);
+        }
+
+        /**
+         * @param expectedAuxSlots Number of auxiliary slots the descriptor is expected to hold. If
+         *            it is at least {@link #MIN_PRESIZED_AUX_SLOTS}, {@link #indexes} and
+         *            {@link #auxSlotInfos} are presized so that large environments do not rehash
+         *            and copy these structures while being populated.
+         */
+        private FrameDescriptorMetaData(String name, MaterializedFrame singletonFrame, int expectedAuxSlots) {
             this.name = name;
             this.singletonFrame = singletonFrame == null ? null : new WeakReference<>(singletonFrame);
+            if (expectedAuxSlots >= MIN_PRESIZED_AUX_SLOTS) {
+                int capacity = Math.min(expectedAuxSlots, MAX_PRESIZED_AUX_SLOTS);
+                this.indexes = new LinkedHashMap<>((int) (capacity / 0.75f) + 1);
+                this.auxSlotInfos = new FrameSlotInfo[capacity];
+            } else {
+                this.indexes = new LinkedHashMap<>();
+                this.auxSlotInfos = new FrameSlotInfo[DEFAULT_AUX_SLOTS_CAPACITY];
+            }
             this.enclosingFrameDescriptorAssumption = Truffle.getRuntime().createAssumption(getAssumptionNamePrefix() + "enclosing frame descriptor");
             this.containsNoActiveBindingAssumption = Truffle.getRuntime().createAssumption(getAssumptionNamePrefix() + "contains no active binding");
         }
@@ -474,7 +504,7 @@ public final class FrameSlotChangeMonitor {
         CompilerAsserts.neverPartOfCompilation();
         FrameDescriptorMetaData metadata = getDescriptorMetadata(frameDescriptor);
         int normalSlotsCount = frameDescriptor.getNumberOfSlots();
-        int auxSlotsCount = frameDescriptor.getNumberOfAuxiliarySlots();
+        int auxSlotsCount = metadata.auxSlotInfosElements;
         int totalSlotsCount = normalSlotsCount + auxSlotsCount;
         assert metadata.indexes.size() == totalSlotsCount;
         for (Map.Entry<Object, Integer> entry : metadata.indexes.entrySet()) {
@@ -503,18 +533,17 @@ public final class FrameSlotChangeMonitor {
         assert frameDescriptor.getSlotName(visibilityFrameIdx) == RFrameSlot.Visibility;
         assert frameDescriptor.getSlotKind(visibilityFrameIdx) == FrameSlotKind.Boolean;
 
-        // Check auxiliary slots.
+        // Check auxiliary slots, the descriptor may hold more than are used.
         for (Map.Entry<Object, Integer> entry : frameDescriptor.getAuxiliarySlots().entrySet()) {
-            Object identifier = entry.getKey();
-            int auxSlotIdx = entry.getValue();
-            int auxSlotIdxFromMetata = FrameIndex.toAuxiliaryIndex(metadata.getIndex(identifier));
-            assert auxSlotIdx == auxSlotIdxFromMetata;
+            assert entry.getKey() instanceof AuxiliarySlotKey;
+            assert ((AuxiliarySlotKey) entry.getKey()).index == entry.getValue();
         }
         // Check auxSlotInfos
-        assert metadata.auxSlotInfosElements == frameDescriptor.getNumberOfAuxiliarySlots();
+        assert metadata.auxSlotInfosElements <= frameDescriptor.getNumberOfAuxiliarySlots();
         for (int i = 0; i < metadata.auxSlotInfosElements; i++) {
             FrameSlotInfo slotInfo = metadata.auxSlotInfos[i];
             assert slotInfo.identifier != null;
+            assert metadata.getIndex(slotInfo.identifier) == FrameIndex.transformAuxiliaryIndex(i);
         }
         return true;
     }
@@ -525,11 +554,26 @@ public final class FrameSlotChangeMonitor {
      * @param name Name of the environment
      */
     public static FrameDescriptor createUninitializedFrameDescriptor(String name) {
-        FrameDescriptorMetaData metaData = new FrameDescriptorMetaData(name);
+        return createUninitializedFrameDescriptor(name, 0);
+    }
+
+    /**
+     * Used for creating new frame descriptors for environments that are expected to hold about
+     * {@code expectedSize} bindings, e.g. hashed environments created by {@code new.env(size=)}.
+     *
+     * @param name Name of the environment
+     * @param expectedSize Expected number of bindings, only used as a capacity hint if it is large
+     */
+    public static FrameDescriptor createUninitializedFrameDescriptor(String name, int expectedSize) {
+        FrameDescriptorMetaData metaData = new FrameDescriptorMetaData(name, null, expectedSize);
         Builder builder = FrameDescriptor.newBuilder();
         builder.info(metaData);
         addInternalIndexedSlots(builder, metaData);
-        return builder.build();
+        FrameDescriptor descriptor = builder.build();
+        if (expectedSize >= FrameDescriptorMetaData.MIN_PRESIZED_AUX_SLOTS) {
+            addAuxiliarySlots(descriptor, metaData.auxSlotInfos.length);
+        }
+        return descriptor;
     }
 
     /**
@@ -612,9 +656,8 @@ public final class FrameSlotChangeMonitor {
         }
         FrameDescriptor newDescriptor = newDescriptorBuilder.build();
         // Copy auxiliary slots
-        for (Map.Entry<Object, Integer> entry : frameDescriptor.getAuxiliarySlots().entrySet()) {
-            // entry values may be different, but that would not matter.
-            findOrAddAuxiliaryFrameSlot(newDescriptor, entry.getKey());
+        for (int i = 0; i < metadata.auxSlotInfosElements; i++) {
+            findOrAddAuxiliaryFrameSlot(newDescriptor, metadata.auxSlotInfos[i].identifier);
         }
         assert assertValidFrameDescriptor(newDescriptor);
         return newDescriptor;
@@ -637,7 +680,7 @@ public final class FrameSlotChangeMonitor {
     public static boolean containsIndex(FrameDescriptor frameDescriptor, int frameIndex) {
         if (FrameIndex.representsAuxiliaryIndex(frameIndex)) {
             int auxSlotIdx = FrameIndex.toAuxiliaryIndex(frameIndex);
-            return 0 <= auxSlotIdx && auxSlotIdx < frameDescriptor.getNumberOfAuxiliarySlots();
+            return 0 <= auxSlotIdx && auxSlotIdx < getDescriptorMetadata(frameDescriptor).auxSlotInfosElements;
         } else {
             int normalSlotIdx = FrameIndex.toNormalIndex(frameIndex);
             return 0 <= normalSlotIdx && normalSlotIdx < frameDescriptor.getNumberOfSlots();
@@ -1261,12 +1304,12 @@ public final class FrameSlotChangeMonitor {
     public static synchronized int findOrAddAuxiliaryFrameSlot(FrameDescriptor frameDescriptor, Object identifier) {
         CompilerAsserts.neverPartOfCompilation();
         FrameDescriptorMetaData descriptorMetadata = getDescriptorMetadata(frameDescriptor);
-        int auxSlotIdx = frameDescriptor.findOrAddAuxiliarySlot(identifier);
-        int transformedAuxSlotIdx = FrameIndex.transformAuxiliaryIndex(auxSlotIdx);
         Integer frameIndex = descriptorMetadata.getIndex(identifier);
+        int transformedAuxSlotIdx;
         if (frameIndex == null) {
             // The identifier was not in the frameDescriptor before, we have to put it there and
             // invalidate all the related assumptions.
+            transformedAuxSlotIdx = FrameIndex.transformAuxiliaryIndex(reserveAuxiliarySlot(frameDescriptor, descriptorMetadata));
             descriptorMetadata.addIndex(identifier, transformedAuxSlotIdx);
             var slotInfo = new FrameSlotInfo(descriptorMetadata, identifier);
             descriptorMetadata.addAuxSlotInfo(slotInfo);
@@ -1276,11 +1319,66 @@ public final class FrameSlotChangeMonitor {
             if (FrameIndex.representsNormalIndex(frameIndex)) {
                 throw RInternalError.shouldNotReachHere("Frame index for '" + identifier + "' already present as normal frame index");
             }
+            transformedAuxSlotIdx = frameIndex;
         }
-        assert assertValidFrameDescriptor(frameDescriptor);
+        // checking the whole descriptor here would make populating an environment quadratic
+        assert assertValidAuxiliarySlot(frameDescriptor, identifier, transformedAuxSlotIdx);
         return transformedAuxSlotIdx;
     }
 
+    /**
+     * Key of an auxiliary slot in a {@link FrameDescriptor}. The identifiers of the auxiliary slots
+     * are only kept in the {@link FrameDescriptorMetaData}, the frame descriptor holds these keys.
+     */
+    private static final class AuxiliarySlotKey {
+        private final int index;
+
+        AuxiliarySlotKey(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String toString() {
+            return "auxiliary slot " + index;
+        }
+    }
+
+    /**
+     * Returns the index of the next free auxiliary slot of the descriptor. A frame grows its array
+     * of auxiliary slots to the number of auxiliary slots of its descriptor when a slot beyond the
+     * end of the array is set, so the slots are added to the descriptor in blocks that double its
+     * number of auxiliary slots. Otherwise populating an environment would copy the array for
+     * every new variable.
+     */
+    private static int reserveAuxiliarySlot(FrameDescriptor frameDescriptor, FrameDescriptorMetaData metadata) {
+        int index = metadata.auxSlotInfosElements;
+        if (index == frameDescriptor.getNumberOfAuxiliarySlots()) {
+            addAuxiliarySlots(frameDescriptor, Math.max(1, index * 2));
+        }
+        return index;
+    }
+
+    private static void addAuxiliarySlots(FrameDescriptor frameDescriptor, int count) {
+        for (int i = frameDescriptor.getNumberOfAuxiliarySlots(); i < count; i++) {
+            int auxSlotIdx = frameDescriptor.findOrAddAuxiliarySlot(new AuxiliarySlotKey(i));
+            assert auxSlotIdx == i;
+        }
+    }
+
+    /**
+     * Checks the metadata of a single auxiliary slot, a cheap alternative to
+     * {@link #assertValidFrameDescriptor(FrameDescriptor)} for code that adds slots one by one.
+     */
+    private static boolean assertValidAuxiliarySlot(FrameDescriptor frameDescriptor, Object identifier, int frameIndex) {
+        FrameDescriptorMetaData metadata = getDescriptorMetadata(frameDescriptor);
+        assert isFrameIndexInBounds(frameDescriptor, frameIndex);
+        assert metadata.indexes.size() == frameDescriptor.getNumberOfSlots() + metadata.auxSlotInfosElements;
+        assert metadata.auxSlotInfosElements <= frameDescriptor.getNumberOfAuxiliarySlots();
+        assert metadata.getIndex(identifier) == frameIndex;
+        assert metadata.getAuxiliarySlotInfo(FrameIndex.toAuxiliaryIndex(frameIndex)).identifier == identifier;
+        return true;
+    }
+
     // methods for changing frame slot contents
 
     /**
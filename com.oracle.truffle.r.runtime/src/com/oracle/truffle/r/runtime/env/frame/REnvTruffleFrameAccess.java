@@ -28,7 +28,6 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 
@@ -225,9 +224,9 @@ public final class REnvTruffleFrameAccess extends REnvFrameAccess {
     @Override
     @TruffleBoundary
     public void lockBindings() {
-        for (Map.Entry<Object, Integer> entry : frame.getFrameDescriptor().getAuxiliarySlots().entrySet()) {
-            Object identifier = entry.getKey();
-            if (identifier instanceof String) {
+        FrameDescriptor fd = frame.getFrameDescriptor();
+        for (Object identifier : FrameSlotChangeMonitor.getIdentifiers(fd)) {
+            if (identifier instanceof String && FrameIndex.representsAuxiliaryIndex(FrameSlotChangeMonitor.getIndexOfIdentifier(fd, identifier))) {
                 lockBinding((String) identifier);
             }
         }
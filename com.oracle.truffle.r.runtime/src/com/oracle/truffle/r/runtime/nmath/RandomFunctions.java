@@ -38,6 +38,17 @@ import com.oracle.truffle.r.runtime.rng.RandomNumberGenerator;
 public class RandomFunctions {
     public interface RandFunction3_DoubleBase {
         double execute(double a, double b, double c, RandomNumberProvider rand);
+
+        /**
+         * Fills {@code result} with random values for the same parameters, the same values as
+         * repeated {@link #execute} would give. Returns {@code false} without touching the
+         * generator if there is no bulk implementation for the parameters, otherwise the values
+         * must not contain {@code NaN}.
+         */
+        @SuppressWarnings("unused")
+        default boolean executeBulk(double a, double b, double c, RandomNumberProvider rand, double[] result) {
+            return false;
+        }
     }
 
     public abstract static class RandFunction3_DoubleWithWarnings extends RBaseNodeWithWarnings implements RandFunction3_DoubleBase {
@@ -94,6 +105,22 @@ public class RandomFunctions {
             return generator.genrandDouble();
         }
 
+        public void unifRand(double[] result) {
+            generator.genrandDoubles(result, 0, result.length);
+        }
+
+        /**
+         * Fills {@code result} with normal random numbers if the current norm kind supports bulk
+         * generation, otherwise returns {@code false}.
+         */
+        public boolean normRand(double[] result) {
+            if (normKind != NormKind.INVERSION) {
+                return false;
+            }
+            SNorm.normRandInversion(generator, result);
+            return true;
+        }
+
         public double normRand() {
             return SNorm.normRand(generator, normKind);
         }
@@ -51,6 +51,17 @@ public abstract class Rnorm extends RandFunction2_Double {
         }
     }
 
+    @Override
+    public boolean executeBulk(double mu, double sigma, double c, RandomNumberProvider rand, double[] result) {
+        if (!Double.isFinite(mu) || !Double.isFinite(sigma) || sigma <= 0. || !rand.normRand(result)) {
+            return false;
+        }
+        for (int i = 0; i < result.length; i++) {
+            result[i] = mu + sigma * result[i];
+        }
+        return true;
+    }
+
     public static Rnorm create() {
         return RnormNodeGen.create();
     }
@@ -119,6 +119,22 @@ public final class SNorm {
         // only static members
     }
 
+    private static double inversion(double u1, double u2) {
+        return Qnorm.qnorm(((int) (BIG * u1) + u2) / BIG, 0.0, 1.0, true, false);
+    }
+
+    /**
+     * Fills {@code result} with the same numbers as repeated {@link #normRand} with
+     * {@link NormKind#INVERSION}, drawing all the uniform numbers at once.
+     */
+    public static void normRandInversion(RandomNumberGenerator rand, double[] result) {
+        double[] u = new double[2 * result.length];
+        rand.genrandDoubles(u, 0, u.length);
+        for (int i = 0; i < result.length; i++) {
+            result[i] = inversion(u[2 * i], u[2 * i + 1]);
+        }
+    }
+
     @SuppressWarnings("unused")
     public static double normRand(RandomNumberGenerator rand, NormKind normKind) {
         double s;
@@ -287,8 +303,7 @@ public final class SNorm {
             case INVERSION:
                 /* unif_rand() alone is not of high enough precision */
                 u1 = rand.genrandDouble();
-                u1 = (int) (BIG * u1) + rand.genrandDouble();
-                return Qnorm.qnorm(u1 / BIG, 0.0, 1.0, true, false);
+                return inversion(u1, rand.genrandDouble());
 
             case KINDERMAN_RAMAGE: /* see Reference above */
                 /*
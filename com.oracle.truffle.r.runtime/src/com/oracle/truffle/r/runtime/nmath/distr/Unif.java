@@ -59,6 +59,18 @@ public final class Unif {
             return min + rand.unifRand() * (max - min);
         }
 
+        @Override
+        public boolean executeBulk(double min, double max, double c, RandomNumberProvider rand, double[] result) {
+            if (!RRuntime.isFinite(min) || !RRuntime.isFinite(max) || max <= min) {
+                return false;
+            }
+            rand.unifRand(result);
+            for (int i = 0; i < result.length; i++) {
+                result[i] = min + result[i] * (max - min);
+            }
+            return true;
+        }
+
         public static Runif create() {
             return UnifFactory.RunifNodeGen.create();
         }
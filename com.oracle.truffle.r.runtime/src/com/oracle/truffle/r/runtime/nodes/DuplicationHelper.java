@@ -14,7 +14,7 @@
  * Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
  *
  * Copyright (c) 2014, Purdue University
- * Copyright (c) 2014, 2020, Oracle and/or its affiliates
+ * Copyright (c) 2014, 2022, Oracle and/or its affiliates
  *
  * All rights reserved.
  */
@@ -24,6 +24,12 @@ import java.util.HashSet;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.data.RComplexVector;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
+import com.oracle.truffle.r.runtime.data.RIntVector;
+import com.oracle.truffle.r.runtime.data.RLogicalVector;
+import com.oracle.truffle.r.runtime.data.RRawVector;
+import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.VectorDataLibrary;
 import com.oracle.truffle.r.runtime.data.model.RAbstractContainer;
 import com.oracle.truffle.r.runtime.data.model.RAbstractListBaseVector;
@@ -32,16 +38,21 @@ import com.oracle.truffle.r.runtime.data.model.RAbstractListBaseVector;
  * Code sharing vehicle for the slight differences in behavior between {@code duplicated} and
  * {@code anyDuplicated} (both internal and native versions) and whether {@code fromLast} is
  * {@code TRUE/FALSE}.
+ *
+ * Atomic vectors are analyzed by an open addressing hash table of element indices that compares the
+ * elements in place, only lists (and other containers) are analyzed by boxing their elements into
+ * {@link DupEntry} objects.
  */
 public class DuplicationHelper {
     private final RAbstractContainer x;
-    private final HashSet<DupEntry> vectorContents = new HashSet<>();
+    private final HashSet<DupEntry> vectorContents;
     private final HashSet<DupEntry> incompContents;
     private final byte[] dupVec;
     private int index;
 
     public DuplicationHelper(RAbstractContainer x, RAbstractContainer incomparables, boolean justIndex, boolean fromLast) {
         this.x = x;
+        vectorContents = new HashSet<>();
         vectorContents.add(new DupEntry(x.getDataAtAsObject(fromLast ? x.getLength() - 1 : 0)));
 
         if (incomparables != null) {
@@ -55,6 +66,14 @@ public class DuplicationHelper {
         dupVec = justIndex ? null : new byte[x.getLength()];
     }
 
+    private DuplicationHelper(byte[] dupVec, int index) {
+        this.x = null;
+        this.vectorContents = null;
+        this.incompContents = null;
+        this.dupVec = dupVec;
+        this.index = index;
+    }
+
     public boolean doIt(int i) {
         DupEntry entry = new DupEntry(x.getDataAtAsObject(i));
         if (incompContents == null || !incompContents.contains(entry)) {
@@ -84,6 +103,13 @@ public class DuplicationHelper {
 
     @TruffleBoundary
     public static DuplicationHelper analyze(RAbstractContainer x, RAbstractContainer incomparables, boolean justIndex, boolean fromLast) {
+        Keys keys = x.getLength() <= IndexSet.MAX_ELEMENTS ? Keys.create(x) : null;
+        if (keys != null) {
+            Keys incompKeys = incomparables == null ? null : Keys.create(incomparables);
+            if (incomparables == null || (incomparables.getLength() <= IndexSet.MAX_ELEMENTS && incompKeys != null && incompKeys.getClass() == keys.getClass())) {
+                return analyze(keys, incompKeys, justIndex, fromLast);
+            }
+        }
         DuplicationHelper ds = new DuplicationHelper(x, incomparables, justIndex, fromLast);
         if (fromLast) {
             for (int i = x.getLength() - 2; i >= 0; i--) {
@@ -101,6 +127,276 @@ public class DuplicationHelper {
         return ds;
     }
 
+    private static DuplicationHelper analyze(Keys keys, Keys incompKeys, boolean justIndex, boolean fromLast) {
+        int length = keys.length();
+        IndexSet incompSet = null;
+        if (incompKeys != null && incompKeys.length() > 0) {
+            incompSet = new IndexSet(incompKeys);
+            for (int j = 0; j < incompKeys.length(); j++) {
+                incompSet.add(j);
+            }
+        }
+        IndexSet set = new IndexSet(keys);
+        byte[] dupVec = justIndex ? null : new byte[length];
+        for (int k = 0; k < length; k++) {
+            int i = fromLast ? length - 1 - k : k;
+            if (incompSet != null && incompSet.contains(keys, i)) {
+                continue;
+            }
+            if (!set.add(i)) {
+                if (dupVec == null) {
+                    return new DuplicationHelper(null, i + 1);
+                }
+                dupVec[i] = RRuntime.LOGICAL_TRUE;
+            }
+        }
+        return new DuplicationHelper(dupVec, 0);
+    }
+
+    /**
+     * Set of indices of distinct elements of {@link Keys}, implemented as an open addressing hash
+     * table with linear probing. The table stores {@code index + 1}, zero marks an empty slot.
+     */
+    private static final class IndexSet {
+        private static final int MAX_CAPACITY = 1 << 30;
+        static final int MAX_ELEMENTS = MAX_CAPACITY >> 1;
+
+        private final Keys keys;
+        private final int[] table;
+        private final int mask;
+
+        IndexSet(Keys keys) {
+            this.keys = keys;
+            // load factor at most 1/2 for short probe sequences
+            long capacity = (long) Integer.highestOneBit(Math.max(keys.length(), 4)) << 2;
+            this.table = new int[(int) Math.min(capacity, MAX_CAPACITY)];
+            this.mask = table.length - 1;
+        }
+
+        /**
+         * Adds element {@code i} unless an equal element is already present, returns whether the
+         * element was added.
+         */
+        boolean add(int i) {
+            int slot = spread(keys.hash(i)) & mask;
+            int entry;
+            while ((entry = table[slot]) != 0) {
+                if (keys.equal(entry - 1, keys, i)) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+            return true;
+        }
+
+        /**
+         * Whether the set contains an element equal to element {@code j} of {@code other}, which
+         * must be of the same kind as the keys of this set.
+         */
+        boolean contains(Keys other, int j) {
+            int slot = spread(other.hash(j)) & mask;
+            int entry;
+            while ((entry = table[slot]) != 0) {
+                if (keys.equal(entry - 1, other, j)) {
+                    return true;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return false;
+        }
+
+        private static int spread(int hash) {
+            int h = hash * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * The elements of an atomic vector, canonicalized so that the elements considered equal by
+     * {@code duplicated} are equal in their primitive representation.
+     */
+    private abstract static class Keys {
+        private static final long NA_BITS = Double.doubleToRawLongBits(RRuntime.DOUBLE_NA);
+
+        abstract int length();
+
+        abstract int hash(int i);
+
+        /**
+         * Compares element {@code i} of this with element {@code j} of {@code other}, which is of
+         * the same class.
+         */
+        abstract boolean equal(int i, Keys other, int j);
+
+        static Keys create(RAbstractContainer vector) {
+            if (vector instanceof RIntVector) {
+                return new IntKeys(((RIntVector) vector).getReadonlyData());
+            } else if (vector instanceof RDoubleVector) {
+                double[] data = ((RDoubleVector) vector).getReadonlyData();
+                long[] bits = new long[data.length];
+                for (int i = 0; i < data.length; i++) {
+                    bits[i] = canonicalBits(data[i]);
+                }
+                return new LongKeys(bits);
+            } else if (vector instanceof RLogicalVector) {
+                return new ByteKeys(((RLogicalVector) vector).getReadonlyData());
+            } else if (vector instanceof RRawVector) {
+                return new ByteKeys(((RRawVector) vector).getReadonlyData());
+            } else if (vector instanceof RStringVector) {
+                return new StringKeys(((RStringVector) vector).getReadonlyStringData());
+            } else if (vector instanceof RComplexVector) {
+                double[] data = ((RComplexVector) vector).getReadonlyData();
+                long[] bits = new long[data.length];
+                for (int i = 0; i < data.length; i += 2) {
+                    if (RRuntime.isNA(data[i]) || RRuntime.isNA(data[i + 1])) {
+                        // all complex numbers with an NA part are the same NA
+                        bits[i] = NA_BITS;
+                        bits[i + 1] = NA_BITS;
+                    } else {
+                        bits[i] = canonicalBits(data[i]);
+                        bits[i + 1] = canonicalBits(data[i + 1]);
+                    }
+                }
+                return new ComplexKeys(bits);
+            }
+            return null;
+        }
+
+        /**
+         * Maps {@code -0} to {@code 0} and all {@code NaN}s other than {@code NA} to the same
+         * {@code NaN}.
+         */
+        private static long canonicalBits(double value) {
+            if (Double.isNaN(value)) {
+                return RRuntime.isNA(value) ? NA_BITS : Double.doubleToLongBits(Double.NaN);
+            }
+            return Double.doubleToRawLongBits(value + 0.0);
+        }
+    }
+
+    private static final class IntKeys extends Keys {
+        private final int[] data;
+
+        IntKeys(int[] data) {
+            this.data = data;
+        }
+
+        @Override
+        int length() {
+            return data.length;
+        }
+
+        @Override
+        int hash(int i) {
+            return data[i];
+        }
+
+        @Override
+        boolean equal(int i, Keys other, int j) {
+            return data[i] == ((IntKeys) other).data[j];
+        }
+    }
+
+    private static final class ByteKeys extends Keys {
+        private final byte[] data;
+
+        ByteKeys(byte[] data) {
+            this.data = data;
+        }
+
+        @Override
+        int length() {
+            return data.length;
+        }
+
+        @Override
+        int hash(int i) {
+            return data[i];
+        }
+
+        @Override
+        boolean equal(int i, Keys other, int j) {
+            return data[i] == ((ByteKeys) other).data[j];
+        }
+    }
+
+    private static final class LongKeys extends Keys {
+        private final long[] data;
+
+        LongKeys(long[] data) {
+            this.data = data;
+        }
+
+        @Override
+        int length() {
+            return data.length;
+        }
+
+        @Override
+        int hash(int i) {
+            return Long.hashCode(data[i]);
+        }
+
+        @Override
+        boolean equal(int i, Keys other, int j) {
+            return data[i] == ((LongKeys) other).data[j];
+        }
+    }
+
+    /**
+     * Real and imaginary parts of complex numbers interleaved in one array.
+     */
+    private static final class ComplexKeys extends Keys {
+        private final long[] data;
+
+        ComplexKeys(long[] data) {
+            this.data = data;
+        }
+
+        @Override
+        int length() {
+            return data.length >> 1;
+        }
+
+        @Override
+        int hash(int i) {
+            return Long.hashCode(data[2 * i]) * 31 + Long.hashCode(data[2 * i + 1]);
+        }
+
+        @Override
+        boolean equal(int i, Keys other, int j) {
+            long[] otherData = ((ComplexKeys) other).data;
+            return data[2 * i] == otherData[2 * j] && data[2 * i + 1] == otherData[2 * j + 1];
+        }
+    }
+
+    private static final class StringKeys extends Keys {
+        private final String[] data;
+
+        StringKeys(String[] data) {
+            this.data = data;
+        }
+
+        @Override
+        int length() {
+            return data.length;
+        }
+
+        @Override
+        int hash(int i) {
+            return data[i].hashCode();
+        }
+
+        @Override
+        boolean equal(int i, Keys other, int j) {
+            String s1 = data[i];
+            String s2 = ((StringKeys) other).data[j];
+            // strings are mostly shared, NA is distinguished from "NA" by identity
+            return s1 == s2 || (s1.equals(s2) && !RRuntime.isNA(s1) && !RRuntime.isNA(s2));
+        }
+    }
+
     private static final class DupEntry {
 
         private final Object element;
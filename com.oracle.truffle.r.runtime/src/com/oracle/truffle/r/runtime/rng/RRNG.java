@@ -43,14 +43,15 @@ import com.oracle.truffle.r.runtime.env.frame.ActiveBinding;
 import com.oracle.truffle.r.runtime.env.frame.FrameSlotChangeMonitor;
 import com.oracle.truffle.r.runtime.ffi.BaseRFFI;
 import com.oracle.truffle.r.runtime.nmath.RandomFunctions.RandomNumberProvider;
+import com.oracle.truffle.r.runtime.rng.lecuyer.LecuyerCMRG;
 import com.oracle.truffle.r.runtime.rng.mm.MarsagliaMulticarry;
 import com.oracle.truffle.r.runtime.rng.mt.MersenneTwister;
 import com.oracle.truffle.r.runtime.rng.user.UserRNG;
 
 /**
  * Facade class to the R random number generators, (see src/main/RNG.c in GnuR). The individual
- * generators are implemented in their own class. Currently there are only two implemented, the
- * default, {@link MersenneTwister} and {@link MarsagliaMulticarry}.
+ * generators are implemented in their own class. Currently implemented are the default,
+ * {@link MersenneTwister}, {@link MarsagliaMulticarry} and {@link LecuyerCMRG}.
  *
  * The fact that the R programmer can set {@code .Random.seed} explicitly, as opposed to the
  * recommended approach of calling {@code set.seed}, is something of a pain as it changes the
@@ -79,7 +80,7 @@ public class RRNG {
         KNUTH_TAOCP(),
         USER_UNIF(UserRNG::new),
         KNUTH_TAOCP2(),
-        LECUYER_CMRG();
+        LECUYER_CMRG(LecuyerCMRG::new);
 
         @CompilationFinal(dimensions = 1) static final Kind[] VALUES = values();
 
@@ -138,6 +139,11 @@ public class RRNG {
         private NormKind currentNormKind;
         private SampleKind currentSampleKind;
         private WeakReference<ActiveBinding> dotRandomSeedBinding;
+        /**
+         * Seeds of the {@link LecuyerCMRG} stream given to the last child context, {@code null} if
+         * no child context has been seeded since the last change of the seed.
+         */
+        private int[] lastChildStream;
 
         /**
          * Stores the current RNG seed. The type is Object because the user may assign an arbitrary
@@ -154,6 +160,18 @@ public class RRNG {
 
         @Override
         public RContext.ContextState initialize(RContext context) {
+            int[] seeds = context.getInitialRandomSeed();
+            if (seeds != null) {
+                // every child context gets its own stream, as mc.set.stream does for forked workers
+                RandomNumberGenerator rng = Kind.LECUYER_CMRG.create();
+                rng.setISeed(seeds);
+                this.currentGenerator = rng;
+                this.allGenerators[rng.getKind().ordinal()] = rng;
+                this.currentNormKind = NormKind.VALUES[(seeds[0] / 100) % 100];
+                this.currentSampleKind = SampleKind.VALUES[seeds[0] / 10000];
+                this.currentSeeds = seeds.clone();
+                return this;
+            }
             int seed = timeToSeed();
             RandomNumberGenerator rng = DEFAULT_KIND.create();
             initGenerator(rng, seed);
@@ -186,6 +204,22 @@ public class RRNG {
             }
         }
 
+        /**
+         * Returns the seeds for a new child context: the stream following the one given to the
+         * previous child, starting with the stream following the current state of this context.
+         */
+        private int[] nextChildStream() {
+            if (lastChildStream == null) {
+                lastChildStream = currentGenerator.getSeeds().clone();
+            }
+            lastChildStream = LecuyerCMRG.nextStream(lastChildStream);
+            return lastChildStream.clone();
+        }
+
+        private void resetChildStreams() {
+            lastChildStream = null;
+        }
+
         void switchCurrentGenerator(Kind kind) {
             if (kind != currentGenerator.getKind()) {
                 if (allGenerators[kind.ordinal()] != null) {
@@ -228,6 +262,10 @@ public class RRNG {
             assert REnvironment.globalEnv() != null;
             RFunction fun = context.lookupBuiltin(".fastr.set.seed");
             ActiveBinding dotRandomSeed = new ActiveBinding(RType.Any, fun, true);
+            if (currentSeeds != null) {
+                // seeded from the parent context
+                dotRandomSeed.setInitialized(true);
+            }
             Frame frame = REnvironment.globalEnv().getFrame();
             int frameIndex = FrameSlotChangeMonitor.findOrAddAuxiliaryFrameSlot(frame.getFrameDescriptor(), RRNG.RANDOM_SEED);
             FrameSlotChangeMonitor.setActiveBinding(frame, frameIndex, dotRandomSeed, false);
@@ -248,6 +286,23 @@ public class RRNG {
 
     }
 
+    /**
+     * Returns the {@code .Random.seed} of the next child context of the current context, or
+     * {@code null} if the current generator is not L'Ecuyer-CMRG. The parent calls this on its own
+     * thread when it creates the child contexts, so the streams follow the order of creation and
+     * not the order in which the children start.
+     */
+    @TruffleBoundary
+    public static int[] nextChildRandomSeed() {
+        ContextStateImpl state = getContextState();
+        if (state.currentGenerator.getKind() != Kind.LECUYER_CMRG) {
+            return null;
+        }
+        int[] seeds = state.nextChildStream();
+        seeds[0] = Kind.LECUYER_CMRG.ordinal() + 100 * state.currentNormKind.ordinal() + 10000 * state.currentSampleKind.ordinal();
+        return seeds;
+    }
+
     private static ContextStateImpl getContextState() {
         return RContext.getInstance().stateRNG;
     }
@@ -409,6 +464,8 @@ public class RRNG {
         if (!Objects.equals(newSeed, SAME_SEED)) {
             initGenerator(rng, newSeed);
         }
+        // child contexts created from now on derive their streams from the new state
+        getContextState().resetChildStreams();
 
         if (normKindAsInt != NO_KIND_CHANGE) {
             if (normKindAsInt == DEFAULT_KIND_CHANGE) {
@@ -37,6 +37,17 @@ public interface RandomNumberGenerator {
 
     double genrandDouble();
 
+    /**
+     * Stores {@code count} random numbers into {@code result} starting at {@code offset}. The
+     * numbers and the final state must be the same as with {@code count} calls to
+     * {@link #genrandDouble()}, generators may override this to avoid the per-call overhead.
+     */
+    default void genrandDoubles(double[] result, int offset, int count) {
+        for (int i = offset; i < offset + count; i++) {
+            result[i] = genrandDouble();
+        }
+    }
+
     Kind getKind();
 
     /**
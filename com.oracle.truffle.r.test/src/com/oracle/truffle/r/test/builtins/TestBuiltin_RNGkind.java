@@ -37,4 +37,33 @@ public class TestBuiltin_RNGkind extends TestBase {
         // Note: GnuR also prints warning about NAs
         assertEval(Output.IgnoreErrorMessage, ".Internal(RNGkind(NULL, 'abc', NULL))");
     }
+
+    @Test
+    public void testLecuyerCMRG() {
+        assertEvalFastR("{ RNGkind(\"L'Ecuyer-CMRG\"); set.seed(42); s <- .Random.seed; a <- runif(5); set.seed(42); b <- runif(5); RNGkind('default'); c(length(s), s[[1]], identical(a, b), all(a > 0 & a < 1)) }",
+                        "c(7L, 10407L, 1L, 1L)");
+        // the bulk generation of vectors gives the same numbers as generating them one by one
+        assertEvalFastR("{ RNGkind(\"L'Ecuyer-CMRG\"); set.seed(1); a <- runif(100, 2, 3); n <- rnorm(100, 1, 2); set.seed(1); b <- vapply(1:100, function(i) runif(1, 2, 3), 0); m <- vapply(1:100, function(i) rnorm(1, 1, 2), 0); RNGkind('default'); c(identical(a, b), identical(n, m)) }",
+                        "c(TRUE, TRUE)");
+        assertEvalFastR("{ set.seed(3); a <- rnorm(50); u <- runif(50); set.seed(3); b <- vapply(1:50, function(i) rnorm(1), 0); v <- vapply(1:50, function(i) runif(1), 0); c(identical(a, b), identical(u, v)) }",
+                        "c(TRUE, TRUE)");
+        assertEval("{ set.seed(1, \"L'Ecuyer-CMRG\"); s <- .Random.seed; x <- runif(3); y <- rnorm(2); RNGkind('default'); list(s, x, y) }");
+        assertEval("{ set.seed(1, \"L'Ecuyer-CMRG\"); s <- .Random.seed; RNGkind('default'); list(parallel::nextRNGStream(s), parallel::nextRNGSubStream(s), parallel::nextRNGStream(parallel::nextRNGStream(s))) }");
+        assertEval("{ set.seed(1, \"L'Ecuyer-CMRG\"); assign('.Random.seed', parallel::nextRNGSubStream(.Random.seed), envir=globalenv()); x <- runif(3); RNGkind('default'); x }");
+    }
+
+    @Test
+    public void testLecuyerCMRGChildContexts() {
+        // every child context gets the stream following the one of the previous child, set.seed
+        // restarts the chain
+        assertEvalFastR("{ set.seed(7, \"L'Ecuyer-CMRG\"); s <- .Random.seed; child <- function() .fastr.context.eval('.Random.seed')[[1]][[1]]; " +
+                        "a <- child(); b <- child(); set.seed(7); c <- child(); RNGkind('default'); " +
+                        "c(identical(a, parallel::nextRNGStream(s)), identical(b, parallel::nextRNGStream(a)), identical(c, a)) }",
+                        "c(TRUE, TRUE, TRUE)");
+        // the contexts started at once get the streams in the order of their ranks on every run
+        assertEvalFastR("{ set.seed(7, \"L'Ecuyer-CMRG\"); s <- .Random.seed; run <- function() lapply(.fastr.context.eval(rep('.Random.seed', 4L)), function(r) r[[1]]); " +
+                        "a <- run(); set.seed(7); b <- run(); RNGkind('default'); expected <- vector('list', 4L); for (i in 1:4) expected[[i]] <- s <- parallel::nextRNGStream(s); " +
+                        "c(identical(a, expected), identical(b, expected)) }",
+                        "c(TRUE, TRUE)");
+    }
 }
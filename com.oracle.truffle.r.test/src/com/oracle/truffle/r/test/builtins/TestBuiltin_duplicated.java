@@ -148,4 +148,15 @@ public class TestBuiltin_duplicated extends TestBase {
         assertEval("{ duplicated(list(list(1,\"aaa\"),list(1,\"aaa\"))) }");
 
     }
+
+    @Test
+    public void testDuplicatedSpecialValues() {
+        assertEvalFastR("duplicated(c(0, -0, NA, NaN, NA, -NaN, Inf, -Inf, Inf))", "c(FALSE, TRUE, FALSE, FALSE, TRUE, TRUE, FALSE, FALSE, TRUE)");
+        assertEvalFastR("duplicated(c(complex(real = NA, imaginary = 1), complex(real = 1, imaginary = NA), 1+0i, complex(real = 1, imaginary = -0)))", "c(FALSE, TRUE, FALSE, TRUE)");
+        assertEvalFastR("duplicated(c('NA', NA, 'NA', NA))", "c(FALSE, FALSE, TRUE, TRUE)");
+        assertEvalFastR("duplicated(c(3L, NA, 3L, NA, 1L), incomparables = NA)", "c(FALSE, FALSE, TRUE, FALSE, FALSE)");
+        assertEvalFastR("anyDuplicated(c(1.5, 2.5, 3.5, 2.5, 1.5), fromLast = TRUE)", "2L");
+        assertEvalFastR("anyDuplicated(as.raw(c(1, 2, 3, 1)))", "4L");
+        assertEvalFastR("x <- rep(1:1000, 3); identical(duplicated(x), seq_along(x) > 1000L)", "TRUE");
+    }
 }
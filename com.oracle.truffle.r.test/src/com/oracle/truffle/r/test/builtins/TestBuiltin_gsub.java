@@ -249,4 +249,17 @@ public class TestBuiltin_gsub extends TestBase {
 
         assertEval("{ gsub('([⚽])', '\\\\1', '─', perl=TRUE)} ");
     }
+
+    @Test
+    public void testGsubPatternCache() {
+        // more distinct patterns than the cache holds, the evicted ones are compiled again
+        assertEvalFastR("{ p <- paste0('x', 1:100, '(y)'); r <- vapply(p, function(pp) gsub(pp, '-', 'ax1ybx100y', perl=TRUE), ''); c(unname(r[c(1, 10, 100)]), gsub('x1(y)', '-', 'x1y', perl=TRUE)) }",
+                        "c('a-bx100y', 'ax1ybx100y', 'ax1yb-', '-')");
+        assertEvalFastR("{ p <- paste0('x', 1:300, '(y)'); r <- vapply(p, function(pp) gsub(pp, '-', 'ax1ybx100y'), ''); c(unname(r[c(1, 10, 100)]), gsub('x1(y)', '-', 'x1y')) }",
+                        "c('a-bx100y', 'ax1ybx100y', 'ax1yb-', '-')");
+        assertEvalFastR("{ list(gsub('(a)', '-', 'aA', perl=TRUE), gsub('(a)', '-', 'aA', ignore.case=TRUE, perl=TRUE), gsub('(a)', '-', 'aA', perl=TRUE), gsub('.', '-', 'a.b', fixed=TRUE), gsub('.', '-', 'a.b')) }",
+                        "list('-A', '--', '-A', 'a-b', '---')");
+        assertEvalFastR("{ f <- function() tryCatch(gsub('(', '', 'a', perl=TRUE), error=function(e) 'err'); c(f(), f()) }", "c('err', 'err')");
+        assertEvalFastR("{ f <- function() tryCatch(gsub('(', '', 'a'), error=function(e) 'err'); c(f(), f()) }", "c('err', 'err')");
+    }
 }
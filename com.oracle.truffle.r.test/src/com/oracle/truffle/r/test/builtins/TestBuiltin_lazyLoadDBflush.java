@@ -20,9 +20,16 @@
  */
 package com.oracle.truffle.r.test.builtins;
 
+import static org.junit.Assert.assertTrue;
+
 import org.junit.Test;
 
+import com.oracle.truffle.r.runtime.context.FastROptions;
+import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.context.RContext.ContextKind;
 import com.oracle.truffle.r.test.TestBase;
+import com.oracle.truffle.r.test.generate.FastRContext;
+import com.oracle.truffle.r.test.generate.FastRSession;
 
 // Checkstyle: stop line length check
 public class TestBuiltin_lazyLoadDBflush extends TestBase {
@@ -42,4 +49,49 @@ public class TestBuiltin_lazyLoadDBflush extends TestBase {
         // "argv <- list('/home/lzhao/hg/r-instrumented/library/stats4/R/stats4.rdb');
         // .Internal(lazyLoadDBflush(argv[[1]]))");
     }
+
+    private static final String STATS_DB = "db <- file.path(R.home(), 'library', 'stats', 'R', 'stats'); ";
+
+    @Test
+    public void testLazyLoadCache() {
+        // the second fetch of an entry, here from another environment, is served from the cache
+        assertEvalFastR("{ " + STATS_DB + "e1 <- new.env(); e2 <- new.env(); lazyLoad(db, envir=e1, filter=function(n) n == 'median'); " +
+                        "lazyLoad(db, envir=e2, filter=function(n) n == 'median'); f1 <- e1$median; s1 <- .fastr.lazyload.stats(); f2 <- e2$median; s2 <- .fastr.lazyload.stats(); " +
+                        "c(identical(body(f1), body(f2)), s2$hits - s1$hits, s2$misses - s1$misses) }", "c(1, 1, 0)");
+        assertEvalFastR("{ .fastr.lazyload.stats(reset=TRUE); s <- .fastr.lazyload.stats(); c(names(s), s$hits, s$misses) }", "c('hits', 'misses', 'entries', 'size', 'mapped', 'buffered', 'prefetching', 0, 0)");
+    }
+
+    @Test
+    public void testLazyLoadMapped() {
+        // the databases of the installed packages are on the default file system, hence mapped
+        assertEvalFastR("{ " + STATS_DB + "e <- new.env(); lazyLoad(db, envir=e, filter=function(n) n == 'median'); f <- e$median; s <- .fastr.lazyload.stats(); c(s$mapped > 0, s$buffered) }",
+                        "c(TRUE, 0)");
+    }
+
+    @Test
+    public void testLazyLoadFlush() {
+        // the mapping is released and the database mapped again on the next fetch
+        assertEvalFastR("{ " + STATS_DB + "e <- new.env(); lazyLoad(db, envir=e, filter=function(n) n %in% c('median', 'sd')); f <- e$median; " +
+                        ".Internal(lazyLoadDBflush(paste0(db, '.rdb'))); g <- e$sd; c(is.function(f), is.function(g), g(c(1, 3))) }", "c(1, 1, sqrt(2))");
+    }
+
+    @Test
+    public void testLazyLoadPrefetch() {
+        try (FastRContext context = FastRSession.create().getContext(ContextKind.SHARE_NOTHING, false)) {
+            FastRSession.execInContext(context, () -> {
+                RContext.getInstance().setOption(FastROptions.LazyLoadPrefetch, true);
+                return null;
+            });
+            // once the background decompression is done, fetching an entry is a cache hit
+            boolean result = context.eval("R", "{ " + STATS_DB + ".fastr.lazyload.stats(reset=TRUE); e <- new.env(); lazyLoad(db, envir=e); " +
+                            "for (i in 1:200) if (.fastr.lazyload.stats()$prefetching == 0) break else Sys.sleep(0.05); " +
+                            "s1 <- .fastr.lazyload.stats(); f <- e$median; s2 <- .fastr.lazyload.stats(); " +
+                            "s1$prefetching == 0 && s2$hits - s1$hits >= 1 && s2$misses == s1$misses }").asBoolean();
+            assertTrue(result);
+            // the background decompression must not change the fetched values
+            result = context.eval("R", "{ " + STATS_DB + "e <- new.env(); lazyLoad(db, envir=e); " +
+                            "all(vapply(ls(e), function(n) !is.null(get(n, envir=e)), TRUE)) && identical(e$median(c(3, 1, 2)), 2) }").asBoolean();
+            assertTrue(result);
+        }
+    }
 }
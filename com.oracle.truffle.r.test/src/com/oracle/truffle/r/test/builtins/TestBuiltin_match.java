@@ -472,4 +472,16 @@ public class TestBuiltin_match extends TestBase {
         table = String.format("paste('%1$s', seq(from=1, to=10, by=4), '%2$s', sep='')", preffix, suffix);
         assertEval("{ match(" + x + "," + table + ")}");
     }
+
+    @Test
+    public void testMatchCachedTable() {
+        assertEvalFastR("{ lookup <- c(paste0('k', 1:5000), 'z'); invisible(.fastr.match.stats(reset = TRUE)); r1 <- c('k10', 'x') %in% lookup; r2 <- match(c('k4999', 'k10'), lookup); " +
+                        "lookup[10] <- 'y'; r3 <- match(c('k10', 'y'), lookup); s <- .fastr.match.stats(); list(r1, r2, r3, s$reused >= 1, s$built >= 2) }",
+                        "list(c(TRUE, FALSE), c(4999L, 10L), c(NA, 10L), TRUE, TRUE)");
+        assertEvalFastR("{ lookup <- c(1:5000, 1L) * 2L; r1 <- match(c(2L, 3L), lookup); lookup[1] <- 3L; r2 <- match(c(2L, 3L), lookup); list(r1, r2) }", "list(c(1L, NA), c(5001L, 1L))");
+        // the raw array handed out by getDataTemp/getDataNonShared can be written, e.g., by the
+        // native code or by in-place replacements
+        assertEvalFastR("{ lookup <- c(1:5000, 0.5); r1 <- match(7, lookup); lookup[] <- rev(lookup); r2 <- match(c(7, 0.5), lookup); list(r1, r2) }", "list(7L, c(4995L, 1L))");
+        assertEvalFastR("{ lookup <- c(1:5000, 0.5); r1 <- match(c(0.5, 7), lookup); lookup[7] <- 1.5; r2 <- match(c(0.5, 7, 1.5), lookup); list(r1, r2) }", "list(c(5001L, 7L), c(5001L, NA, 7L))");
+    }
 }
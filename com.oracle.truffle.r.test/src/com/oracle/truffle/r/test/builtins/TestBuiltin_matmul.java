@@ -53,4 +53,14 @@ public class TestBuiltin_matmul extends TestBase {
         assertEval("numeric() %*% matrix(0, nrow=1, ncol=0)");
         assertEval("numeric() %*% matrix(0, nrow=0, ncol=1)");
     }
+
+    @Test
+    public void testMatmulLarge() {
+        // large enough to be split among threads
+        assertEvalFastR("set.seed(1); a <- matrix(runif(300 * 310), 310); b <- matrix(runif(310 * 270), 310); r <- t(a) %*% b; " +
+                        "ref <- sapply(c(1, 65, 270), function(j) sapply(c(1, 128, 300), function(i) sum(a[, i] * b[, j]))); isTRUE(all.equal(r[c(1, 128, 300), c(1, 65, 270)], ref))", "TRUE");
+        assertEvalFastR("set.seed(1); a <- matrix(runif(300 * 310), 310); identical(crossprod(a), t(a) %*% a)", "TRUE");
+        assertEvalFastR("set.seed(1); a <- matrix(runif(300 * 310), 310); identical(tcrossprod(a), a %*% t(a))", "TRUE");
+        assertEvalFastR("a <- matrix(c(NA, runif(299 * 300)), 300); r <- a %*% matrix(1, 300, 300); c(is.na(r[1, 1]), is.na(r[2, 1]), is.na(r[1, 300]))", "c(TRUE, FALSE, TRUE)");
+    }
 }
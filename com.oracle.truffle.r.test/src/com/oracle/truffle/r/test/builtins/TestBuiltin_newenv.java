@@ -37,4 +37,15 @@ public class TestBuiltin_newenv extends TestBase {
         assertEval(Output.ContainsReferences, "parent.env(new.env())");
         assertEval(Output.ContainsReferences, "e <- new.env(); e; parent.env(new.env(TRUE, e))");
     }
+
+    @Test
+    public void testLargeHashedEnv() {
+        assertEvalFastR("{ e <- new.env(hash=TRUE, size=10000L); n <- paste0('v', 1:20000); for (i in seq_along(n)) assign(n[[i]], i, envir=e); rm(list=n[c(TRUE, FALSE)], envir=e); c(length(ls(e)), get('v20000', envir=e), exists('v19999', envir=e, inherits=FALSE), e$v2) }",
+                        "c(10000, 20000, 0, 2)");
+        assertEvalFastR("{ e <- new.env(size=1e9); assign('a', 1, envir=e); local(a + 1, envir=e) }", "2");
+        // without a size hint, the slots grow in blocks
+        assertEval("{ e <- new.env(); n <- paste0('v', 1:5000); for (x in n) assign(x, x, envir=e); lockEnvironment(e, bindings=TRUE); " +
+                        "list(length(ls(e)), e$v4999, bindingIsLocked('v4999', e), tryCatch({ assign('v1', 0, envir=e); 'assigned' }, error=function(err) 'locked')) }");
+        assertEval("{ f <- function() { for (i in 1:100) assign(paste0('x', i), i); x100 + x37 + length(ls()) }; c(f(), f()) }");
+    }
 }
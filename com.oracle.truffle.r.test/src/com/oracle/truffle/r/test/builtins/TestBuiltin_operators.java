@@ -2100,4 +2100,44 @@ public class TestBuiltin_operators extends TestBase {
         assertEval(template("{ %0; %1; temp <- as.logical(rhs); lhs == temp }", lhs, rhs));
     }
 
+    @Test
+    public void testDoubleArrayKernels() {
+        assertEvalFastR("{ x <- c(1.5, -2, 0, Inf, NaN); y <- c(2, 0.5, -0, -Inf, 1); list(x + y, x - y, x * y, x / y) }",
+                        "list(c(3.5, -1.5, 0, NaN, NaN), c(-0.5, -2.5, 0, Inf, NaN), c(3, -1, 0, -Inf, NaN), c(0.75, -4, NaN, NaN, NaN))");
+        assertEvalFastR("{ x <- c(1.5, -2, 0, Inf, NaN); list(x + 1, 2 - x, 1 / x) }",
+                        "list(c(2.5, -1, 1, Inf, NaN), c(0.5, 4, 2, -Inf, NaN), c(1 / 1.5, -0.5, Inf, 0, NaN))");
+        assertEvalFastR("{ x <- c(1.5, 0, -2); 1 / (x * -0) }", "c(-Inf, -Inf, Inf)");
+        assertEvalFastR("{ x <- c(1.5, -2, 0, Inf, NaN); y <- c(2, 0.5, -0, Inf, 1); list(x == y, x != y, x < y, x <= y, x > y, x >= y) }",
+                        "list(c(FALSE, FALSE, TRUE, TRUE, NA), c(TRUE, TRUE, FALSE, FALSE, NA), c(TRUE, FALSE, FALSE, FALSE, NA), " +
+                                        "c(TRUE, FALSE, TRUE, TRUE, NA), c(FALSE, TRUE, FALSE, FALSE, NA), c(FALSE, TRUE, TRUE, TRUE, NA))");
+        assertEvalFastR("{ x <- c(1.5, -2, 0); list(x < 0, 0 >= x, x == NaN, x < NA) }",
+                        "list(c(FALSE, TRUE, FALSE), c(FALSE, TRUE, TRUE), c(NA, NA, NA), c(NA, NA, NA))");
+        assertEvalFastR("{ x <- c(a=1, b=2, c=3); x * 2 }", "c(a=2, b=4, c=6)");
+        assertEvalFastR("{ m <- matrix(as.double(1:6), 2); m / m[, c(3, 2, 1)] }", "matrix(c(0.2, 2 / 6, 1, 1, 5, 3), 2)");
+        assertEvalFastR("{ x <- as.double(1:10); x + c(1, 2) }", "c(2, 4, 4, 6, 6, 8, 8, 10, 10, 12)");
+        assertEvalFastR("{ x <- c(1, NA, 3); list(x + 1, x > 1) }", "list(c(2, NA, 4), c(FALSE, NA, TRUE))");
+    }
+
+    @Test
+    public void testIntArrayKernels() {
+        assertEval("{ x <- c(1L, -2L, 0L, 100000L); y <- c(2L, 5L, -7L, 3L); list(x + y, x - y, x * y, x / y, x %/% y) }");
+        assertEval("{ x <- c(1L, -2L, 0L); list(x + 1L, 2L - x, x * -3L, 1L - x > 0L) }");
+        assertEval("{ x <- c(1L, -2L, 0L, 5L); y <- c(2L, -2L, -1L, 5L); list(x == y, x != y, x < y, x <= y, x > y, x >= y) }");
+        assertEval("{ x <- c(.Machine$integer.max, 1L); x + 1:2 }");
+        assertEval("{ x <- c(-.Machine$integer.max, 1L); list(x - 1L, x * 100000L) }");
+        assertEval("{ x <- c(a=1L, b=2L); y <- (x + 1L) * 2L; y - x }");
+        assertEval("{ x <- c(1L, NA, 3L); list(x + 1L, x > 1L) }");
+    }
+
+    @Test
+    public void testReductionKernels() {
+        assertEval("{ x <- c(3L, -2L, 7L, 0L); list(sum(x), min(x), max(x), range(x)) }");
+        assertEval("{ x <- c(.Machine$integer.max, 1L, -5L); sum(x) }");
+        assertEval("{ x <- c(-.Machine$integer.max, -1L); sum(x) }");
+        assertEval("{ x <- c(1.5, -2, Inf, 0); list(min(x), max(x), range(x)) }");
+        assertEval("{ x <- c(0, -0); list(1 / min(x), 1 / max(x), 1 / min(rev(x)), 1 / max(rev(x))) }");
+        assertEval("{ x <- c(1, NaN, 3); list(min(x), max(x), range(x)) }");
+        assertEval("{ x <- c(1, NA, NaN); list(min(x), max(x), min(rev(x)), max(rev(x))) }");
+    }
+
 }
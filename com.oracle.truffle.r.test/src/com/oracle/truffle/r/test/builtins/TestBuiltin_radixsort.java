@@ -64,4 +64,31 @@ public class TestBuiltin_radixsort extends TestBase {
         // at InternalNode$InternalCallWrapNode.prepareArgs(InternalNode.java:309)
         assertEval(Ignored.ImplementationError, "argv <- list(structure(integer(0), .Label = character(0), class = 'factor'), TRUE, FALSE); .Internal(radixsort(argv[[1]], argv[[2]], argv[[3]]))");
     }
+
+    @Test
+    public void testradixsortKeys() {
+        assertEvalFastR("order(c(2L, 1L, 2L, 1L), c(1, 2, 3, 4), decreasing = c(FALSE, TRUE), method = 'radix')", "c(4L, 2L, 3L, 1L)");
+        assertEvalFastR("order(c(0, -0, -Inf, Inf, -1.5), method = 'radix')", "c(3L, 5L, 1L, 2L, 4L)");
+        assertEval("order(c(3, NA, 1, NaN), method = 'radix')");
+        assertEval("order(c(3, NaN, 1, NA), method = 'radix')");
+        assertEval("order(c(3, NA, 1, NaN), na.last = FALSE, method = 'radix')");
+        assertEval("order(c(3, NaN, 1, NA), na.last = FALSE, method = 'radix')");
+        assertEval("order(c(NaN, NA, 2, NaN), decreasing = TRUE, method = 'radix')");
+        assertEval("order(c(3, NA, 1, NaN), na.last = NA, method = 'radix')");
+        assertEvalFastR("order(c(TRUE, NA, FALSE, TRUE), decreasing = TRUE, method = 'radix')", "c(1L, 4L, 3L, 2L)");
+        assertEvalFastR("order(c('b', 'A', 'a', NA), method = 'radix')", "c(2L, 3L, 1L, 4L)");
+        assertEvalFastR("order(c('b', 'A', 'a'), decreasing = TRUE, method = 'radix')", "c(1L, 3L, 2L)");
+        assertEvalFastR("order(factor(c('x', 'y', 'x'), levels = c('y', 'x')), method = 'radix')", "c(2L, 1L, 3L)");
+        assertEvalFastR("set.seed(1); x <- sample(100L, 5000, replace = TRUE); y <- runif(5000); identical(order(x, -y, method = 'radix'), order(x, y, decreasing = c(FALSE, TRUE), method = 'radix'))",
+                        "TRUE");
+        assertEvalFastR("set.seed(1); x <- rnorm(5000); identical(order(x, method = 'radix'), order(x, method = 'shell'))", "TRUE");
+    }
+
+    @Test
+    public void testradixsortGroups() {
+        assertEvalFastR("x <- .Internal(radixsort(TRUE, FALSE, TRUE, TRUE, c(3L, 1L, 3L, 2L, 1L))); attributes(x) <- NULL; x", "c(2L, 5L, 4L, 1L, 3L)");
+        assertEvalFastR("attributes(.Internal(radixsort(TRUE, FALSE, TRUE, TRUE, c(3L, 1L, 3L, 2L, 1L))))", "list(starts = c(1L, 3L, 4L), maxgrpn = 2L)");
+        assertEvalFastR("attributes(.Internal(radixsort(TRUE, c(FALSE, FALSE), TRUE, TRUE, c(1L, 1L, 2L), c('a', 'a', 'b'))))", "list(starts = c(1L, 3L), maxgrpn = 2L)");
+        assertEvalFastR("x <- .Internal(radixsort(TRUE, FALSE, TRUE, FALSE, c('b', 'a', 'b', 'c'))); attributes(x) <- NULL; x", "c(1L, 3L, 2L, 4L)");
+    }
 }
@@ -109,4 +109,18 @@ public class TestBuiltin_scan extends TestBase {
     public void testPooling() {
         assertEvalFastR("s <- scan(textConnection(paste0(rep('asdf\\n', 1000))), character(0), quiet=T); all(sapply(s, function(x) .fastr.identity(x) == .fastr.identity(s[[1]])))", "TRUE");
     }
+
+    @Test
+    public void testReadAhead() {
+        assertEvalFastR("{ con <- textConnection(c('1 2', '3 4', '5 6', 'x')); a <- scan(con, nlines=1L, quiet=TRUE); b <- scan(con, nmax=3L, quiet=TRUE); c <- readLines(con); close(con); list(a, b, c) }",
+                        "list(c(1, 2), c(3, 4, 5), 'x')");
+        assertEvalFastR("{ con <- textConnection(as.character(1:2500)); r <- scan(con, nlines=1500L, quiet=TRUE); rest <- readLines(con); close(con); c(length(r), sum(r), length(rest), as.numeric(rest[[1]])) }",
+                        "c(1500, 1125750, 1000, 1501)");
+        assertEvalFastR("{ con <- textConnection(c('a,1,2.5,TRUE', '\"b,c\",NA,,F')); r <- scan(con, what=list('', 0L, 0, NA), sep=',', quiet=TRUE); close(con); r }",
+                        "list(c('a', 'b,c'), c(1L, NA), c(2.5, NA), c(TRUE, FALSE))");
+        // the lines are numbered across the blocks read ahead
+        assertEvalFastR("{ tf <- tempfile(); con <- file(tf, 'wb'); writeBin(c(charToRaw(paste0(paste(1:1000, collapse='\\n'), '\\n10')), as.raw(0), charToRaw('01\\n1002\\n')), con); close(con); " +
+                        "w <- NULL; r <- withCallingHandlers(scan(tf, quiet=TRUE), warning=function(e) { w <<- conditionMessage(e); invokeRestart('muffleWarning') }); unlink(tf); c(w, length(r)) }",
+                        "c('line 1001 appears to contain an embedded nul', '1002')");
+    }
 }
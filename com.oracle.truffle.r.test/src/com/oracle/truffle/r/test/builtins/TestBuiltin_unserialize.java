@@ -117,6 +117,26 @@ public class TestBuiltin_unserialize extends TestBase {
         assertEvalFastR(Ignored.Unimplemented, "s <- unserialize(serialize(1:2147483648, connection=NULL, version=3)); .fastr.inspect(s)", "cat('com.oracle.truffle.r.runtime.data.RIntSequence\n')");
     }
 
+    @Test
+    public void testunserializeLargeVectors() {
+        // payloads larger than the (de)serialization buffer, with NAs at the chunk boundaries
+        String na = "x[c(1L, 8192L, 8193L, 65536L, length(x))] <- NA; ";
+        assertEvalFastR("x <- as.numeric(1:200000); " + na + "identical(unserialize(serialize(x, NULL)), x)", "TRUE");
+        assertEvalFastR("x <- 1:200000 + 0L; " + na + "identical(unserialize(serialize(x, NULL)), x)", "TRUE");
+        assertEvalFastR("x <- rep_len(c(TRUE, FALSE, FALSE), 200000); " + na + "identical(unserialize(serialize(x, NULL)), x)", "TRUE");
+        assertEvalFastR("x <- as.raw(rep_len(0:255, 200000)); identical(unserialize(serialize(x, NULL)), x)", "TRUE");
+        assertEvalFastR("x <- c(-0, Inf, -Inf, NaN, NA, 1e-310); identical(unserialize(serialize(x, NULL)), x)", "TRUE");
+    }
+
+    @Test
+    public void testunserializeCompressedConnection() {
+        // the raw payload exceeds the read buffer and is streamed from the decompressing connection
+        for (String compress : new String[]{"'gzip'", "'xz'", "'bzip2'"}) {
+            assertEvalFastR("f <- tempfile(); x <- list(as.raw(rep_len(0:255, 300000)), runif(50000)); saveRDS(x, f, compress=" + compress +
+                            "); r <- identical(readRDS(f), x); unlink(f); r", "TRUE");
+        }
+    }
+
     @Test
     public void testunserializeDeferredString() {
         assertEval("e <- unserialize(file('" + DEFERED_STRING_PATH + "', open='rb')); e$is; e$iv; e$rs; e$rv; e$isa; e$iva; e$rsa; e$rva");
@@ -219,6 +219,24 @@ public class TestConnections extends TestRBase {
         assertEval(template("readLines(textConnection(\"foo%0%1\"))", endings, text));
     }
 
+    @Test
+    public void testReadLinesAcrossCacheBlocks() {
+        assertEvalFastR("{ f <- tempfile(); x <- c(strrep('a', 20000L), 'b', '', '\\u00fc'); writeLines(x, f, sep='\\r\\n'); con <- file(f, encoding='UTF-8'); res <- readLines(con); close(con); unlink(f); c(nchar(res), identical(res, x)) }",
+                        "c(20000, 1, 0, 1, 1)");
+        assertEvalFastR("{ f <- tempfile(); writeBin(c(charToRaw(strrep('x', 16383L)), as.raw(c(13, 10, 65, 13))), f); con <- file(f, 'r'); a <- readLines(con, 1L); b <- readLines(con); close(con); unlink(f); c(nchar(a), b) }",
+                        "c('16383', 'A')");
+    }
+
+    @Test
+    public void testTextConnectionManyWrites() {
+        assertEvalFastR("{ zz <- textConnection('foo', 'w'); for (i in 1:1000) cat(i, if (i %% 3 == 0) '\\n' else ' ', file=zz, sep=''); n <- length(foo); cat('x', file=zz); " +
+                        "close(zz); c(n, length(foo), foo[[1]], foo[[length(foo)]], bindingIsActive('foo', environment())) }", "c('333', '334', '1 2 3', '1000 x', 'FALSE')");
+        assertEval("{ x <- capture.output(for (i in 1:2000) print(i)); identical(x, paste('[1]', 1:2000)) }");
+        assertEval("{ zz <- textConnection(NULL, 'w'); writeLines(c('a', 'b'), zz); cat('c', file=zz); v1 <- textConnectionValue(zz); cat('\\n', file=zz); v2 <- textConnectionValue(zz); close(zz); list(v1, v2) }");
+        assertEval("{ zz <- textConnection('foo', 'w'); writeLines(c('a', 'b'), zz); cat('c', file=zz); r <- list(foo, textConnectionValue(zz), bindingIsActive('foo', environment())); close(zz); list(r, foo) }");
+        assertEval("{ zz <- textConnection('foo', 'w'); writeLines('a', zz); a <- foo; writeLines('b', zz); b <- foo; r <- tryCatch(foo <- 1, error=function(e) 'locked'); close(zz); foo <- c(foo, 'c'); list(a, b, r, foo) }");
+    }
+
     @Test
     public void testRawReadAppendText() {
 
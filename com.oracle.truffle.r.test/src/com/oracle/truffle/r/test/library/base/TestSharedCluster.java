@@ -22,9 +22,16 @@
  */
 package com.oracle.truffle.r.test.library.base;
 
+import static org.junit.Assert.assertTrue;
+
 import org.junit.Test;
 
+import com.oracle.truffle.r.runtime.context.FastROptions;
+import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.context.RContext.ContextKind;
 import com.oracle.truffle.r.test.TestBase;
+import com.oracle.truffle.r.test.generate.FastRContext;
+import com.oracle.truffle.r.test.generate.FastRSession;
 
 // Checkstyle: stop line length check
 public class TestSharedCluster extends TestBase {
@@ -41,4 +48,67 @@ public class TestSharedCluster extends TestBase {
                         "library(parallel); fun <- function(data) { cl <- makeCluster(%0, ifelse(exists('engine', where=R.version),'SHARED','PSOCK')); parLapply(cl, data, function(x) x+1); stopCluster(cl) }; fun(1:100)",
                         "123456789".split("")));
     }
+
+    @Test
+    public void testPooledSharedCluster() {
+        assertEvalFastR("{ cl <- parallel::makeCluster(2, 'SHARED', pooled=TRUE); a <- parallel::parLapply(cl, 1:4, function(x) x + 1); parallel::stopCluster(cl); " +
+                        "cl2 <- parallel::makeCluster(2, 'SHARED', pooled=TRUE); b <- parallel::parLapply(cl2, 1:2, function(x) x * 10); " +
+                        "same <- identical(sapply(cl, function(n) n$context), sapply(cl2, function(n) n$context)); parallel::stopCluster(cl2); parallel:::stopSHAREDpool(); " +
+                        "c(unlist(a), unlist(b), same) }", "c(2, 3, 4, 5, 10, 20, 1)");
+        // a remote error leaves the pooled nodes usable
+        assertEvalFastR("{ cl <- parallel::makeCluster(2, 'SHARED', pooled=TRUE); e <- tryCatch(parallel::parLapply(cl, 1:2, function(x) stop('boom')), error=function(e) 'error'); " +
+                        "r <- parallel::parLapply(cl, 1:2, function(x) x); parallel::stopCluster(cl); parallel:::stopSHAREDpool(); c(e, unlist(r)) }", "c('error', '1', '2')");
+        // a cluster that is not pooled leaves the idle pool alone
+        assertEvalFastR("{ cl <- parallel::makeCluster(1, 'SHARED', pooled=TRUE); parallel::stopCluster(cl); n1 <- length(parallel:::SHAREDpool$nodes); " +
+                        "cl2 <- parallel::makeCluster(1, 'SHARED'); r <- parallel::clusterCall(cl2, function() 42); parallel::stopCluster(cl2); n2 <- length(parallel:::SHAREDpool$nodes); " +
+                        "parallel:::stopSHAREDpool(); c(n1, n2, r[[1]]) }", "c(1, 1, 42)");
+        // pooled nodes started with another outfile are respawned
+        assertEvalFastR("{ tf <- tempfile(); cl <- parallel::makeCluster(1, 'SHARED', pooled=TRUE); ctx1 <- cl[[1]]$context; parallel::stopCluster(cl); " +
+                        "cl2 <- parallel::makeCluster(1, 'SHARED', pooled=TRUE, outfile=tf); ctx2 <- cl2[[1]]$context; parallel::clusterCall(cl2, function() cat('hello\\n')); parallel::stopCluster(cl2); " +
+                        "parallel:::stopSHAREDpool(); out <- readLines(tf); unlink(tf); c(identical(ctx1, ctx2), 'hello' %in% out) }", "c(FALSE, TRUE)");
+    }
+
+    @Test
+    public void testChannelSelect() {
+        // select returns NULL when nothing arrives within the timeout
+        assertEvalFastR("{ ch <- .fastr.channel.create(1L); r <- .fastr.channel.select(list(ch), 0.1); .fastr.channel.close(ch); is.null(r) }", "TRUE");
+        // a waiting select is woken up by the sender
+        assertEvalFastR("{ ch <- .fastr.channel.create(2L); .fastr.channel.stats(reset=TRUE); " +
+                        "h <- .fastr.context.spawn('ch <- .fastr.channel.get(2L); Sys.sleep(0.2); .fastr.channel.send(ch, 42)'); " +
+                        "r <- .fastr.channel.select(list(ch), 10); .fastr.context.join(h); s <- .fastr.channel.stats(); .fastr.channel.close(ch); " +
+                        "c(r[[1]] == ch, r[[2]], s$selects, s$selectsWaiting, s$selectWaitTime > 0) }", "c(1, 42, 1, 1, 1)");
+        // the statistics are kept per context, the time a worker waits for its task is not counted
+        // in the primary
+        assertEvalFastR("{ ch <- .fastr.channel.create(3L); .fastr.channel.stats(reset=TRUE); " +
+                        "h <- .fastr.context.spawn('ch <- .fastr.channel.get(3L); x <- .fastr.channel.receive(ch); .fastr.channel.send(ch, .fastr.channel.stats()$receives)'); " +
+                        "Sys.sleep(0.2); .fastr.channel.send(ch, 1); r <- .fastr.channel.receive(ch); .fastr.context.join(h); s <- .fastr.channel.stats(reset=TRUE); s2 <- .fastr.channel.stats(); .fastr.channel.close(ch); " +
+                        "c(r, s$receives, s2$receives, s2$receiveWaitTime) }", "c(1, 1, 0, 0)");
+    }
+
+    @Test
+    public void testChannelCapacity() {
+        try (FastRContext context = FastRSession.create().getContext(ContextKind.SHARE_NOTHING, false)) {
+            FastRSession.execInContext(context, () -> {
+                RContext.getInstance().setOption(FastROptions.ChannelCapacity, 3);
+                return null;
+            });
+            // the sends do not block before the receiver exists and the messages arrive in order
+            boolean result = context.eval("R", "{ ch <- .fastr.channel.create(4L); for (i in 1:3) .fastr.channel.send(ch, i * 10); " +
+                            "h <- .fastr.context.spawn('ch <- .fastr.channel.get(4L); r <- c(.fastr.channel.receive(ch), .fastr.channel.receive(ch), .fastr.channel.receive(ch)); .fastr.channel.send(ch, r)'); " +
+                            "r <- .fastr.channel.receive(ch); .fastr.context.join(h); .fastr.channel.close(ch); identical(r, c(10, 20, 30)) }").asBoolean();
+            assertTrue(result);
+        }
+    }
+
+    @Test
+    public void testChannelSendByReference() {
+        // the receiver modifies a vector sent by reference, the sender's vector stays unchanged
+        assertEvalFastR("{ ch <- .fastr.channel.create(5L); x <- c(1, 2, 3); .fastr.channel.send(ch, x); " +
+                        "h <- .fastr.context.spawn('ch <- .fastr.channel.get(5L); y <- .fastr.channel.receive(ch); y[[1]] <- 100; .fastr.channel.send(ch, y)'); " +
+                        "y <- .fastr.channel.receive(ch); .fastr.context.join(h); .fastr.channel.close(ch); c(x, y) }", "c(1, 2, 3, 100, 2, 3)");
+        // the sender modifies the vector after sending it, the receiver gets the sent values
+        assertEvalFastR("{ ch <- .fastr.channel.create(6L); x <- c(1L, 2L, 3L); .fastr.channel.send(ch, x); x[[1]] <- -1L; " +
+                        "h <- .fastr.context.spawn('ch <- .fastr.channel.get(6L); y <- .fastr.channel.receive(ch); .fastr.channel.send(ch, y)'); " +
+                        "y <- .fastr.channel.receive(ch); .fastr.context.join(h); .fastr.channel.close(ch); c(x, y) }", "c(-1L, 2L, 3L, 1L, 2L, 3L)");
+    }
 }
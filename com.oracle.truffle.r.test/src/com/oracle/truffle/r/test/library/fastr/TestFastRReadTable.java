@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2022, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.fastr;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.test.TestBase;
+
+public class TestFastRReadTable extends TestBase {
+
+    @Test
+    public void testTypes() {
+        assertEvalFastR("{ f <- tempfile(); writeLines(c('a,b,c,d', '1,2.5,x,TRUE', '2,,\\"y,z\\",F', 'NA,3,,NA'), f); r <- .fastr.read.table(f, threads=2L); unlink(f); r }",
+                        "data.frame(a=c(1L, 2L, NA), b=c(2.5, NA, 3), c=c('x', 'y,z', ''), d=c(TRUE, FALSE, NA), stringsAsFactors=FALSE)");
+        // the values are classified as by type.convert
+        assertEvalFastR("{ f <- tempfile(); writeLines(c('a,b,c', '+5, 1,\\"x\\"\\"y\\"', '-012,0x10,\\"p\\"q'), f); r <- .fastr.read.table(f); unlink(f); " +
+                        "list(r$a, r$b, r$c, identical(r$a, type.convert(c('+5', '-012'), as.is=TRUE)), identical(r$b, type.convert(c(' 1', '0x10'), as.is=TRUE))) }",
+                        "list(c(5L, -12L), c(1, 16), c('x\\"y', 'pq'), TRUE, TRUE)");
+        assertEvalFastR("{ f <- tempfile(); x <- c(0.1, 1/3, 1e-300, 123456.789, -0.5, 2^60); writeLines(c('a,b', paste0(as.character(x), ',', sprintf('%.17g', x))), f); r <- .fastr.read.table(f); unlink(f); " +
+                        "c(identical(r$a, as.numeric(as.character(x))), identical(r$b, x)) }",
+                        "c(TRUE, TRUE)");
+        assertEvalFastR("{ f <- tempfile(); writeLines(c('a;b', '1,5;2', '-0,25;3'), f); r <- .fastr.read.table(f, sep=';', dec=','); unlink(f); list(r$a, r$b) }",
+                        "list(c(1.5, -0.25), c(2L, 3L))");
+    }
+
+    @Test
+    public void testChunks() {
+        assertEvalFastR("{ f <- tempfile(); x <- 1:200000; writeLines(c('x,y', paste0(x, ',', ifelse(x == 150000L, '0.5', x))), f); r <- .fastr.read.table(f, threads=4L); unlink(f); c(class(r$x), class(r$y), sum(r$y) == 19999950000.5) }",
+                        "c('integer', 'numeric', 'TRUE')");
+    }
+
+    @Test
+    public void testEncoding() {
+        assertEvalFastR("{ f <- tempfile(); writeBin(c(charToRaw('x\\n'), as.raw(0xe9), charToRaw('\\n')), f); r <- .fastr.read.table(f, fileEncoding='latin1'); unlink(f); r$x }",
+                        "'\\u00e9'");
+        assertEvalFastR("{ f <- tempfile(); writeLines(c('x', '1'), f); r <- tryCatch(.fastr.read.table(f, fileEncoding='UTF-16'), error=function(e) 'error'); unlink(f); r }",
+                        "'error'");
+    }
+}
@@ -46,6 +46,27 @@ public class TestBuiltin_mclapply extends TestBase {
         assertEval(Ignored.ImplementationError, "f <- function() { res <- parallel:::mclapply(1:3, function(i) i)}; f() ; f()");
     }
 
+    @Test
+    public void testMCLapplyPool() {
+        // the worker contexts are reused by the next call
+        assertEvalFastR("{ r1 <- parallel::mclapply(1:2, function(i) i, mc.cores=2L); ids1 <- sapply(parallel:::SHAREDpool$nodes, function(n) n$context); " +
+                        "r2 <- parallel::mclapply(3:4, function(i) i, mc.cores=2L); ids2 <- sapply(parallel:::SHAREDpool$nodes, function(n) n$context); " +
+                        "c(unlist(r1), unlist(r2), identical(ids1, ids2), length(ids1)) }", "c(1, 2, 3, 4, 1, 2)");
+        // only the globals used by FUN are copied, the others are removed from the workers
+        assertEvalFastR("{ x <- 10; f <- function(i) i + x; r1 <- parallel::mclapply(1:2, function(i) f(i), mc.cores=2L); rm(x, f); y <- 1; " +
+                        "r2 <- parallel::mclapply(1:2, function(i) c(exists('x'), exists('y')), mc.cores=2L); list(unlist(r1), r2) }",
+                        "list(c(11, 12), list(c(FALSE, FALSE), c(FALSE, FALSE)))");
+        // an error in FUN does not discard the pool
+        assertEvalFastR("{ parallel::mclapply(1:2, function(i) i, mc.cores=2L); ids1 <- sapply(parallel:::SHAREDpool$nodes, function(n) n$context); " +
+                        "suppressWarnings(parallel::mclapply(1:2, function(i) if (i == 2L) stop('boom') else i, mc.cores=2L)); " +
+                        "ids2 <- sapply(parallel:::SHAREDpool$nodes, function(n) n$context); r <- parallel::mclapply(1:2, function(i) -i, mc.cores=2L); " +
+                        "c(identical(ids1, ids2), parallel:::SHAREDpool$busy, unlist(r)) }", "c(1, 0, -1, -2)");
+        // the pool is shut down explicitly or with the context that created it
+        assertEvalFastR("{ parallel::mclapply(1:2, function(i) i, mc.cores=2L); parallel:::stopSHAREDpool(); n <- length(parallel:::SHAREDpool$nodes); " +
+                        "r <- parallel::mclapply(1:2, function(i) i * 2, mc.cores=2L); c(n, unlist(r)) }", "c(0, 2, 4)");
+        assertEvalFastR("{ .fastr.context.eval('invisible(parallel::mclapply(1:2, function(i) i, mc.cores=2L))'); 42 }", "42");
+    }
+
     @Test
     public void testMCLapplyNested() {
         // race-conditions, easilly reproducible with LLVM
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2022, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.utils;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.test.TestBase;
+
+public class TestRprof extends TestBase {
+
+    /**
+     * Keeps the innermost of the profiled functions on the stack for {@code s} seconds.
+     */
+    private static final String FUNCTIONS = "busy <- function(s) { t <- proc.time()[[3]]; while (proc.time()[[3]] - t < s) NULL }; " +
+                    "inner <- function() busy(0.3); middle <- function() inner(); outer <- function() middle(); other <- function() busy(0.3); ";
+
+    /**
+     * Tells if every non-empty stack line consists of quoted function names.
+     */
+    private static final String STACKS_PARSE = "all(grepl('^(\"[^\"]+\" )+$', Filter(nzchar, l[-1])))";
+
+    @Test
+    public void testCallChain() {
+        assertEval(FUNCTIONS + "tf <- tempfile(); Rprof(tf, interval=0.001); invisible(outer()); Rprof(NULL); l <- readLines(tf); unlink(tf); " +
+                        "c(l[[1]], " + STACKS_PARSE + ", any(grepl('\"busy\" \"inner\" \"middle\" \"outer\"', l, fixed=TRUE)))");
+    }
+
+    @Test
+    public void testRestart() {
+        // starting a new profile ends the previous one
+        assertEval(FUNCTIONS + "tf1 <- tempfile(); tf2 <- tempfile(); Rprof(tf1, interval=0.001); invisible(outer()); Rprof(tf2, interval=0.001); invisible(other()); Rprof(NULL); " +
+                        "l1 <- readLines(tf1); l2 <- readLines(tf2); unlink(c(tf1, tf2)); " +
+                        "c(any(grepl('\"outer\"', l1)), any(grepl('\"other\"', l1)), any(grepl('\"outer\"', l2)), any(grepl('\"other\"', l2)))");
+        // a stopped profile can be appended to
+        assertEval(FUNCTIONS + "tf <- tempfile(); Rprof(tf, interval=0.001); invisible(outer()); Rprof(NULL); invisible(other()); Rprof(tf, append=TRUE, interval=0.001); invisible(other()); Rprof(NULL); " +
+                        "l <- readLines(tf); unlink(tf); headers <- grepl('^sample.interval=', l); " +
+                        "c(sum(headers), which(headers)[[2]] > max(grep('\"outer\"', l)), sum(grepl('\"other\"', l[seq_len(which(headers)[[2]])])))");
+        assertEval("Rprof(NULL); Rprof(NULL)");
+    }
+
+    @Test
+    public void testStopWithPendingSamples() {
+        // the samples not yet written when the profiling ends are written in the order they were
+        // taken
+        assertEval(FUNCTIONS + "tf <- tempfile(); Rprof(tf, interval=0.001); invisible(outer()); invisible(other()); Rprof(NULL); l <- readLines(tf); unlink(tf); " +
+                        "c(" + STACKS_PARSE + ", max(grep('\"outer\"', l)) < min(grep('\"other\"', l)))");
+    }
+}
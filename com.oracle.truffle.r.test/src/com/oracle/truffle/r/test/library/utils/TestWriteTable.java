@@ -38,4 +38,17 @@ public class TestWriteTable extends TestBase {
     public void testTable() {
         assertEval("write.table(data.frame(col=c(1,2,3,4), col2=c(T, F, T, F)))");
     }
+
+    @Test
+    public void testLargeTable() {
+        // spans many blocks of rows formatted in parallel, the integral doubles cross the switch to scientific notation
+        assertEvalFastR("{ n <- 20000; df <- data.frame(i=c(1:(n-1), NA), d=c(seq(-99999, by=100, length.out=n-1), 0.25), s=c(rep(c('a', 'b\"c'), length.out=n-1), NA), " +
+                        "f=factor(rep(c('x', 'y'), length.out=n)), l=rep(c(TRUE, NA), length.out=n)); " +
+                        "tc <- textConnection('out', 'w'); write.csv(df, tc, row.names=FALSE); close(tc); " +
+                        "q <- function(x) ifelse(is.na(x), 'NA', paste0('\"', gsub('\"', '\"\"', x), '\"')); " +
+                        "expected <- c('\"i\",\"d\",\"s\",\"f\",\"l\"', paste(ifelse(is.na(df$i), 'NA', df$i), as.character(df$d), q(df$s), q(df$f), ifelse(is.na(df$l), 'NA', df$l), sep=',')); " +
+                        "identical(out, expected) }", "TRUE");
+        assertEvalFastR("{ m <- matrix(c(1:2500, 0.5 * 1:2500), ncol=2); tc <- textConnection('out', 'w'); write.table(m, tc, col.names=FALSE); close(tc); " +
+                        "identical(out, paste0('\"', 1:2500, '\" ', 1:2500, ' ', 0.5 * 1:2500)) }", "TRUE");
+    }
 }
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2022, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 3 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 3 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.runtime.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.runtime.data.NativeHandleTable;
+
+public class NativeHandleTableTests {
+
+    private static final class TestHandle implements NativeHandleTable.Handle {
+        private final long id;
+
+        private TestHandle(long id) {
+            this.id = id;
+        }
+
+        @Override
+        public long getId() {
+            return id;
+        }
+    }
+
+    /**
+     * Handles are given out as consecutive odd numbers.
+     */
+    private static long handle(int i) {
+        return 2L * i + 1;
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        NativeHandleTable<TestHandle> table = new NativeHandleTable<>(16);
+        TestHandle a = new TestHandle(handle(1));
+        TestHandle b = new TestHandle(handle(2));
+        table.put(a);
+        table.put(b);
+        assertEquals(2, table.size());
+        assertSame(a, table.get(handle(1)));
+        assertSame(b, table.get(handle(2)));
+        assertNull(table.get(handle(3)));
+
+        table.remove(a);
+        assertEquals(1, table.size());
+        assertNull(table.get(handle(1)));
+        assertSame(b, table.get(handle(2)));
+
+        // removing twice, or removing a handle that is not in the table, does nothing
+        table.remove(a);
+        table.remove(new TestHandle(handle(3)));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    public void testReplace() {
+        NativeHandleTable<TestHandle> table = new NativeHandleTable<>(16);
+        TestHandle a = new TestHandle(handle(1));
+        TestHandle a2 = new TestHandle(handle(1));
+        table.put(a);
+        table.put(a2);
+        assertEquals(1, table.size());
+        assertSame(a2, table.get(handle(1)));
+
+        // the replaced object no longer owns the handle
+        table.remove(a);
+        assertSame(a2, table.get(handle(1)));
+        table.remove(a2);
+        assertNull(table.get(handle(1)));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    public void testTombstones() {
+        NativeHandleTable<TestHandle> table = new NativeHandleTable<>(1024);
+        int n = 1000;
+        TestHandle[] handles = new TestHandle[n];
+        for (int i = 0; i < n; i++) {
+            handles[i] = new TestHandle(handle(i));
+            table.put(handles[i]);
+        }
+        int capacity = table.capacity();
+
+        // the remaining handles are found past the tombstones of the removed ones
+        for (int i = 0; i < n; i += 2) {
+            table.remove(handles[i]);
+        }
+        assertEquals(n / 2, table.size());
+        for (int i = 0; i < n; i++) {
+            if (i % 2 == 0) {
+                assertNull(table.get(handle(i)));
+            } else {
+                assertSame(handles[i], table.get(handle(i)));
+            }
+        }
+
+        // re-adding the removed handles reuses their tombstones, a segment that was exactly half
+        // full is resized once at most
+        for (int i = 0; i < n; i += 2) {
+            handles[i] = new TestHandle(handle(i));
+            table.put(handles[i]);
+        }
+        assertEquals(n, table.size());
+        assertTrue("table grew to " + table.capacity(), table.capacity() <= 2 * capacity);
+        for (int i = 0; i < n; i++) {
+            assertSame(handles[i], table.get(handle(i)));
+        }
+
+        // a steady number of handles with changing ids does not grow the table either
+        for (int round = 1; round <= 100; round++) {
+            for (int i = 0; i < n; i++) {
+                table.remove(handles[i]);
+                handles[i] = new TestHandle(handle(round * n + i));
+                table.put(handles[i]);
+            }
+        }
+        assertEquals(n, table.size());
+        assertTrue("table grew to " + table.capacity(), table.capacity() <= 4 * capacity);
+        for (int i = 0; i < n; i++) {
+            assertSame(handles[i], table.get(handles[i].getId()));
+        }
+    }
+
+    @Test
+    public void testGrowth() {
+        // starts with the minimal segments, which are resized many times
+        NativeHandleTable<TestHandle> table = new NativeHandleTable<>(0);
+        int initialCapacity = table.capacity();
+        int n = 100000;
+        TestHandle[] handles = new TestHandle[n];
+        for (int i = 0; i < n; i++) {
+            handles[i] = new TestHandle(handle(i));
+            table.put(handles[i]);
+            // a handle added before the resizes of its segment is still found
+            int check = i / 2;
+            assertSame(handles[check], table.get(handle(check)));
+        }
+        assertEquals(n, table.size());
+        assertTrue(table.capacity() >= 2 * n);
+        assertTrue(table.capacity() > initialCapacity);
+        for (int i = 0; i < n; i++) {
+            assertSame(handles[i], table.get(handle(i)));
+        }
+        // handles far apart, which are not spread by their low bits
+        long[] ids = {Long.MAX_VALUE, Long.MIN_VALUE + 1, 1L << 40, (1L << 40) + 2, -1L};
+        for (long id : ids) {
+            table.put(new TestHandle(id));
+        }
+        for (long id : ids) {
+            assertEquals(id, table.get(id).getId());
+        }
+        assertEquals(n + ids.length, table.size());
+    }
+
+    @Test
+    public void testConcurrentPutAndGet() throws InterruptedException {
+        NativeHandleTable<TestHandle> table = new NativeHandleTable<>(0);
+        int threadCount = 8;
+        int perThread = 20000;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        ArrayList<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            int first = t * perThread;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    TestHandle[] own = new TestHandle[perThread];
+                    for (int i = 0; i < perThread; i++) {
+                        own[i] = new TestHandle(handle(first + i));
+                        table.put(own[i]);
+                        // the own handles must be visible despite the concurrent resizes of the
+                        // segments by the other threads
+                        assertSame(own[i], table.get(handle(first + i)));
+                        if ((i / 2) % 3 != 0) {
+                            assertSame(own[i / 2], table.get(handle(first + i / 2)));
+                        }
+                        if (i % 3 == 0) {
+                            table.remove(own[i]);
+                            assertNull(table.get(handle(first + i)));
+                        }
+                    }
+                    for (int i = 0; i < perThread; i++) {
+                        if (i % 3 == 0) {
+                            assertNull(table.get(handle(first + i)));
+                        } else {
+                            assertSame(own[i], table.get(handle(first + i)));
+                        }
+                    }
+                } catch (Throwable ex) {
+                    failure.compareAndSet(null, ex);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        int removed = (perThread + 2) / 3;
+        assertEquals(threadCount * (perThread - removed), table.size());
+    }
+}
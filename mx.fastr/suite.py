@@ -451,6 +451,20 @@ suite = {
       "workingSets" : "FastR,Test",
       "spotbugsIgnoresGenerated" : True,
     },
+
+    "com.oracle.truffle.r.benchmarks" : {
+      "sourceDirs" : ["src"],
+      "dependencies" : [
+        "com.oracle.truffle.r.runtime",
+        "sdk:GRAAL_SDK",
+        "mx:JMH_1_21",
+      ],
+      "annotationProcessors" : ["mx:JMH_1_21"],
+      "checkstyle" : "com.oracle.truffle.r.runtime",
+      "javaCompliance" : "11+",
+      "workingSets" : "FastR,Test",
+      "spotbugsIgnoresGenerated" : True,
+    },
   },
 
   "distributions" : {
@@ -537,6 +551,21 @@ suite = {
       "maven" : False
     },
 
+    "FASTR_BENCHMARKS" : {
+      "description" : "JMH micro benchmarks of FastR runtime components",
+      "dependencies" : [
+        "com.oracle.truffle.r.benchmarks"
+      ],
+      "exclude" : [
+        "mx:JMH_1_21",
+      ],
+      "distDependencies" : [
+        "FASTR",
+        "sdk:GRAAL_SDK",
+      ],
+      "maven" : False
+    },
+
     # see mx_fastr_dists.mx_register_dynamic_suite_constituents for the definitions of some RFFI-dependent distributions
   },
 }